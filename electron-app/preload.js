@@ -39,13 +39,51 @@ contextBridge.exposeInMainWorld("electronAPI", {
    *
    * 扫描指定路径的Java项目，返回项目结构信息。
    * @param {string} projectPath - 项目根路径
+   * @param {string} [fileEnumeration] - 文件枚举方式：FILE_SYSTEM（默认）或GIT_INDEX（只扫描Git跟踪的文件）
    * @returns {Promise<object>} 项目结构信息
    */
-  scanProject: async (projectPath) => {
+  scanProject: async (projectPath, fileEnumeration) => {
     return await ipcRenderer.invoke("api-call", {
       method: "POST",
       endpoint: "/api/project/scan",
-      data: { projectPath },
+      data: { projectPath, fileEnumeration },
+    });
+  },
+
+  /**
+   * 获取目录树子节点
+   *
+   * 扫描结果只包含目录树的前几层，展开节点时通过此接口按需获取子节点。
+   * @param {string} projectPath - 项目根路径
+   * @param {string} path - 节点路径（相对于项目根目录）
+   * @param {number} depth - 返回的层数
+   * @param {number} offset - 子节点起始位置
+   * @param {number} limit - 子节点最大数量
+   * @returns {Promise<object>} 子树分页结果，包含node、totalChildren、hasMore等字段
+   */
+  getProjectTree: async (projectPath, path, depth = 1, offset = 0, limit = 500) => {
+    return await ipcRenderer.invoke("api-call", {
+      method: "GET",
+      endpoint: `/api/project/tree?projectPath=${encodeURIComponent(
+        projectPath
+      )}&path=${encodeURIComponent(path)}&depth=${depth}&offset=${offset}&limit=${limit}`,
+    });
+  },
+
+  /**
+   * 开启或关闭项目监听模式
+   *
+   * 开启后后端监听源码和测试目录的文件变化并实时更新项目结构，再次扫描和分析无需重新遍历磁盘。
+   * @param {string} projectPath - 项目根路径
+   * @param {boolean} enabled - 是否开启
+   * @param {object} [options] - 扫描方式，字段与分析请求相同：fileEnumeration、includePatterns、excludePatterns、respectGitignore
+   * @returns {Promise<object>} 监听状态，包含projectPath和watching字段
+   */
+  watchProject: async (projectPath, enabled, options = {}) => {
+    return await ipcRenderer.invoke("api-call", {
+      method: "POST",
+      endpoint: "/api/project/watch",
+      data: { projectPath, enabled, ...options },
     });
   },
 
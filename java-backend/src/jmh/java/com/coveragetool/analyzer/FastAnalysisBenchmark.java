@@ -0,0 +1,126 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.scanner.PathFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 业务类分析的性能对比：完整解析（JavaParser语法树）与快速分析（词法分析器）
+ *
+ * 两种模式分析同一个合成项目的全部业务类，使用单个解析线程，比较的是单线程吞吐量；
+ * 文件内容在预热后由源文件缓存提供，不计磁盘读取。加上-prof gc可以看到每次操作分配的字节数。
+ * 运行方式：
+ * mvn -Pbenchmark package
+ * java -cp target/java-coverage-backend-1.0.0.jar org.openjdk.jmh.Main FastAnalysisBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class FastAnalysisBenchmark {
+
+    /**
+     * 分析模式
+     */
+    @Param({"FULL", "FAST"})
+    public AnalysisMode mode;
+
+    /**
+     * 业务类数量
+     */
+    @Param({"200"})
+    public int classCount;
+
+    private Path projectDir;
+    private CodeAnalyzer codeAnalyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("fast-analysis-benchmark");
+        Path sourceDir = Files.createDirectories(projectDir.resolve("src/main/java/com/example"));
+        for (int i = 0; i < classCount; i++) {
+            Files.write(sourceDir.resolve("Service" + i + ".java"),
+                        businessSource(i).getBytes(StandardCharsets.UTF_8));
+        }
+        codeAnalyzer = new CodeAnalyzer(new SourceParser(1), new SourceFileCache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int analyze() {
+        List<BusinessClass> businessClasses = codeAnalyzer.analyzeBusinessClasses(
+            Collections.singletonList("src/main/java"), projectDir.toString(), null, PathFilter.NONE, mode);
+        int methods = 0;
+        for (BusinessClass businessClass : businessClasses) {
+            methods += businessClass.getMethods().size();
+        }
+        return methods;
+    }
+
+    private static String businessSource(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.example;\n\n");
+        source.append("import java.util.ArrayList;\nimport java.util.List;\nimport java.util.Map;\n\n");
+        source.append("/**\n * 第").append(index).append("个服务\n */\n");
+        source.append("public class Service").append(index).append(" {\n");
+        source.append("    private final List<String> items = new ArrayList<>();\n\n");
+        for (int m = 0; m < 10; m++) {
+            source.append("    /**\n     * 处理第").append(m).append("类请求\n     */\n");
+            source.append("    @Deprecated\n");
+            source.append("    public Map<String, List<Integer>> handle").append(m)
+                  .append("(int value, String name, List<? extends Number> limits) throws Exception {\n");
+            source.append("        // 按请求值分支处理\n");
+            source.append("        if (value > ").append(m).append(" && !limits.isEmpty()) {\n");
+            source.append("            items.add(name);\n");
+            source.append("        }\n");
+            source.append("        for (int i = 0; i < value; i++) {\n");
+            source.append("            switch (i % 3) {\n");
+            source.append("                case 0: items.add(name + i); break;\n");
+            source.append("                case 1: items.remove(name); break;\n");
+            source.append("                default: break;\n");
+            source.append("            }\n");
+            source.append("        }\n");
+            source.append("        try {\n");
+            source.append("            return items.size() > 10 ? null : new java.util.HashMap<>();\n");
+            source.append("        } catch (IllegalStateException e) {\n");
+            source.append("            throw new Exception(e);\n");
+            source.append("        }\n");
+            source.append("    }\n\n");
+            source.append("    private void log").append(m).append("(String message) {\n");
+            source.append("        System.out.println(message);\n");
+            source.append("    }\n\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.TestClass;
+import com.coveragetool.scanner.PathFilter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 普通解析与精简解析的堆内存对比：分析同一个合成项目的全部业务类和测试类
+ *
+ * 每次操作前执行一次GC并重置各堆内存池的峰值，操作结束后报告：
+ * peakHeapMB为各堆内存池峰值之和（各池的峰值不一定同时出现，是堆内存峰值的上限），
+ * retainedHeapMB为仍持有分析结果时GC后的已用堆内存，即分析结束后留下的内存。
+ * 源文件缓存使用默认大小，与服务中的配置一致。
+ * 运行方式：
+ * mvn -Pbenchmark package
+ * java -cp target/java-coverage-backend-1.0.0.jar org.openjdk.jmh.Main LeanParsingBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-XX:+UseSerialGC"})
+public class LeanParsingBenchmark {
+
+    /**
+     * 是否精简解析
+     */
+    @Param({"false", "true"})
+    public boolean lean;
+
+    /**
+     * 业务类数量，每个业务类有一个对应的测试类
+     */
+    @Param({"1000"})
+    public int classCount;
+
+    private Path projectDir;
+    private CodeAnalyzer codeAnalyzer;
+    private List<BusinessClass> businessClasses;
+    private List<TestClass> testClasses;
+
+    /**
+     * 每次操作的堆内存读数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public double peakHeapMB;
+        public double retainedHeapMB;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakHeapMB = 0;
+            retainedHeapMB = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("lean-parsing-benchmark");
+        Path sourceDir = Files.createDirectories(projectDir.resolve("src/main/java/com/example"));
+        Path testDir = Files.createDirectories(projectDir.resolve("src/test/java/com/example"));
+        for (int i = 0; i < classCount; i++) {
+            Files.write(sourceDir.resolve("Service" + i + ".java"),
+                        businessSource(i).getBytes(StandardCharsets.UTF_8));
+            Files.write(testDir.resolve("Service" + i + "Test.java"),
+                        testSource(i).getBytes(StandardCharsets.UTF_8));
+        }
+        codeAnalyzer = new CodeAnalyzer(new SourceParser(4, lean), new SourceFileCache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeak() {
+        businessClasses = null;
+        testClasses = null;
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @Benchmark
+    public int analyze(HeapCounters counters) {
+        String projectPath = projectDir.toString();
+        businessClasses = codeAnalyzer.analyzeBusinessClasses(Collections.singletonList("src/main/java"),
+            projectPath, null, PathFilter.NONE, AnalysisMode.FULL);
+        testClasses = codeAnalyzer.analyzeTestClasses(Collections.singletonList("src/test/java"),
+            projectPath, null, PathFilter.NONE);
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        counters.peakHeapMB += peak / 1048576.0;
+        counters.retainedHeapMB += (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0;
+        return businessClasses.size() + testClasses.size();
+    }
+
+    private static String businessSource(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.example;\n\n");
+        source.append("import java.util.ArrayList;\nimport java.util.List;\n\n");
+        source.append("/**\n * 第").append(index).append("个服务\n */\n");
+        source.append("public class Service").append(index).append(" {\n");
+        source.append("    private final List<String> items = new ArrayList<>();\n\n");
+        for (int m = 0; m < 10; m++) {
+            source.append("    /**\n     * 处理第").append(m).append("类请求\n");
+            source.append("     *\n     * @param value 请求值\n     * @return 处理结果\n     */\n");
+            source.append("    public int handle").append(m).append("(int value, String name) {\n");
+            source.append("        // 按请求值分支处理\n");
+            source.append("        if (value > ").append(m).append(") {\n");
+            source.append("            items.add(name);\n");
+            source.append("            return value * ").append(m + 1).append(";\n");
+            source.append("        }\n");
+            source.append("        for (int i = 0; i < value; i++) {\n");
+            source.append("            items.add(name + i); /* 逐个记录 */\n");
+            source.append("        }\n");
+            source.append("        return items.size() > 10 ? -1 : items.size();\n");
+            source.append("    }\n\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static String testSource(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.example;\n\n");
+        source.append("import org.junit.Test;\n");
+        source.append("import static org.junit.Assert.assertEquals;\n\n");
+        source.append("public class Service").append(index).append("Test {\n\n");
+        for (int m = 0; m < 5; m++) {
+            source.append("    // 覆盖handle").append(m).append("的正常分支\n");
+            source.append("    @Test\n");
+            source.append("    public void testHandle").append(m).append("() {\n");
+            source.append("        Service").append(index).append(" service = new Service")
+                  .append(index).append("();\n");
+            source.append("        assertEquals(").append(10 * (m + 1)).append(", service.handle")
+                  .append(m).append("(10, \"a\"));\n");
+            source.append("    }\n\n");
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package com.coveragetool.analyzer;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方法度量的性能对比：每个方法分别用嵌套访问者统计并渲染源码计算行数，与MethodMetricsVisitor一次遍历
+ *
+ * 两种方式都对同一个已解析的测试类统计每个方法的圈复杂度、断言数量、Mock调用和代码行数，返回各项之和。
+ * 解析只在准备阶段做一次，对比的是解析后的遍历开销；加上-prof gc可以看到每次操作分配的字节数。
+ * 运行方式：
+ * mvn -Pbenchmark package
+ * java -cp target/java-coverage-backend-1.0.0.jar org.openjdk.jmh.Main MethodMetricsBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodMetricsBenchmark {
+
+    /**
+     * 测试类中的测试方法数量
+     */
+    @Param({"20", "200"})
+    public int methodCount;
+
+    private CompilationUnit cu;
+
+    @Setup
+    public void setUp() {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.example;\n\n");
+        source.append("public class OrderServiceTest {\n");
+        for (int i = 0; i < methodCount; i++) {
+            source.append("    @Test\n");
+            source.append("    public void testCreateOrder").append(i).append("() {\n");
+            source.append("        OrderRepository repository = mock(OrderRepository.class);\n");
+            source.append("        when(repository.findById(").append(i).append("L)).thenReturn(null);\n");
+            source.append("        OrderService service = new OrderService(repository);\n");
+            source.append("        for (int j = 0; j < 3; j++) {\n");
+            source.append("            if (j % 2 == 0) {\n");
+            source.append("                service.addItem(\"item\" + j, j > 1 ? j : 1);\n");
+            source.append("            }\n");
+            source.append("        }\n");
+            source.append("        try {\n");
+            source.append("            service.submit();\n");
+            source.append("        } catch (IllegalStateException e) {\n");
+            source.append("            fail(e.getMessage());\n");
+            source.append("        }\n");
+            source.append("        assertEquals(2, service.getItemCount());\n");
+            source.append("        assertNotNull(service.getOrder());\n");
+            source.append("        verify(repository).save(service.getOrder());\n");
+            source.append("    }\n\n");
+        }
+        source.append("}\n");
+        cu = new JavaParser().parse(source.toString()).getResult()
+            .orElseThrow(() -> new IllegalStateException("测试源码解析失败"));
+    }
+
+    @Benchmark
+    public int separateVisitors() {
+        final int[] total = {0};
+        cu.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(MethodDeclaration md, Void arg) {
+                super.visit(md, arg);
+                total[0] += calculateComplexity(md);
+                total[0] += countAssertions(md);
+                total[0] += checkForMocks(md) ? 1 : 0;
+                // 渲染整个方法后按行拆分
+                total[0] += md.toString().split("\n").length;
+            }
+        }, null);
+        return total[0];
+    }
+
+    @Benchmark
+    public int fusedVisitor() {
+        final int[] total = {0};
+        cu.accept(new MethodMetricsVisitor((md, metrics) -> {
+            total[0] += metrics.getComplexity();
+            total[0] += metrics.getAssertionCount();
+            total[0] += metrics.hasMockCalls() ? 1 : 0;
+            total[0] += metrics.getLinesOfCode();
+        }), null);
+        return total[0];
+    }
+
+    private static int calculateComplexity(MethodDeclaration md) {
+        final int[] complexity = {1};
+        md.getBody().ifPresent(body -> body.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(IfStmt n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+
+            @Override
+            public void visit(ForStmt n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+
+            @Override
+            public void visit(WhileStmt n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+
+            @Override
+            public void visit(SwitchStmt n, Void arg) {
+                super.visit(n, arg);
+                complexity[0] += n.getEntries().size();
+            }
+
+            @Override
+            public void visit(DoStmt n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+
+            @Override
+            public void visit(ConditionalExpr n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+
+            @Override
+            public void visit(CatchClause n, Void arg) {
+                super.visit(n, arg);
+                complexity[0]++;
+            }
+        }, null));
+        return complexity[0];
+    }
+
+    private static int countAssertions(MethodDeclaration md) {
+        final int[] count = {0};
+        md.getBody().ifPresent(body -> body.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(MethodCallExpr n, Void arg) {
+                super.visit(n, arg);
+                String methodName = n.getNameAsString();
+                if (methodName.startsWith("assert") || methodName.startsWith("verify")) {
+                    count[0]++;
+                }
+            }
+        }, null));
+        return count[0];
+    }
+
+    private static boolean checkForMocks(MethodDeclaration md) {
+        final boolean[] usesMocks = {false};
+        md.getBody().ifPresent(body -> body.accept(new VoidVisitorAdapter<Void>() {
+            @Override
+            public void visit(MethodCallExpr n, Void arg) {
+                super.visit(n, arg);
+                String methodCallName = n.getNameAsString();
+                if (methodCallName.equals("mock") ||
+                    methodCallName.equals("when") ||
+                    methodCallName.equals("given") ||
+                    methodCallName.equals("doReturn") ||
+                    methodCallName.equals("doThrow")) {
+                    usesMocks[0] = true;
+                }
+            }
+        }, null));
+        return usesMocks[0];
+    }
+}
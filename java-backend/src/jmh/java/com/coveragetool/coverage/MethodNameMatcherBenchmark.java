@@ -0,0 +1,116 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.Method;
+import com.coveragetool.model.TestMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按方法名匹配的性能对比：逐对转小写并调用String.contains，与MethodNameMatcher一次扫描
+ *
+ * 两种方式都计算业务类中每个方法被哪些测试方法覆盖、以及粒度评分中的命名规范一项，返回匹配数量。
+ * 运行方式：
+ * mvn -Pbenchmark package
+ * java -cp target/java-coverage-backend-1.0.0.jar org.openjdk.jmh.Main MethodNameMatcherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodNameMatcherBenchmark {
+
+    private static final String[] VERBS = {"get", "set", "find", "create", "update", "delete", "validate", "load"};
+    private static final String[] NOUNS = {"User", "Order", "Account", "Item", "Price", "Status", "Config", "Report"};
+
+    /**
+     * 业务类的方法数量
+     */
+    @Param({"10", "50", "200"})
+    public int methodCount;
+
+    /**
+     * 对应测试类的测试方法数量
+     */
+    @Param({"20", "200"})
+    public int testCount;
+
+    private List<Method> methods;
+    private List<TestMethod> testMethods;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        methods = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            Method method = new Method();
+            method.setMethodName(VERBS[random.nextInt(VERBS.length)] + NOUNS[random.nextInt(NOUNS.length)]
+                + (i % 3 == 0 ? "" : String.valueOf(i)));
+            methods.add(method);
+        }
+        testMethods = new ArrayList<>(testCount);
+        for (int i = 0; i < testCount; i++) {
+            String target = methods.get(random.nextInt(methodCount)).getMethodName();
+            TestMethod testMethod = new TestMethod();
+            testMethod.setMethodName("test" + Character.toUpperCase(target.charAt(0)) + target.substring(1)
+                + (random.nextBoolean() ? "WhenInputIsInvalid" : "ReturnsExpectedValue"));
+            testMethod.setTestedBusinessMethod(target);
+            testMethods.add(testMethod);
+        }
+    }
+
+    @Benchmark
+    public int pairwiseContains() {
+        int matched = 0;
+        for (Method method : methods) {
+            String businessMethodName = method.getMethodName().toLowerCase();
+            for (TestMethod testMethod : testMethods) {
+                String testMethodName = testMethod.getMethodName().toLowerCase();
+                String testedMethod = testMethod.getTestedBusinessMethod();
+                boolean covers = testMethodName.contains(businessMethodName)
+                    || testedMethod != null && !testedMethod.isEmpty()
+                        && testedMethod.toLowerCase().equals(businessMethodName);
+                if (covers) {
+                    matched++;
+                    // 粒度评分再次转小写比较
+                    if (testMethod.getMethodName().toLowerCase().contains(method.getMethodName().toLowerCase())) {
+                        matched++;
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int automaton() {
+        int matched = 0;
+        MethodNameMatcher nameMatcher = new MethodNameMatcher(methods);
+        for (int methodIndex = 0; methodIndex < methods.size(); methodIndex++) {
+            for (TestMethod testMethod : testMethods) {
+                if (nameMatcher.covers(testMethod, methodIndex)) {
+                    matched++;
+                    if (nameMatcher.containsName(testMethod, methodIndex)) {
+                        matched++;
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+}
@@ -57,6 +57,8 @@ public class CoverageToolApplication {
         // 注册API路由
         // 项目相关API
         post("/api/project/scan", projectController::scanProject);
+        get("/api/project/tree", projectController::getDirectoryTree);
+        post("/api/project/watch", projectController::setProjectWatch);
         
         // 分析相关API
         post("/api/analysis/start", analysisController::startAnalysis);
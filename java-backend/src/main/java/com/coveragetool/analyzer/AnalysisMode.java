@@ -0,0 +1,31 @@
+package com.coveragetool.analyzer;
+
+/**
+ * 分析模式枚举 - 决定如何从业务类源码中提取方法信息
+ */
+public enum AnalysisMode {
+    /**
+     * 完整解析 - 使用JavaParser构建语法树后提取
+     */
+    FULL("完整解析"),
+
+    /**
+     * 快速分析 - 直接在记号上识别类和方法，不构建语法树
+     * 结果与完整解析一致；遇到无法确定结果的写法时该文件改用完整解析
+     *
+     * 只用于业务类。测试类仍然完整解析：测试方法调用的方法名按语法树访问者的顺序记录
+     * （方法调用先访问参数再访问调用对象），引用的类型包括语法树中所有的类型节点（强制转换、
+     * 泛型参数、限定名的外层类型等），在记号上得到同样的结果需要重建表达式结构，省不下解析的开销。
+     */
+    FAST("快速分析");
+
+    private final String displayName;
+
+    AnalysisMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
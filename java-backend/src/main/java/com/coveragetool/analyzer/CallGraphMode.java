@@ -0,0 +1,33 @@
+package com.coveragetool.analyzer;
+
+/**
+ * 调用图模式枚举 - 决定如何确定测试方法调用了哪些业务方法
+ */
+public enum CallGraphMode {
+    /**
+     * 方法名匹配 - 不解析调用，测试方法名包含业务方法名即视为覆盖；
+     * 开启按名称跨测试类匹配时，其他测试类引用了业务类、且调用或测试方法名提及该方法时也视为覆盖
+     */
+    NAME("方法名匹配"),
+
+    /**
+     * 近似解析 - 根据导入、字段和局部变量的声明类型及调用的方法名确定调用目标，不做符号解析
+     * 速度接近普通解析；无法区分同名同参数个数的重载，此时所有候选方法都算作被调用
+     */
+    APPROXIMATE("近似解析"),
+
+    /**
+     * 精确解析 - 使用符号解析确定调用目标，包括重载
+     */
+    PRECISE("精确解析");
+
+    private final String displayName;
+
+    CallGraphMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,869 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.Method;
+import com.coveragetool.model.TestClass;
+import com.coveragetool.model.TestMethod;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.SymbolResolver;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 调用图解析器 - 确定测试方法实际调用了哪些业务方法
+ *
+ * 默认的覆盖率匹配只比较方法名，本解析器把测试方法体中的方法调用解析到具体的业务方法上，
+ * 测试方法调用的测试类内部方法（如准备数据的辅助方法）中的调用也计入该测试方法。
+ * 解析结果保存在TestMethod.calledBusinessMethods中，覆盖率分析时优先使用，
+ * 其他测试类中的测试调用的业务方法同样计入覆盖。
+ *
+ * 近似解析（CallGraphMode.APPROXIMATE）不做符号解析：调用者的类型取自字段、参数和局部变量的
+ * 声明类型，类型名按本文件的导入、本包和所有业务类的简单类名索引确定，速度接近普通解析。
+ *
+ * 精确解析（CallGraphMode.PRECISE）使用符号解析。符号解析很慢，因此：
+ * 1. 方法名不是任何业务方法名的调用（断言、Mock等）直接跳过，不做解析；
+ * 2. 调用者的类型中同名同参数个数的业务方法只有一个时，无需解析重载；
+ *    参数个数对不上（可变参数、父类中的重载）时才完整解析；
+ * 3. 需要解析重载时，结果按（调用者类型、方法名、参数类型）记录，其他文件中的相同调用直接复用；
+ * 4. 每个解析线程持有一套类型解析器，已解析的类型在该线程处理的所有文件之间共享；
+ * 5. 测试文件在源码解析器的线程池中并行处理，每个文件有时间预算，超时的文件回退为方法名匹配。
+ *    预算在每个方法调用之前和符号解析查找每个类型时检查，单个调用的解析超时后立即中止；
+ *    测试文件本身的解析不会被中断，耗时与文件大小成正比。
+ * 符号解析失败的调用（如缺少测试依赖导致导入无法解析）改用近似解析。
+ *
+ * 类型解析器的内部缓存不是线程安全的，因此不在线程之间共享。
+ */
+public class CallGraphResolver {
+
+    /**
+     * 单个测试文件解析时间预算（毫秒）的系统属性，如-Dcoverage.callgraph.fileBudgetMs=5000
+     */
+    public static final String FILE_BUDGET_PROPERTY = "coverage.callgraph.fileBudgetMs";
+
+    /**
+     * 默认的单个测试文件解析时间预算（毫秒）
+     */
+    private static final long DEFAULT_FILE_BUDGET_MS = 5000;
+
+    /**
+     * 方法调用解析缓存中表示"不是业务方法"的值
+     */
+    private static final String NOT_BUSINESS = "";
+
+    /**
+     * 类型中的注解
+     */
+    private static final Pattern ANNOTATION = Pattern.compile("@[\\w.]+(\\([^)]*\\))?");
+
+    private final SourceParser sourceParser;
+    private final long fileBudgetNanos;
+
+    /**
+     * 使用系统属性coverage.callgraph.fileBudgetMs指定的时间预算创建解析器
+     *
+     * @param sourceParser 源码解析器，测试文件在其线程池中并行处理
+     */
+    public CallGraphResolver(SourceParser sourceParser) {
+        this(sourceParser, Long.getLong(FILE_BUDGET_PROPERTY, DEFAULT_FILE_BUDGET_MS));
+    }
+
+    /**
+     * @param sourceParser 源码解析器，测试文件在其线程池中并行处理
+     * @param fileBudgetMillis 单个测试文件的解析时间预算（毫秒），小于1时按1处理
+     */
+    public CallGraphResolver(SourceParser sourceParser, long fileBudgetMillis) {
+        this.sourceParser = sourceParser;
+        this.fileBudgetNanos = Math.max(1, fileBudgetMillis) * 1_000_000L;
+    }
+
+    /**
+     * 生成业务方法的调用键
+     *
+     * 参数类型只保留简单类型名和数组维度，去掉泛型参数、包名和注解，
+     * 源码中写的类型与符号解析得到的类型因此得到相同的键。
+     * 可变参数与源码中提取的参数类型一致，只取元素类型（String...记为String）。
+     *
+     * @param classFqn 业务类的完整限定名
+     * @param method 业务方法
+     * @return 调用键，如com.example.UserService#getUser(Long)
+     */
+    public static String methodKey(String classFqn, Method method) {
+        List<String> parameters = method.getParameters() != null ? method.getParameters() : new ArrayList<>();
+        return methodKey(classFqn, method.getMethodName(), parameters);
+    }
+
+    private static String methodKey(String classFqn, String methodName, List<String> parameterTypes) {
+        StringBuilder key = new StringBuilder(classFqn).append('#').append(methodName).append('(');
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterKey(parameterTypes.get(i)));
+        }
+        return key.append(')').toString();
+    }
+
+    /**
+     * 参数类型的规范形式：简单类型名加数组维度，如java.util.List<String>[]得到List[]
+     */
+    static String parameterKey(String type) {
+        String text = ANNOTATION.matcher(type).replaceAll("");
+        StringBuilder erased = new StringBuilder(text.length());
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (depth == 0 && !Character.isWhitespace(c)) {
+                erased.append(c);
+            }
+        }
+        String name = erased.toString();
+        int dims = name.indexOf('[');
+        String base = dims >= 0 ? name.substring(0, dims) : name;
+        String suffix = dims >= 0 ? name.substring(dims) : "";
+        return base.substring(base.lastIndexOf('.') + 1) + suffix;
+    }
+
+    /**
+     * 解析测试类中各测试方法调用的业务方法
+     *
+     * 解析成功的测试方法设置calledBusinessMethods；解析超时或失败的测试文件不做修改，
+     * 其测试方法仍按方法名匹配。
+     *
+     * @param businessClasses 业务类列表
+     * @param testClasses 测试类列表
+     * @param mode 调用图模式，NAME时不做任何解析
+     * @return 解析统计
+     */
+    public Summary resolve(List<BusinessClass> businessClasses, List<TestClass> testClasses, CallGraphMode mode) {
+        if (mode == null || mode == CallGraphMode.NAME) {
+            return new Summary();
+        }
+        Session session = new Session(businessClasses, testClasses, mode == CallGraphMode.PRECISE);
+
+        Map<String, List<TestClass>> classesByFile = new LinkedHashMap<>();
+        for (TestClass testClass : testClasses) {
+            if (testClass.getFilePath() != null && testClass.getTestMethods() != null) {
+                classesByFile.computeIfAbsent(testClass.getFilePath(), path -> new ArrayList<>()).add(testClass);
+            }
+        }
+        List<File> files = new ArrayList<>(classesByFile.size());
+        for (String filePath : classesByFile.keySet()) {
+            files.add(new File(filePath));
+        }
+
+        List<FileCalls> results = sourceParser.parseAll(files, session::resolveFile);
+        for (FileCalls fileCalls : results) {
+            for (TestClass testClass : classesByFile.get(fileCalls.filePath)) {
+                for (TestMethod testMethod : testClass.getTestMethods()) {
+                    testMethod.setCalledBusinessMethods(fileCalls.calledFrom(testMethod.getMethodName()));
+                }
+            }
+        }
+        return session.summary;
+    }
+
+    /**
+     * 一次解析的共享状态
+     */
+    private final class Session {
+
+        /**
+         * 所有业务方法的调用键
+         */
+        private final Set<String> businessKeys = new HashSet<>();
+
+        /**
+         * 业务方法名，不在其中的调用直接跳过
+         */
+        private final Set<String> businessMethodNames = new HashSet<>();
+
+        /**
+         * 业务方法按"类名#方法名"分组
+         * Value：该类中同名方法的参数个数和调用键
+         */
+        private final Map<String, List<Candidate>> candidates = new HashMap<>();
+
+        /**
+         * 业务类的简单类名索引（近似解析用）
+         * Key：简单类名，Value：同名业务类的完整限定名
+         */
+        private final Map<String, List<String>> classesBySimpleName = new HashMap<>();
+
+        /**
+         * 是否精确解析
+         */
+        private final boolean precise;
+
+        /**
+         * 各源码根目录（业务类和测试类所在文件去掉包路径）
+         */
+        private final List<Path> sourceRoots;
+
+        /**
+         * 需要解析重载的调用的结果，所有线程共享
+         * Key：调用者类型#方法名(实参类型)，Value：调用键，不是业务方法时为空字符串
+         */
+        private final Map<String, String> overloadCache = new ConcurrentHashMap<>();
+
+        /**
+         * 每个解析线程的类型解析器，分析结束后随本对象释放
+         */
+        private final Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+
+        private final Summary summary = new Summary();
+
+        Session(List<BusinessClass> businessClasses, List<TestClass> testClasses, boolean precise) {
+            this.precise = precise;
+            Set<Path> roots = new LinkedHashSet<>();
+            for (BusinessClass businessClass : businessClasses) {
+                addSourceRoot(roots, businessClass.getFilePath(), businessClass.getPackageName());
+                String fqn = businessClass.getFullyQualifiedName();
+                List<String> sameName = classesBySimpleName.computeIfAbsent(
+                    fqn.substring(fqn.lastIndexOf('.') + 1), name -> new ArrayList<>());
+                if (!sameName.contains(fqn)) {
+                    sameName.add(fqn);
+                }
+                for (Method method : businessClass.getMethods()) {
+                    String key = methodKey(fqn, method);
+                    businessKeys.add(key);
+                    businessMethodNames.add(method.getMethodName());
+                    int arity = method.getParameters() != null ? method.getParameters().size() : 0;
+                    candidates.computeIfAbsent(fqn + '#' + method.getMethodName(),
+                        name -> new ArrayList<>()).add(new Candidate(arity, key, method.getReturnType()));
+                }
+            }
+            for (TestClass testClass : testClasses) {
+                addSourceRoot(roots, testClass.getFilePath(), testClass.getPackageName());
+            }
+            this.sourceRoots = new ArrayList<>(roots);
+        }
+
+        private void addSourceRoot(Set<Path> roots, String filePath, String packageName) {
+            if (filePath == null) {
+                return;
+            }
+            Path root = Paths.get(filePath).toAbsolutePath().normalize().getParent();
+            if (packageName != null && !packageName.isEmpty()) {
+                for (int i = packageName.split("\\.").length; i > 0 && root != null; i--) {
+                    root = root.getParent();
+                }
+            }
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+
+        private Worker worker() {
+            return workers.computeIfAbsent(Thread.currentThread(), thread -> new Worker(sourceRoots));
+        }
+
+        /**
+         * 解析单个测试文件中各方法的调用，超时或失败时返回null
+         */
+        FileCalls resolveFile(File file) {
+            long deadline = System.nanoTime() + fileBudgetNanos;
+            Worker worker = precise ? worker() : null;
+            if (worker != null) {
+                worker.typeSolver.deadline = deadline;
+            }
+            try {
+                ParseResult<CompilationUnit> result;
+                if (precise) {
+                    result = worker.parser.parse(new String(Files.readAllBytes(file.toPath()),
+                        worker.parser.getParserConfiguration().getCharacterEncoding()));
+                } else {
+                    result = sourceParser.parse(file);
+                }
+                if (!result.getResult().isPresent()) {
+                    summary.failedFiles.incrementAndGet();
+                    return null;
+                }
+                CompilationUnit cu = result.getResult().get();
+                DeclaredTypes types = new DeclaredTypes(cu);
+
+                Set<String> localMethods = new HashSet<>();
+                for (MethodDeclaration md : cu.findAll(MethodDeclaration.class)) {
+                    localMethods.add(md.getNameAsString());
+                }
+
+                FileCalls fileCalls = new FileCalls(file.getPath());
+                for (MethodDeclaration md : cu.findAll(MethodDeclaration.class)) {
+                    String caller = md.getNameAsString();
+                    Map<String, Type> variables = types.variables(md);
+                    for (MethodCallExpr call : md.findAll(MethodCallExpr.class)) {
+                        if (System.nanoTime() > deadline) {
+                            summary.timedOutFiles.incrementAndGet();
+                            return null;
+                        }
+                        String name = call.getNameAsString();
+                        boolean local = localMethods.contains(name)
+                            && (!call.getScope().isPresent() || call.getScope().get().isThisExpr());
+                        if (local) {
+                            fileCalls.localCalls.computeIfAbsent(caller, key -> new HashSet<>()).add(name);
+                        } else if (businessMethodNames.contains(name)) {
+                            String key = precise ? resolveCall(worker, call) : null;
+                            Collection<String> keys = key != null
+                                ? Collections.singleton(key) : approximateCall(call, types, variables);
+                            if (!keys.isEmpty()) {
+                                fileCalls.businessCalls.computeIfAbsent(caller, k -> new HashSet<>()).addAll(keys);
+                                summary.resolvedCalls.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+                summary.resolvedFiles.incrementAndGet();
+                return fileCalls;
+            } catch (BudgetExceededException e) {
+                summary.timedOutFiles.incrementAndGet();
+                return null;
+            } catch (IOException | RuntimeException | StackOverflowError e) {
+                summary.failedFiles.incrementAndGet();
+                return null;
+            }
+        }
+
+        /**
+         * 解析单个方法调用，不是业务方法或无法解析时返回null
+         */
+        private String resolveCall(Worker worker, MethodCallExpr call) {
+            if (call.getScope().isPresent()) {
+                String typeName = scopeType(worker, call.getScope().get());
+                if (typeName != null) {
+                    List<Candidate> sameName = candidates.get(typeName + '#' + call.getNameAsString());
+                    if (sameName == null) {
+                        return null;
+                    }
+                    Candidate only = null;
+                    int matches = 0;
+                    for (Candidate candidate : sameName) {
+                        if (candidate.arity == call.getArguments().size()) {
+                            only = candidate;
+                            matches++;
+                        }
+                    }
+                    return matches == 1 ? only.key : resolveOverload(worker, call, typeName);
+                }
+            }
+            // 无调用者（静态导入等）或调用者是类型名时完整解析
+            return resolveDeclaration(call);
+        }
+
+        /**
+         * 调用者表达式的类型名，不是引用类型或无法解析时返回null
+         */
+        private String scopeType(Worker worker, Expression scope) {
+            try {
+                ResolvedType type = worker.resolver.calculateType(scope);
+                return type.isReferenceType() ? type.asReferenceType().getQualifiedName() : null;
+            } catch (BudgetExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 解析重载，结果按实参类型记录，其他调用处直接复用
+         */
+        private String resolveOverload(Worker worker, MethodCallExpr call, String typeName) {
+            StringBuilder cacheKey = new StringBuilder(typeName).append('#').append(call.getNameAsString()).append('(');
+            try {
+                for (Expression argument : call.getArguments()) {
+                    cacheKey.append(worker.resolver.calculateType(argument).describe()).append(',');
+                }
+            } catch (BudgetExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return resolveDeclaration(call);
+            }
+            String key = cacheKey.append(')').toString();
+            String cached = overloadCache.get(key);
+            if (cached == null) {
+                String resolved = resolveDeclaration(call);
+                cached = resolved != null ? resolved : NOT_BUSINESS;
+                overloadCache.put(key, cached);
+            }
+            return cached.isEmpty() ? null : cached;
+        }
+
+        /**
+         * 近似确定方法调用的目标，无法确定时返回空列表
+         *
+         * 调用者类型中同名同参数个数的业务方法都算作调用目标；参数个数都对不上时（如可变参数）
+         * 取所有同名方法。
+         */
+        private List<String> approximateCall(MethodCallExpr call, DeclaredTypes types, Map<String, Type> variables) {
+            String name = call.getNameAsString();
+            List<String> typeNames = new ArrayList<>();
+            if (call.getScope().isPresent()) {
+                String typeName = approximateType(call.getScope().get(), types, variables);
+                if (typeName != null) {
+                    typeNames.add(typeName);
+                }
+            } else {
+                // 静态导入的方法
+                String typeName = types.staticMethods.get(name);
+                if (typeName != null) {
+                    typeNames.add(typeName);
+                } else {
+                    typeNames.addAll(types.staticClasses);
+                }
+            }
+
+            List<String> keys = new ArrayList<>();
+            for (String typeName : typeNames) {
+                List<Candidate> sameName = candidates.get(typeName + '#' + name);
+                if (sameName == null) {
+                    continue;
+                }
+                int before = keys.size();
+                for (Candidate candidate : sameName) {
+                    if (candidate.arity == call.getArguments().size()) {
+                        keys.add(candidate.key);
+                    }
+                }
+                if (keys.size() == before) {
+                    for (Candidate candidate : sameName) {
+                        keys.add(candidate.key);
+                    }
+                }
+            }
+            return keys;
+        }
+
+        /**
+         * 表达式的近似类型（业务类的完整限定名），无法确定时返回null
+         */
+        private String approximateType(Expression expression, DeclaredTypes types, Map<String, Type> variables) {
+            if (expression instanceof EnclosedExpr) {
+                return approximateType(((EnclosedExpr) expression).getInner(), types, variables);
+            }
+            if (expression instanceof CastExpr) {
+                return types.resolve(((CastExpr) expression).getType());
+            }
+            if (expression instanceof ObjectCreationExpr) {
+                return types.resolve(((ObjectCreationExpr) expression).getType());
+            }
+            if (expression instanceof NameExpr) {
+                String name = ((NameExpr) expression).getNameAsString();
+                Type declared = variables.containsKey(name) ? variables.get(name) : types.fields.get(name);
+                if (declared != null) {
+                    return types.resolve(declared);
+                }
+                // 类名（静态方法调用）
+                return Character.isUpperCase(name.charAt(0)) ? types.resolve(name) : null;
+            }
+            if (expression instanceof FieldAccessExpr) {
+                FieldAccessExpr fieldAccess = (FieldAccessExpr) expression;
+                if (fieldAccess.getScope().isThisExpr()) {
+                    Type declared = types.fields.get(fieldAccess.getNameAsString());
+                    return declared != null ? types.resolve(declared) : null;
+                }
+                // 带包名或外部类名的类名
+                return types.resolve(fieldAccess.toString());
+            }
+            if (expression instanceof MethodCallExpr) {
+                // 链式调用：取被调用业务方法的返回类型，同名方法的返回类型须一致
+                String returnType = null;
+                MethodCallExpr inner = (MethodCallExpr) expression;
+                if (!businessMethodNames.contains(inner.getNameAsString())) {
+                    return null;
+                }
+                List<String> keys = approximateCall(inner, types, variables);
+                if (keys.isEmpty()) {
+                    return null;
+                }
+                String typeName = keys.get(0).substring(0, keys.get(0).indexOf('#'));
+                for (Candidate candidate : candidates.get(typeName + '#' + inner.getNameAsString())) {
+                    if (!keys.contains(candidate.key)) {
+                        continue;
+                    }
+                    if (returnType != null && !returnType.equals(candidate.returnType)) {
+                        return null;
+                    }
+                    returnType = candidate.returnType;
+                }
+                return returnType != null ? uniqueBusinessClass(erase(returnType)) : null;
+            }
+            return null;
+        }
+
+        /**
+         * 简单类名唯一对应的业务类，没有或不唯一时返回null
+         */
+        private String uniqueBusinessClass(String typeName) {
+            List<String> sameName = classesBySimpleName.get(typeName.substring(typeName.lastIndexOf('.') + 1));
+            return sameName != null && sameName.size() == 1 ? sameName.get(0) : null;
+        }
+
+        /**
+         * 测试文件中名称的声明类型（近似解析用）
+         */
+        private final class DeclaredTypes {
+
+            /**
+             * 本包和按需导入的包，按优先顺序排列
+             */
+            private final List<String> packages = new ArrayList<>();
+
+            /**
+             * 单类型导入
+             * Key：简单类名，Value：完整限定名
+             */
+            private final Map<String, String> imports = new HashMap<>();
+
+            /**
+             * 静态导入的方法
+             * Key：方法名，Value：所在类的完整限定名
+             */
+            private final Map<String, String> staticMethods = new HashMap<>();
+
+            /**
+             * 按需静态导入的类
+             */
+            private final List<String> staticClasses = new ArrayList<>();
+
+            /**
+             * 文件中所有类的字段
+             * Key：字段名，Value：声明类型
+             */
+            private final Map<String, Type> fields = new HashMap<>();
+
+            DeclaredTypes(CompilationUnit cu) {
+                packages.add(cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse(""));
+                for (ImportDeclaration importDeclaration : cu.getImports()) {
+                    String name = importDeclaration.getNameAsString();
+                    if (importDeclaration.isStatic()) {
+                        if (importDeclaration.isAsterisk()) {
+                            staticClasses.add(name);
+                        } else if (name.lastIndexOf('.') > 0) {
+                            staticMethods.put(name.substring(name.lastIndexOf('.') + 1),
+                                name.substring(0, name.lastIndexOf('.')));
+                        }
+                    } else if (importDeclaration.isAsterisk()) {
+                        packages.add(name);
+                    } else {
+                        imports.put(name.substring(name.lastIndexOf('.') + 1), name);
+                    }
+                }
+                for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+                    for (VariableDeclarator variable : field.getVariables()) {
+                        fields.put(variable.getNameAsString(), variable.getType());
+                    }
+                }
+            }
+
+            /**
+             * 方法中参数和局部变量的声明类型（不区分作用域）
+             *
+             * 用var声明的局部变量取初始化表达式中创建的类型。
+             */
+            Map<String, Type> variables(MethodDeclaration md) {
+                Map<String, Type> variables = new HashMap<>();
+                for (Parameter parameter : md.findAll(Parameter.class)) {
+                    variables.put(parameter.getNameAsString(), parameter.getType());
+                }
+                for (VariableDeclarator variable : md.findAll(VariableDeclarator.class)) {
+                    Type type = variable.getType();
+                    if (type.isVarType() && variable.getInitializer().isPresent()
+                            && variable.getInitializer().get().isObjectCreationExpr()) {
+                        type = variable.getInitializer().get().asObjectCreationExpr().getType();
+                    }
+                    variables.put(variable.getNameAsString(), type);
+                }
+                return variables;
+            }
+
+            String resolve(Type type) {
+                return type.isClassOrInterfaceType() ? resolve(type.asClassOrInterfaceType().getNameWithScope()) : null;
+            }
+
+            /**
+             * 按导入、本包和按需导入的包确定类型名对应的业务类
+             */
+            String resolve(String typeName) {
+                String name = erase(typeName);
+                int dot = name.indexOf('.');
+                if (dot > 0) {
+                    if (candidatesExist(name)) {
+                        return name;
+                    }
+                    // 外部类名.内部类名
+                    String outer = resolve(name.substring(0, dot));
+                    return outer != null ? outer + name.substring(dot) : null;
+                }
+                String imported = imports.get(name);
+                if (imported != null) {
+                    return imported;
+                }
+                List<String> sameName = classesBySimpleName.get(name);
+                if (sameName == null) {
+                    return null;
+                }
+                for (String pkg : packages) {
+                    String qualified = pkg.isEmpty() ? name : pkg + '.' + name;
+                    if (sameName.contains(qualified)) {
+                        return qualified;
+                    }
+                }
+                return null;
+            }
+
+            private boolean candidatesExist(String fqn) {
+                List<String> sameName = classesBySimpleName.get(fqn.substring(fqn.lastIndexOf('.') + 1));
+                return sameName != null && sameName.contains(fqn);
+            }
+        }
+
+        /**
+         * 完整解析方法调用的声明
+         */
+        private String resolveDeclaration(MethodCallExpr call) {
+            try {
+                ResolvedMethodDeclaration declaration = call.resolve();
+                List<String> parameterTypes = new ArrayList<>(declaration.getNumberOfParams());
+                for (int i = 0; i < declaration.getNumberOfParams(); i++) {
+                    ResolvedType type = declaration.getParam(i).getType();
+                    if (declaration.getParam(i).isVariadic() && type.isArray()) {
+                        type = type.asArrayType().getComponentType();
+                    }
+                    parameterTypes.add(type.describe());
+                }
+                String key = methodKey(declaration.declaringType().getQualifiedName(),
+                    declaration.getName(), parameterTypes);
+                return businessKeys.contains(key) ? key : null;
+            } catch (BudgetExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 去掉泛型参数的类型名
+     */
+    private static String erase(String typeName) {
+        int generic = typeName.indexOf('<');
+        return (generic >= 0 ? typeName.substring(0, generic) : typeName).trim();
+    }
+
+    /**
+     * 单个解析线程的类型解析器和解析器
+     */
+    private static final class Worker {
+
+        private final JavaParser parser;
+        private final SymbolResolver resolver;
+        private final DeadlineTypeSolver typeSolver;
+
+        Worker(List<Path> sourceRoots) {
+            CombinedTypeSolver combined = new CombinedTypeSolver(new ReflectionTypeSolver());
+            for (Path root : sourceRoots) {
+                combined.add(new JavaParserTypeSolver(root));
+            }
+            this.typeSolver = new DeadlineTypeSolver(combined);
+            this.resolver = new JavaSymbolSolver(typeSolver);
+            ParserConfiguration configuration = new ParserConfiguration();
+            configuration.setSymbolResolver(resolver);
+            this.parser = new JavaParser(configuration);
+        }
+    }
+
+    /**
+     * 检查时间预算的类型解析器，作为根解析器包装实际的类型解析器
+     *
+     * 符号解析过程中的类型查找（包括源码解析器内部对其他类型的查找）都经过根解析器，
+     * 当前文件的预算用完后查找直接抛出BudgetExceededException，中止正在进行的解析。
+     * 每个解析线程一个实例，截止时间只由本线程修改。
+     */
+    private static final class DeadlineTypeSolver implements TypeSolver {
+
+        private final TypeSolver delegate;
+        private TypeSolver parent;
+
+        /**
+         * 当前文件的截止时间（System.nanoTime）
+         */
+        private long deadline = Long.MAX_VALUE;
+
+        DeadlineTypeSolver(TypeSolver delegate) {
+            this.delegate = delegate;
+            delegate.setParent(this);
+        }
+
+        @Override
+        public TypeSolver getParent() {
+            return parent;
+        }
+
+        @Override
+        public void setParent(TypeSolver parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+            if (System.nanoTime() > deadline) {
+                throw new BudgetExceededException();
+            }
+            return delegate.tryToSolveType(name);
+        }
+    }
+
+    /**
+     * 单个测试文件的解析时间预算已用完
+     */
+    private static final class BudgetExceededException extends RuntimeException {
+
+        BudgetExceededException() {
+            super("单个测试文件的解析时间预算已用完", null, false, false);
+        }
+    }
+
+    /**
+     * 业务类中的一个同名方法
+     */
+    private static final class Candidate {
+
+        private final int arity;
+        private final String key;
+        private final String returnType;
+
+        Candidate(int arity, String key, String returnType) {
+            this.arity = arity;
+            this.key = key;
+            this.returnType = returnType;
+        }
+    }
+
+    /**
+     * 单个测试文件中各方法的调用
+     */
+    private static final class FileCalls {
+
+        private final String filePath;
+
+        /**
+         * Key：方法名，Value：直接调用的业务方法
+         */
+        private final Map<String, Set<String>> businessCalls = new HashMap<>();
+
+        /**
+         * Key：方法名，Value：调用的本类方法名
+         */
+        private final Map<String, Set<String>> localCalls = new HashMap<>();
+
+        FileCalls(String filePath) {
+            this.filePath = filePath;
+        }
+
+        /**
+         * 方法直接调用及经由本类方法间接调用的业务方法
+         */
+        Set<String> calledFrom(String methodName) {
+            Set<String> called = new HashSet<>();
+            Set<String> visited = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(methodName);
+            visited.add(methodName);
+            while (!queue.isEmpty()) {
+                String current = queue.poll();
+                called.addAll(businessCalls.getOrDefault(current, new HashSet<>()));
+                for (String next : localCalls.getOrDefault(current, new HashSet<>())) {
+                    if (visited.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+            return called;
+        }
+    }
+
+    /**
+     * 解析统计
+     */
+    public static final class Summary {
+
+        private final AtomicInteger resolvedFiles = new AtomicInteger();
+        private final AtomicInteger timedOutFiles = new AtomicInteger();
+        private final AtomicInteger failedFiles = new AtomicInteger();
+        private final AtomicInteger resolvedCalls = new AtomicInteger();
+
+        /**
+         * 完成解析的测试文件数
+         */
+        public int getResolvedFiles() {
+            return resolvedFiles.get();
+        }
+
+        /**
+         * 超出时间预算、回退为方法名匹配的测试文件数
+         */
+        public int getTimedOutFiles() {
+            return timedOutFiles.get();
+        }
+
+        /**
+         * 读取或解析失败、回退为方法名匹配的测试文件数
+         */
+        public int getFailedFiles() {
+            return failedFiles.get();
+        }
+
+        /**
+         * 解析到业务方法的调用数
+         */
+        public int getResolvedCalls() {
+            return resolvedCalls.get();
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.coveragetool.analyzer;
 
-import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.Name;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.coveragetool.model.*;
+import com.coveragetool.scanner.FileEntry;
+import com.coveragetool.scanner.PathFilter;
+import com.coveragetool.scanner.ProjectFileIndex;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
 /**
  * 代码分析器 - 分析Java源码和测试代码
@@ -26,6 +37,83 @@ import java.util.List;
  */
 public class CodeAnalyzer {
     
+    /**
+     * 分析器版本
+     * 提取规则（业务类、方法、测试方法的识别和统计方式）变化时递增，旧的解析缓存随之失效
+     * 2：测试方法的代码行数改为按声明位置计算
+     * 3：测试类记录@Nested嵌套测试类的类名
+     * 4：测试方法记录调用的方法名，测试类记录引用的类型
+     */
+    public static final int ANALYZER_VERSION = 4;
+    
+    /**
+     * 目录收集线程池
+     * 索引无法覆盖、需要遍历磁盘时，每个源码/测试目录（多模块项目中即每个模块）并行收集文件
+     */
+    private static final ForkJoinPool DIRECTORY_POOL =
+        new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    
+    /**
+     * 每个线程复用的词法分析器，快速分析模式使用
+     */
+    private static final ThreadLocal<LexicalAnalyzer> LEXICAL_ANALYZERS =
+        ThreadLocal.withInitial(LexicalAnalyzer::new);
+    
+    /**
+     * 源码解析器
+     * 所有目录的文件汇总后在有界线程池中并行解析
+     */
+    private final SourceParser sourceParser;
+    
+    /**
+     * 源文件缓存
+     * 与代码查看共享，最近读取和解析过的文件无需再次读取和解析
+     */
+    private final SourceFileCache sourceFileCache;
+    
+    /**
+     * 解析缓存存储
+     * 为null时不使用缓存，每次分析都解析所有文件
+     */
+    private volatile ParseCacheStore parseCacheStore;
+    
+    /**
+     * 使用默认解析线程数创建代码分析器
+     * 
+     * 解析线程数可通过系统属性coverage.parser.threads指定，默认为CPU核数。
+     */
+    public CodeAnalyzer() {
+        this(new SourceParser());
+    }
+    
+    /**
+     * @param sourceParser 源码解析器
+     */
+    public CodeAnalyzer(SourceParser sourceParser) {
+        this(sourceParser, new SourceFileCache());
+    }
+    
+    /**
+     * @param sourceParser 源码解析器
+     * @param sourceFileCache 源文件缓存
+     */
+    public CodeAnalyzer(SourceParser sourceParser, SourceFileCache sourceFileCache) {
+        this.sourceParser = sourceParser;
+        this.sourceFileCache = sourceFileCache;
+    }
+    
+    /**
+     * 设置解析缓存的保存目录
+     * 
+     * 设置后每个文件的解析结果按内容哈希缓存，再次分析同一项目时只解析新增或修改过的文件。
+     * 
+     * @param directory 缓存目录，为null时关闭缓存
+     */
+    public void setParseCacheDirectory(String directory) {
+        this.parseCacheStore = directory != null
+            ? new ParseCacheStore(Paths.get(directory), sourceParser.isLean()) : null;
+    }
+    
     /**
      * 分析业务类列表
      * 
@@ -36,34 +124,267 @@ public class CodeAnalyzer {
      * @return 业务类列表
      */
     public List<BusinessClass> analyzeBusinessClasses(List<String> sourceDirs, String projectPath) {
-        List<BusinessClass> businessClasses = new ArrayList<>();
+        return analyzeBusinessClasses(sourceDirs, projectPath, null);
+    }
+    
+    /**
+     * 分析业务类列表（使用扫描阶段的文件索引）
+     * 
+     * 优先从文件索引获取源码目录下的Java文件，索引无法覆盖的目录才回退到磁盘遍历。
+     * 各目录并行分析，结果按目录顺序合并。
+     * 
+     * @param sourceDirs 源码目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @return 业务类列表
+     */
+    public List<BusinessClass> analyzeBusinessClasses(List<String> sourceDirs, String projectPath,
+                                                      ProjectFileIndex fileIndex) {
+        return analyzeBusinessClasses(sourceDirs, projectPath, fileIndex, PathFilter.NONE);
+    }
+    
+    /**
+     * 分析业务类列表（按路径过滤器跳过被排除的目录和文件）
+     * 
+     * 先按目录顺序收集所有源码文件，再由源码解析器并行解析，结果顺序与收集顺序一致。
+     * 
+     * @param sourceDirs 源码目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
+     * @return 业务类列表
+     */
+    public List<BusinessClass> analyzeBusinessClasses(List<String> sourceDirs, String projectPath,
+                                                      ProjectFileIndex fileIndex, PathFilter filter) {
+        return analyzeBusinessClasses(sourceDirs, projectPath, fileIndex, filter, AnalysisMode.FULL);
+    }
+    
+    /**
+     * 分析业务类列表（指定分析模式）
+     * 
+     * 快速分析模式下先用词法分析器直接从记号中提取方法，不构建语法树；
+     * 词法分析器无法确定结果的文件再用JavaParser完整解析。
+     * 
+     * @param sourceDirs 源码目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
+     * @param mode 分析模式，为null时完整解析
+     * @return 业务类列表
+     */
+    public List<BusinessClass> analyzeBusinessClasses(List<String> sourceDirs, String projectPath,
+                                                      ProjectFileIndex fileIndex, PathFilter filter,
+                                                      AnalysisMode mode) {
+        boolean fast = mode == AnalysisMode.FAST;
+        List<java.io.File> javaFiles = collectDirectories(sourceDirs,
+            sourceDir -> collectJavaFiles(sourceDir, projectPath, fileIndex, filter));
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        List<BusinessClass> businessClasses = sourceParser.parseAll(javaFiles,
+            javaFile -> parseBusinessClass(javaFile, cache, fast));
+        if (cache != null) {
+            cache.retainUsed(fast ? ParseCache.FAST_BUSINESS : ParseCache.BUSINESS, sourceDirs);
+            store.save(cache);
+        }
+        return businessClasses;
+    }
+    
+    /**
+     * 流式分析业务类
+     * 
+     * 与analyzeBusinessClasses的规则相同，但每个文件分析完立即交给接收方，不等待所有文件完成。
+     * 接收方在解析线程中被调用，同时收到文件在收集顺序中的位置，按位置排序即为analyzeBusinessClasses的结果。
+     * 
+     * @param sourceDirs 源码目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
+     * @param mode 分析模式，为null时完整解析
+     * @param sink 业务类接收方，需要线程安全
+     */
+    public void streamBusinessClasses(List<String> sourceDirs, String projectPath,
+                                      ProjectFileIndex fileIndex, PathFilter filter, AnalysisMode mode,
+                                      ObjIntConsumer<BusinessClass> sink) {
+        boolean fast = mode == AnalysisMode.FAST;
+        List<java.io.File> javaFiles = collectDirectories(sourceDirs,
+            sourceDir -> collectJavaFiles(sourceDir, projectPath, fileIndex, filter));
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        sourceParser.parseEach(javaFiles, javaFile -> parseBusinessClass(javaFile, cache, fast), sink);
+        if (cache != null) {
+            cache.retainUsed(fast ? ParseCache.FAST_BUSINESS : ParseCache.BUSINESS, sourceDirs);
+            store.save(cache);
+        }
+    }
+    
+    /**
+     * 分析指定的业务类文件
+     * 
+     * 用于增量分析：只解析给定路径中位于源码目录下、未被过滤且仍然存在的Java文件。
+     * 解析缓存只读写这些文件的条目，不淘汰其他条目。
+     * 
+     * @param sourceDirs 源码目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param relativePaths 要分析的文件（相对于项目根目录的路径）
+     * @param filter 路径过滤器
+     * @param mode 分析模式，为null时完整解析
+     * @return 业务类列表，顺序与给定路径一致
+     */
+    public List<BusinessClass> analyzeBusinessFiles(List<String> sourceDirs, String projectPath,
+                                                    Collection<String> relativePaths, PathFilter filter,
+                                                    AnalysisMode mode) {
+        boolean fast = mode == AnalysisMode.FAST;
+        List<java.io.File> javaFiles = selectJavaFiles(sourceDirs, projectPath, relativePaths, filter);
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        List<BusinessClass> businessClasses = sourceParser.parseAll(javaFiles,
+            javaFile -> parseBusinessClass(javaFile, cache, fast));
+        if (cache != null) {
+            cache.clearUsed(fast ? ParseCache.FAST_BUSINESS : ParseCache.BUSINESS);
+            store.save(cache);
+        }
+        return businessClasses;
+    }
+    
+    /**
+     * 分析指定的测试类文件
+     * 
+     * 用于增量分析，规则与analyzeBusinessFiles相同。
+     * 
+     * @param testDirs 测试目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param relativePaths 要分析的文件（相对于项目根目录的路径）
+     * @param filter 路径过滤器
+     * @return 测试类列表，顺序与给定路径一致
+     */
+    public List<TestClass> analyzeTestFiles(List<String> testDirs, String projectPath,
+                                            Collection<String> relativePaths, PathFilter filter) {
+        List<java.io.File> javaFiles = selectJavaFiles(testDirs, projectPath, relativePaths, filter);
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        List<TestClass> testClasses = sourceParser.parseAll(javaFiles,
+            javaFile -> parseTestClass(javaFile, cache));
+        if (cache != null) {
+            cache.clearUsed(ParseCache.TEST);
+            store.save(cache);
+        }
+        return testClasses;
+    }
+    
+    /**
+     * 从给定路径中选出位于指定目录下、未被过滤且存在的Java文件
+     * 
+     * @param directories 源码或测试目录（相对路径）
+     * @param projectPath 项目根路径
+     * @param relativePaths 文件路径（相对于项目根目录）
+     * @param filter 路径过滤器
+     * @return Java文件列表
+     */
+    private List<java.io.File> selectJavaFiles(List<String> directories, String projectPath,
+                                               Collection<String> relativePaths, PathFilter filter) {
+        List<String> prefixes = new ArrayList<>(directories.size());
+        for (String directory : directories) {
+            String prefix = directory.replace('\\', '/');
+            while (prefix.endsWith("/")) {
+                prefix = prefix.substring(0, prefix.length() - 1);
+            }
+            prefixes.add(prefix.isEmpty() || prefix.equals(".") ? "" : prefix + "/");
+        }
         
-        // 遍历每个源码目录
-        for (String sourceDir : sourceDirs) {
-            // 构建完整的目录路径
-            String fullPath = projectPath + java.io.File.separator + sourceDir;
-            java.io.File dir = new java.io.File(fullPath);
-            
-            // 如果目录存在，扫描其中的Java文件
-            if (dir.exists() && dir.isDirectory()) {
-                scanBusinessClassesInDirectory(dir, projectPath, businessClasses);
+        List<java.io.File> javaFiles = new ArrayList<>();
+        for (String relativePath : relativePaths) {
+            String path = relativePath.replace('\\', '/');
+            if (!path.endsWith(".java") || !filter.accepts(path)) {
+                continue;
+            }
+            for (String prefix : prefixes) {
+                if (path.startsWith(prefix)) {
+                    java.io.File file = new java.io.File(projectPath, path);
+                    if (file.isFile()) {
+                        javaFiles.add(file);
+                    }
+                    break;
+                }
             }
         }
+        return javaFiles;
+    }
+    
+    /**
+     * 收集单个目录中的Java文件
+     * 
+     * 优先使用文件索引，索引无法覆盖的目录才回退到磁盘遍历。
+     * 
+     * @param directory 源码或测试目录（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
+     * @return Java文件列表
+     */
+    private List<java.io.File> collectJavaFiles(String directory, String projectPath,
+                                                ProjectFileIndex fileIndex, PathFilter filter) {
+        List<java.io.File> javaFiles = new ArrayList<>();
         
-        return businessClasses;
+        // 优先使用文件索引
+        List<FileEntry> indexedFiles = fileIndex != null ? fileIndex.findJavaFiles(directory) : null;
+        if (indexedFiles != null) {
+            for (FileEntry file : indexedFiles) {
+                if (filter.accepts(file.getRelativePath())) {
+                    javaFiles.add(new java.io.File(file.getAbsolutePath()));
+                }
+            }
+            return javaFiles;
+        }
+        
+        // 构建完整的目录路径
+        String fullPath = projectPath + java.io.File.separator + directory;
+        java.io.File dir = new java.io.File(fullPath);
+        
+        // 如果目录存在，扫描其中的Java文件
+        if (dir.exists() && dir.isDirectory() && filter.acceptsDirectory(directory)) {
+            collectJavaFilesInDirectory(dir, directory, filter, javaFiles);
+        }
+        
+        return javaFiles;
     }
     
     /**
-     * 扫描目录中的业务类
+     * 并行收集多个目录中的文件
+     * 
+     * 每个目录提交为一个独立任务，全部提交后再按目录顺序收集结果，
+     * 因此合并结果的顺序与串行收集一致，与任务完成的先后无关。
      * 
-     * 递归扫描目录，找出所有Java文件并解析为业务类。
+     * @param directories 目录列表
+     * @param collector 单个目录的收集函数
+     * @return 合并后的结果
+     */
+    private <T> List<T> collectDirectories(List<String> directories, Function<String, List<T>> collector) {
+        List<T> results = new ArrayList<>();
+        if (directories.size() == 1) {
+            results.addAll(collector.apply(directories.get(0)));
+            return results;
+        }
+        
+        List<ForkJoinTask<List<T>>> tasks = new ArrayList<>();
+        for (String directory : directories) {
+            tasks.add(DIRECTORY_POOL.submit(() -> collector.apply(directory)));
+        }
+        for (ForkJoinTask<List<T>> task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+    
+    /**
+     * 递归收集目录中的Java文件
      * 
      * @param directory 要扫描的目录
-     * @param projectPath 项目根路径
-     * @param businessClasses 用于收集业务类的列表
+     * @param relativePath 目录相对于项目根目录的路径
+     * @param filter 路径过滤器，被排除的子目录不再进入
+     * @param javaFiles 用于收集Java文件的列表
      */
-    private void scanBusinessClassesInDirectory(java.io.File directory, String projectPath, 
-                                                List<BusinessClass> businessClasses) {
+    private void collectJavaFilesInDirectory(java.io.File directory, String relativePath,
+                                             PathFilter filter, List<java.io.File> javaFiles) {
         // 获取目录下的所有文件
         java.io.File[] files = directory.listFiles();
         
@@ -73,15 +394,14 @@ public class CodeAnalyzer {
         
         // 遍历所有文件
         for (java.io.File file : files) {
+            String childPath = relativePath + "/" + file.getName();
             if (file.isDirectory()) {
                 // 递归扫描子目录
-                scanBusinessClassesInDirectory(file, projectPath, businessClasses);
-            } else if (file.getName().endsWith(".java")) {
-                // 解析Java文件
-                BusinessClass businessClass = parseBusinessClass(file, projectPath);
-                if (businessClass != null) {
-                    businessClasses.add(businessClass);
+                if (!filter.excludesDirectory(childPath)) {
+                    collectJavaFilesInDirectory(file, childPath, filter, javaFiles);
                 }
+            } else if (file.getName().endsWith(".java") && !filter.excludesFile(childPath)) {
+                javaFiles.add(file);
             }
         }
     }
@@ -89,19 +409,84 @@ public class CodeAnalyzer {
     /**
      * 解析单个Java文件为业务类
      * 
-     * 使用JavaParser解析Java文件，提取类名、包名、方法等信息。
+     * 文件内容与缓存中的某个条目相同时直接取缓存结果，否则解析并写入缓存。
      * 
      * @param javaFile Java文件
-     * @param projectPath 项目根路径
+     * @param cache 解析缓存，可为null
+     * @param fast 是否先尝试快速分析
      * @return 解析后的业务类对象，如果解析失败返回null
      */
-    private BusinessClass parseBusinessClass(java.io.File javaFile, String projectPath) {
+    private BusinessClass parseBusinessClass(java.io.File javaFile, ParseCache cache, boolean fast) {
+        byte[] content = readContent(javaFile);
+        if (content == null) {
+            return null;
+        }
+        if (cache == null) {
+            return fast ? analyzeBusinessClassFast(javaFile, content) : parseBusinessClass(javaFile, content);
+        }
+        
+        // 快速分析不检查语法错误，结果可能与完整解析不同，两种模式的结果分开缓存
+        String key = cache.key(fast ? ParseCache.FAST_BUSINESS : ParseCache.BUSINESS, javaFile, content);
+        if (cache.contains(key)) {
+            return cache.getBusinessClass(key, javaFile.getAbsolutePath());
+        }
+        BusinessClass businessClass = fast ? analyzeBusinessClassFast(javaFile, content)
+                                           : parseBusinessClass(javaFile, content);
+        cache.putBusinessClass(key, businessClass);
+        return businessClass;
+    }
+    
+    /**
+     * 使用词法分析器提取业务类信息，无法确定结果时改用完整解析
+     * 
+     * @param javaFile Java文件
+     * @param content 文件内容
+     * @return 业务类对象，如果解析失败返回null
+     */
+    private BusinessClass analyzeBusinessClassFast(java.io.File javaFile, byte[] content) {
+        String fileName = javaFile.getName();
+        String className = fileName.substring(0, fileName.length() - 5);
+        LexicalAnalyzer.LexicalClass lexicalClass = LEXICAL_ANALYZERS.get().analyze(
+            new String(content, java.nio.charset.StandardCharsets.UTF_8), className);
+        if (lexicalClass == null) {
+            return parseBusinessClass(javaFile, content);
+        }
+        return newBusinessClass(javaFile, className, lexicalClass.getPackageName(),
+                                new ArrayList<>(lexicalClass.getMethods()));
+    }
+    
+    /**
+     * 读取Java文件的内容
+     * 
+     * 文件未修改且仍在源文件缓存中时不再读取磁盘。
+     * 
+     * @param javaFile Java文件
+     * @return 文件内容，读取失败时返回null
+     */
+    private byte[] readContent(java.io.File javaFile) {
         try {
-            // 使用JavaParser解析Java文件（新版本API）
-            FileInputStream in = new FileInputStream(javaFile);
-            JavaParser javaParser = new JavaParser();
-            ParseResult<CompilationUnit> parseResult = javaParser.parse(in);
-            in.close();
+            return sourceFileCache.content(javaFile);
+        } catch (IOException e) {
+            System.err.println("读取文件失败: " + javaFile.getAbsolutePath() + " - " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 使用JavaParser解析Java源码，提取类名、包名、方法等信息
+     * 
+     * @param javaFile Java文件
+     * @param content 文件内容
+     * @return 解析后的业务类对象，如果解析失败返回null
+     */
+    private BusinessClass parseBusinessClass(java.io.File javaFile, byte[] content) {
+        try {
+            // 同一文件已解析过时复用解析结果，否则使用当前线程复用的JavaParser解析；
+            // 源码目录与测试目录重叠时，可能是测试类的文件之后还要做测试类分析，保留解析结果；
+            // 精简解析时不保留语法树，测试类分析时重新解析
+            boolean retain = !sourceParser.isLean() && mayBeTestClass(content);
+            ParseResult<CompilationUnit> parseResult =
+                sourceFileCache.parse(javaFile, content, sourceParser::parse, retain);
             
             // 检查解析是否成功
             if (!parseResult.isSuccessful()) {
@@ -114,47 +499,17 @@ public class CodeAnalyzer {
                 return null;
             }
             
-            // 创建业务类对象
-            BusinessClass businessClass = new BusinessClass();
-            
-            // 设置文件路径
-            businessClass.setFilePath(javaFile.getAbsolutePath());
-            
             // 提取简单类名（从文件名）
             String fileName = javaFile.getName();
             String className = fileName.substring(0, fileName.length() - 5); // 去掉.java后缀
-            businessClass.setClassName(className);
             
             // 提取包名
-            cu.getPackageDeclaration().ifPresent(pkg -> {
-                businessClass.setPackageName(pkg.getNameAsString());
-                // 构建完整限定名：包名.类名
-                businessClass.setFullyQualifiedName(pkg.getNameAsString() + "." + className);
-            });
-            
-            // 如果没有包名，完整限定名就是类名
-            if (businessClass.getFullyQualifiedName() == null) {
-                businessClass.setFullyQualifiedName(className);
-            }
-            
-            // 识别类类型
-            ClassType classType = ClassType.fromClassName(className);
-            businessClass.setClassType(classType);
-            
-            // 推测对应的测试类名（按照命名约定）
-            String testClassName = className + "Test";
-            if (businessClass.getPackageName() != null) {
-                businessClass.setCorrespondingTestClass(
-                    businessClass.getPackageName() + "." + testClassName);
-            } else {
-                businessClass.setCorrespondingTestClass(testClassName);
-            }
+            String packageName = cu.getPackageDeclaration().map(pkg -> pkg.getNameAsString()).orElse(null);
             
             // 提取所有公共方法
             List<Method> methods = extractMethods(cu, className);
-            businessClass.setMethods(methods);
             
-            return businessClass;
+            return newBusinessClass(javaFile, className, packageName, methods);
             
         } catch (Exception e) {
             // 解析失败，记录错误并返回null
@@ -163,6 +518,60 @@ public class CodeAnalyzer {
         }
     }
     
+    /**
+     * 创建业务类对象
+     * 
+     * @param javaFile Java文件
+     * @param className 简单类名
+     * @param packageName 包名，没有包声明时为null
+     * @param methods 公共方法
+     * @return 业务类对象
+     */
+    private BusinessClass newBusinessClass(java.io.File javaFile, String className, String packageName,
+                                           List<Method> methods) {
+        BusinessClass businessClass = new BusinessClass();
+        
+        // 设置文件路径和类名
+        businessClass.setFilePath(javaFile.getAbsolutePath());
+        businessClass.setClassName(className);
+        
+        // 构建完整限定名：包名.类名，没有包名时就是类名
+        if (packageName != null) {
+            businessClass.setPackageName(packageName);
+            businessClass.setFullyQualifiedName(packageName + "." + className);
+        } else {
+            businessClass.setFullyQualifiedName(className);
+        }
+        
+        // 识别类类型
+        ClassType classType = ClassType.fromClassName(className);
+        businessClass.setClassType(classType);
+        
+        // 推测对应的测试类名（按照命名约定）
+        String testClassName = className + "Test";
+        if (businessClass.getPackageName() != null) {
+            businessClass.setCorrespondingTestClass(
+                businessClass.getPackageName() + "." + testClassName);
+        } else {
+            businessClass.setCorrespondingTestClass(testClassName);
+        }
+        
+        businessClass.setMethods(methods);
+        return businessClass;
+    }
+    
+    /**
+     * 判断文件是否可能是测试类
+     * 
+     * 由导入头扫描器读取导入语句，有测试框架的导入或无法在字节上确定时视为可能是测试类。
+     * 
+     * @param content 文件内容
+     * @return 是否可能是测试类
+     */
+    private static boolean mayBeTestClass(byte[] content) {
+        return ImportHeaderScanner.detectTestFramework(content) != TestFramework.UNKNOWN;
+    }
+    
     /**
      * 从编译单元中提取方法
      * 
@@ -175,54 +584,48 @@ public class CodeAnalyzer {
     private List<Method> extractMethods(CompilationUnit cu, String className) {
         List<Method> methods = new ArrayList<>();
         
-        // 使用访问者模式遍历所有方法声明
-        cu.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(MethodDeclaration md, Void arg) {
-                super.visit(md, arg);
+        // 使用访问者模式遍历所有方法声明，一次遍历同时得到每个方法的复杂度
+        cu.accept(new MethodMetricsVisitor((md, metrics) -> {
+            // 只提取公共方法（public）
+            if (md.isPublic()) {
+                // 创建方法对象
+                Method method = new Method();
                 
-                // 只提取公共方法（public）
-                if (md.isPublic()) {
-                    // 创建方法对象
-                    Method method = new Method();
-                    
-                    // 设置方法名
-                    method.setMethodName(md.getNameAsString());
-                    
-                    // 设置返回类型
-                    // MethodDeclaration的getType()返回Type，需要检查是否存在
-                    if (md.getType() != null) {
-                        method.setReturnType(md.getType().toString());
-                    } else {
-                        method.setReturnType("void");
-                    }
-                    
-                    // 设置参数列表
-                    List<String> parameters = new ArrayList<>();
-                    md.getParameters().forEach(param -> {
-                        // 参数格式：类型
-                        parameters.add(param.getTypeAsString());
-                    });
-                    method.setParameters(parameters);
-                    
-                    // 生成方法签名
-                    method.setSignature(generateMethodSignature(md.getNameAsString(), parameters));
-                    
-                    // 设置所属类名
-                    method.setBelongingClassName(className);
-                    
-                    // 设置行号信息
-                    md.getBegin().ifPresent(begin -> method.setStartLineNumber(begin.line));
-                    md.getEnd().ifPresent(end -> method.setEndLineNumber(end.line));
-                    
-                    // 计算方法复杂度（简单的圈复杂度估算）
-                    int complexity = calculateComplexity(md);
-                    method.setComplexity(complexity);
-                    
-                    methods.add(method);
+                // 设置方法名
+                method.setMethodName(md.getNameAsString());
+                
+                // 设置返回类型
+                // MethodDeclaration的getType()返回Type，需要检查是否存在
+                if (md.getType() != null) {
+                    method.setReturnType(md.getType().toString());
+                } else {
+                    method.setReturnType("void");
                 }
+                
+                // 设置参数列表
+                List<String> parameters = new ArrayList<>();
+                md.getParameters().forEach(param -> {
+                    // 参数格式：类型
+                    parameters.add(param.getTypeAsString());
+                });
+                method.setParameters(parameters);
+                
+                // 生成方法签名
+                method.setSignature(generateMethodSignature(md.getNameAsString(), parameters));
+                
+                // 设置所属类名
+                method.setBelongingClassName(className);
+                
+                // 设置行号信息
+                md.getBegin().ifPresent(begin -> method.setStartLineNumber(begin.line));
+                md.getEnd().ifPresent(end -> method.setEndLineNumber(end.line));
+                
+                // 方法复杂度（简单的圈复杂度估算）
+                method.setComplexity(metrics.getComplexity());
+                
+                methods.add(method);
             }
-        }, null);
+        }), null);
         
         return methods;
     }
@@ -247,134 +650,125 @@ public class CodeAnalyzer {
     }
     
     /**
-     * 计算方法的圈复杂度
+     * 分析测试类列表
      * 
-     * 圈复杂度是衡量代码复杂度的指标，通过计算独立路径数量得出。
-     * 这里使用简化的计算方法：初始值为1，每个if/for/while/case增加1。
+     * 遍历所有测试目录，找出所有的测试类并提取其信息。
      * 
-     * @param md 方法声明
-     * @return 圈复杂度值
+     * @param testDirs 测试目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @return 测试类列表
      */
-    private int calculateComplexity(MethodDeclaration md) {
-        // 初始复杂度为1（方法本身）
-        final int[] complexity = {1};
-        
-        // 遍历方法体中的所有语句
-        md.getBody().ifPresent(body -> {
-            body.accept(new VoidVisitorAdapter<Void>() {
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.IfStmt n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // if语句增加复杂度
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.ForStmt n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // for循环增加复杂度
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.WhileStmt n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // while循环增加复杂度
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.SwitchStmt n, Void arg) {
-                    super.visit(n, arg);
-                    // switch语句的每个case增加复杂度
-                    complexity[0] += n.getEntries().size();
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.DoStmt n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // do-while循环增加复杂度
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.expr.ConditionalExpr n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // 三元运算符增加复杂度
-                }
-                
-                @Override
-                public void visit(com.github.javaparser.ast.stmt.CatchClause n, Void arg) {
-                    super.visit(n, arg);
-                    complexity[0]++; // catch块增加复杂度
-                }
-            }, null);
-        });
-        
-        return complexity[0];
+    public List<TestClass> analyzeTestClasses(List<String> testDirs, String projectPath) {
+        return analyzeTestClasses(testDirs, projectPath, null);
     }
     
     /**
-     * 分析测试类列表
+     * 分析测试类列表（使用扫描阶段的文件索引）
      * 
-     * 遍历所有测试目录，找出所有的测试类并提取其信息。
+     * @param testDirs 测试目录列表（相对路径）
+     * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @return 测试类列表
+     */
+    public List<TestClass> analyzeTestClasses(List<String> testDirs, String projectPath,
+                                              ProjectFileIndex fileIndex) {
+        return analyzeTestClasses(testDirs, projectPath, fileIndex, PathFilter.NONE);
+    }
+    
+    /**
+     * 分析测试类列表（按路径过滤器跳过被排除的目录和文件）
      * 
      * @param testDirs 测试目录列表（相对路径）
      * @param projectPath 项目根路径
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
      * @return 测试类列表
      */
-    public List<TestClass> analyzeTestClasses(List<String> testDirs, String projectPath) {
-        List<TestClass> testClasses = new ArrayList<>();
-        
-        // 遍历每个测试目录
-        for (String testDir : testDirs) {
-            String fullPath = projectPath + java.io.File.separator + testDir;
-            java.io.File dir = new java.io.File(fullPath);
-            
-            if (dir.exists() && dir.isDirectory()) {
-                scanTestClassesInDirectory(dir, projectPath, testClasses);
-            }
+    public List<TestClass> analyzeTestClasses(List<String> testDirs, String projectPath,
+                                              ProjectFileIndex fileIndex, PathFilter filter) {
+        List<java.io.File> javaFiles = collectDirectories(testDirs,
+            testDir -> collectJavaFiles(testDir, projectPath, fileIndex, filter));
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        List<TestClass> testClasses = sourceParser.parseAll(javaFiles,
+            javaFile -> parseTestClass(javaFile, cache));
+        if (cache != null) {
+            cache.retainUsed(ParseCache.TEST, testDirs);
+            store.save(cache);
         }
-        
         return testClasses;
     }
     
     /**
-     * 扫描目录中的测试类
+     * 流式分析测试类
      * 
-     * @param directory 要扫描的目录
+     * 与analyzeTestClasses的规则相同，但每个测试类分析完立即交给接收方。
+     * 接收方在解析线程中被调用，同时收到文件在收集顺序中的位置。
+     * 
+     * @param testDirs 测试目录列表（相对路径）
      * @param projectPath 项目根路径
-     * @param testClasses 用于收集测试类的列表
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param filter 路径过滤器
+     * @param sink 测试类接收方，需要线程安全
      */
-    private void scanTestClassesInDirectory(java.io.File directory, String projectPath,
-                                           List<TestClass> testClasses) {
-        java.io.File[] files = directory.listFiles();
-        
-        if (files == null) {
-            return;
+    public void streamTestClasses(List<String> testDirs, String projectPath,
+                                  ProjectFileIndex fileIndex, PathFilter filter,
+                                  ObjIntConsumer<TestClass> sink) {
+        List<java.io.File> javaFiles = collectDirectories(testDirs,
+            testDir -> collectJavaFiles(testDir, projectPath, fileIndex, filter));
+        ParseCacheStore store = parseCacheStore;
+        ParseCache cache = store != null ? store.load(new java.io.File(projectPath).getAbsolutePath()) : null;
+        sourceParser.parseEach(javaFiles, javaFile -> parseTestClass(javaFile, cache), sink);
+        if (cache != null) {
+            cache.retainUsed(ParseCache.TEST, testDirs);
+            store.save(cache);
+        }
+    }
+    
+    /**
+     * 解析单个Java文件为测试类
+     * 
+     * 文件内容与缓存中的某个条目相同时直接取缓存结果，否则解析并写入缓存。
+     * 
+     * @param javaFile Java文件
+     * @param cache 解析缓存，可为null
+     * @return 解析后的测试类对象，如果不是测试文件则返回null
+     */
+    private TestClass parseTestClass(java.io.File javaFile, ParseCache cache) {
+        byte[] content = readContent(javaFile);
+        if (content == null) {
+            return null;
+        }
+        if (cache == null) {
+            return parseTestClass(javaFile, content);
         }
         
-        for (java.io.File file : files) {
-            if (file.isDirectory()) {
-                scanTestClassesInDirectory(file, projectPath, testClasses);
-            } else if (file.getName().endsWith(".java")) {
-                TestClass testClass = parseTestClass(file, projectPath);
-                if (testClass != null) {
-                    testClasses.add(testClass);
-                }
-            }
+        String key = cache.key(ParseCache.TEST, javaFile, content);
+        if (cache.contains(key)) {
+            return cache.getTestClass(key, javaFile.getAbsolutePath());
         }
+        TestClass testClass = parseTestClass(javaFile, content);
+        cache.putTestClass(key, testClass);
+        return testClass;
     }
     
     /**
-     * 解析单个Java文件为测试类
+     * 使用JavaParser解析Java源码，提取测试框架和测试方法
      * 
      * @param javaFile Java文件
-     * @param projectPath 项目根路径
+     * @param content 文件内容
      * @return 解析后的测试类对象，如果不是测试文件则返回null
      */
-    private TestClass parseTestClass(java.io.File javaFile, String projectPath) {
+    private TestClass parseTestClass(java.io.File javaFile, byte[] content) {
         try {
-            FileInputStream in = new FileInputStream(javaFile);
-            JavaParser javaParser = new JavaParser();
-            ParseResult<CompilationUnit> parseResult = javaParser.parse(in);
-            in.close();
+            // 先扫描导入头判断测试框架，夹具、工具类等没有测试框架导入的文件无需解析
+            TestFramework headerFramework = ImportHeaderScanner.detectTestFramework(content);
+            if (headerFramework == TestFramework.UNKNOWN) {
+                return null; // 不是测试文件
+            }
+            
+            ParseResult<CompilationUnit> parseResult =
+                sourceFileCache.parse(javaFile, content, sourceParser::parse, false);
             
             // 检查解析是否成功
             if (!parseResult.isSuccessful()) {
@@ -386,8 +780,8 @@ public class CodeAnalyzer {
                 return null;
             }
             
-            // 检查是否包含测试方法（通过注解判断）
-            TestFramework framework = detectTestFramework(cu);
+            // 导入头无法在字节上确定时（含Unicode转义），按语法树中的导入判断
+            TestFramework framework = headerFramework != null ? headerFramework : detectTestFramework(cu);
             if (framework == TestFramework.UNKNOWN) {
                 return null; // 不是测试文件
             }
@@ -432,6 +826,20 @@ public class CodeAnalyzer {
             List<TestMethod> testMethods = extractTestMethods(cu, className, framework);
             testClass.setTestMethods(testMethods);
             
+            // 记录@Nested嵌套测试类，其测试方法已计入本测试类
+            List<String> nestedClassNames = new ArrayList<>();
+            for (ClassOrInterfaceDeclaration nested : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+                if (nested.isNestedType() && (nested.isAnnotationPresent("Nested")
+                        || nested.isAnnotationPresent("org.junit.jupiter.api.Nested"))) {
+                    nestedClassNames.add(nested.getNameAsString());
+                }
+            }
+            if (!nestedClassNames.isEmpty()) {
+                testClass.setNestedClassNames(nestedClassNames);
+            }
+            
+            testClass.setReferencedTypes(collectReferencedTypes(cu));
+            
             return testClass;
             
         } catch (Exception e) {
@@ -451,21 +859,9 @@ public class CodeAnalyzer {
     private TestFramework detectTestFramework(CompilationUnit cu) {
         // 检查导入语句
         for (com.github.javaparser.ast.ImportDeclaration imp : cu.getImports()) {
-            String importName = imp.getNameAsString();
-            
-            // JUnit 5
-            if (importName.startsWith("org.junit.jupiter.api")) {
-                return TestFramework.JUNIT5;
-            }
-            
-            // JUnit 4
-            if (importName.startsWith("org.junit.") && !importName.startsWith("org.junit.jupiter")) {
-                return TestFramework.JUNIT4;
-            }
-            
-            // TestNG
-            if (importName.startsWith("org.testng")) {
-                return TestFramework.TESTNG;
+            TestFramework framework = ImportHeaderScanner.frameworkOf(imp.getNameAsString());
+            if (framework != TestFramework.UNKNOWN) {
+                return framework;
             }
         }
         
@@ -484,64 +880,94 @@ public class CodeAnalyzer {
                                                 TestFramework framework) {
         List<TestMethod> testMethods = new ArrayList<>();
         
-        cu.accept(new VoidVisitorAdapter<Void>() {
-            @Override
-            public void visit(MethodDeclaration md, Void arg) {
-                super.visit(md, arg);
+        // 一次遍历同时得到每个方法的断言数量、Mock调用和代码行数
+        cu.accept(new MethodMetricsVisitor((md, metrics) -> {
+            // 检查是否有@Test注解
+            boolean isTestMethod = md.getAnnotations().stream()
+                .anyMatch(annotation -> {
+                    String annotationName = annotation.getNameAsString();
+                    return annotationName.equals("Test") || annotationName.equals("org.junit.Test");
+                });
+            
+            if (isTestMethod) {
+                TestMethod testMethod = new TestMethod();
                 
-                // 检查是否有@Test注解
-                boolean isTestMethod = md.getAnnotations().stream()
-                    .anyMatch(annotation -> {
-                        String annotationName = annotation.getNameAsString();
-                        return annotationName.equals("Test") || annotationName.equals("org.junit.Test");
-                    });
+                // 设置方法名
+                testMethod.setMethodName(md.getNameAsString());
                 
-                if (isTestMethod) {
-                    TestMethod testMethod = new TestMethod();
-                    
-                    // 设置方法名
-                    testMethod.setMethodName(md.getNameAsString());
-                    
-                    // 设置所属测试类
-                    testMethod.setBelongingTestClass(className);
-                    
-                    // 推测测试的业务方法名
-                    String testedMethod = extractTestedMethodName(md.getNameAsString());
-                    testMethod.setTestedBusinessMethod(testedMethod);
-                    
-                    // 统计断言数量
-                    int assertionCount = countAssertions(md);
-                    testMethod.setAssertionCount(assertionCount);
-                    
-                    // 检查是否有边界值测试（通过方法名判断）
-                    boolean hasBoundary = md.getNameAsString().toLowerCase().contains("boundary") ||
-                                         md.getNameAsString().toLowerCase().contains("edge") ||
-                                         md.getNameAsString().toLowerCase().contains("limit");
-                    testMethod.setHasBoundaryTests(hasBoundary);
-                    
-                    // 检查是否有异常测试（通过方法名或异常注解判断）
-                    boolean hasException = md.getNameAsString().toLowerCase().contains("exception") ||
-                                          md.getNameAsString().toLowerCase().contains("error") ||
-                                          md.getAnnotations().stream()
-                                              .anyMatch(a -> a.getNameAsString().equals("ExpectedException"));
-                    testMethod.setHasExceptionTests(hasException);
-                    
-                    // 检查是否使用Mock（通过方法体中的mock调用判断）
-                    boolean usesMocks = checkForMocks(md);
-                    testMethod.setUsesMocks(usesMocks);
-                    
-                    // 计算代码行数
-                    int lines = md.toString().split("\n").length;
-                    testMethod.setLinesOfCode(lines);
-                    
-                    testMethods.add(testMethod);
-                }
+                // 设置所属测试类
+                testMethod.setBelongingTestClass(className);
+                
+                // 推测测试的业务方法名
+                String testedMethod = extractTestedMethodName(md.getNameAsString());
+                testMethod.setTestedBusinessMethod(testedMethod);
+                
+                // 断言数量
+                testMethod.setAssertionCount(metrics.getAssertionCount());
+                
+                // 检查是否有边界值测试（通过方法名判断）
+                boolean hasBoundary = md.getNameAsString().toLowerCase().contains("boundary") ||
+                                     md.getNameAsString().toLowerCase().contains("edge") ||
+                                     md.getNameAsString().toLowerCase().contains("limit");
+                testMethod.setHasBoundaryTests(hasBoundary);
+                
+                // 检查是否有异常测试（通过方法名或异常注解判断）
+                boolean hasException = md.getNameAsString().toLowerCase().contains("exception") ||
+                                      md.getNameAsString().toLowerCase().contains("error") ||
+                                      md.getAnnotations().stream()
+                                          .anyMatch(a -> a.getNameAsString().equals("ExpectedException"));
+                testMethod.setHasExceptionTests(hasException);
+                
+                // 检查是否使用Mock（通过Mock注解或方法体中的mock调用判断）
+                boolean usesMocks = hasMockAnnotation(md) || metrics.hasMockCalls();
+                testMethod.setUsesMocks(usesMocks);
+                
+                // 代码行数（按声明所在的行计算）
+                testMethod.setLinesOfCode(metrics.getLinesOfCode());
+                
+                // 调用的方法名
+                testMethod.setCalledMethodNames(new ArrayList<>(metrics.getCalledMethodNames()));
+                
+                testMethods.add(testMethod);
             }
-        }, null);
+        }), null);
         
         return testMethods;
     }
     
+    /**
+     * 收集测试文件中引用的类型的简单名称
+     * 
+     * 包括导入的类型、声明和创建对象用到的类型，以及静态调用的类名（以大写字母开头的调用目标）。
+     * 
+     * @param cu 编译单元
+     * @return 类型的简单名称，按首次出现的顺序排列
+     */
+    private List<String> collectReferencedTypes(CompilationUnit cu) {
+        Set<String> types = new LinkedHashSet<>();
+        for (ImportDeclaration importDeclaration : cu.getImports()) {
+            if (!importDeclaration.isAsterisk()) {
+                Name name = importDeclaration.getName();
+                // 静态导入的是成员，取其所在的类
+                if (importDeclaration.isStatic()) {
+                    name = name.getQualifier().orElse(name);
+                }
+                types.add(name.getIdentifier());
+            }
+        }
+        for (ClassOrInterfaceType type : cu.findAll(ClassOrInterfaceType.class)) {
+            types.add(type.getNameAsString());
+        }
+        for (MethodCallExpr call : cu.findAll(MethodCallExpr.class)) {
+            call.getScope()
+                .filter(Expression::isNameExpr)
+                .map(scope -> scope.asNameExpr().getNameAsString())
+                .filter(name -> Character.isUpperCase(name.charAt(0)))
+                .ifPresent(types::add);
+        }
+        return new ArrayList<>(types);
+    }
+    
     /**
      * 从测试方法名中提取被测试的业务方法名
      * 
@@ -583,83 +1009,20 @@ public class CodeAnalyzer {
     }
     
     /**
-     * 统计测试方法中的断言数量
-     * 
-     * 通过查找常见的断言方法调用来统计。
+     * 检查测试方法上是否有Mock注解
      * 
      * @param md 方法声明
-     * @return 断言数量
+     * @return 是否有Mock注解
      */
-    private int countAssertions(MethodDeclaration md) {
-        final int[] count = {0};
-        
-        md.getBody().ifPresent(body -> {
-            body.accept(new VoidVisitorAdapter<Void>() {
-                @Override
-                public void visit(com.github.javaparser.ast.expr.MethodCallExpr n, Void arg) {
-                    super.visit(n, arg);
-                    
-                    String methodName = n.getNameAsString();
-                    // 常见的断言方法
-                    if (methodName.startsWith("assert") || 
-                        methodName.equals("assertTrue") ||
-                        methodName.equals("assertFalse") ||
-                        methodName.equals("assertNull") ||
-                        methodName.equals("assertNotNull") ||
-                        methodName.equals("assertEquals") ||
-                        methodName.equals("assertNotEquals") ||
-                        methodName.startsWith("verify")) {
-                        count[0]++;
-                    }
-                }
-            }, null);
-        });
-        
-        return count[0];
-    }
-    
-    /**
-     * 检查测试方法是否使用了Mock
-     * 
-     * @param md 方法声明
-     * @return 是否使用Mock
-     */
-    private boolean checkForMocks(MethodDeclaration md) {
-        final boolean[] usesMocks = {false};
-        
-        // 检查方法上的注解
+    private boolean hasMockAnnotation(MethodDeclaration md) {
         for (com.github.javaparser.ast.expr.AnnotationExpr annotation : md.getAnnotations()) {
             String annotationName = annotation.getNameAsString();
             if (annotationName.equals("Mock") ||
                 annotationName.equals("MockBean") ||
                 annotationName.equals("InjectMocks")) {
-                usesMocks[0] = true;
-                break;
+                return true;
             }
         }
-        
-        // 检查方法体中的mock调用
-        if (!usesMocks[0]) {
-            md.getBody().ifPresent(body -> {
-                body.accept(new VoidVisitorAdapter<Void>() {
-                    @Override
-                    public void visit(com.github.javaparser.ast.expr.MethodCallExpr n, Void arg) {
-                        super.visit(n, arg);
-                        
-                        String methodCallName = n.getNameAsString();
-                        // 常见的Mock方法
-                        if (methodCallName.equals("mock") ||
-                            methodCallName.equals("when") ||
-                            methodCallName.equals("given") ||
-                            methodCallName.equals("doReturn") ||
-                            methodCallName.equals("doThrow")) {
-                            usesMocks[0] = true;
-                        }
-                    }
-                }, null);
-            });
-        }
-        
-        return usesMocks[0];
+        return false;
     }
 }
@@ -0,0 +1,286 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.TestFramework;
+
+/**
+ * 导入头扫描器 - 不解析语法树，直接在文件字节上读取包声明和导入语句
+ *
+ * 测试目录中的夹具、构建器和工具类往往占到一半，它们的导入中没有测试框架，
+ * 完整解析后也只会被丢弃。扫描器只读取文件开头的包声明和导入语句，
+ * 遇到第一个类型声明即停止，据此判断测试框架，只有测试类才需要完整解析。
+ *
+ * 判断规则与按语法树的导入判断完全一致（见frameworkOf）。
+ * 与JavaParser的默认配置一样，注释中的Unicode转义不做转换；
+ * 注释之外出现反斜杠（Unicode转义）时无法在字节上确定导入名，返回null，由调用方完整解析后判断。
+ */
+final class ImportHeaderScanner {
+
+    private final byte[] content;
+    private int pos;
+
+    private ImportHeaderScanner(byte[] content) {
+        this.content = content;
+    }
+
+    /**
+     * 根据导入语句判断测试框架
+     *
+     * @param content 文件内容（UTF-8）
+     * @return 测试框架，没有测试框架的导入时返回UNKNOWN，无法在字节上确定时返回null
+     */
+    static TestFramework detectTestFramework(byte[] content) {
+        try {
+            return new ImportHeaderScanner(content).scan();
+        } catch (UncertainException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 根据导入名判断测试框架
+     *
+     * @param importName 导入名，如org.junit.jupiter.api.Test（静态导入和按需导入不含static和.*）
+     * @return 测试框架，不是测试框架的导入时返回UNKNOWN
+     */
+    static TestFramework frameworkOf(String importName) {
+        // JUnit 5
+        if (importName.startsWith("org.junit.jupiter.api")) {
+            return TestFramework.JUNIT5;
+        }
+
+        // JUnit 4
+        if (importName.startsWith("org.junit.") && !importName.startsWith("org.junit.jupiter")) {
+            return TestFramework.JUNIT4;
+        }
+
+        // TestNG
+        if (importName.startsWith("org.testng")) {
+            return TestFramework.TESTNG;
+        }
+
+        return TestFramework.UNKNOWN;
+    }
+
+    private TestFramework scan() {
+        // UTF-8的BOM
+        if (content.length >= 3 && (content[0] & 0xFF) == 0xEF && (content[1] & 0xFF) == 0xBB
+            && (content[2] & 0xFF) == 0xBF) {
+            pos = 3;
+        }
+
+        // 包注解和包声明
+        skipTrivia();
+        while (peek() == '@') {
+            pos++;
+            skipTrivia();
+            String name = qualifiedName();
+            if (name.equals("interface")) {
+                return TestFramework.UNKNOWN;
+            }
+            skipTrivia();
+            if (peek() == '(') {
+                skipParentheses();
+                skipTrivia();
+            }
+        }
+        if (word("package")) {
+            skipTrivia();
+            qualifiedName();
+            skipTrivia();
+            if (peek() != ';') {
+                return TestFramework.UNKNOWN;
+            }
+            pos++;
+        }
+
+        // 导入语句，按出现顺序取第一个测试框架的导入
+        while (true) {
+            skipTrivia();
+            if (peek() == ';') {
+                pos++;
+                continue;
+            }
+            if (!word("import")) {
+                return TestFramework.UNKNOWN;
+            }
+            skipTrivia();
+            word("static");
+            skipTrivia();
+            String importName = qualifiedName();
+            skipTrivia();
+            if (peek() == '.') {
+                // 按需导入的.*
+                pos++;
+                skipTrivia();
+                if (peek() != '*') {
+                    return TestFramework.UNKNOWN;
+                }
+                pos++;
+                skipTrivia();
+            }
+            if (peek() != ';') {
+                return TestFramework.UNKNOWN;
+            }
+            pos++;
+
+            TestFramework framework = frameworkOf(importName);
+            if (framework != TestFramework.UNKNOWN) {
+                return framework;
+            }
+        }
+    }
+
+    /**
+     * 读取限定名，各部分之间允许有空白和注释，返回以点连接的名称
+     */
+    private String qualifiedName() {
+        StringBuilder name = new StringBuilder();
+        while (true) {
+            int start = pos;
+            while (pos < content.length && isIdentifierPart(content[pos])) {
+                pos++;
+            }
+            if (pos == start) {
+                return name.toString();
+            }
+            name.append(new String(content, start, pos - start, java.nio.charset.StandardCharsets.UTF_8));
+
+            int end = pos;
+            skipTrivia();
+            if (peek() == '.') {
+                int dot = pos;
+                pos++;
+                skipTrivia();
+                if (pos < content.length && isIdentifierPart(content[pos])) {
+                    name.append('.');
+                    continue;
+                }
+                // 按需导入的.*留给调用方处理
+                pos = dot;
+                return name.toString();
+            }
+            pos = end;
+            return name.toString();
+        }
+    }
+
+    /**
+     * 读取关键字，之后不能紧跟标识符字符
+     */
+    private boolean word(String keyword) {
+        int length = keyword.length();
+        if (pos + length > content.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (content[pos + i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        if (pos + length < content.length && isIdentifierPart(content[pos + length])) {
+            return false;
+        }
+        pos += length;
+        return true;
+    }
+
+    /**
+     * 跳过注解参数的括号，其中的字符串、字符字面量和注释不参与括号配对
+     */
+    private void skipParentheses() {
+        int depth = 0;
+        while (pos < content.length) {
+            byte b = content[pos];
+            if (b == '(') {
+                depth++;
+                pos++;
+            } else if (b == ')') {
+                pos++;
+                if (--depth == 0) {
+                    return;
+                }
+            } else if (b == '"' || b == '\'') {
+                skipLiteral(b);
+            } else if (b == '/' && pos + 1 < content.length
+                       && (content[pos + 1] == '/' || content[pos + 1] == '*')) {
+                skipTrivia();
+            } else if (b == '\\') {
+                throw UncertainException.INSTANCE;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    private void skipLiteral(byte quote) {
+        pos++;
+        while (pos < content.length && content[pos] != quote) {
+            if (content[pos] == '\\') {
+                if (pos + 1 < content.length && content[pos + 1] == 'u') {
+                    throw UncertainException.INSTANCE;
+                }
+                pos++;
+            } else if (content[pos] == '\n' || content[pos] == '\r') {
+                return;
+            }
+            pos++;
+        }
+        pos++;
+    }
+
+    /**
+     * 跳过空白和注释
+     */
+    private void skipTrivia() {
+        while (pos < content.length) {
+            byte b = content[pos];
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f') {
+                pos++;
+            } else if (b == '/' && pos + 1 < content.length && content[pos + 1] == '/') {
+                while (pos < content.length && content[pos] != '\n' && content[pos] != '\r') {
+                    pos++;
+                }
+            } else if (b == '/' && pos + 1 < content.length && content[pos + 1] == '*') {
+                pos += 2;
+                while (pos + 1 < content.length && !(content[pos] == '*' && content[pos + 1] == '/')) {
+                    pos++;
+                }
+                pos += 2;
+            } else if (b == '\\') {
+                // Unicode转义可能出现在任何位置，字节上无法确定
+                throw UncertainException.INSTANCE;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int peek() {
+        if (pos >= content.length) {
+            return -1;
+        }
+        if (content[pos] == '\\') {
+            throw UncertainException.INSTANCE;
+        }
+        return content[pos];
+    }
+
+    /**
+     * 标识符字符，非ASCII字节（UTF-8编码的多字节字符）都视为标识符的一部分
+     */
+    private static boolean isIdentifierPart(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+            || b == '_' || b == '$' || b < 0;
+    }
+
+    /**
+     * 导入头无法在字节上确定
+     */
+    private static final class UncertainException extends RuntimeException {
+        static final UncertainException INSTANCE = new UncertainException();
+
+        private UncertainException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.coveragetool.analyzer;
+
+/**
+ * Java词法分析器 - 把源码切分为记号，供快速分析模式使用
+ *
+ * 记号以并行的int数组保存（类型、起止位置、行号、标记），数组在同一线程分析的多个文件之间复用，
+ * 分析过程中除标识符文本外不产生新的对象。
+ *
+ * 只支持快速分析需要的范围：遇到文本块、Unicode转义、无法识别的字符或未结束的字符串/注释时
+ * 放弃切分，由调用方改用JavaParser完整解析。
+ */
+final class JavaTokenizer {
+
+    static final int IDENT = 1;
+    static final int NUMBER = 2;
+    static final int STRING = 3;
+    static final int CHAR = 4;
+    static final int LPAREN = 10;
+    static final int RPAREN = 11;
+    static final int LBRACE = 12;
+    static final int RBRACE = 13;
+    static final int LBRACKET = 14;
+    static final int RBRACKET = 15;
+    static final int SEMI = 16;
+    static final int COMMA = 17;
+    static final int DOT = 18;
+    static final int ELLIPSIS = 19;
+    static final int AT = 20;
+    static final int QUESTION = 21;
+    static final int COLON = 22;
+    static final int COLONCOLON = 23;
+    static final int ARROW = 24;
+    static final int LT = 25;
+    static final int GT = 26;
+    static final int ASSIGN = 27;
+    static final int AMP = 28;
+    static final int MINUS = 29;
+    static final int OTHER = 30;
+
+    /**
+     * 关键字的记号类型为KEYWORD加关键字在KEYWORDS中的下标
+     */
+    static final int KEYWORD = 100;
+
+    static final String[] KEYWORDS = {
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super",
+        "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while",
+        "true", "false", "null"
+    };
+
+    static final int ABSTRACT = KEYWORD;
+    static final int BOOLEAN = KEYWORD + 2;
+    static final int BYTE = KEYWORD + 4;
+    static final int CASE = KEYWORD + 5;
+    static final int CATCH = KEYWORD + 6;
+    static final int CHAR_KW = KEYWORD + 7;
+    static final int CLASS = KEYWORD + 8;
+    static final int DEFAULT = KEYWORD + 11;
+    static final int DOUBLE = KEYWORD + 13;
+    static final int ENUM = KEYWORD + 15;
+    static final int EXTENDS = KEYWORD + 16;
+    static final int FINAL = KEYWORD + 17;
+    static final int FLOAT = KEYWORD + 19;
+    static final int FOR = KEYWORD + 20;
+    static final int IF = KEYWORD + 22;
+    static final int IMPORT = KEYWORD + 24;
+    static final int INSTANCEOF = KEYWORD + 25;
+    static final int INT = KEYWORD + 26;
+    static final int INTERFACE = KEYWORD + 27;
+    static final int LONG = KEYWORD + 28;
+    static final int NATIVE = KEYWORD + 29;
+    static final int NEW = KEYWORD + 30;
+    static final int PACKAGE = KEYWORD + 31;
+    static final int PRIVATE = KEYWORD + 32;
+    static final int PROTECTED = KEYWORD + 33;
+    static final int PUBLIC = KEYWORD + 34;
+    static final int SHORT = KEYWORD + 36;
+    static final int STATIC = KEYWORD + 37;
+    static final int STRICTFP = KEYWORD + 38;
+    static final int SUPER = KEYWORD + 39;
+    static final int SWITCH = KEYWORD + 40;
+    static final int SYNCHRONIZED = KEYWORD + 41;
+    static final int THIS = KEYWORD + 42;
+    static final int THROWS = KEYWORD + 44;
+    static final int TRANSIENT = KEYWORD + 45;
+    static final int VOID = KEYWORD + 47;
+    static final int VOLATILE = KEYWORD + 48;
+    static final int WHILE = KEYWORD + 49;
+
+    /**
+     * 记号前有注释
+     */
+    static final int COMMENT_BEFORE = 1;
+
+    /**
+     * 关键字查找表：按哈希值开放寻址，值为关键字下标加1
+     */
+    private static final int[] KEYWORD_HASHES = new int[256];
+    private static final int[] KEYWORD_INDEXES = new int[256];
+
+    static {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            int hash = KEYWORDS[i].hashCode();
+            int slot = hash & 0xFF;
+            while (KEYWORD_INDEXES[slot] != 0) {
+                slot = (slot + 1) & 0xFF;
+            }
+            KEYWORD_HASHES[slot] = hash;
+            KEYWORD_INDEXES[slot] = i + 1;
+        }
+    }
+
+    private String source;
+    private int count;
+    private int[] kinds = new int[1024];
+    private int[] starts = new int[1024];
+    private int[] ends = new int[1024];
+    private int[] lines = new int[1024];
+    private int[] flags = new int[1024];
+
+    /**
+     * 切分源码
+     *
+     * @param source 源码
+     * @return 是否切分成功，遇到不支持的写法时返回false
+     */
+    boolean tokenize(String source) {
+        this.source = source;
+        this.count = 0;
+        // Unicode转义在词法分析之前展开，可能改变任意记号，直接放弃
+        if (source.indexOf("\\u") >= 0) {
+            return false;
+        }
+
+        int length = source.length();
+        int line = 1;
+        int flag = 0;
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+                continue;
+            }
+            if (c == '\r') {
+                line++;
+                i += i + 1 < length && source.charAt(i + 1) == '\n' ? 2 : 1;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\f' || c == 0x1A) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            int kind;
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                while (i < length && source.charAt(i) != '\n' && source.charAt(i) != '\r') {
+                    i++;
+                }
+                flag = COMMENT_BEFORE;
+                continue;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                int close = source.indexOf("*/", i + 2);
+                if (close < 0) {
+                    return false;
+                }
+                for (int j = i + 2; j < close; j++) {
+                    char d = source.charAt(j);
+                    if (d == '\n' || (d == '\r' && (j + 1 >= length || source.charAt(j + 1) != '\n'))) {
+                        line++;
+                    }
+                }
+                i = close + 2;
+                flag = COMMENT_BEFORE;
+                continue;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                i++;
+                while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                kind = identifierKind(start, i);
+                // Java 9起单独的下划线是保留字
+                if (kind == IDENT && i - start == 1 && c == '_') {
+                    return false;
+                }
+            } else if (isDigit(c) || (c == '.' && i + 1 < length && isDigit(source.charAt(i + 1)))) {
+                i = skipNumber(i);
+                kind = NUMBER;
+            } else if (c == '"') {
+                if (source.startsWith("\"\"\"", i)) {
+                    return false;
+                }
+                i = skipQuoted(i, '"');
+                if (i < 0) {
+                    return false;
+                }
+                kind = STRING;
+            } else if (c == '\'') {
+                i = skipQuoted(i, '\'');
+                if (i < 0) {
+                    return false;
+                }
+                kind = CHAR;
+            } else {
+                char next = i + 1 < length ? source.charAt(i + 1) : 0;
+                i++;
+                switch (c) {
+                    case '(': kind = LPAREN; break;
+                    case ')': kind = RPAREN; break;
+                    case '{': kind = LBRACE; break;
+                    case '}': kind = RBRACE; break;
+                    case '[': kind = LBRACKET; break;
+                    case ']': kind = RBRACKET; break;
+                    case ';': kind = SEMI; break;
+                    case ',': kind = COMMA; break;
+                    case '@': kind = AT; break;
+                    case '?': kind = QUESTION; break;
+                    case '.':
+                        if (next == '.' && i + 1 < length && source.charAt(i + 1) == '.') {
+                            i += 2;
+                            kind = ELLIPSIS;
+                        } else {
+                            kind = DOT;
+                        }
+                        break;
+                    case ':':
+                        if (next == ':') {
+                            i++;
+                            kind = COLONCOLON;
+                        } else {
+                            kind = COLON;
+                        }
+                        break;
+                    case '-':
+                        if (next == '>') {
+                            i++;
+                            kind = ARROW;
+                        } else if (next == '-' || next == '=') {
+                            i++;
+                            kind = OTHER;
+                        } else {
+                            kind = MINUS;
+                        }
+                        break;
+                    // 泛型的<和>总是单独切分，>>和>>>按多个>处理
+                    case '<':
+                    case '>':
+                        if (next == '=') {
+                            i++;
+                            kind = OTHER;
+                        } else {
+                            kind = c == '<' ? LT : GT;
+                        }
+                        break;
+                    case '=':
+                        if (next == '=') {
+                            i++;
+                            kind = OTHER;
+                        } else {
+                            kind = ASSIGN;
+                        }
+                        break;
+                    case '&':
+                        if (next == '&' || next == '=') {
+                            i++;
+                            kind = OTHER;
+                        } else {
+                            kind = AMP;
+                        }
+                        break;
+                    case '+':
+                    case '|':
+                        if (next == c || next == '=') {
+                            i++;
+                        }
+                        kind = OTHER;
+                        break;
+                    case '!':
+                    case '*':
+                    case '/':
+                    case '%':
+                    case '^':
+                        if (next == '=') {
+                            i++;
+                        }
+                        kind = OTHER;
+                        break;
+                    case '~':
+                        kind = OTHER;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            add(kind, start, i, line, flag);
+            flag = 0;
+        }
+        return true;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int kind(int index) {
+        return index < count ? kinds[index] : 0;
+    }
+
+    int line(int index) {
+        return lines[index];
+    }
+
+    boolean commentBefore(int index) {
+        return (flags[index] & COMMENT_BEFORE) != 0;
+    }
+
+    String text(int index) {
+        return source.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * 判断记号是否为指定的标识符
+     */
+    boolean isIdentifier(int index, String name) {
+        return kind(index) == IDENT && ends[index] - starts[index] == name.length()
+            && source.startsWith(name, starts[index]);
+    }
+
+    /**
+     * 释放对源码的引用，记号数组保留给下一个文件复用
+     */
+    void reset() {
+        source = null;
+        count = 0;
+    }
+
+    private int identifierKind(int start, int end) {
+        if (end - start < 2 || end - start > 12 || !Character.isLowerCase(source.charAt(start))) {
+            return IDENT;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int slot = hash & 0xFF;
+        while (KEYWORD_INDEXES[slot] != 0) {
+            if (KEYWORD_HASHES[slot] == hash) {
+                String keyword = KEYWORDS[KEYWORD_INDEXES[slot] - 1];
+                if (keyword.length() == end - start && source.startsWith(keyword, start)) {
+                    return KEYWORD + KEYWORD_INDEXES[slot] - 1;
+                }
+            }
+            slot = (slot + 1) & 0xFF;
+        }
+        return IDENT;
+    }
+
+    private int skipNumber(int i) {
+        int length = source.length();
+        boolean hex = source.startsWith("0x", i) || source.startsWith("0X", i);
+        while (i < length) {
+            char c = source.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                i++;
+                // 指数部分可以带符号
+                boolean exponent = hex ? (c == 'p' || c == 'P') : (c == 'e' || c == 'E');
+                if (exponent && i < length && (source.charAt(i) == '+' || source.charAt(i) == '-')) {
+                    i++;
+                }
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 跳过字符串或字符字面量
+     *
+     * @return 字面量之后的位置，字面量未结束时返回-1
+     */
+    private int skipQuoted(int i, char quote) {
+        int length = source.length();
+        i++;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' || c == '\r') {
+                return -1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void add(int kind, int start, int end, int line, int flag) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = java.util.Arrays.copyOf(kinds, capacity);
+            starts = java.util.Arrays.copyOf(starts, capacity);
+            ends = java.util.Arrays.copyOf(ends, capacity);
+            lines = java.util.Arrays.copyOf(lines, capacity);
+            flags = java.util.Arrays.copyOf(flags, capacity);
+        }
+        kinds[count] = kind;
+        starts[count] = start;
+        ends[count] = end;
+        lines[count] = line;
+        flags[count] = flag;
+        count++;
+    }
+}
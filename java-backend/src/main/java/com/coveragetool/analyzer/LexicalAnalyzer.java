@@ -0,0 +1,813 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.Method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.coveragetool.analyzer.JavaTokenizer.*;
+
+/**
+ * 词法分析器 - 不构建语法树，直接从记号中提取业务类需要的信息
+ *
+ * 在记号序列上识别类型声明、成员和方法体的嵌套结构，提取包名、公共方法的签名、行号和圈复杂度，
+ * 结果与CodeAnalyzer基于JavaParser语法树的提取结果一致：
+ * 1. 方法包括嵌套类、匿名类和局部类中的方法，按JavaParser访问者的顺序（后序）排列
+ * 2. 返回类型和参数类型按JavaParser的格式生成，如Map<String, List<? extends Number>>和Map<String,List<String>>
+ * 3. 起始行为第一个注解或修饰符所在行（不含Javadoc），结束行为方法体的右括号所在行
+ * 4. 圈复杂度统计if、for（不含for-each）、while、do、switch的每个分支、三元运算符和catch
+ *
+ * 遇到无法确定结果的写法时放弃分析（返回null），由调用方改用JavaParser完整解析，包括：
+ * Java 11之后的语法（record、switch表达式、文本块、模式匹配等，JavaParser默认也无法解析）、
+ * 方法签名中的注释和类型注解、C风格的数组声明、同一成员中有多个含公共方法的匿名类或局部类
+ * （访问者顺序与源码顺序可能不同）。
+ *
+ * 词法分析器不检查语法错误，JavaParser无法解析的文件在快速模式下仍可能得到结果。
+ * 实例不是线程安全的，每个线程使用一个实例。
+ */
+final class LexicalAnalyzer {
+
+    /**
+     * 放弃分析，用于从递归中直接返回
+     */
+    private static final class GiveUp extends RuntimeException {
+        GiveUp() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final GiveUp GIVE_UP = new GiveUp();
+
+    /**
+     * 类型体的种类
+     */
+    private static final int CLASS_BODY = 0;
+    private static final int ENUM_BODY = 1;
+    private static final int ANNOTATION_BODY = 2;
+
+    private final JavaTokenizer tokens = new JavaTokenizer();
+
+    private String className;
+    private int pos;
+    private String packageName;
+
+    /**
+     * 已识别的公共方法及其结束位置（用于按后序排列）
+     */
+    private final List<Method> methods = new ArrayList<>();
+    private int[] methodEnds = new int[64];
+
+    /**
+     * 当前所在的方法体、初始化块或字段初始值中的匿名类/局部类层数
+     */
+    private int localDepth;
+
+    /**
+     * 当前顶层成员中含有公共方法的匿名类/局部类数量
+     */
+    private int localTypesWithMethods;
+
+    /**
+     * 分析业务类源码
+     *
+     * @param source 源码
+     * @param className 类名（文件名去掉.java），作为方法的所属类名
+     * @return 分析结果，无法确定结果时返回null
+     */
+    LexicalClass analyze(String source, String className) {
+        this.className = className;
+        this.pos = 0;
+        this.packageName = null;
+        this.methods.clear();
+        this.localDepth = 0;
+        try {
+            if (!tokens.tokenize(source)) {
+                return null;
+            }
+            compilationUnit();
+            return new LexicalClass(packageName, orderedMethods());
+        } catch (GiveUp e) {
+            return null;
+        } finally {
+            tokens.reset();
+            methods.clear();
+        }
+    }
+
+    private void compilationUnit() {
+        skipModifiers();
+        if (kind() == PACKAGE) {
+            pos++;
+            int start = pos;
+            skipQualifiedName();
+            packageName = joinTokens(start, pos);
+            expect(SEMI);
+        }
+        while (kind() == IMPORT || kind() == SEMI) {
+            while (kind() != SEMI) {
+                if (pos >= tokens.count()) {
+                    throw GIVE_UP;
+                }
+                pos++;
+            }
+            pos++;
+        }
+        while (pos < tokens.count()) {
+            if (kind() == SEMI) {
+                pos++;
+                continue;
+            }
+            skipModifiers();
+            typeDeclaration();
+        }
+    }
+
+    /**
+     * 类型声明，当前位置为class、interface、enum或@interface
+     */
+    private void typeDeclaration() {
+        int bodyKind;
+        if (kind() == CLASS || kind() == INTERFACE) {
+            bodyKind = CLASS_BODY;
+        } else if (kind() == ENUM) {
+            bodyKind = ENUM_BODY;
+        } else if (kind() == AT && kind(pos + 1) == INTERFACE) {
+            pos++;
+            bodyKind = ANNOTATION_BODY;
+        } else {
+            throw GIVE_UP;
+        }
+        pos++;
+        // 类型头：名称、类型参数、extends、implements，直到类型体的左括号
+        while (kind() != LBRACE) {
+            if (pos >= tokens.count() || kind() == SEMI || tokens.isIdentifier(pos, "permits")) {
+                throw GIVE_UP;
+            }
+            if (kind() == LPAREN) {
+                skipBalanced();
+            } else {
+                pos++;
+            }
+        }
+        typeBody(bodyKind);
+    }
+
+    /**
+     * 类型体，当前位置为左括号
+     */
+    private void typeBody(int bodyKind) {
+        expect(LBRACE);
+        if (bodyKind == ENUM_BODY) {
+            enumConstants();
+        }
+        while (kind() != RBRACE) {
+            if (pos >= tokens.count()) {
+                throw GIVE_UP;
+            }
+            int outerCount = localTypesWithMethods;
+            if (localDepth == 0) {
+                localTypesWithMethods = 0;
+            }
+            member(bodyKind);
+            if (localDepth == 0) {
+                localTypesWithMethods = outerCount;
+            }
+        }
+        pos++;
+    }
+
+    private void enumConstants() {
+        while (true) {
+            skipModifiers();
+            if (kind() == SEMI) {
+                pos++;
+                return;
+            }
+            if (kind() == RBRACE) {
+                return;
+            }
+            expect(IDENT);
+            if (kind() == LPAREN) {
+                skipBalanced();
+            }
+            if (kind() == LBRACE) {
+                typeBody(CLASS_BODY);
+            }
+            if (kind() == COMMA) {
+                pos++;
+            } else if (kind() != SEMI && kind() != RBRACE) {
+                throw GIVE_UP;
+            }
+        }
+    }
+
+    /**
+     * 类型体中的一个成员
+     */
+    private void member(int bodyKind) {
+        int start = pos;
+        if (kind() == SEMI) {
+            pos++;
+            return;
+        }
+        if (kind() == LBRACE || (kind() == STATIC && kind(pos + 1) == LBRACE)) {
+            // 初始化块
+            if (kind() == STATIC) {
+                pos++;
+            }
+            skipBalanced();
+            return;
+        }
+
+        boolean isPublic = skipModifiers();
+        if (kind() == CLASS || kind() == INTERFACE || kind() == ENUM || (kind() == AT && kind(pos + 1) == INTERFACE)) {
+            typeDeclaration();
+            return;
+        }
+        if (tokens.isIdentifier(pos, "record") && kind(pos + 1) == IDENT) {
+            throw GIVE_UP;
+        }
+        if (kind() == LT) {
+            skipTypeArguments();
+        }
+        if (kind() == IDENT && kind(pos + 1) == LPAREN) {
+            // 构造方法
+            pos++;
+            skipBalanced();
+            skipToBody();
+            if (kind() == LBRACE) {
+                skipBalanced();
+                return;
+            }
+            throw GIVE_UP;
+        }
+
+        int typeStart = pos;
+        skipType();
+        int typeEnd = pos;
+        if (kind() != IDENT) {
+            throw GIVE_UP;
+        }
+        if (kind(pos + 1) != LPAREN) {
+            // 字段，初始值中可能有匿名类
+            skipToSemicolon();
+            return;
+        }
+
+        String name = tokens.text(pos);
+        pos++;
+        int parametersStart = pos;
+        List<String> parameters = isPublic ? parameters() : null;
+        if (!isPublic) {
+            pos = parametersStart;
+            skipBalanced();
+        }
+        if (kind() == LBRACKET) {
+            throw GIVE_UP;
+        }
+        skipToBody();
+
+        if (bodyKind == ANNOTATION_BODY) {
+            // 注解成员不是方法，default值中不会有类
+            skipToSemicolon();
+            return;
+        }
+
+        int bodyStart = pos;
+        int end;
+        if (kind() == SEMI) {
+            end = pos;
+            pos++;
+        } else if (kind() == LBRACE) {
+            skipBalanced();
+            end = pos - 1;
+        } else {
+            throw GIVE_UP;
+        }
+
+        if (isPublic) {
+            // 方法签名中的注释可能被JavaParser归入类型节点，改变打印结果
+            for (int i = start + 1; i <= bodyStart; i++) {
+                if (tokens.commentBefore(i)) {
+                    throw GIVE_UP;
+                }
+            }
+            Method method = new Method();
+            method.setMethodName(name);
+            method.setReturnType(renderType(typeStart, typeEnd, ", "));
+            method.setParameters(parameters);
+            method.setSignature(name + "(" + String.join(", ", parameters) + ")");
+            method.setBelongingClassName(className);
+            method.setStartLineNumber(tokens.line(start));
+            method.setEndLineNumber(tokens.line(end));
+            method.setComplexity(kind(bodyStart) == LBRACE ? complexity(bodyStart, end) : 1);
+            addMethod(method, end);
+        }
+    }
+
+    /**
+     * 跳过注解和修饰符
+     *
+     * @return 是否有public修饰符
+     */
+    private boolean skipModifiers() {
+        boolean isPublic = false;
+        while (true) {
+            int kind = kind();
+            if (kind == AT && kind(pos + 1) != INTERFACE) {
+                pos++;
+                skipQualifiedName();
+                if (kind() == LPAREN) {
+                    skipBalanced();
+                }
+            } else if (kind == PUBLIC) {
+                isPublic = true;
+                pos++;
+            } else if (kind == PROTECTED || kind == PRIVATE || kind == STATIC || kind == FINAL
+                       || kind == ABSTRACT || kind == SYNCHRONIZED || kind == NATIVE || kind == STRICTFP
+                       || kind == TRANSIENT || kind == VOLATILE || kind == DEFAULT) {
+                pos++;
+            } else if (tokens.isIdentifier(pos, "sealed")
+                       || (tokens.isIdentifier(pos, "non") && kind(pos + 1) == MINUS)) {
+                throw GIVE_UP;
+            } else {
+                return isPublic;
+            }
+        }
+    }
+
+    /**
+     * 解析参数列表，当前位置为左括号
+     *
+     * @return 参数类型列表
+     */
+    private List<String> parameters() {
+        expect(LPAREN);
+        List<String> parameters = new ArrayList<>();
+        if (kind() == RPAREN) {
+            pos++;
+            return parameters;
+        }
+        while (true) {
+            while (kind() == AT || kind() == FINAL) {
+                if (kind() == FINAL) {
+                    pos++;
+                } else {
+                    pos++;
+                    skipQualifiedName();
+                    if (kind() == LPAREN) {
+                        skipBalanced();
+                    }
+                }
+            }
+            int typeStart = pos;
+            skipType();
+            int typeEnd = pos;
+            if (kind() == ELLIPSIS) {
+                pos++;
+            }
+            // 接收者参数（Foo this）不在参数列表中
+            expect(IDENT);
+            String type = renderType(typeStart, typeEnd, ",");
+            // C风格的数组声明（byte b[]），JavaParser将维度合并到参数类型中
+            while (kind() == LBRACKET && kind(pos + 1) == RBRACKET) {
+                type += "[]";
+                pos += 2;
+            }
+            parameters.add(type);
+            if (kind() == COMMA) {
+                pos++;
+            } else {
+                expect(RPAREN);
+                return parameters;
+            }
+        }
+    }
+
+    /**
+     * 跳过方法头中参数之后的部分（throws子句），停在方法体或分号处
+     */
+    private void skipToBody() {
+        if (kind() == THROWS) {
+            pos++;
+            while (kind() != LBRACE && kind() != SEMI) {
+                int kind = kind();
+                if (kind != IDENT && kind != DOT && kind != COMMA && kind != LT && kind != GT
+                    && kind != QUESTION && kind != EXTENDS && kind != SUPER) {
+                    throw GIVE_UP;
+                }
+                pos++;
+            }
+        } else if (kind() == DEFAULT) {
+            // 注解成员的默认值
+            return;
+        }
+    }
+
+    /**
+     * 跳过到分号（含），其间的匿名类和局部类被识别
+     */
+    private void skipToSemicolon() {
+        while (kind() != SEMI) {
+            if (pos >= tokens.count() || kind() == RBRACE || kind() == RPAREN || kind() == RBRACKET) {
+                throw GIVE_UP;
+            }
+            if (kind() == LPAREN || kind() == LBRACE || kind() == LBRACKET) {
+                skipBalanced();
+            } else {
+                scanToken();
+            }
+        }
+        pos++;
+    }
+
+    /**
+     * 跳过一组配对的括号（圆括号、方括号或花括号），其间的匿名类和局部类被识别
+     */
+    private void skipBalanced() {
+        int depth = 0;
+        do {
+            if (pos >= tokens.count()) {
+                throw GIVE_UP;
+            }
+            int kind = kind();
+            if (kind == LPAREN || kind == LBRACE || kind == LBRACKET) {
+                depth++;
+                pos++;
+            } else if (kind == RPAREN || kind == RBRACE || kind == RBRACKET) {
+                depth--;
+                pos++;
+            } else {
+                scanToken();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * 处理代码块或表达式中的一个记号
+     *
+     * 识别匿名类、局部类和Java 11不支持的写法，其余记号直接跳过。
+     */
+    private void scanToken() {
+        int kind = kind();
+        if (kind == NEW) {
+            creator();
+        } else if (kind == CLASS && kind(pos - 1) != DOT) {
+            localType(this::typeDeclaration);
+        } else if ((kind == INTERFACE && kind(pos - 1) != AT) || kind == ENUM) {
+            // 局部接口和局部枚举（Java 16）
+            throw GIVE_UP;
+        } else if (kind == CASE) {
+            caseLabel();
+        } else if (kind == DEFAULT && kind(pos + 1) == ARROW) {
+            throw GIVE_UP;
+        } else if (kind == INSTANCEOF) {
+            instanceOf();
+        } else if (kind == IDENT) {
+            identifier();
+        } else {
+            pos++;
+        }
+    }
+
+    /**
+     * 对象创建表达式，带类体时为匿名类
+     */
+    private void creator() {
+        pos++;
+        if (kind() == LT) {
+            skipTypeArguments();
+        }
+        if (kind() == AT) {
+            throw GIVE_UP;
+        }
+        // 类型名，可带类型参数（包括<>）
+        while (kind() == IDENT || isPrimitive(kind())) {
+            pos++;
+            if (kind() == LT) {
+                skipTypeArguments();
+            }
+            if (kind() != DOT) {
+                break;
+            }
+            pos++;
+        }
+        if (kind() != LPAREN) {
+            // 数组创建，维度和初始值按普通记号处理
+            return;
+        }
+        skipBalanced();
+        if (kind() == LBRACE) {
+            localType(() -> typeBody(CLASS_BODY));
+        }
+    }
+
+    /**
+     * 方法体或表达式中的匿名类/局部类
+     *
+     * 同一顶层成员中有多个含公共方法的匿名类/局部类时，JavaParser访问者的顺序可能与源码顺序不同，
+     * 如方法调用先访问参数再访问调用对象，此时放弃分析。
+     */
+    private void localType(Runnable body) {
+        int before = methods.size();
+        localDepth++;
+        body.run();
+        localDepth--;
+        if (methods.size() > before && ++localTypesWithMethods > 1) {
+            throw GIVE_UP;
+        }
+    }
+
+    /**
+     * case标签：只支持单个常量加冒号的形式（Java 11）
+     */
+    private void caseLabel() {
+        pos++;
+        int depth = 0;
+        while (depth > 0 || kind() != COLON) {
+            int kind = kind();
+            if (pos >= tokens.count() || (depth == 0 && (kind == COMMA || kind == ARROW || kind == QUESTION))) {
+                throw GIVE_UP;
+            }
+            if (kind == LPAREN) {
+                depth++;
+            } else if (kind == RPAREN) {
+                depth--;
+            }
+            pos++;
+        }
+        pos++;
+    }
+
+    /**
+     * instanceof：类型后跟变量名时为模式匹配（Java 16）
+     */
+    private void instanceOf() {
+        pos++;
+        if (kind() == FINAL || kind() == AT) {
+            throw GIVE_UP;
+        }
+        skipType();
+        if (kind() == IDENT) {
+            throw GIVE_UP;
+        }
+    }
+
+    /**
+     * 代码块中的标识符：识别Java 11之后的上下文关键字
+     */
+    private void identifier() {
+        int previous = kind(pos - 1);
+        boolean statementStart = previous == SEMI || previous == LBRACE || previous == RBRACE
+            || previous == COLON || previous == ARROW;
+        if (statementStart && tokens.isIdentifier(pos, "yield") && kind(pos + 1) != ASSIGN
+            && kind(pos + 1) != DOT && kind(pos + 1) != LPAREN) {
+            throw GIVE_UP;
+        }
+        if (tokens.isIdentifier(pos, "record") && kind(pos + 1) == IDENT && kind(pos + 2) != ASSIGN
+            && kind(pos + 2) != SEMI && kind(pos + 2) != COMMA) {
+            throw GIVE_UP;
+        }
+        pos++;
+    }
+
+    /**
+     * 跳过类型：基本类型、void或带类型参数的限定名，后跟若干[]
+     */
+    private void skipType() {
+        if (isPrimitive(kind()) || kind() == VOID) {
+            pos++;
+        } else if (kind() == IDENT) {
+            while (true) {
+                pos++;
+                if (kind() == LT) {
+                    skipTypeArguments();
+                }
+                if (kind() == DOT && kind(pos + 1) == IDENT) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+        } else {
+            throw GIVE_UP;
+        }
+        while (kind() == LBRACKET && kind(pos + 1) == RBRACKET) {
+            pos += 2;
+        }
+    }
+
+    /**
+     * 跳过类型参数，当前位置为<
+     */
+    private void skipTypeArguments() {
+        int depth = 0;
+        do {
+            int kind = kind();
+            if (kind == LT) {
+                depth++;
+            } else if (kind == GT) {
+                depth--;
+            } else if (kind != IDENT && kind != DOT && kind != COMMA && kind != QUESTION && kind != EXTENDS
+                       && kind != SUPER && kind != LBRACKET && kind != RBRACKET && kind != AMP
+                       && !isPrimitive(kind)) {
+                throw GIVE_UP;
+            }
+            pos++;
+        } while (depth > 0);
+    }
+
+    private void skipQualifiedName() {
+        expect(IDENT);
+        while (kind() == DOT && kind(pos + 1) == IDENT) {
+            pos += 2;
+        }
+    }
+
+    /**
+     * 按JavaParser的格式生成类型文本
+     *
+     * 返回类型取自打印器（类型参数之间为逗号加空格），参数类型取自Type.asString（只有逗号）。
+     *
+     * @param separator 类型参数之间的分隔符
+     */
+    private String renderType(int from, int to, String separator) {
+        StringBuilder type = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            int kind = tokens.kind(i);
+            if (kind == COMMA) {
+                type.append(separator);
+            } else if (kind == EXTENDS) {
+                type.append(" extends ");
+            } else if (kind == SUPER) {
+                type.append(" super ");
+            } else if (kind == AMP) {
+                throw GIVE_UP;
+            } else {
+                type.append(tokens.text(i));
+            }
+        }
+        return type.toString();
+    }
+
+    /**
+     * 计算方法的圈复杂度，与MethodMetricsVisitor的统计规则一致
+     *
+     * do-while的while不是while语句，但do本身计1，因此do和while合计按while的个数统计。
+     *
+     * @param bodyStart 方法体左括号的位置
+     * @param bodyEnd 方法体右括号的位置
+     */
+    private int complexity(int bodyStart, int bodyEnd) {
+        int complexity = 1;
+        for (int i = bodyStart + 1; i < bodyEnd; i++) {
+            int kind = tokens.kind(i);
+            if (kind == IF || kind == WHILE || kind == CATCH) {
+                complexity++;
+            } else if (kind == FOR) {
+                if (isBasicFor(i + 1)) {
+                    complexity++;
+                }
+            } else if (kind == QUESTION) {
+                int previous = tokens.kind(i - 1);
+                if (previous != LT && previous != COMMA) {
+                    complexity++;
+                }
+            } else if (kind == SWITCH) {
+                complexity += switchEntries(i + 1);
+            }
+        }
+        return complexity;
+    }
+
+    /**
+     * 判断是否为普通for循环（括号内有分号），而不是for-each
+     */
+    private boolean isBasicFor(int open) {
+        int depth = 0;
+        for (int i = open; i < tokens.count(); i++) {
+            int kind = tokens.kind(i);
+            if (kind == LPAREN || kind == LBRACE || kind == LBRACKET) {
+                depth++;
+            } else if (kind == RPAREN || kind == RBRACE || kind == RBRACKET) {
+                if (--depth == 0) {
+                    return false;
+                }
+            } else if (kind == SEMI && depth == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 统计switch语句的分支数（case和default标签）
+     *
+     * @param open switch之后左圆括号的位置
+     */
+    private int switchEntries(int open) {
+        int i = open;
+        int depth = 0;
+        // 跳过选择表达式
+        do {
+            int kind = tokens.kind(i);
+            if (kind == LPAREN || kind == LBRACE || kind == LBRACKET) {
+                depth++;
+            } else if (kind == RPAREN || kind == RBRACE || kind == RBRACKET) {
+                depth--;
+            }
+            i++;
+        } while (depth > 0 && i < tokens.count());
+
+        int entries = 0;
+        depth = 0;
+        do {
+            int kind = tokens.kind(i);
+            if (kind == LPAREN || kind == LBRACE || kind == LBRACKET) {
+                depth++;
+            } else if (kind == RPAREN || kind == RBRACE || kind == RBRACKET) {
+                depth--;
+            } else if (depth == 1 && (kind == CASE || (kind == DEFAULT && tokens.kind(i + 1) == COLON))) {
+                entries++;
+            }
+            i++;
+        } while (depth > 0 && i < tokens.count());
+        return entries;
+    }
+
+    private void addMethod(Method method, int end) {
+        if (methods.size() == methodEnds.length) {
+            methodEnds = Arrays.copyOf(methodEnds, methodEnds.length * 2);
+        }
+        methodEnds[methods.size()] = end;
+        methods.add(method);
+    }
+
+    /**
+     * 按结束位置排列方法，即访问者的后序：嵌套在方法体中的方法排在外层方法之前
+     */
+    private List<Method> orderedMethods() {
+        int size = methods.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(methodEnds[a], methodEnds[b]));
+        List<Method> ordered = new ArrayList<>(size);
+        for (Integer index : order) {
+            ordered.add(methods.get(index));
+        }
+        return ordered;
+    }
+
+    private String joinTokens(int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            text.append(tokens.text(i));
+        }
+        return text.toString();
+    }
+
+    private static boolean isPrimitive(int kind) {
+        return kind == BOOLEAN || kind == BYTE || kind == CHAR_KW || kind == SHORT || kind == INT
+            || kind == LONG || kind == FLOAT || kind == DOUBLE;
+    }
+
+    private int kind() {
+        return tokens.kind(pos);
+    }
+
+    private int kind(int index) {
+        return index >= 0 ? tokens.kind(index) : 0;
+    }
+
+    private void expect(int kind) {
+        if (kind() != kind) {
+            throw GIVE_UP;
+        }
+        pos++;
+    }
+
+    /**
+     * 词法分析结果 - 包名和公共方法
+     */
+    static final class LexicalClass {
+        private final String packageName;
+        private final List<Method> methods;
+
+        LexicalClass(String packageName, List<Method> methods) {
+            this.packageName = packageName;
+            this.methods = Collections.unmodifiableList(methods);
+        }
+
+        String getPackageName() {
+            return packageName;
+        }
+
+        List<Method> getMethods() {
+            return methods;
+        }
+    }
+}
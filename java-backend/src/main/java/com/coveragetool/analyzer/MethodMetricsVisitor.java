@@ -0,0 +1,236 @@
+package com.coveragetool.analyzer;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 方法度量访问者 - 一次遍历编译单元，收集每个方法的圈复杂度、断言数量、Mock调用、调用的方法名和代码行数
+ *
+ * 访问到方法声明时压入一个度量帧，方法体中的语句和表达式计入当前所在方法体的帧；
+ * 方法体中的匿名类、局部类的方法结束时，其度量并入外层方法，与分别遍历每个方法体的统计结果一致。
+ * 方法按后序（嵌套的方法先于外层方法）交给回调，与VoidVisitorAdapter的访问顺序一致。
+ *
+ * 代码行数取自方法声明的位置（第一个注解或修饰符到方法体结束），不渲染源码。
+ */
+class MethodMetricsVisitor extends VoidVisitorAdapter<Void> {
+
+    /**
+     * 每个方法的回调
+     */
+    private final BiConsumer<MethodDeclaration, Metrics> listener;
+
+    /**
+     * 当前所在的方法，外层在前
+     */
+    private final List<Metrics> frames = new ArrayList<>();
+
+    /**
+     * @param listener 每个方法遍历结束后的回调
+     */
+    MethodMetricsVisitor(BiConsumer<MethodDeclaration, Metrics> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void visit(MethodDeclaration md, Void arg) {
+        Metrics metrics = new Metrics(md);
+        frames.add(metrics);
+        super.visit(md, arg);
+        frames.remove(frames.size() - 1);
+
+        // 嵌套方法位于外层方法的方法体中，其度量同样属于外层方法
+        if (!frames.isEmpty()) {
+            frames.get(frames.size() - 1).add(metrics);
+        }
+        listener.accept(md, metrics);
+    }
+
+    @Override
+    public void visit(BlockStmt n, Void arg) {
+        Metrics current = frames.isEmpty() ? null : frames.get(frames.size() - 1);
+        if (current != null && n.getParentNode().orElse(null) == current.method) {
+            // 只统计方法体，注解和参数中的表达式不计入
+            current.inBody = true;
+            super.visit(n, arg);
+            current.inBody = false;
+        } else {
+            super.visit(n, arg);
+        }
+    }
+
+    @Override
+    public void visit(IfStmt n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // if语句增加复杂度
+    }
+
+    @Override
+    public void visit(ForStmt n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // for循环增加复杂度
+    }
+
+    @Override
+    public void visit(WhileStmt n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // while循环增加复杂度
+    }
+
+    @Override
+    public void visit(SwitchStmt n, Void arg) {
+        super.visit(n, arg);
+        // switch语句的每个case增加复杂度
+        addComplexity(n.getEntries().size());
+    }
+
+    @Override
+    public void visit(DoStmt n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // do-while循环增加复杂度
+    }
+
+    @Override
+    public void visit(ConditionalExpr n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // 三元运算符增加复杂度
+    }
+
+    @Override
+    public void visit(CatchClause n, Void arg) {
+        super.visit(n, arg);
+        addComplexity(1); // catch块增加复杂度
+    }
+
+    @Override
+    public void visit(MethodCallExpr n, Void arg) {
+        super.visit(n, arg);
+        Metrics current = currentBody();
+        if (current == null) {
+            return;
+        }
+
+        String methodName = n.getNameAsString();
+        if (current.calledMethods == null) {
+            current.calledMethods = new LinkedHashSet<>();
+        }
+        current.calledMethods.add(methodName);
+        
+        // 常见的断言方法
+        if (methodName.startsWith("assert") || methodName.startsWith("verify")) {
+            current.assertionCount++;
+        }
+        // 常见的Mock方法
+        if (methodName.equals("mock") ||
+            methodName.equals("when") ||
+            methodName.equals("given") ||
+            methodName.equals("doReturn") ||
+            methodName.equals("doThrow")) {
+            current.mockCalls = true;
+        }
+    }
+
+    private void addComplexity(int amount) {
+        Metrics current = currentBody();
+        if (current != null) {
+            current.complexity += amount;
+        }
+    }
+
+    /**
+     * 当前节点所在方法体的度量帧
+     *
+     * 嵌套方法的注解和参数不在其方法体中，但在外层方法的方法体中，计入外层方法。
+     *
+     * @return 度量帧，不在任何方法体中时返回null
+     */
+    private Metrics currentBody() {
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            if (frames.get(i).inBody) {
+                return frames.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 方法度量
+     */
+    static final class Metrics {
+        private final MethodDeclaration method;
+        private boolean inBody;
+        private int complexity = 1;
+        private int assertionCount;
+        private boolean mockCalls;
+        private Set<String> calledMethods;
+
+        Metrics(MethodDeclaration method) {
+            this.method = method;
+        }
+
+        private void add(Metrics nested) {
+            complexity += nested.complexity - 1;
+            assertionCount += nested.assertionCount;
+            mockCalls |= nested.mockCalls;
+            if (nested.calledMethods != null) {
+                if (calledMethods == null) {
+                    calledMethods = new LinkedHashSet<>();
+                }
+                calledMethods.addAll(nested.calledMethods);
+            }
+        }
+
+        /**
+         * 圈复杂度：初始值为1，每个if/for/while/do/case/三元运算符/catch增加1
+         */
+        int getComplexity() {
+            return complexity;
+        }
+
+        /**
+         * 断言方法（assert*、verify*）的调用次数
+         */
+        int getAssertionCount() {
+            return assertionCount;
+        }
+
+        /**
+         * 方法体中是否调用了Mock方法（mock、when、given、doReturn、doThrow）
+         */
+        boolean hasMockCalls() {
+            return mockCalls;
+        }
+
+        /**
+         * 方法体中调用的方法名，按首次出现的顺序排列，不区分调用目标
+         */
+        Set<String> getCalledMethodNames() {
+            return calledMethods != null ? calledMethods : Collections.emptySet();
+        }
+
+        /**
+         * 代码行数：方法声明从第一个注解或修饰符到结束的行数，没有位置信息时为0
+         */
+        int getLinesOfCode() {
+            if (!method.getBegin().isPresent() || !method.getEnd().isPresent()) {
+                return 0;
+            }
+            return method.getEnd().get().line - method.getBegin().get().line + 1;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.coveragetool.analyzer;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.ClassType;
+import com.coveragetool.model.Method;
+import com.coveragetool.model.TestClass;
+import com.coveragetool.model.TestFramework;
+import com.coveragetool.model.TestMethod;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析缓存 - 保存单个项目中各源文件的解析结果
+ *
+ * 缓存键为分析类型、文件所在目录加内容哈希：SHA-256(文件名、文件内容)。文件内容和文件名不变时，
+ * 解析得到的业务类/测试类也不变（文件路径除外，读取时按实际路径设置），因此无需再次解析。
+ * 解析失败或不是测试类的文件同样缓存（空结果），避免每次都重新解析。
+ * 键中的目录用于淘汰：只分析部分源码目录时，其他目录的条目不受影响。
+ *
+ * 条目以紧凑的二进制形式保存，每次读取都解码出新的对象：
+ * 覆盖率分析会修改返回的对象，不能在多次分析之间共享。
+ */
+public class ParseCache {
+
+    /**
+     * 业务类条目
+     */
+    static final byte BUSINESS = 'B';
+
+    /**
+     * 快速分析模式的业务类条目
+     */
+    static final byte FAST_BUSINESS = 'b';
+
+    /**
+     * 测试类条目
+     */
+    static final byte TEST = 'T';
+
+    /**
+     * 空结果（解析失败或不是测试类）
+     */
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * 项目根目录路径
+     */
+    private final String projectPath;
+
+    /**
+     * 缓存条目
+     * Key：类型前缀、文件所在目录、冒号加内容哈希，Value：编码后的解析结果
+     */
+    private final Map<String, byte[]> entries;
+
+    /**
+     * 本次分析中用到的条目
+     */
+    private final Map<String, Boolean> usedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 是否有新增或淘汰的条目
+     */
+    private volatile boolean dirty;
+
+    ParseCache(String projectPath, Map<String, byte[]> entries) {
+        this.projectPath = projectPath;
+        this.entries = new ConcurrentHashMap<>(entries);
+    }
+
+    /**
+     * 内容哈希的十六进制长度
+     */
+    private static final int HASH_LENGTH = 64;
+
+    /**
+     * 计算缓存键
+     *
+     * @param kind 条目类型（BUSINESS、FAST_BUSINESS或TEST）
+     * @param javaFile 源文件
+     * @param content 文件内容
+     * @return 缓存键
+     */
+    String key(byte kind, File javaFile, byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(javaFile.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(content);
+            String directory = directoryOf(javaFile);
+            StringBuilder key = new StringBuilder(directory.length() + HASH_LENGTH + 2);
+            key.append((char) kind).append(directory).append(':');
+            for (byte b : hash) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 判断是否有缓存的解析结果
+     */
+    boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * 读取缓存的业务类
+     *
+     * @param key 缓存键
+     * @param filePath 文件的实际路径
+     * @return 业务类，缓存的是空结果时返回null
+     */
+    BusinessClass getBusinessClass(String key, String filePath) {
+        byte[] payload = use(key);
+        if (payload == null || payload.length == 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            BusinessClass businessClass = new BusinessClass();
+            businessClass.setFilePath(filePath);
+            businessClass.setClassName(in.readUTF());
+            businessClass.setPackageName(readNullable(in));
+            businessClass.setFullyQualifiedName(in.readUTF());
+            businessClass.setClassType(ClassType.valueOf(in.readUTF()));
+            businessClass.setCorrespondingTestClass(readNullable(in));
+
+            int methodCount = in.readInt();
+            List<Method> methods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                Method method = new Method();
+                method.setMethodName(in.readUTF());
+                method.setReturnType(readNullable(in));
+                method.setParameters(readStrings(in));
+                method.setSignature(readNullable(in));
+                method.setBelongingClassName(readNullable(in));
+                method.setStartLineNumber(in.readInt());
+                method.setEndLineNumber(in.readInt());
+                method.setLinesOfCode(in.readInt());
+                method.setComplexity(in.readInt());
+                methods.add(method);
+            }
+            businessClass.setMethods(methods);
+            return businessClass;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 缓存业务类的解析结果
+     *
+     * @param key 缓存键
+     * @param businessClass 业务类，解析失败时为null
+     */
+    void putBusinessClass(String key, BusinessClass businessClass) {
+        byte[] payload = EMPTY;
+        if (businessClass != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(businessClass.getClassName());
+                writeNullable(out, businessClass.getPackageName());
+                out.writeUTF(businessClass.getFullyQualifiedName());
+                out.writeUTF(businessClass.getClassType().name());
+                writeNullable(out, businessClass.getCorrespondingTestClass());
+
+                List<Method> methods = businessClass.getMethods();
+                out.writeInt(methods.size());
+                for (Method method : methods) {
+                    out.writeUTF(method.getMethodName());
+                    writeNullable(out, method.getReturnType());
+                    writeStrings(out, method.getParameters());
+                    writeNullable(out, method.getSignature());
+                    writeNullable(out, method.getBelongingClassName());
+                    out.writeInt(method.getStartLineNumber());
+                    out.writeInt(method.getEndLineNumber());
+                    out.writeInt(method.getLinesOfCode());
+                    out.writeInt(method.getComplexity());
+                }
+            } catch (UTFDataFormatException e) {
+                return; // 单个字符串超过64KB（如超长注释）时不缓存该文件，下次重新解析
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            payload = bytes.toByteArray();
+        }
+        put(key, payload);
+    }
+
+    /**
+     * 读取缓存的测试类
+     *
+     * @param key 缓存键
+     * @param filePath 文件的实际路径
+     * @return 测试类，缓存的是空结果时返回null
+     */
+    TestClass getTestClass(String key, String filePath) {
+        byte[] payload = use(key);
+        if (payload == null || payload.length == 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            TestClass testClass = new TestClass();
+            testClass.setFilePath(filePath);
+            testClass.setClassName(in.readUTF());
+            testClass.setPackageName(readNullable(in));
+            testClass.setFullyQualifiedName(in.readUTF());
+            testClass.setTestFramework(TestFramework.valueOf(in.readUTF()));
+            testClass.setCorrespondingBusinessClass(readNullable(in));
+
+            int methodCount = in.readInt();
+            List<TestMethod> testMethods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                TestMethod testMethod = new TestMethod();
+                testMethod.setMethodName(in.readUTF());
+                testMethod.setBelongingTestClass(readNullable(in));
+                testMethod.setTestedBusinessMethod(readNullable(in));
+                testMethod.setAssertionCount(in.readInt());
+                testMethod.setHasBoundaryTests(in.readBoolean());
+                testMethod.setHasExceptionTests(in.readBoolean());
+                testMethod.setUsesMocks(in.readBoolean());
+                testMethod.setLinesOfCode(in.readInt());
+                testMethod.setComments(readStrings(in));
+                testMethod.setCalledMethodNames(readStrings(in));
+                testMethods.add(testMethod);
+            }
+            testClass.setTestMethods(testMethods);
+            testClass.setNestedClassNames(readStrings(in));
+            testClass.setReferencedTypes(readStrings(in));
+            return testClass;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 缓存测试类的解析结果
+     *
+     * @param key 缓存键
+     * @param testClass 测试类，解析失败或不是测试类时为null
+     */
+    void putTestClass(String key, TestClass testClass) {
+        byte[] payload = EMPTY;
+        if (testClass != null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(testClass.getClassName());
+                writeNullable(out, testClass.getPackageName());
+                out.writeUTF(testClass.getFullyQualifiedName());
+                out.writeUTF(testClass.getTestFramework().name());
+                writeNullable(out, testClass.getCorrespondingBusinessClass());
+
+                List<TestMethod> testMethods = testClass.getTestMethods();
+                out.writeInt(testMethods.size());
+                for (TestMethod testMethod : testMethods) {
+                    out.writeUTF(testMethod.getMethodName());
+                    writeNullable(out, testMethod.getBelongingTestClass());
+                    writeNullable(out, testMethod.getTestedBusinessMethod());
+                    out.writeInt(testMethod.getAssertionCount());
+                    out.writeBoolean(testMethod.isHasBoundaryTests());
+                    out.writeBoolean(testMethod.isHasExceptionTests());
+                    out.writeBoolean(testMethod.isUsesMocks());
+                    out.writeInt(testMethod.getLinesOfCode());
+                    writeStrings(out, testMethod.getComments());
+                    writeStrings(out, testMethod.getCalledMethodNames());
+                }
+                writeStrings(out, testClass.getNestedClassNames());
+                writeStrings(out, testClass.getReferencedTypes());
+            } catch (UTFDataFormatException e) {
+                return; // 单个字符串超过64KB（如超长注释）时不缓存该文件，下次重新解析
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            payload = bytes.toByteArray();
+        }
+        put(key, payload);
+    }
+
+    /**
+     * 淘汰本次分析的目录中未用到的某类条目
+     *
+     * 每次分析后，被分析的目录中只保留该类型本次用到的条目，缓存大小随项目规模而不是历史累积增长。
+     * 其他目录（如同一项目的另一个模块）的条目不做淘汰，留给分析这些目录时使用。
+     *
+     * @param kind 条目类型
+     * @param directories 本次分析的目录（相对于项目根目录）
+     */
+    void retainUsed(byte kind, Collection<String> directories) {
+        char prefix = (char) kind;
+        List<String> scopes = new ArrayList<>(directories.size());
+        for (String directory : directories) {
+            scopes.add(normalize(directory));
+        }
+        boolean removed = entries.keySet().removeIf(
+            key -> key.charAt(0) == prefix && !usedKeys.containsKey(key) && inScope(key, scopes));
+        usedKeys.keySet().removeIf(key -> key.charAt(0) == prefix);
+        if (removed) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 清除某类条目的使用记录，不淘汰条目
+     *
+     * 只分析部分文件（增量分析、监听变化）时调用，使用记录不会在长时间运行中不断累积。
+     *
+     * @param kind 条目类型
+     */
+    void clearUsed(byte kind) {
+        char prefix = (char) kind;
+        usedKeys.keySet().removeIf(key -> key.charAt(0) == prefix);
+    }
+
+    String getProjectPath() {
+        return projectPath;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markClean() {
+        dirty = false;
+    }
+
+    /**
+     * 当前所有条目的副本，用于保存
+     */
+    Map<String, byte[]> snapshotEntries() {
+        return new HashMap<>(entries);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * 文件所在目录相对于项目根目录的路径（使用/分隔），不在项目内时为绝对路径
+     */
+    private String directoryOf(File javaFile) {
+        Path root = Paths.get(projectPath).toAbsolutePath().normalize();
+        Path parent = javaFile.toPath().toAbsolutePath().normalize().getParent();
+        if (parent == null) {
+            return "";
+        }
+        Path directory = parent.startsWith(root) ? root.relativize(parent) : parent;
+        return directory.toString().replace(File.separatorChar, '/');
+    }
+
+    private static String normalize(String directory) {
+        String normalized = directory.replace('\\', '/');
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    /**
+     * 判断条目的文件是否位于某个目录中
+     */
+    private static boolean inScope(String key, List<String> scopes) {
+        String directory = key.substring(1, key.length() - HASH_LENGTH - 1);
+        for (String scope : scopes) {
+            if (scope.isEmpty() || directory.equals(scope) || directory.startsWith(scope + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] use(String key) {
+        usedKeys.put(key, Boolean.TRUE);
+        return entries.get(key);
+    }
+
+    private void put(String key, byte[] payload) {
+        usedKeys.put(key, Boolean.TRUE);
+        entries.put(key, payload);
+        dirty = true;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
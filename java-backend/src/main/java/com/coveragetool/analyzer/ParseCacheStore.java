@@ -0,0 +1,196 @@
+package com.coveragetool.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 解析缓存存储 - 将解析缓存以二进制格式保存在本地目录
+ *
+ * 每个项目一个缓存文件，文件名为项目路径的SHA-1。
+ * 文件格式（DataOutputStream）：
+ * 魔数、格式版本、分析器版本、项目路径、条目数量，然后依次写出每个条目：缓存键、结果长度、结果。
+ *
+ * 分析器版本（CodeAnalyzer.ANALYZER_VERSION）不同的缓存文件整体失效，
+ * 提取规则变化后不会读到旧规则的结果。
+ *
+ * 提取结果与解析配置有关，精简解析的结果保存在单独的缓存文件中（文件名带-lean后缀），
+ * 切换解析配置时不会读到另一种配置的结果，切换回来时原有缓存仍然可用。
+ *
+ * 最近使用的缓存同时保留在内存中，同一进程内重复分析无需再读取缓存文件。
+ */
+public class ParseCacheStore {
+
+    /**
+     * 缓存文件魔数
+     */
+    private static final int MAGIC = 0x4A435043;
+
+    /**
+     * 缓存文件格式版本，格式变化时递增
+     * 2：缓存键加入文件所在目录
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * 内存中保留的项目缓存数量
+     */
+    private static final int MAX_CACHED_PROJECTS = 4;
+
+    /**
+     * 缓存文件所在目录
+     */
+    private final Path directory;
+
+    /**
+     * 最近使用的缓存
+     * Key：项目根目录的绝对路径，Value：解析缓存
+     */
+    private final Map<String, ParseCache> recentCaches =
+        new LinkedHashMap<String, ParseCache>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParseCache> eldest) {
+                return size() > MAX_CACHED_PROJECTS;
+            }
+        };
+
+    /**
+     * 是否保存精简解析的结果
+     */
+    private final boolean lean;
+
+    public ParseCacheStore(Path directory) {
+        this(directory, false);
+    }
+
+    /**
+     * @param directory 缓存文件所在目录
+     * @param lean 是否保存精简解析的结果
+     */
+    public ParseCacheStore(Path directory, boolean lean) {
+        this.directory = directory;
+        this.lean = lean;
+    }
+
+    /**
+     * 读取项目的解析缓存
+     *
+     * @param projectPath 项目根目录的绝对路径
+     * @return 解析缓存，不存在、版本不符或读取失败时返回空缓存
+     */
+    public ParseCache load(String projectPath) {
+        synchronized (recentCaches) {
+            ParseCache recent = recentCaches.get(projectPath);
+            if (recent != null) {
+                return recent;
+            }
+        }
+
+        ParseCache cache = new ParseCache(projectPath, read(projectPath));
+        synchronized (recentCaches) {
+            ParseCache existing = recentCaches.putIfAbsent(projectPath, cache);
+            return existing != null ? existing : cache;
+        }
+    }
+
+    private Map<String, byte[]> read(String projectPath) {
+        Map<String, byte[]> entries = new HashMap<>();
+        Path file = cacheFile(projectPath);
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readInt() != CodeAnalyzer.ANALYZER_VERSION
+                    || !in.readUTF().equals(projectPath)) {
+                return entries;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                entries.put(key, payload);
+            }
+            return entries;
+        } catch (IOException e) {
+            System.err.println("读取解析缓存失败: " + file + " - " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * 保存项目的解析缓存
+     *
+     * 缓存没有变化时不写文件；先写入临时文件再替换，读取方不会读到写了一半的缓存。
+     *
+     * @param cache 解析缓存
+     */
+    public void save(ParseCache cache) {
+        if (!cache.isDirty()) {
+            return;
+        }
+        cache.markClean();
+        Map<String, byte[]> entries = cache.snapshotEntries();
+
+        Path file = cacheFile(cache.getProjectPath());
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "parse-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(CodeAnalyzer.ANALYZER_VERSION);
+                out.writeUTF(cache.getProjectPath());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("保存解析缓存失败: " + file + " - " + e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件删除失败不影响分析
+                }
+            }
+        }
+    }
+
+    private Path cacheFile(String projectPath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(projectPath.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 9);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            if (lean) {
+                name.append("-lean");
+            }
+            return directory.resolve(name.append(".bin").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1不可用", e);
+        }
+    }
+}
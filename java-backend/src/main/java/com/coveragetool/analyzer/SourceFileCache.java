@@ -0,0 +1,223 @@
+package com.coveragetool.analyzer;
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 源文件缓存 - 在内存中保留最近使用的源文件内容及其解析结果
+ *
+ * 同一个文件可能先后被业务类分析、测试类分析（源码目录与测试目录重叠时）和代码查看读取，
+ * 缓存命中时无需再次读取和解析，界面上反复查看的文件也无需再读磁盘。
+ *
+ * 缓存键为文件的绝对路径，每次访问都重新读取文件的修改时间和大小，与缓存时不一致即视为已修改；
+ * 扫描快照和Git索引中记录的修改时间可能已经过期，不作为判断依据。
+ *
+ * 文件内容和解析结果分别限制条目数量，超出时淘汰最久未使用的条目，两者都通过软引用持有，
+ * 堆内存紧张时由垃圾回收器回收，被回收的条目下次访问时重新读取或解析。
+ *
+ * 编译单元占用的内存是源码的几十倍，批量分析时如果每个解析结果都进入缓存，
+ * 大量存活一段时间后才被淘汰的对象会让每次垃圾回收都要复制和晋升它们，分析反而变慢。
+ * 因此只有调用方确认之后还会用到的解析结果才保留，用过即移除。
+ */
+public class SourceFileCache {
+
+    /**
+     * 指定缓存文件数量的系统属性，如-Dcoverage.source.cache.size=2048
+     */
+    public static final String SIZE_PROPERTY = "coverage.source.cache.size";
+
+    /**
+     * 指定缓存解析结果数量的系统属性，如-Dcoverage.source.cache.parsed=256
+     */
+    public static final String PARSED_SIZE_PROPERTY = "coverage.source.cache.parsed";
+
+    /**
+     * 默认缓存文件数量
+     */
+    private static final int DEFAULT_SIZE = 1024;
+
+    /**
+     * 默认缓存解析结果数量
+     */
+    private static final int DEFAULT_PARSED_SIZE = 256;
+
+    /**
+     * 文件内容
+     * Key：文件绝对路径，Value：文件状态及内容
+     */
+    private final Map<String, CachedContent> entries;
+
+    /**
+     * 解析结果
+     * Key：文件绝对路径，Value：解析时的文件内容及解析结果
+     */
+    private final Map<String, Parsed> parsed;
+
+    /**
+     * 使用默认条目数量创建缓存
+     *
+     * 条目数量取系统属性coverage.source.cache.size和coverage.source.cache.parsed，
+     * 未设置时分别为1024和256。
+     */
+    public SourceFileCache() {
+        this(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE),
+             Integer.getInteger(PARSED_SIZE_PROPERTY, DEFAULT_PARSED_SIZE));
+    }
+
+    /**
+     * @param maxEntries 最多缓存的文件数量，小于1时不缓存
+     * @param maxParsed 最多缓存的解析结果数量，小于1时不缓存
+     */
+    public SourceFileCache(int maxEntries, int maxParsed) {
+        this.entries = new LinkedHashMap<String, CachedContent>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedContent> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.parsed = new LinkedHashMap<String, Parsed>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Parsed> eldest) {
+                return size() > maxParsed;
+            }
+        };
+    }
+
+    /**
+     * 读取文件内容
+     *
+     * @param file 文件
+     * @return 文件内容
+     * @throws IOException 读取文件失败时抛出
+     */
+    public byte[] content(File file) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        CachedContent entry = current(file, attributes);
+        byte[] content = entry != null ? entry.content.get() : null;
+        if (content != null) {
+            return content;
+        }
+
+        content = Files.readAllBytes(path);
+        // 读取期间文件被修改时不缓存，下次访问重新读取
+        if (content.length == attributes.size()) {
+            synchronized (entries) {
+                entries.put(file.getAbsolutePath(), new CachedContent(attributes, content));
+            }
+        }
+        return content;
+    }
+
+    /**
+     * 获取文件的解析结果
+     *
+     * 文件内容未变化且解析结果未被回收时直接返回缓存的结果，否则调用解析函数。
+     * 返回的编译单元可能被多次分析共享，调用方只能读取，不能修改。
+     *
+     * @param file 文件
+     * @param content 文件内容，由content(File)读取
+     * @param parser 解析函数
+     * @param retain 之后是否还会用到该解析结果；为true时缓存结果，为false时不缓存并移除已缓存的结果
+     * @return 解析结果
+     */
+    public ParseResult<CompilationUnit> parse(File file, byte[] content,
+                                              Function<byte[], ParseResult<CompilationUnit>> parser,
+                                              boolean retain) {
+        String key = file.getAbsolutePath();
+        synchronized (parsed) {
+            Parsed cached = retain ? parsed.get(key) : parsed.remove(key);
+            // 内容对象相同说明解析的就是这次读取的内容，文件状态已由content(File)确认
+            ParseResult<CompilationUnit> result = cached != null && cached.content.get() == content
+                ? cached.result.get() : null;
+            if (result != null) {
+                return result;
+            }
+        }
+
+        ParseResult<CompilationUnit> result = parser.apply(content);
+        if (retain) {
+            synchronized (parsed) {
+                parsed.put(key, new Parsed(content, result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        synchronized (parsed) {
+            parsed.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 获取与文件当前状态一致的条目
+     *
+     * @return 条目，不存在或文件已修改时返回null
+     */
+    private CachedContent current(File file, BasicFileAttributes attributes) {
+        synchronized (entries) {
+            CachedContent entry = entries.get(file.getAbsolutePath());
+            if (entry == null) {
+                return null;
+            }
+            if (entry.lastModified != attributes.lastModifiedTime().toMillis() || entry.size != attributes.size()) {
+                entries.remove(file.getAbsolutePath());
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * 文件内容条目 - 文件状态和内容
+     */
+    private static class CachedContent {
+        final long lastModified;
+        final long size;
+        final SoftReference<byte[]> content;
+
+        CachedContent(BasicFileAttributes attributes, byte[] content) {
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.content = new SoftReference<>(content);
+        }
+    }
+
+    /**
+     * 解析结果条目
+     * 内容只用于比对是否为同一次读取，弱引用持有，不延长内容的生命周期
+     */
+    private static class Parsed {
+        final WeakReference<byte[]> content;
+        final SoftReference<ParseResult<CompilationUnit>> result;
+
+        Parsed(byte[] content, ParseResult<CompilationUnit> result) {
+            this.content = new WeakReference<>(content);
+            this.result = new SoftReference<>(result);
+        }
+    }
+}
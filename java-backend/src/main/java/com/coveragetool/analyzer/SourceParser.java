@@ -0,0 +1,230 @@
+package com.coveragetool.analyzer;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 源码解析器 - 在有界线程池中并行解析Java源文件
+ *
+ * 解析以CPU为主，文件之间互不依赖，因此按文件拆分到固定大小的线程池中并行执行。
+ * JavaParser实例不是线程安全的，但可以重复使用，每个线程持有一个实例，
+ * 不再为每个文件创建新的解析器。
+ *
+ * 并行处理的结果按输入文件的顺序返回，与串行处理的结果完全一致。
+ */
+public class SourceParser {
+
+    /**
+     * 指定解析线程数的系统属性，如-Dcoverage.parser.threads=4
+     */
+    public static final String THREADS_PROPERTY = "coverage.parser.threads";
+
+    /**
+     * 开启精简解析的系统属性，如-Dcoverage.parser.lean=true
+     */
+    public static final String LEAN_PROPERTY = "coverage.parser.lean";
+
+    /**
+     * 单个任务处理的最少文件数，文件更少时不再拆分
+     */
+    private static final int BATCH_SIZE = 8;
+
+    /**
+     * 解析线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 是否精简解析
+     */
+    private final boolean lean;
+
+    /**
+     * 每个线程复用的解析器
+     */
+    private final ThreadLocal<JavaParser> parsers;
+
+    /**
+     * 使用默认线程数创建解析器
+     *
+     * 线程数取系统属性coverage.parser.threads，未设置时为CPU核数；
+     * 系统属性coverage.parser.lean为true时精简解析。
+     */
+    public SourceParser() {
+        this(Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+             Boolean.getBoolean(LEAN_PROPERTY));
+    }
+
+    /**
+     * @param parallelism 解析线程数，小于1时按1处理
+     */
+    public SourceParser(int parallelism) {
+        this(parallelism, false);
+    }
+
+    /**
+     * @param parallelism 解析线程数，小于1时按1处理
+     * @param lean 是否精简解析
+     */
+    public SourceParser(int parallelism, boolean lean) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.lean = lean;
+        this.parsers = ThreadLocal.withInitial(() -> new JavaParser(configuration(lean)));
+    }
+
+    /**
+     * 创建解析配置
+     *
+     * 精简解析时不把注释挂到语法树节点上，注释在解析后即被丢弃。
+     * 记号仍然保留：节点的行号由记号范围得到，方法的起止行和代码行数都依赖它。
+     *
+     * @param lean 是否精简解析
+     * @return 解析配置
+     */
+    private static ParserConfiguration configuration(boolean lean) {
+        ParserConfiguration configuration = new ParserConfiguration();
+        if (lean) {
+            configuration.setAttributeComments(false);
+        }
+        return configuration;
+    }
+
+    /**
+     * 解析单个Java文件
+     *
+     * 使用当前线程的解析器，文件内容一次读入内存，按解析配置的字符集解码。
+     *
+     * @param javaFile Java文件
+     * @return 解析结果
+     * @throws IOException 读取文件失败时抛出
+     */
+    public ParseResult<CompilationUnit> parse(File javaFile) throws IOException {
+        return parse(Files.readAllBytes(javaFile.toPath()));
+    }
+
+    /**
+     * 解析已读入内存的Java源码
+     *
+     * @param content 文件内容，按解析配置的字符集解码
+     * @return 解析结果
+     */
+    public ParseResult<CompilationUnit> parse(byte[] content) {
+        JavaParser parser = parsers.get();
+        return parser.parse(new String(content, parser.getParserConfiguration().getCharacterEncoding()));
+    }
+
+    /**
+     * 并行处理一批文件
+     *
+     * 处理函数在解析线程池中执行，通常在其中调用parse(File)。
+     * 返回null的文件被跳过，其余结果按输入顺序返回。
+     *
+     * @param files 文件列表
+     * @param processor 单个文件的处理函数，需要自行处理异常
+     * @return 处理结果
+     */
+    public <T> List<T> parseAll(List<File> files, Function<File, T> processor) {
+        Object[] results = new Object[files.size()];
+        parseEach(files, processor, (result, index) -> results[index] = result);
+
+        List<T> ordered = new ArrayList<>(files.size());
+        for (Object result : results) {
+            if (result != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) result;
+                ordered.add(value);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 并行处理一批文件，每个文件处理完立即交给接收方
+     *
+     * 结果按完成的先后交出，同时附带文件在输入列表中的位置，接收方可据此恢复输入顺序。
+     * 接收方在解析线程中被调用，需要线程安全；接收方阻塞时对应的解析线程随之暂停。
+     * 所有文件处理完后返回。
+     *
+     * @param files 文件列表
+     * @param processor 单个文件的处理函数，需要自行处理异常
+     * @param sink 结果接收方，返回null的文件不交出
+     */
+    public <T> void parseEach(List<File> files, Function<File, T> processor, ObjIntConsumer<? super T> sink) {
+        if (files.size() <= BATCH_SIZE || pool.getParallelism() == 1) {
+            for (int i = 0; i < files.size(); i++) {
+                deliver(processor.apply(files.get(i)), i, sink);
+            }
+        } else {
+            pool.invoke(new ParseTask<>(files, processor, sink, 0, files.size()));
+        }
+    }
+
+    private static <T> void deliver(T result, int index, ObjIntConsumer<? super T> sink) {
+        if (result != null) {
+            sink.accept(result, index);
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 是否精简解析
+     *
+     * 精简解析时不挂接注释，解析更快；解析结果也不进入源文件缓存，源码目录与测试目录重叠时同一文件会解析两次。
+     * 类型中间的注释不再出现在提取的类型名中，因此提取结果可能与普通解析不同。
+     *
+     * 精简解析不降低堆内存峰值：两种解析下语法树都在单个文件分析完后即可回收，
+     * 峰值主要由提取结果和源文件缓存决定。需要限制内存时调小coverage.source.cache.size和coverage.source.cache.parsed。
+     */
+    public boolean isLean() {
+        return lean;
+    }
+
+    /**
+     * 处理文件列表中的一段，段较长时对半拆分
+     */
+    private static class ParseTask<T> extends RecursiveAction {
+
+        private final List<File> files;
+        private final Function<File, T> processor;
+        private final ObjIntConsumer<? super T> sink;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<File> files, Function<File, T> processor, ObjIntConsumer<? super T> sink,
+                  int from, int to) {
+            this.files = files;
+            this.processor = processor;
+            this.sink = sink;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    deliver(processor.apply(files.get(i)), i, sink);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask<>(files, processor, sink, from, middle),
+                      new ParseTask<>(files, processor, sink, middle, to));
+        }
+    }
+}
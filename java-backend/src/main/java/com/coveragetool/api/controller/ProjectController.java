@@ -2,11 +2,16 @@ package com.coveragetool.api.controller;
 
 import com.coveragetool.api.dto.AnalysisRequest;
 import com.coveragetool.api.service.AnalysisService;
+import com.coveragetool.scanner.DirectoryTreeCache;
+import com.coveragetool.scanner.FileEnumeration;
+import com.coveragetool.scanner.PathFilter;
 import com.coveragetool.scanner.ProjectStructure;
 import com.google.gson.Gson;
 import spark.Request;
 import spark.Response;
 
+import java.util.List;
+
 /**
  * 项目控制器 - 处理项目扫描相关的API请求
  */
@@ -40,7 +45,8 @@ public class ProjectController {
             }
             
             // 执行扫描
-            ProjectStructure structure = analysisService.scanProject(scanRequest.projectPath);
+            ProjectStructure structure = analysisService.scanProject(
+                scanRequest.projectPath, scanRequest.fileEnumeration);
             
             // 返回结果
             res.type("application/json");
@@ -52,11 +58,124 @@ public class ProjectController {
         }
     }
     
+    /**
+     * 获取目录树子节点
+     * 
+     * 查询参数：
+     * projectPath - 项目路径（必填）
+     * path - 节点路径，相对于项目根目录，默认为根节点
+     * depth - 返回的层数，默认为1
+     * offset - 子节点起始位置，默认为0
+     * limit - 子节点最大数量，默认为500
+     * 
+     * @param req HTTP请求
+     * @param res HTTP响应
+     * @return JSON响应
+     */
+    public Object getDirectoryTree(Request req, Response res) {
+        try {
+            String projectPath = req.queryParams("projectPath");
+            if (projectPath == null || projectPath.isEmpty()) {
+                res.status(400);
+                return gson.toJson(new ErrorResponse("项目路径不能为空"));
+            }
+            
+            String path = req.queryParams("path") != null ? req.queryParams("path") : "";
+            int depth = parseIntParam(req.queryParams("depth"), 1);
+            int offset = parseIntParam(req.queryParams("offset"), 0);
+            int limit = parseIntParam(req.queryParams("limit"), 500);
+            if (depth < 1) {
+                res.status(400);
+                return gson.toJson(new ErrorResponse("depth必须大于0"));
+            }
+            
+            DirectoryTreeCache.TreePage page =
+                analysisService.getDirectoryTree(projectPath, path, depth, offset, limit);
+            if (page == null) {
+                res.status(404);
+                return gson.toJson(new ErrorResponse("目录不存在: " + path));
+            }
+            
+            res.type("application/json");
+            return gson.toJson(page);
+            
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return gson.toJson(new ErrorResponse("参数格式错误: " + e.getMessage()));
+        } catch (Exception e) {
+            res.status(500);
+            return gson.toJson(new ErrorResponse("获取目录树失败: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 开启或关闭项目监听模式
+     * 
+     * 请求体：{"projectPath": "...", "enabled": true, "fileEnumeration": "GIT_INDEX",
+     *         "includePatterns": [...], "excludePatterns": [...], "respectGitignore": true}
+     * 文件枚举方式和过滤规则与分析请求中的含义相同，均可省略。
+     * 
+     * @param req HTTP请求
+     * @param res HTTP响应
+     * @return JSON响应
+     */
+    public Object setProjectWatch(Request req, Response res) {
+        try {
+            WatchRequest watchRequest = gson.fromJson(req.body(), WatchRequest.class);
+            
+            if (watchRequest == null || watchRequest.projectPath == null || watchRequest.projectPath.isEmpty()) {
+                res.status(400);
+                return gson.toJson(new ErrorResponse("项目路径不能为空"));
+            }
+            
+            PathFilter pathFilter = PathFilter.compile(watchRequest.includePatterns,
+                watchRequest.excludePatterns, watchRequest.respectGitignore);
+            boolean watching = analysisService.setProjectWatch(
+                watchRequest.projectPath, watchRequest.enabled, watchRequest.fileEnumeration, pathFilter);
+            
+            res.type("application/json");
+            return gson.toJson(new WatchResponse(watchRequest.projectPath, watching));
+            
+        } catch (Exception e) {
+            res.status(500);
+            return gson.toJson(new ErrorResponse("设置项目监听失败: " + e.getMessage()));
+        }
+    }
+    
+    private static int parseIntParam(String value, int defaultValue) {
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+    
     /**
      * 扫描请求内部类
      */
     private static class ScanRequest {
         String projectPath;
+        FileEnumeration fileEnumeration;
+    }
+    
+    /**
+     * 监听请求内部类
+     */
+    private static class WatchRequest {
+        String projectPath;
+        boolean enabled;
+        FileEnumeration fileEnumeration;
+        List<String> includePatterns;
+        List<String> excludePatterns;
+        boolean respectGitignore;
+    }
+    
+    /**
+     * 监听状态响应内部类
+     */
+    private static class WatchResponse {
+        String projectPath;
+        boolean watching;
+        WatchResponse(String projectPath, boolean watching) {
+            this.projectPath = projectPath;
+            this.watching = watching;
+        }
     }
     
     /**
@@ -1,5 +1,9 @@
 package com.coveragetool.api.dto;
 
+import com.coveragetool.analyzer.AnalysisMode;
+import com.coveragetool.analyzer.CallGraphMode;
+import com.coveragetool.scanner.FileEnumeration;
+
 import java.util.Date;
 import java.util.List;
 
@@ -28,6 +32,69 @@ public class AnalysisRequest {
      */
     private GitOptions gitOptions;
     
+    /**
+     * 文件枚举方式
+     * 为空时遍历文件系统；GIT_INDEX表示只分析Git跟踪的文件
+     */
+    private FileEnumeration fileEnumeration;
+    
+    /**
+     * 包含规则（相对于项目根目录的通配符，如src/main/java/com/acme/**）
+     * 为空时包含所有文件
+     */
+    private List<String> includePatterns;
+    
+    /**
+     * 排除规则（.gitignore语法，如generated-sources、src/test/resources/fixtures/）
+     * 被排除的目录不会遍历，其中的文件不会解析
+     */
+    private List<String> excludePatterns;
+    
+    /**
+     * 是否同时应用项目中.gitignore的规则
+     */
+    private boolean respectGitignore;
+    
+    /**
+     * 分析模式
+     * 为空时完整解析；FAST表示业务类使用快速分析，不构建语法树
+     */
+    private AnalysisMode analysisMode;
+    
+    /**
+     * 是否流式分析
+     * 开启后业务类和测试类同时解析，解析出的类立即参与覆盖率匹配，分析进度中可看到部分结果
+     */
+    private boolean streaming;
+    
+    /**
+     * 增量分析的基础分析ID
+     * 指定时只重新分析该次分析的提交之后有变化的文件，基础分析不可用或配置不同时完整分析
+     */
+    private String baseAnalysisId;
+    
+    /**
+     * 调用图模式
+     * 为空时按方法名匹配；APPROXIMATE、PRECISE按测试方法实际调用的业务方法判断覆盖，
+     * 其他测试类中的调用同样计入，无法解析的测试文件仍按方法名匹配。
+     * 解析调用需要先得到全部业务类，此时不再流式分析
+     */
+    private CallGraphMode callGraphMode;
+    
+    /**
+     * 是否按名称跨测试类匹配
+     * 开启后未解析调用的测试方法所在的测试类引用了某个业务类、且调用或测试方法名提及其方法时，
+     * 该方法同样视为被覆盖，即使测试类不是该业务类对应的测试类。默认关闭，只按对应的测试类匹配
+     */
+    private boolean matchNamesAcrossClasses;
+    
+    /**
+     * JaCoCo覆盖率文件路径列表
+     * 可以是jacoco.xml报告或jacoco.exec执行数据，相对路径按项目路径解析；
+     * 指定时报告中同时展示测试运行时实测的行、分支覆盖率
+     */
+    private List<String> coverageFiles;
+    
     // Getter和Setter方法
     
     public String getProjectPath() {
@@ -62,6 +129,86 @@ public class AnalysisRequest {
         this.gitOptions = gitOptions;
     }
     
+    public FileEnumeration getFileEnumeration() {
+        return fileEnumeration;
+    }
+    
+    public void setFileEnumeration(FileEnumeration fileEnumeration) {
+        this.fileEnumeration = fileEnumeration;
+    }
+    
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+    
+    public void setIncludePatterns(List<String> includePatterns) {
+        this.includePatterns = includePatterns;
+    }
+    
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+    
+    public void setExcludePatterns(List<String> excludePatterns) {
+        this.excludePatterns = excludePatterns;
+    }
+    
+    public boolean isRespectGitignore() {
+        return respectGitignore;
+    }
+    
+    public void setRespectGitignore(boolean respectGitignore) {
+        this.respectGitignore = respectGitignore;
+    }
+    
+    public AnalysisMode getAnalysisMode() {
+        return analysisMode;
+    }
+    
+    public void setAnalysisMode(AnalysisMode analysisMode) {
+        this.analysisMode = analysisMode;
+    }
+    
+    public boolean isStreaming() {
+        return streaming;
+    }
+    
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    public String getBaseAnalysisId() {
+        return baseAnalysisId;
+    }
+    
+    public void setBaseAnalysisId(String baseAnalysisId) {
+        this.baseAnalysisId = baseAnalysisId;
+    }
+    
+    public CallGraphMode getCallGraphMode() {
+        return callGraphMode;
+    }
+    
+    public void setCallGraphMode(CallGraphMode callGraphMode) {
+        this.callGraphMode = callGraphMode;
+    }
+    
+    public boolean isMatchNamesAcrossClasses() {
+        return matchNamesAcrossClasses;
+    }
+    
+    public void setMatchNamesAcrossClasses(boolean matchNamesAcrossClasses) {
+        this.matchNamesAcrossClasses = matchNamesAcrossClasses;
+    }
+    
+    public List<String> getCoverageFiles() {
+        return coverageFiles;
+    }
+    
+    public void setCoverageFiles(List<String> coverageFiles) {
+        this.coverageFiles = coverageFiles;
+    }
+    
     /**
      * Git分析选项内部类
      */
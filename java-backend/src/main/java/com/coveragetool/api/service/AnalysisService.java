@@ -1,13 +1,25 @@
 package com.coveragetool.api.service;
 
 import com.coveragetool.api.dto.AnalysisRequest;
+import com.coveragetool.analyzer.CallGraphMode;
+import com.coveragetool.analyzer.CallGraphResolver;
 import com.coveragetool.analyzer.CodeAnalyzer;
+import com.coveragetool.analyzer.SourceFileCache;
+import com.coveragetool.analyzer.SourceParser;
 import com.coveragetool.coverage.CoverageAnalyzer;
+import com.coveragetool.coverage.CoveragePipeline;
+import com.coveragetool.coverage.IncrementalCoverage;
+import com.coveragetool.coverage.TestClassIndex;
 import com.coveragetool.git.GitAnalyzer;
+import com.coveragetool.jacoco.JacocoImporter;
 import com.coveragetool.model.*;
 import com.coveragetool.report.ReportGenerator;
+import com.coveragetool.scanner.DirectoryTreeCache;
+import com.coveragetool.scanner.FileEnumeration;
+import com.coveragetool.scanner.PathFilter;
 import com.coveragetool.scanner.ProjectScanner;
 import com.coveragetool.scanner.ProjectStructure;
+import com.coveragetool.scanner.ProjectWatcher;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -36,6 +48,12 @@ public class AnalysisService {
      */
     private CodeAnalyzer codeAnalyzer;
     
+    /**
+     * 源文件缓存
+     * 代码分析和代码查看共享，界面上反复查看的文件无需再读磁盘
+     */
+    private SourceFileCache sourceFileCache;
+    
     /**
      * Git分析器
      */
@@ -46,17 +64,53 @@ public class AnalysisService {
      */
     private CoverageAnalyzer coverageAnalyzer;
     
+    /**
+     * 覆盖率流水线
+     * 流式分析时解析与覆盖率匹配同时进行
+     */
+    private CoveragePipeline coveragePipeline;
+    
+    /**
+     * 调用图解析器
+     * 按调用图模式确定测试方法实际调用的业务方法
+     */
+    private CallGraphResolver callGraphResolver;
+    
     /**
      * 报告生成器
      */
     private ReportGenerator reportGenerator;
     
+    /**
+     * 扫描响应中目录树保留的层数
+     * 更深的节点由前端展开时通过目录树接口按需获取
+     */
+    private static final int INITIAL_TREE_DEPTH = 2;
+    
+    /**
+     * 目录树缓存
+     * 保存最近扫描项目的完整目录树，供按需加载子节点使用
+     */
+    private DirectoryTreeCache directoryTreeCache;
+    
+    /**
+     * 处于监听模式的项目
+     * Key：项目路径，Value：项目监听器（持有随文件变化更新的项目结构）
+     */
+    private Map<String, ProjectWatcher> projectWatchers;
+    
     /**
      * 分析结果缓存
      * Key：分析ID，Value：分析结果
      */
     private Map<String, AnalysisResult> analysisResults;
     
+    /**
+     * 增量分析的基础
+     * Key：分析ID，Value：该次分析的提交、当时未提交的文件和各业务类的匹配结果
+     */
+    private Map<String, IncrementalBase> incrementalBases;
+    
     /**
      * 分析进度缓存
      * Key：分析ID，Value：进度信息
@@ -83,11 +137,18 @@ public class AnalysisService {
      */
     public AnalysisService() {
         this.projectScanner = new ProjectScanner();
-        this.codeAnalyzer = new CodeAnalyzer();
+        this.sourceFileCache = new SourceFileCache();
+        SourceParser sourceParser = new SourceParser();
+        this.codeAnalyzer = new CodeAnalyzer(sourceParser, sourceFileCache);
+        this.callGraphResolver = new CallGraphResolver(sourceParser);
         this.gitAnalyzer = new GitAnalyzer();
         this.coverageAnalyzer = new CoverageAnalyzer();
+        this.coveragePipeline = new CoveragePipeline(coverageAnalyzer);
         this.reportGenerator = new ReportGenerator();
+        this.directoryTreeCache = new DirectoryTreeCache();
+        this.projectWatchers = new java.util.concurrent.ConcurrentHashMap<>();
         this.analysisResults = new HashMap<>();
+        this.incrementalBases = new java.util.concurrent.ConcurrentHashMap<>();
         this.analysisProgress = new HashMap<>();
         this.reportHistoryList = new ArrayList<>();
         this.gson = new GsonBuilder().setDateFormat("yyyy-MM-dd HH:mm:ss").create();
@@ -99,6 +160,10 @@ public class AnalysisService {
         // 确保报告目录存在
         ensureReportDirectory();
         
+        // 扫描快照和解析缓存保存在报告目录下
+        projectScanner.setSnapshotDirectory(scanSnapshotDirectory());
+        codeAnalyzer.setParseCacheDirectory(parseCacheDirectory());
+        
         // 加载已有的报告历史
         loadReportHistory();
     }
@@ -106,11 +171,135 @@ public class AnalysisService {
     /**
      * 扫描项目
      * 
+     * 完整目录树缓存在服务端，返回的项目结构中目录树只保留前几层，
+     * 其余子节点通过getDirectoryTree按需获取。
+     * 处于监听模式的项目直接返回已随文件变化更新的项目结构，不重新扫描。
+     * 
      * @param projectPath 项目路径
+     * @param fileEnumeration 文件枚举方式，为null时遍历文件系统
      * @return 项目结构信息
      */
-    public ProjectStructure scanProject(String projectPath) {
-        return projectScanner.scan(projectPath);
+    public ProjectStructure scanProject(String projectPath, FileEnumeration fileEnumeration) {
+        ProjectStructure structure = currentStructure(projectPath, fileEnumeration, null);
+        
+        synchronized (structure) {
+            directoryTreeCache.put(structure);
+            
+            ProjectStructure response = new ProjectStructure();
+            response.setProjectPath(structure.getProjectPath());
+            response.setProjectType(structure.getProjectType());
+            response.setModules(structure.getModules());
+            response.setSourceDirectories(structure.getSourceDirectories());
+            response.setTestDirectories(structure.getTestDirectories());
+            response.setAllJavaFiles(structure.getAllJavaFiles());
+            response.setGitRepository(structure.isGitRepository());
+            response.setCommitCount(structure.getCommitCount());
+            response.setFileEnumeration(structure.getFileEnumeration());
+            response.setDirectoryTree(DirectoryTreeCache.truncate(structure.getDirectoryTree(), INITIAL_TREE_DEPTH));
+            response.setSourceTree(DirectoryTreeCache.truncate(structure.getSourceTree(), INITIAL_TREE_DEPTH));
+            response.setTestTree(DirectoryTreeCache.truncate(structure.getTestTree(), INITIAL_TREE_DEPTH));
+            return response;
+        }
+    }
+    
+    /**
+     * 开启或关闭项目的监听模式
+     * 
+     * 开启后项目的源码和测试目录发生变化时，内存中的项目结构和目录树会随之更新，
+     * 之后的扫描和分析直接使用更新后的项目结构，不再重新遍历磁盘。
+     * 监听的项目结构按指定的文件枚举方式和路径过滤器扫描；项目已在监听但方式或过滤规则不同时，
+     * 按新的设置重新扫描并监听。
+     * 
+     * @param projectPath 项目路径
+     * @param enabled true开启，false关闭
+     * @param fileEnumeration 文件枚举方式，为null时遍历文件系统
+     * @param pathFilter 路径过滤器，为null时不过滤
+     * @return 当前是否处于监听模式
+     * @throws IOException 无法创建文件监听服务时抛出
+     */
+    public boolean setProjectWatch(String projectPath, boolean enabled, FileEnumeration fileEnumeration,
+                                   PathFilter pathFilter) throws IOException {
+        if (!enabled) {
+            ProjectWatcher watcher = projectWatchers.remove(projectPath);
+            if (watcher != null) {
+                watcher.close();
+            }
+            return false;
+        }
+        
+        ProjectWatcher current = projectWatchers.get(projectPath);
+        if (current != null && watches(current.getStructure(), fileEnumeration, pathFilter)) {
+            return true;
+        }
+        ProjectStructure structure = projectScanner.scan(projectPath, fileEnumeration, pathFilter);
+        ProjectWatcher watcher = projectScanner.watch(structure, directoryTreeCache::put);
+        boolean registered = current != null
+            ? projectWatchers.replace(projectPath, current, watcher)
+            : projectWatchers.putIfAbsent(projectPath, watcher) == null;
+        if (!registered) {
+            // 其他请求同时开启了监听
+            watcher.close();
+            return projectWatchers.containsKey(projectPath);
+        }
+        if (current != null) {
+            current.close();
+        }
+        synchronized (structure) {
+            directoryTreeCache.put(structure);
+        }
+        return true;
+    }
+    
+    /**
+     * 判断监听中的项目结构是否按指定的文件枚举方式和路径过滤器扫描
+     * 
+     * 请求使用Git索引但项目不在Git工作区内时，扫描会退回到遍历文件系统，视为相同的方式。
+     */
+    private boolean watches(ProjectStructure structure, FileEnumeration fileEnumeration, PathFilter pathFilter) {
+        boolean gitIndex = structure.getFileEnumeration() == FileEnumeration.GIT_INDEX;
+        if (gitIndex != (fileEnumeration == FileEnumeration.GIT_INDEX) && (gitIndex || structure.isGitRepository())) {
+            return false;
+        }
+        PathFilter filter = pathFilter != null
+            ? pathFilter.withGitignore(new File(structure.getProjectPath()), structure.getModules())
+            : PathFilter.NONE;
+        return filter.getKey().equals(structure.getPathFilter().getKey());
+    }
+    
+    /**
+     * 获取项目结构
+     * 
+     * 处于监听模式时直接返回已更新的项目结构（不带过滤规则，由分析阶段过滤），
+     * 否则按指定的文件枚举方式和路径过滤器重新扫描。
+     */
+    private ProjectStructure currentStructure(String projectPath, FileEnumeration fileEnumeration,
+                                              PathFilter pathFilter) {
+        ProjectWatcher watcher = projectWatchers.get(projectPath);
+        return watcher != null ? watcher.getStructure()
+                               : projectScanner.scan(projectPath, fileEnumeration, pathFilter);
+    }
+    
+    /**
+     * 获取目录树的子节点
+     * 
+     * 项目尚未扫描（或缓存已被淘汰）时先重新扫描项目。
+     * 
+     * @param projectPath 项目路径
+     * @param path 节点路径（相对于项目根目录，空字符串表示根节点）
+     * @param depth 返回的层数
+     * @param offset 子节点起始位置
+     * @param limit 子节点最大数量
+     * @return 子树分页结果，路径不存在时返回null
+     */
+    public DirectoryTreeCache.TreePage getDirectoryTree(String projectPath, String path,
+                                                        int depth, int offset, int limit) {
+        if (!directoryTreeCache.contains(projectPath)) {
+            ProjectStructure structure = currentStructure(projectPath, null, null);
+            synchronized (structure) {
+                directoryTreeCache.put(structure);
+            }
+        }
+        return directoryTreeCache.getSubtree(projectPath, path, depth, offset, limit);
     }
     
     /**
@@ -153,26 +342,76 @@ public class AnalysisService {
         try {
             // 1. 扫描项目
             progress.update("SCANNING", 10, "正在扫描项目结构...");
-            ProjectStructure structure = projectScanner.scan(request.getProjectPath());
+            PathFilter pathFilter = PathFilter.compile(request.getIncludePatterns(),
+                request.getExcludePatterns(), request.isRespectGitignore());
+            ProjectStructure structure = currentStructure(
+                request.getProjectPath(), request.getFileEnumeration(), pathFilter);
             
-            // 2. 分析业务类
-            progress.update("ANALYZING_BUSINESS", 30, "正在分析业务类...");
-            List<BusinessClass> businessClasses = codeAnalyzer.analyzeBusinessClasses(
-                request.getSourceDirectories(), request.getProjectPath());
+            // 扫描时已按相同规则过滤的文件索引无需再次过滤
+            PathFilter projectFilter = pathFilter.withGitignore(
+                new File(request.getProjectPath()), structure.getModules());
+            PathFilter analysisFilter = projectFilter.getKey().equals(structure.getPathFilter().getKey())
+                ? PathFilter.NONE : projectFilter;
             
-            // 3. 分析测试类
-            progress.update("ANALYZING_TESTS", 50, "正在分析测试类...");
-            List<TestClass> testClasses = codeAnalyzer.analyzeTestClasses(
-                request.getTestDirectories(), request.getProjectPath());
+            // 2-3. 分析业务类和测试类并匹配覆盖关系
+            IncrementalBase base = incrementalBase(request);
+            Set<String> diffFiles = base != null ? diffJavaFiles(request.getProjectPath(), base.commit) : null;
+            IncrementalCoverage coverage = null;
+            if (diffFiles != null) {
+                // 只重新分析基础分析之后有变化的文件
+                progress.update("ANALYZING_CHANGES", 30, "正在分析变更的文件...");
+                coverage = reanalyzeChanges(request, base, diffFiles, projectFilter);
+            }
+            if (coverage == null && request.isStreaming() && !resolvesCalls(request)) {
+                // 同时分析业务类和测试类，解析出的类立即参与覆盖率匹配
+                progress.update("ANALYZING_STREAMING", 30, "正在分析业务类和测试类...");
+                coverage = coveragePipeline.run(
+                    sink -> codeAnalyzer.streamTestClasses(request.getTestDirectories(), request.getProjectPath(),
+                        structure.getFileIndex(), analysisFilter, sink),
+                    sink -> codeAnalyzer.streamBusinessClasses(request.getSourceDirectories(),
+                        request.getProjectPath(), structure.getFileIndex(), analysisFilter,
+                        request.getAnalysisMode(), sink),
+                    request.isMatchNamesAcrossClasses(), progress::updatePartial);
+            } else if (coverage == null) {
+                // 2. 分析业务类
+                progress.update("ANALYZING_BUSINESS", 30, "正在分析业务类...");
+                List<BusinessClass> businessClasses = codeAnalyzer.analyzeBusinessClasses(
+                    request.getSourceDirectories(), request.getProjectPath(), structure.getFileIndex(), analysisFilter,
+                    request.getAnalysisMode());
+                
+                // 3. 分析测试类
+                progress.update("ANALYZING_TESTS", 50, "正在分析测试类...");
+                List<TestClass> testClasses = codeAnalyzer.analyzeTestClasses(
+                    request.getTestDirectories(), request.getProjectPath(), structure.getFileIndex(), analysisFilter);
+                
+                if (resolvesCalls(request)) {
+                    progress.update("RESOLVING_CALLS", 60, "正在解析测试方法的调用...");
+                    resolveCalls(request, businessClasses, testClasses);
+                }
+                
+                coverage = coverageAnalyzer.analyzeIncrementally(
+                    businessClasses, testClasses, request.isMatchNamesAcrossClasses());
+            }
+            List<BusinessClass> businessClasses = coverage.getBusinessClasses();
+            List<TestClass> testClasses = coverage.getTestClasses();
+            
+            // 记录分析时的提交，供之后的增量分析使用
+            String analyzedCommit = recordIncrementalBase(analysisId, request, coverage,
+                diffFiles != null ? base.commit : null, diffFiles);
             
             // 4. Git分析
             progress.update("ANALYZING_GIT", 70, "正在分析Git历史...");
-            GitStatistics gitStatistics = analyzeGit(request);
+            GitStatistics gitStatistics = analyzeGit(request, structure);
             
             // 5. 覆盖率分析
             progress.update("ANALYZING_COVERAGE", 85, "正在分析覆盖率...");
-            CoverageReport coverageReport = coverageAnalyzer.analyzeCoverage(
-                businessClasses, testClasses);
+            CoverageReport coverageReport = coverage.buildReport();
+            
+            // 5.2 导入测试运行时实测的覆盖率
+            if (request.getCoverageFiles() != null && !request.getCoverageFiles().isEmpty()) {
+                progress.update("IMPORTING_COVERAGE", 88, "正在导入JaCoCo覆盖率...");
+                importMeasuredCoverage(request, businessClasses, coverageReport);
+            }
             
             // 5.5 生成提交级统计（如果项目是Git仓库）
             if (gitStatistics.getTotalCommits() > 0) {
@@ -196,6 +435,8 @@ public class AnalysisService {
             result.setGitStatistics(gitStatistics);
             result.setCoverageReport(coverageReport);
             result.setMultiDimensionalReport(multiDimensionalReport);
+            result.setAnalyzedCommit(analyzedCommit);
+            result.setIncremental(diffFiles != null);
             
             // 保存结果
             analysisResults.put(analysisId, result);
@@ -209,10 +450,263 @@ public class AnalysisService {
         }
     }
     
+    /**
+     * 导入JaCoCo覆盖率文件中的实测覆盖率
+     * 单个文件读取失败时跳过该文件，不影响其他文件和分析结果
+     * 
+     * @param request 分析请求
+     * @param businessClasses 业务类列表
+     * @param coverageReport 覆盖率报告
+     */
+    private void importMeasuredCoverage(AnalysisRequest request, List<BusinessClass> businessClasses,
+                                        CoverageReport coverageReport) {
+        JacocoImporter importer = new JacocoImporter(businessClasses, coverageReport);
+        for (String coverageFile : request.getCoverageFiles()) {
+            Path path = Paths.get(request.getProjectPath()).resolve(coverageFile);
+            try {
+                importer.importFile(path);
+            } catch (IOException e) {
+                System.err.println("导入JaCoCo覆盖率失败: " + path + ": " + e.getMessage());
+            }
+        }
+        importer.finish();
+    }
+    
+    /**
+     * 获取可用作增量分析基础的分析
+     * 
+     * @param request 分析请求
+     * @return 基础分析，未指定、不存在或分析配置不同时返回null
+     */
+    private IncrementalBase incrementalBase(AnalysisRequest request) {
+        if (request.getBaseAnalysisId() == null) {
+            return null;
+        }
+        IncrementalBase base = incrementalBases.get(request.getBaseAnalysisId());
+        return base != null && base.sourceKey.equals(sourceKey(request)) ? base : null;
+    }
+    
+    /**
+     * 获取指定提交与工作区之间有差异的Java文件
+     * 
+     * @return 相对于项目根目录的路径，无法比较时返回null
+     */
+    private Set<String> diffJavaFiles(String projectPath, String commit) {
+        try {
+            return gitAnalyzer.getChangedJavaFiles(projectPath, commit);
+        } catch (IOException e) {
+            System.err.println("比较工作区失败，改为完整分析: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 增量分析：只重新解析有变化的文件，在基础分析的匹配结果上增删类
+     * 
+     * 需要重新解析的文件包括：基础分析的提交之后有差异的文件、基础分析时尚未提交的文件
+     * （其内容可能已经恢复为提交时的内容），解析调用时调用了有变化的业务类中某个方法名的测试类
+     * 所在的文件，以及对应测试类有变化、被有变化的测试类调用
+     * 或（按名称跨测试类匹配时）被有变化的测试类引用的业务类所在的文件。
+     * 最后一种文件内容没有变化，解析缓存命中时无需真正解析；重新解析得到新的业务类对象，
+     * 重新匹配时不会改动基础分析结果中的对象。
+     * 
+     * @param request 分析请求
+     * @param base 基础分析
+     * @param diffFiles 基础分析的提交与工作区之间有差异的Java文件
+     * @param filter 路径过滤器
+     * @return 更新后的匹配结果
+     */
+    private IncrementalCoverage reanalyzeChanges(AnalysisRequest request, IncrementalBase base,
+                                                 Set<String> diffFiles, PathFilter filter) {
+        String projectPath = request.getProjectPath();
+        Set<String> changedFiles = new LinkedHashSet<>(diffFiles);
+        changedFiles.addAll(base.uncommittedFiles);
+        IncrementalCoverage coverage = base.coverage.copy();
+        
+        Path root = Paths.get(projectPath).toAbsolutePath().normalize();
+        Set<String> changedPaths = new HashSet<>();
+        for (String file : changedFiles) {
+            changedPaths.add(root.resolve(file).normalize().toString());
+        }
+        
+        List<BusinessClass> businessClasses = codeAnalyzer.analyzeBusinessFiles(
+            request.getSourceDirectories(), projectPath, changedFiles, filter, request.getAnalysisMode());
+        
+        List<BusinessClass> unchangedClasses = new ArrayList<>();
+        Set<String> changedMethodNames = new HashSet<>();
+        for (BusinessClass businessClass : coverage.getBusinessClasses()) {
+            if (!changedPaths.contains(normalizePath(businessClass.getFilePath()))) {
+                unchangedClasses.add(businessClass);
+            } else {
+                addMethodNames(businessClass, changedMethodNames);
+            }
+        }
+        for (BusinessClass businessClass : businessClasses) {
+            addMethodNames(businessClass, changedMethodNames);
+        }
+        
+        // 未变化的测试类的调用是对照旧的业务类解析的，业务方法的参数类型、返回类型或重载变化后
+        // 原有的方法键可能不再对应，调用了这些方法名的测试类也要重新解析调用
+        Set<String> testFiles = new LinkedHashSet<>(changedFiles);
+        Set<String> resolvedAgainFiles = new LinkedHashSet<>();
+        if (resolvesCalls(request) && !changedMethodNames.isEmpty()) {
+            for (TestClass testClass : coverage.getTestClasses()) {
+                Path path = Paths.get(normalizePath(testClass.getFilePath()));
+                if (!changedPaths.contains(path.toString()) && path.startsWith(root)
+                        && callsAny(testClass, changedMethodNames)) {
+                    resolvedAgainFiles.add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+                    changedPaths.add(path.toString());
+                }
+            }
+            testFiles.addAll(resolvedAgainFiles);
+        }
+        
+        List<TestClass> testClasses = codeAnalyzer.analyzeTestFiles(
+            request.getTestDirectories(), projectPath, testFiles, filter);
+        if (resolvesCalls(request)) {
+            // 新解析的测试类对照替换后的全部业务类解析调用
+            List<BusinessClass> allBusinessClasses = new ArrayList<>(businessClasses);
+            allBusinessClasses.addAll(unchangedClasses);
+            resolveCalls(request, allBusinessClasses, testClasses);
+        }
+        
+        // 有变化的测试类（删除、修改或新增）的完整限定名及其调用、引用的业务类
+        List<TestClass> changedTests = new ArrayList<>(testClasses);
+        for (TestClass testClass : coverage.getTestClasses()) {
+            if (changedPaths.contains(normalizePath(testClass.getFilePath()))) {
+                changedTests.add(testClass);
+            }
+        }
+        Set<String> changedTestNames = new HashSet<>();
+        Set<String> calledClassNames = new HashSet<>();
+        Set<String> referencedClassNames = new HashSet<>();
+        for (TestClass testClass : changedTests) {
+            changedTestNames.addAll(TestClassIndex.testClassNames(testClass));
+            if (request.isMatchNamesAcrossClasses() && testClass.getReferencedTypes() != null) {
+                referencedClassNames.addAll(testClass.getReferencedTypes());
+            }
+            for (TestMethod testMethod : testClass.getTestMethods()) {
+                if (testMethod.getCalledBusinessMethods() != null) {
+                    for (String key : testMethod.getCalledBusinessMethods()) {
+                        calledClassNames.add(key.substring(0, key.indexOf('#')));
+                    }
+                }
+            }
+        }
+        
+        // 这些测试类对应、调用或引用的业务类也要重新匹配；
+        // 重新解析调用的测试文件同时位于源码目录时，其中的业务类随之替换，也要重新分析
+        Set<String> affectedFiles = new LinkedHashSet<>(resolvedAgainFiles);
+        for (BusinessClass businessClass : unchangedClasses) {
+            List<String> testNames = coverageAnalyzer.getNamingConventions().correspondingTestClasses(businessClass);
+            if (!Collections.disjoint(changedTestNames, testNames)
+                    || calledClassNames.contains(businessClass.getFullyQualifiedName())
+                    || referencedClassNames.contains(businessClass.getClassName())) {
+                Path path = Paths.get(normalizePath(businessClass.getFilePath()));
+                if (path.startsWith(root)) {
+                    affectedFiles.add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+                    changedPaths.add(path.toString());
+                }
+            }
+        }
+        businessClasses.addAll(codeAnalyzer.analyzeBusinessFiles(
+            request.getSourceDirectories(), projectPath, affectedFiles, filter, request.getAnalysisMode()));
+        
+        coverage.replaceFiles(changedPaths, businessClasses, testClasses);
+        return coverage;
+    }
+    
+    private static void addMethodNames(BusinessClass businessClass, Set<String> methodNames) {
+        for (Method method : businessClass.getMethods()) {
+            methodNames.add(method.getMethodName());
+        }
+    }
+    
+    /**
+     * 测试类中是否有测试方法调用了指定名称的方法
+     */
+    private static boolean callsAny(TestClass testClass, Set<String> methodNames) {
+        for (TestMethod testMethod : testClass.getTestMethods()) {
+            if (testMethod.getCalledMethodNames() != null
+                    && !Collections.disjoint(testMethod.getCalledMethodNames(), methodNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String normalizePath(String filePath) {
+        return Paths.get(filePath).toAbsolutePath().normalize().toString();
+    }
+    
+    /**
+     * 记录本次分析的提交和未提交的文件，供之后的增量分析使用
+     * 
+     * 在解析之后读取工作区状态：解析之后才修改的文件会被记为未提交，下次增量分析时重新解析。
+     * 
+     * @param analysisId 分析ID
+     * @param request 分析请求
+     * @param coverage 本次分析的匹配结果
+     * @param diffCommit 已与工作区比较过的提交，没有时为null
+     * @param diffFiles 该提交与工作区之间有差异的Java文件
+     * @return 分析时的提交，不是Git仓库或无法读取工作区状态时返回null
+     */
+    private String recordIncrementalBase(String analysisId, AnalysisRequest request, IncrementalCoverage coverage,
+                                         String diffCommit, Set<String> diffFiles) {
+        String commit = gitAnalyzer.getHeadCommit(request.getProjectPath());
+        if (commit == null) {
+            return null;
+        }
+        Set<String> uncommittedFiles = commit.equals(diffCommit) ? diffFiles
+            : diffJavaFiles(request.getProjectPath(), commit);
+        if (uncommittedFiles == null) {
+            return null;
+        }
+        incrementalBases.put(analysisId,
+            new IncrementalBase(sourceKey(request), commit, uncommittedFiles, coverage));
+        return commit;
+    }
+    
+    /**
+     * 分析配置的标识，配置相同的分析才能互为增量分析的基础
+     */
+    private static String sourceKey(AnalysisRequest request) {
+        return String.join("\n",
+            new File(request.getProjectPath()).getAbsolutePath(),
+            String.valueOf(request.getSourceDirectories()),
+            String.valueOf(request.getTestDirectories()),
+            String.valueOf(request.getIncludePatterns()),
+            String.valueOf(request.getExcludePatterns()),
+            String.valueOf(request.isRespectGitignore()),
+            String.valueOf(request.getAnalysisMode()),
+            String.valueOf(request.getCallGraphMode()),
+            String.valueOf(request.isMatchNamesAcrossClasses()));
+    }
+    
+    /**
+     * 是否需要解析测试方法的调用
+     */
+    private static boolean resolvesCalls(AnalysisRequest request) {
+        return request.getCallGraphMode() != null && request.getCallGraphMode() != CallGraphMode.NAME;
+    }
+    
+    /**
+     * 解析测试方法调用的业务方法，无法解析的测试文件仍按方法名匹配
+     */
+    private void resolveCalls(AnalysisRequest request, List<BusinessClass> businessClasses,
+                              List<TestClass> testClasses) {
+        CallGraphResolver.Summary summary = callGraphResolver.resolve(
+            businessClasses, testClasses, request.getCallGraphMode());
+        if (summary.getTimedOutFiles() > 0 || summary.getFailedFiles() > 0) {
+            System.err.println("方法调用解析：" + summary.getTimedOutFiles() + "个测试文件超时，"
+                + summary.getFailedFiles() + "个测试文件解析失败，改为按方法名匹配");
+        }
+    }
+    
     /**
      * 分析Git历史
      */
-    private GitStatistics analyzeGit(AnalysisRequest request) {
+    private GitStatistics analyzeGit(AnalysisRequest request, ProjectStructure structure) {
         GitStatistics gitStatistics = new GitStatistics();
         
         try {
@@ -257,6 +751,7 @@ public class AnalysisService {
             gitAnalyzer.calculateCurrentLinesOwned(
                 request.getProjectPath(), 
                 request.getSourceDirectories(), 
+                structure.getFileIndex(),
                 developerStats);
             
             gitStatistics.setDeveloperStats(developerStats);
@@ -300,6 +795,9 @@ public class AnalysisService {
             return commitStatsList;
         }
         
+        // 测试类索引在所有提交间共用
+        TestClassIndex testClassIndex = coverageAnalyzer.indexTestClasses(testClasses);
+        
         // 为每个提交生成统计信息
         for (CommitInfo commit : commits) {
             CommitStatistics commitStats = new CommitStatistics();
@@ -314,7 +812,7 @@ public class AnalysisService {
             commitStats.setLinesDeleted(commit.getLinesDeleted());
             
             // 分析本次提交影响的方法和覆盖率
-            analyzeCommitImpact(commit, businessClasses, testClasses, commitStats, projectPath);
+            analyzeCommitImpact(commit, businessClasses, testClassIndex, commitStats, projectPath);
             
             commitStatsList.add(commitStats);
         }
@@ -329,13 +827,13 @@ public class AnalysisService {
      * 
      * @param commit 提交信息
      * @param businessClasses 业务类列表
-     * @param testClasses 测试类列表
+     * @param testClassIndex 测试类索引
      * @param commitStats 提交统计对象（用于存储结果）
      * @param projectPath 项目路径
      */
     private void analyzeCommitImpact(CommitInfo commit,
                                      List<BusinessClass> businessClasses,
-                                     List<TestClass> testClasses,
+                                     TestClassIndex testClassIndex,
                                      CommitStatistics commitStats,
                                      String projectPath) {
         
@@ -368,7 +866,7 @@ public class AnalysisService {
             
             if (affectedClass != null) {
                 // 找到对应的测试类
-                TestClass testClass = findTestClassForBusinessClass(affectedClass, testClasses);
+                TestClass testClass = testClassIndex.findTestClass(affectedClass);
                 
                 // 分析新增行对应的方法
                 for (Integer lineNum : change.getAddedLines()) {
@@ -426,24 +924,6 @@ public class AnalysisService {
         return null;
     }
     
-    /**
-     * 查找业务类对应的测试类
-     */
-    private TestClass findTestClassForBusinessClass(BusinessClass businessClass,
-                                                     List<TestClass> testClasses) {
-        String businessClassName = businessClass.getClassName();
-        
-        for (TestClass testClass : testClasses) {
-            // 测试类名通常是：业务类名 + Test
-            if (testClass.getClassName().equals(businessClassName + "Test") ||
-                testClass.getClassName().equals(businessClassName + "Tests")) {
-                return testClass;
-            }
-        }
-        
-        return null;
-    }
-    
     /**
      * 根据行号查找方法
      */
@@ -622,6 +1102,7 @@ public class AnalysisService {
         // 从内存中移除
         reportHistoryList.remove(historyToDelete);
         analysisResults.remove(reportId);
+        incrementalBases.remove(reportId);
         
         // 更新状态为已删除
         historyToDelete.setStatus(ReportStatus.DELETED);
@@ -638,6 +1119,22 @@ public class AnalysisService {
     public void setDefaultReportPath(String path) {
         this.defaultReportPath = path;
         ensureReportDirectory();
+        projectScanner.setSnapshotDirectory(scanSnapshotDirectory());
+        codeAnalyzer.setParseCacheDirectory(parseCacheDirectory());
+    }
+    
+    /**
+     * 获取扫描快照目录
+     */
+    private String scanSnapshotDirectory() {
+        return defaultReportPath + File.separator + "scan-cache";
+    }
+    
+    /**
+     * 获取解析缓存目录
+     */
+    private String parseCacheDirectory() {
+        return defaultReportPath + File.separator + "parse-cache";
     }
     
     /**
@@ -723,6 +1220,24 @@ public class AnalysisService {
         }
     }
     
+    /**
+     * 增量分析的基础 - 一次分析的提交、当时未提交的文件和匹配结果
+     */
+    private static class IncrementalBase {
+        final String sourceKey;
+        final String commit;
+        final Set<String> uncommittedFiles;
+        final IncrementalCoverage coverage;
+        
+        IncrementalBase(String sourceKey, String commit, Set<String> uncommittedFiles,
+                        IncrementalCoverage coverage) {
+            this.sourceKey = sourceKey;
+            this.commit = commit;
+            this.uncommittedFiles = uncommittedFiles;
+            this.coverage = coverage;
+        }
+    }
+    
     /**
      * 分析进度内部类
      */
@@ -733,6 +1248,11 @@ public class AnalysisService {
         private String message;
         private Date startTime;
         private Date updateTime;
+        // 流式分析的部分结果
+        private int analyzedBusinessClasses;
+        private int analyzedTestClasses;
+        private int matchedMethods;
+        private int coveredMethods;
         
         public AnalysisProgress(String analysisId) {
             this.analysisId = analysisId;
@@ -750,6 +1270,19 @@ public class AnalysisService {
             this.updateTime = new Date();
         }
         
+        /**
+         * 更新流式分析的部分结果
+         */
+        public void updatePartial(IncrementalCoverage coverage) {
+            this.analyzedBusinessClasses = coverage.getBusinessClassCount();
+            this.analyzedTestClasses = coverage.getTestClassCount();
+            this.matchedMethods = coverage.getMatchedMethodCount();
+            this.coveredMethods = coverage.getCoveredMethodCount();
+            this.message = String.format("已分析%d个业务类、%d个测试类，已匹配方法%d个，其中已覆盖%d个",
+                analyzedBusinessClasses, analyzedTestClasses, matchedMethods, coveredMethods);
+            this.updateTime = new Date();
+        }
+        
         // Getter方法
         public String getAnalysisId() { return analysisId; }
         public String getStage() { return stage; }
@@ -757,6 +1290,10 @@ public class AnalysisService {
         public String getMessage() { return message; }
         public Date getStartTime() { return startTime; }
         public Date getUpdateTime() { return updateTime; }
+        public int getAnalyzedBusinessClasses() { return analyzedBusinessClasses; }
+        public int getAnalyzedTestClasses() { return analyzedTestClasses; }
+        public int getMatchedMethods() { return matchedMethods; }
+        public int getCoveredMethods() { return coveredMethods; }
         public void setStatus(String status) { this.stage = status; }
         public void setMessage(String message) { this.message = message; }
     }
@@ -784,8 +1321,12 @@ public class AnalysisService {
             throw new IllegalArgumentException("路径不是文件: " + filePath);
         }
         
-        // 读取文件所有行
-        List<String> lines = Files.readAllLines(path);
+        // 读取文件所有行，文件未修改时直接使用缓存的内容
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new StringReader(
+                new String(sourceFileCache.content(path.toFile()), java.nio.charset.StandardCharsets.UTF_8)))) {
+            lines = reader.lines().collect(java.util.stream.Collectors.toList());
+        }
         
         // 将行列表转换为带行号的格式
         List<FileContent.Line> numberedLines = new ArrayList<>();
@@ -1,7 +1,12 @@
 package com.coveragetool.coverage;
 
+import com.coveragetool.analyzer.CallGraphResolver;
 import com.coveragetool.model.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
 
 /**
  * 覆盖度分析器 - 分析业务方法的测试覆盖情况
@@ -15,22 +20,64 @@ import java.util.*;
  */
 public class CoverageAnalyzer {
     
+    /**
+     * 指定覆盖率计算线程数的系统属性，如-Dcoverage.analyzer.threads=4
+     */
+    public static final String THREADS_PROPERTY = "coverage.analyzer.threads";
+    
+    /**
+     * 单个任务处理的最少业务类数，业务类更少时不再拆分
+     */
+    private static final int BATCH_SIZE = 16;
+    
+    /**
+     * 覆盖率计算线程池，各业务类分别匹配后合并
+     */
+    private final ForkJoinPool pool;
+    
     /**
      * 测试粒度评估器
      */
     private TestGranularityEvaluator granularityEvaluator;
     
+    /**
+     * 测试类命名约定
+     */
+    private final TestNamingConventions namingConventions;
+    
     /**
      * 构造函数
+     * 
+     * 测试类命名约定取系统属性coverage.test.namingConventions，
+     * 线程数取系统属性coverage.analyzer.threads，未设置时为CPU核数。
      */
     public CoverageAnalyzer() {
+        this(new TestNamingConventions());
+    }
+    
+    /**
+     * @param namingConventions 测试类命名约定
+     */
+    public CoverageAnalyzer(TestNamingConventions namingConventions) {
+        this(namingConventions, Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+    
+    /**
+     * @param namingConventions 测试类命名约定
+     * @param parallelism 覆盖率计算线程数，小于1时按1处理
+     */
+    public CoverageAnalyzer(TestNamingConventions namingConventions, int parallelism) {
         this.granularityEvaluator = new TestGranularityEvaluator();
+        this.namingConventions = namingConventions;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
     }
     
     /**
      * 分析覆盖率
      * 
      * 这是主要的分析方法，接收业务类和测试类列表，返回覆盖率报告。
+     * 各业务类的匹配互不依赖，在线程池中分段进行，各段的部分报告按业务类顺序合并，
+     * 结果与线程数无关。
      * 
      * @param businessClasses 业务类列表
      * @param testClasses 测试类列表
@@ -38,187 +85,321 @@ public class CoverageAnalyzer {
      */
     public CoverageReport analyzeCoverage(List<BusinessClass> businessClasses,
                                          List<TestClass> testClasses) {
-        CoverageReport report = new CoverageReport();
-        
-        // 统计总方法数
-        int totalMethods = 0;
-        int coveredMethods = 0;
-        
-        // 存储未覆盖的方法
-        List<MethodCoverage> uncoveredMethodList = new ArrayList<>();
-        
-        // 存储所有方法（用于方法级报告）
-        List<MethodCoverage> allMethodsList = new ArrayList<>();
-        
-        // 存储文件级统计
-        List<FileStatistics> fileStatisticsList = new ArrayList<>();
+        return analyzeCoverage(businessClasses, testClasses, false);
+    }
+    
+    /**
+     * 分析覆盖率
+     * 
+     * @param businessClasses 业务类列表
+     * @param testClasses 测试类列表
+     * @param matchNamesAcrossClasses 是否按名称跨测试类匹配：开启时未解析调用的测试方法所在的测试类引用了业务类、
+     *                                且调用或名称提及业务方法时，同样视为覆盖该方法
+     * @return 覆盖率报告
+     */
+    public CoverageReport analyzeCoverage(List<BusinessClass> businessClasses,
+                                         List<TestClass> testClasses, boolean matchNamesAcrossClasses) {
+        // 任意测试类中的测试方法都可以覆盖其他测试类对应的业务类：
+        // 已解析调用的按实际调用，开启时未解析调用的按名称和测试类引用的类型
+        TestCallIndex callIndex = new TestCallIndex();
+        TestNameIndex nameIndex = new TestNameIndex();
+        for (int i = 0; i < testClasses.size(); i++) {
+            callIndex.add(i, testClasses.get(i));
+            if (matchNamesAcrossClasses) {
+                nameIndex.add(i, testClasses.get(i));
+            }
+        }
         
-        // 粒度分布统计
-        Map<GranularityLevel, Integer> granularityDistribution = new HashMap<>();
-        granularityDistribution.put(GranularityLevel.EXCELLENT, 0);
-        granularityDistribution.put(GranularityLevel.GOOD, 0);
-        granularityDistribution.put(GranularityLevel.ACCEPTABLE, 0);
-        granularityDistribution.put(GranularityLevel.POOR, 0);
+        // 按类名建立测试类索引，每个业务类按命名约定查表
+        TestClassIndex testClassIndex = indexTestClasses(testClasses);
         
-        int totalGranularityScore = 0;
-        int evaluatedMethodCount = 0;
+        // 每个业务类找到对应的测试类后单独匹配，只读共享测试类和各个索引
+        PartialReport merged = collect(businessClasses.size(), i -> {
+            BusinessClass businessClass = businessClasses.get(i);
+            return analyzeClass(businessClass, testClassIndex.findCorrespondingTestClass(businessClass),
+                                callIndex, nameIndex);
+        });
         
-        // 遍历所有业务类
-        for (BusinessClass businessClass : businessClasses) {
-            // 找到对应的测试类
-            TestClass correspondingTestClass = findCorrespondingTestClass(
-                businessClass, testClasses);
-            
-            int classCoveredMethods = 0;
+        return buildReport(merged, testClasses);
+    }
+    
+    /**
+     * 分析覆盖率，保留各业务类的匹配结果
+     * 
+     * 结果与analyzeCoverage一致，之后可以增删类并只重新匹配受影响的业务类。
+     * 
+     * @param businessClasses 业务类列表
+     * @param testClasses 测试类列表
+     * @return 已加入所有类的增量覆盖率分析
+     */
+    public IncrementalCoverage analyzeIncrementally(List<BusinessClass> businessClasses,
+                                                   List<TestClass> testClasses) {
+        return analyzeIncrementally(businessClasses, testClasses, false);
+    }
+    
+    /**
+     * 分析覆盖率，保留各业务类的匹配结果
+     * 
+     * @param businessClasses 业务类列表
+     * @param testClasses 测试类列表
+     * @param matchNamesAcrossClasses 是否按名称跨测试类匹配
+     * @return 已加入所有类的增量覆盖率分析
+     */
+    public IncrementalCoverage analyzeIncrementally(List<BusinessClass> businessClasses,
+                                                   List<TestClass> testClasses, boolean matchNamesAcrossClasses) {
+        IncrementalCoverage coverage = newIncrementalCoverage(matchNamesAcrossClasses);
+        for (int i = 0; i < testClasses.size(); i++) {
+            coverage.addTestClass(testClasses.get(i), i);
+        }
+        coverage.completeTests();
+        coverage.addBusinessClasses(businessClasses, 0);
+        return coverage;
+    }
+    
+    /**
+     * 创建增量覆盖率分析
+     * 
+     * 业务类和测试类可以按任意顺序逐个加入，业务类在对应的测试类确定后立即完成匹配。
+     * 
+     * @return 增量覆盖率分析
+     */
+    public IncrementalCoverage newIncrementalCoverage() {
+        return newIncrementalCoverage(false);
+    }
+    
+    /**
+     * 创建增量覆盖率分析
+     * 
+     * @param matchNamesAcrossClasses 是否按名称跨测试类匹配
+     * @return 增量覆盖率分析
+     */
+    public IncrementalCoverage newIncrementalCoverage(boolean matchNamesAcrossClasses) {
+        return new IncrementalCoverage(this, matchNamesAcrossClasses);
+    }
+    
+    /**
+     * 分析单个业务类的覆盖情况
+     * 
+     * 结果只依赖业务类、其对应的测试类和调用或按名称提及该类方法的测试方法，同时更新业务类及其方法上的覆盖信息。
+     * 只读取测试类和索引，不同的业务类可以在多个线程中同时分析。
+     * 
+     * @param businessClass 业务类
+     * @param correspondingTestClass 对应的测试类，可为null
+     * @param callIndex 所有测试类的调用索引
+     * @param nameIndex 所有测试类的名称索引
+     * @return 业务类的部分报告
+     */
+    PartialReport analyzeClass(BusinessClass businessClass, TestClass correspondingTestClass,
+                               TestCallIndex callIndex, TestNameIndex nameIndex) {
+        int classCoveredMethods = 0;
+        List<MethodCoverage> uncoveredMethods = new ArrayList<>();
+        EnumMap<GranularityLevel, Integer> granularityCounts = new EnumMap<>(GranularityLevel.class);
+        int granularityScore = 0;
+        
+        // 创建文件统计对象
+        FileStatistics fileStats = createFileStatistics(businessClass, correspondingTestClass);
+        
+        // 当前类的方法列表（每个类单独维护）
+        List<MethodCoverage> currentClassMethods = new ArrayList<>();
+        
+        // 按方法名匹配时每个测试方法名只扫描一遍
+        List<Method> methods = businessClass.getMethods();
+        MethodNameMatcher nameMatcher = new MethodNameMatcher(methods);
+        
+        // 遍历业务类中的所有方法
+        for (int methodIndex = 0; methodIndex < methods.size(); methodIndex++) {
+            Method method = methods.get(methodIndex);
             
-            // 创建文件统计对象
-            FileStatistics fileStats = createFileStatistics(businessClass, correspondingTestClass);
+            // 查找覆盖该方法的测试方法
+            List<TestMethod> coveringTests = findCoveringTestMethods(
+                method, methodIndex, businessClass, correspondingTestClass, callIndex, nameIndex, nameMatcher);
             
-            // 当前类的方法列表（每个类单独维护）
-            List<MethodCoverage> currentClassMethods = new ArrayList<>();
+            // 创建方法覆盖信息对象
+            MethodCoverage methodCoverage = createMethodCoverage(method, businessClass);
             
-            // 遍历业务类中的所有方法
-            for (Method method : businessClass.getMethods()) {
-                totalMethods++;
+            if (!coveringTests.isEmpty()) {
+                // 方法被覆盖
+                method.setCovered(true);
+                method.setCoveringTestMethods(coveringTests);
+                classCoveredMethods++;
                 
-                // 查找覆盖该方法的测试方法
-                List<TestMethod> coveringTests = findCoveringTestMethods(
-                    method, correspondingTestClass);
+                methodCoverage.setCovered(true);
+                methodCoverage.setTestMethodCount(coveringTests.size());
                 
-                // 创建方法覆盖信息对象
-                MethodCoverage methodCoverage = createMethodCoverage(method, businessClass);
+                // 计算粒度分数（各测试方法分数的平均值）并评估测试粒度
+                int score = granularityEvaluator.calculateScore(method, methodIndex, coveringTests, nameMatcher);
+                GranularityLevel granularity = GranularityLevel.fromScore(score);
+                method.setTestGranularity(granularity);
+                methodCoverage.setGranularityLevel(granularity);
                 
-                if (!coveringTests.isEmpty()) {
-                    // 方法被覆盖
-                    method.setCovered(true);
-                    method.setCoveringTestMethods(coveringTests);
-                    coveredMethods++;
-                    classCoveredMethods++;
-                    
-                    methodCoverage.setCovered(true);
-                    methodCoverage.setTestMethodCount(coveringTests.size());
-                    
-                    // 评估测试粒度
-                    GranularityLevel granularity = evaluateTestGranularity(method, coveringTests);
-                    method.setTestGranularity(granularity);
-                    methodCoverage.setGranularityLevel(granularity);
-                    
-                    // 更新粒度分布
-                    granularityDistribution.put(granularity,
-                        granularityDistribution.get(granularity) + 1);
-                    
-                    // 计算粒度分数
-                    int score = granularityEvaluator.calculateScore(method, coveringTests);
-                    totalGranularityScore += score;
-                    evaluatedMethodCount++;
-                    
-                } else {
-                    // 方法未被覆盖
-                    method.setCovered(false);
-                    method.setTestGranularity(GranularityLevel.POOR);
-                    
-                    methodCoverage.setCovered(false);
-                    methodCoverage.setTestMethodCount(0);
-                    methodCoverage.setGranularityLevel(GranularityLevel.POOR);
-                    
-                    // 添加到未覆盖列表
-                    uncoveredMethodList.add(methodCoverage);
-                }
+                // 更新粒度分布
+                granularityCounts.merge(granularity, 1, Integer::sum);
+                granularityScore += score;
+                
+            } else {
+                // 方法未被覆盖（同一业务类重新匹配时清除之前的结果）
+                method.setCovered(false);
+                method.setCoveringTestMethods(null);
+                method.setTestGranularity(GranularityLevel.POOR);
                 
-                // 添加到所有方法列表
-                allMethodsList.add(methodCoverage);
+                methodCoverage.setCovered(false);
+                methodCoverage.setTestMethodCount(0);
+                methodCoverage.setGranularityLevel(GranularityLevel.POOR);
                 
-                // 添加到当前类的方法列表
-                currentClassMethods.add(methodCoverage);
+                // 添加到未覆盖列表
+                uncoveredMethods.add(methodCoverage);
             }
             
-            // 更新文件统计
-            fileStats.setTotalMethods(businessClass.getMethods().size());
-            fileStats.setCoveredMethods(classCoveredMethods);
-            fileStats.setUncoveredMethods(businessClass.getMethods().size() - classCoveredMethods);
-            double fileCoverageRate = businessClass.getMethods().isEmpty() ? 0 :
-                (double) classCoveredMethods / businessClass.getMethods().size() * 100;
-            fileStats.setCoverageRate(fileCoverageRate);
-            
-            // 设置当前类的方法列表
-            fileStats.setMethods(currentClassMethods);
-            
-            fileStatisticsList.add(fileStats);
-            
-            // 计算类的覆盖率
-            double classCoverageRate = businessClass.getMethods().isEmpty() ? 0 :
-                (double) classCoveredMethods / businessClass.getMethods().size() * 100;
-            businessClass.setCoverageRate(classCoverageRate);
+            // 添加到当前类的方法列表
+            currentClassMethods.add(methodCoverage);
         }
         
-        // 计算总体覆盖率
-        double overallCoverage = totalMethods == 0 ? 0 :
-            (double) coveredMethods / totalMethods * 100;
-        report.setOverallCoverage(overallCoverage);
+        // 更新文件统计
+        fileStats.setTotalMethods(businessClass.getMethods().size());
+        fileStats.setCoveredMethods(classCoveredMethods);
+        fileStats.setUncoveredMethods(businessClass.getMethods().size() - classCoveredMethods);
+        double fileCoverageRate = businessClass.getMethods().isEmpty() ? 0 :
+            (double) classCoveredMethods / businessClass.getMethods().size() * 100;
+        fileStats.setCoverageRate(fileCoverageRate);
         
-        // 设置统计信息
-        report.setTotalBusinessClasses(businessClasses.size());
-        report.setCoveredBusinessClasses((int) businessClasses.stream()
-            .filter(bc -> bc.getCoverageRate() > 0)
-            .count());
+        // 设置当前类的方法列表
+        fileStats.setMethods(currentClassMethods);
+        
+        // 计算类的覆盖率
+        double classCoverageRate = businessClass.getMethods().isEmpty() ? 0 :
+            (double) classCoveredMethods / businessClass.getMethods().size() * 100;
+        businessClass.setCoverageRate(classCoverageRate);
+        
+        return new PartialReport(fileStats, uncoveredMethods, granularityCounts, granularityScore);
+    }
+    
+    /**
+     * 按业务类顺序合并各个类的部分报告，生成覆盖率报告
+     * 
+     * @param classReports 各业务类的部分报告，与业务类列表顺序一致
+     * @param testClasses 测试类列表
+     * @return 覆盖率报告
+     */
+    CoverageReport buildReport(List<PartialReport> classReports, List<TestClass> testClasses) {
+        return buildReport(collect(classReports.size(), classReports::get), testClasses);
+    }
+    
+    /**
+     * 由合并后的部分报告生成覆盖率报告
+     */
+    private CoverageReport buildReport(PartialReport merged, List<TestClass> testClasses) {
+        CoverageReport report = new CoverageReport();
+        merged.fill(report);
         report.setTotalTestClasses(testClasses.size());
         report.setTotalTestMethods(testClasses.stream()
             .mapToInt(tc -> tc.getTestMethods().size())
             .sum());
-        report.setTotalMethods(totalMethods);
-        report.setCoveredMethods(coveredMethods);
-        report.setUncoveredMethods(totalMethods - coveredMethods);
-        report.setUncoveredMethodList(uncoveredMethodList);
-        report.setAllMethodsList(allMethodsList);
-        report.setFileStatisticsList(fileStatisticsList);
-        report.setGranularityDistribution(granularityDistribution);
-        
-        // 计算平均粒度分数
-        double averageGranularityScore = evaluatedMethodCount == 0 ? 0 :
-            (double) totalGranularityScore / evaluatedMethodCount;
-        report.setAverageGranularityScore(averageGranularityScore);
-        
         return report;
     }
     
     /**
-     * 查找对应的测试类
+     * 分析多个业务类的覆盖情况
+     * 
+     * 业务类较多时在线程池中分段进行，结果与逐个调用analyzeClass一致。
+     * 
+     * @param businessClasses 业务类列表
+     * @param correspondingTestClasses 各业务类对应的测试类，与业务类列表顺序一致，元素可为null
+     * @param callIndex 所有测试类的调用索引
+     * @param nameIndex 所有测试类的名称索引
+     * @return 各业务类的部分报告，与业务类列表顺序一致
+     */
+    PartialReport[] analyzeClasses(List<BusinessClass> businessClasses, List<TestClass> correspondingTestClasses,
+                                   TestCallIndex callIndex, TestNameIndex nameIndex) {
+        PartialReport[] classReports = new PartialReport[businessClasses.size()];
+        IntFunction<PartialReport> analyze = i -> classReports[i] =
+            analyzeClass(businessClasses.get(i), correspondingTestClasses.get(i), callIndex, nameIndex);
+        if (classReports.length <= BATCH_SIZE || pool.getParallelism() == 1) {
+            new AnalyzeTask(analyze, 0, classReports.length).compute();
+        } else {
+            pool.invoke(new AnalyzeTask(analyze, 0, classReports.length));
+        }
+        return classReports;
+    }
+    
+    /**
+     * 按顺序合并各个业务类的部分报告
+     * 
+     * 业务类较多时在线程池中分段生成并合并，各段按位置顺序合并，结果与顺序合并一致。
+     * 
+     * @param count 业务类数量
+     * @param classReport 生成第i个业务类的部分报告
+     * @return 合并后的部分报告（新建的累加器）
+     */
+    PartialReport collect(int count, IntFunction<PartialReport> classReport) {
+        if (count <= BATCH_SIZE || pool.getParallelism() == 1) {
+            return new MergeTask(classReport, 0, count).compute();
+        }
+        return pool.invoke(new MergeTask(classReport, 0, count));
+    }
+    
+    /**
+     * 建立测试类索引
      * 
-     * @param businessClass 业务类
      * @param testClasses 测试类列表
-     * @return 对应的测试类，如果未找到返回null
+     * @return 使用本分析器命名约定的测试类索引
      */
-    private TestClass findCorrespondingTestClass(BusinessClass businessClass,
-                                                 List<TestClass> testClasses) {
-        String expectedTestClassName = businessClass.getCorrespondingTestClass();
-        
-        return testClasses.stream()
-            .filter(tc -> tc.getFullyQualifiedName().equals(expectedTestClassName))
-            .findFirst()
-            .orElse(null);
+    public TestClassIndex indexTestClasses(List<TestClass> testClasses) {
+        return new TestClassIndex(testClasses, namingConventions);
+    }
+    
+    /**
+     * 测试类命名约定
+     */
+    public TestNamingConventions getNamingConventions() {
+        return namingConventions;
     }
     
     /**
      * 查找覆盖指定方法的测试方法
      * 
+     * 先取对应测试类中的测试方法，再追加任意测试类中实际调用了该方法的测试方法，
+     * 最后追加引用了业务类、且调用或名称提及该方法的未解析调用的测试方法。
+     * 
      * @param businessMethod 业务方法
+     * @param methodIndex 业务方法在所属业务类方法列表中的位置
+     * @param businessClass 方法所属的业务类
      * @param testClass 测试类
+     * @param callIndex 所有测试类的调用索引
+     * @param nameIndex 所有测试类的名称索引
+     * @param nameMatcher 业务类的方法名匹配器
      * @return 覆盖该方法的测试方法列表
      */
-    private List<TestMethod> findCoveringTestMethods(Method businessMethod, TestClass testClass) {
+    private List<TestMethod> findCoveringTestMethods(Method businessMethod, int methodIndex,
+                                                     BusinessClass businessClass, TestClass testClass,
+                                                     TestCallIndex callIndex, TestNameIndex nameIndex,
+                                                     MethodNameMatcher nameMatcher) {
         List<TestMethod> coveringTests = new ArrayList<>();
+        String callKey = null;
         
-        if (testClass == null || testClass.getTestMethods() == null) {
-            return coveringTests;
+        if (!callIndex.isEmpty()) {
+            callKey = CallGraphResolver.methodKey(businessClass.getFullyQualifiedName(), businessMethod);
+        }
+        if (testClass != null && testClass.getTestMethods() != null) {
+            findCoveringTestMethodsInClass(businessMethod, methodIndex, businessClass, testClass, callKey,
+                                           nameMatcher, coveringTests);
         }
         
-        String businessMethodName = businessMethod.getMethodName().toLowerCase();
-        
-        // 遍历测试方法
-        for (TestMethod testMethod : testClass.getTestMethods()) {
-            // 检查测试方法是否测试该业务方法
-            if (isTestMethodCoveringBusinessMethod(testMethod, businessMethodName)) {
-                coveringTests.add(testMethod);
+        List<TestMethod> callers = callKey != null ? callIndex.callers(callKey) : Collections.emptyList();
+        List<TestMethod> mentions = nameIndex.isEmpty() || businessClass.getClassName() == null
+            ? Collections.emptyList()
+            : nameIndex.mentions(businessClass.getClassName(), businessMethod.getMethodName());
+        if (!callers.isEmpty() || !mentions.isEmpty()) {
+            Set<TestMethod> found = Collections.newSetFromMap(new IdentityHashMap<>());
+            found.addAll(coveringTests);
+            for (TestMethod caller : callers) {
+                if (found.add(caller)) {
+                    coveringTests.add(caller);
+                }
+            }
+            for (TestMethod mention : mentions) {
+                if (found.add(mention)) {
+                    coveringTests.add(mention);
+                }
             }
         }
         
@@ -226,56 +407,29 @@ public class CoverageAnalyzer {
     }
     
     /**
-     * 判断测试方法是否覆盖业务方法
-     * 
-     * 通过方法名匹配来判断。匹配规则：
-     * 1. 测试方法名包含业务方法名
-     * 2. 测试方法的testedBusinessMethod属性等于业务方法名
-     * 
-     * @param testMethod 测试方法
-     * @param businessMethodName 业务方法名（小写）
-     * @return 是否覆盖
+     * 在对应的测试类中查找覆盖指定方法的测试方法
      */
-    private boolean isTestMethodCoveringBusinessMethod(TestMethod testMethod,
-                                                       String businessMethodName) {
-        String testMethodName = testMethod.getMethodName().toLowerCase();
-        String testedMethod = testMethod.getTestedBusinessMethod();
-        
-        // 规则1：测试方法名包含业务方法名
-        if (testMethodName.contains(businessMethodName)) {
-            return true;
-        }
-        
-        // 规则2：testedBusinessMethod匹配
-        if (testedMethod != null && !testedMethod.isEmpty()) {
-            return testedMethod.toLowerCase().equals(businessMethodName);
-        }
-        
-        return false;
-    }
-    
-    /**
-     * 评估测试粒度
-     * 
-     * @param businessMethod 业务方法
-     * @param testMethods 覆盖该方法的测试方法列表
-     * @return 粒度等级
-     */
-    private GranularityLevel evaluateTestGranularity(Method businessMethod,
-                                                     List<TestMethod> testMethods) {
-        // 使用测试粒度评估器计算分数
-        int totalScore = 0;
-        
-        for (TestMethod testMethod : testMethods) {
-            int score = granularityEvaluator.calculateScore(businessMethod, testMethod);
-            totalScore += score;
+    private void findCoveringTestMethodsInClass(Method businessMethod, int methodIndex,
+                                                BusinessClass businessClass, TestClass testClass,
+                                                String callKey, MethodNameMatcher nameMatcher,
+                                                List<TestMethod> coveringTests) {
+        // 遍历测试方法
+        for (TestMethod testMethod : testClass.getTestMethods()) {
+            if (testMethod.getCalledBusinessMethods() != null) {
+                // 已解析调用的测试方法按实际调用判断
+                if (callKey == null) {
+                    callKey = CallGraphResolver.methodKey(businessClass.getFullyQualifiedName(), businessMethod);
+                }
+                if (testMethod.getCalledBusinessMethods().contains(callKey)) {
+                    coveringTests.add(testMethod);
+                }
+                continue;
+            }
+            // 检查测试方法是否测试该业务方法（方法名包含业务方法名，或testedBusinessMethod等于业务方法名）
+            if (nameMatcher.covers(testMethod, methodIndex)) {
+                coveringTests.add(testMethod);
+            }
         }
-        
-        // 计算平均分数
-        int averageScore = testMethods.isEmpty() ? 0 : totalScore / testMethods.size();
-        
-        // 根据分数返回粒度等级
-        return GranularityLevel.fromScore(averageScore);
     }
     
     /**
@@ -322,11 +476,72 @@ public class CoverageAnalyzer {
         stats.setFullyQualifiedName(businessClass.getFullyQualifiedName());
         stats.setPackageName(businessClass.getPackageName());
         stats.setClassType(businessClass.getClassType());
-        stats.setCorrespondingTestClass(businessClass.getCorrespondingTestClass());
+        stats.setCorrespondingTestClass(correspondingTestClass != null
+            ? correspondingTestClass.getFullyQualifiedName() : businessClass.getCorrespondingTestClass());
         stats.setHasTestClass(correspondingTestClass != null);
         
         return stats;
     }
+    
+    /**
+     * 分段分析业务类的任务
+     */
+    private static class AnalyzeTask extends RecursiveAction {
+        
+        private final IntFunction<PartialReport> analyze;
+        private final int from;
+        private final int to;
+        
+        AnalyzeTask(IntFunction<PartialReport> analyze, int from, int to) {
+            this.analyze = analyze;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    analyze.apply(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new AnalyzeTask(analyze, from, middle), new AnalyzeTask(analyze, middle, to));
+        }
+    }
+    
+    /**
+     * 分段生成并合并部分报告的任务
+     */
+    private static class MergeTask extends RecursiveTask<PartialReport> {
+        
+        private final IntFunction<PartialReport> classReport;
+        private final int from;
+        private final int to;
+        
+        MergeTask(IntFunction<PartialReport> classReport, int from, int to) {
+            this.classReport = classReport;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected PartialReport compute() {
+            if (to - from <= BATCH_SIZE) {
+                PartialReport merged = new PartialReport();
+                for (int i = from; i < to; i++) {
+                    merged.add(classReport.apply(i));
+                }
+                return merged;
+            }
+            int middle = (from + to) >>> 1;
+            MergeTask right = new MergeTask(classReport, middle, to);
+            right.fork();
+            PartialReport left = new MergeTask(classReport, from, middle).compute();
+            return left.add(right.join());
+        }
+    }
 }
 
 /**
@@ -334,17 +549,6 @@ public class CoverageAnalyzer {
  */
 class TestGranularityEvaluator {
     
-    /**
-     * 计算单个测试方法的粒度分数
-     * 
-     * @param businessMethod 业务方法
-     * @param testMethod 单个测试方法
-     * @return 粒度分数（0-100）
-     */
-    public int calculateScore(Method businessMethod, TestMethod testMethod) {
-        return calculateSingleScore(businessMethod, testMethod);
-    }
-    
     /**
      * 计算测试方法的粒度分数（针对多个测试方法）
      * 
@@ -356,17 +560,21 @@ class TestGranularityEvaluator {
      * 5. Mock使用（10分）
      * 
      * @param businessMethod 业务方法
+     * @param methodIndex 业务方法在所属业务类方法列表中的位置
      * @param testMethods 测试方法列表
+     * @param nameMatcher 业务类的方法名匹配器
      * @return 粒度分数（0-100）
      */
-    public int calculateScore(Method businessMethod, List<TestMethod> testMethods) {
+    public int calculateScore(Method businessMethod, int methodIndex, List<TestMethod> testMethods,
+                              MethodNameMatcher nameMatcher) {
         if (testMethods == null || testMethods.isEmpty()) {
             return 0;
         }
         
         int totalScore = 0;
         for (TestMethod testMethod : testMethods) {
-            totalScore += calculateSingleScore(businessMethod, testMethod);
+            totalScore += calculateSingleScore(businessMethod, testMethod,
+                nameMatcher.containsName(testMethod, methodIndex));
         }
         
         return totalScore / testMethods.size();
@@ -374,14 +582,15 @@ class TestGranularityEvaluator {
     
     /**
      * 计算单个测试方法的粒度分数
+     * 
+     * @param nameContained 测试方法名是否包含业务方法名（忽略大小写）
      */
-    private int calculateSingleScore(Method businessMethod, TestMethod testMethod) {
+    private int calculateSingleScore(Method businessMethod, TestMethod testMethod, boolean nameContained) {
         int score = 0;
         
         // 1. 命名规范（20分）
         // 测试方法名应该包含业务方法名
-        if (testMethod.getMethodName().toLowerCase()
-            .contains(businessMethod.getMethodName().toLowerCase())) {
+        if (nameContained) {
             score += 20;
         } else if (testMethod.getTestedBusinessMethod() != null &&
                    testMethod.getTestedBusinessMethod()
@@ -0,0 +1,226 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.TestClass;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 覆盖率流水线 - 解析与覆盖率匹配同时进行
+ *
+ * 业务类和测试类各由一个生产者线程产生（通常是代码分析器的流式分析），
+ * 经有界队列交给调用线程，调用线程逐个加入增量覆盖率分析。
+ * 队列满时生产者阻塞，解析结果的积压量不超过队列容量；
+ * 生产者和匹配同时进行，业务类在对应的测试类到达后立即完成匹配，部分结果可随时通过监听器获取。
+ */
+public class CoveragePipeline {
+
+    /**
+     * 默认队列容量
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * 两次通知监听器之间至少处理的类数量
+     */
+    private static final int NOTIFY_INTERVAL = 32;
+
+    /**
+     * 类的生产者
+     */
+    @FunctionalInterface
+    public interface Producer<T> {
+
+        /**
+         * 产生所有类，每个类连同其在分析顺序中的位置交给接收方，全部产生后返回
+         *
+         * @param sink 接收方，线程安全，队列满时阻塞
+         */
+        void produce(ObjIntConsumer<T> sink);
+    }
+
+    private final CoverageAnalyzer coverageAnalyzer;
+    private final int capacity;
+
+    /**
+     * @param coverageAnalyzer 覆盖率分析器
+     */
+    public CoveragePipeline(CoverageAnalyzer coverageAnalyzer) {
+        this(coverageAnalyzer, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param coverageAnalyzer 覆盖率分析器
+     * @param capacity 队列容量，小于1时按1处理
+     */
+    public CoveragePipeline(CoverageAnalyzer coverageAnalyzer, int capacity) {
+        this.coverageAnalyzer = coverageAnalyzer;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * 运行流水线
+     *
+     * 测试类和业务类的生产者各在一个新线程中运行，匹配在调用线程中进行。
+     * 所有类都已加入后返回；任一生产者失败时等另一个结束后抛出其异常。
+     *
+     * @param tests 测试类生产者
+     * @param businessClasses 业务类生产者
+     * @param listener 部分结果监听器，在调用线程中定期调用，可为null
+     * @return 已加入所有类的增量覆盖率分析，可直接生成报告
+     */
+    public IncrementalCoverage run(Producer<TestClass> tests, Producer<BusinessClass> businessClasses,
+                                   Consumer<IncrementalCoverage> listener) {
+        return run(tests, businessClasses, false, listener);
+    }
+
+    /**
+     * 运行流水线
+     *
+     * @param tests 测试类生产者
+     * @param businessClasses 业务类生产者
+     * @param matchNamesAcrossClasses 是否按名称跨测试类匹配
+     * @param listener 部分结果监听器，在调用线程中定期调用，可为null
+     * @return 已加入所有类的增量覆盖率分析，可直接生成报告
+     */
+    public IncrementalCoverage run(Producer<TestClass> tests, Producer<BusinessClass> businessClasses,
+                                   boolean matchNamesAcrossClasses, Consumer<IncrementalCoverage> listener) {
+        IncrementalCoverage coverage = coverageAnalyzer.newIncrementalCoverage(matchNamesAcrossClasses);
+        BlockingQueue<Item> queue = new ArrayBlockingQueue<>(capacity);
+        Run run = new Run(queue);
+
+        Thread testThread = run.start("coverage-tests", Item.TESTS_DONE, tests);
+        Thread businessThread = run.start("coverage-business", Item.BUSINESS_DONE, businessClasses);
+
+        int remaining = 2;
+        int processed = 0;
+        try {
+            while (remaining > 0) {
+                Item item = queue.take();
+                if (item == Item.TESTS_DONE) {
+                    coverage.completeTests();
+                    remaining--;
+                } else if (item == Item.BUSINESS_DONE) {
+                    remaining--;
+                } else if (item.value instanceof TestClass) {
+                    coverage.addTestClass((TestClass) item.value, item.index);
+                } else {
+                    coverage.addBusinessClass((BusinessClass) item.value, item.index);
+                }
+
+                if (listener != null && ++processed % NOTIFY_INTERVAL == 0) {
+                    listener.accept(coverage);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.cancel();
+            throw new CancellationException("覆盖率流水线被中断");
+        } catch (RuntimeException | Error e) {
+            run.cancel();
+            throw e;
+        }
+
+        join(testThread);
+        join(businessThread);
+        if (run.failure != null) {
+            if (run.failure instanceof RuntimeException) {
+                throw (RuntimeException) run.failure;
+            }
+            throw new IllegalStateException("生产者失败: " + run.failure.getMessage(), run.failure);
+        }
+        if (listener != null) {
+            listener.accept(coverage);
+        }
+        return coverage;
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一次运行中两个生产者共享的状态
+     */
+    private static final class Run {
+
+        private final BlockingQueue<Item> queue;
+
+        /**
+         * 匹配中止后生产者不再入队，队列中的类也被丢弃
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * 第一个失败的生产者的异常
+         */
+        private volatile Throwable failure;
+
+        Run(BlockingQueue<Item> queue) {
+            this.queue = queue;
+        }
+
+        <T> Thread start(String name, Item done, Producer<T> producer) {
+            Thread thread = new Thread(() -> {
+                try {
+                    producer.produce((value, index) -> put(new Item(value, index)));
+                } catch (Throwable e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                } finally {
+                    try {
+                        put(done);
+                    } catch (CancellationException ignored) {
+                        // 匹配已中止，无需再通知
+                    }
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        private void put(Item item) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+    }
+
+    /**
+     * 队列中的一项：一个类及其位置，或某个生产者结束的标记
+     */
+    private static final class Item {
+
+        static final Item TESTS_DONE = new Item(null, -1);
+        static final Item BUSINESS_DONE = new Item(null, -1);
+
+        final Object value;
+        final int index;
+
+        Item(Object value, int index) {
+            this.value = value;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.CoverageReport;
+import com.coveragetool.model.TestClass;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 增量覆盖率分析 - 业务类和测试类逐个到达时边接收边匹配
+ *
+ * 测试类到达后按完整限定名建立索引，业务类在符合命名约定的测试类已知时立即完成匹配，
+ * 否则等待这样的测试类到达或所有测试类到达（此时按没有测试类处理）。
+ *
+ * 每个类都带有它在分析顺序中的位置。同名测试类有多个时取位置最小的一个，
+ * 后到达的位置更小的同名测试类或优先级更高的约定对应的测试类会使已匹配的业务类重新匹配，
+ * 因此最终报告与按顺序调用CoverageAnalyzer.analyzeCoverage的结果完全一致。
+ *
+ * 业务类还会被其他测试类中调用它的测试（已解析调用时）覆盖；开启按名称跨测试类匹配时，
+ * 引用了它、且调用或名称提及其方法的未解析调用的测试同样计入。
+ * 这样的测试类加入或删除后，被调用或被引用的已匹配业务类重新匹配。
+ *
+ * 分析完成后还可以删除和追加类（增量分析），只有受影响的业务类重新匹配。
+ * 重新匹配会更新业务类及其方法上的覆盖信息，与其他分析共享的业务类应先替换为新解析的对象。
+ *
+ * 所有方法都是同步的，可以在多个线程中调用。
+ */
+public class IncrementalCoverage {
+
+    private final CoverageAnalyzer coverageAnalyzer;
+
+    /**
+     * 是否按名称跨测试类匹配，关闭时名称索引始终为空
+     */
+    private final boolean matchNamesAcrossClasses;
+
+    /**
+     * 已到达的业务类，按位置排序
+     */
+    private final TreeMap<Integer, BusinessClass> businessClasses = new TreeMap<>();
+
+    /**
+     * 已到达的测试类，按位置排序
+     */
+    private final TreeMap<Integer, TestClass> testClasses = new TreeMap<>();
+
+    /**
+     * 每个名称当前选中的测试类（位置最小的一个），名称见TestClassIndex.testClassNames
+     * Key：测试类的完整限定名，Value：测试类的位置
+     */
+    private final Map<String, Integer> testClassIndex = new HashMap<>();
+
+    /**
+     * 业务类按命名约定得到的测试类名分组，这些名称选中的测试类变化时用于重新匹配
+     * Key：测试类的完整限定名，Value：业务类的位置
+     */
+    private final Map<String, List<Integer>> candidateClasses = new HashMap<>();
+
+    /**
+     * 等待对应测试类的业务类的位置
+     */
+    private final TreeSet<Integer> pendingClasses = new TreeSet<>();
+
+    /**
+     * 已匹配到测试类的业务类
+     * Key：业务类的位置，Value：匹配到的测试类
+     */
+    private final Map<Integer, TestClass> matchedTests = new HashMap<>();
+
+    /**
+     * 已完成匹配的业务类的部分报告，按位置排序
+     */
+    private final TreeMap<Integer, PartialReport> classReports = new TreeMap<>();
+
+    /**
+     * 所有已到达的测试类的调用索引
+     */
+    private final TestCallIndex callIndex;
+
+    /**
+     * 所有已到达的测试类的名称索引
+     */
+    private final TestNameIndex nameIndex;
+
+    /**
+     * 业务类按完整限定名分组，调用索引变化时用于重新匹配
+     * Key：业务类的完整限定名，Value：业务类的位置
+     */
+    private final Map<String, List<Integer>> businessIndexesByName = new HashMap<>();
+
+    /**
+     * 业务类按简单名称分组，名称索引变化时用于重新匹配
+     * Key：业务类的简单名称，Value：业务类的位置
+     */
+    private final Map<String, List<Integer>> businessIndexesBySimpleName = new HashMap<>();
+
+    /**
+     * 所有测试类是否都已到达
+     */
+    private boolean testsComplete;
+
+    /**
+     * 已完成匹配的方法数和其中被覆盖的方法数
+     */
+    private int matchedMethods;
+    private int coveredMethods;
+
+    IncrementalCoverage(CoverageAnalyzer coverageAnalyzer, boolean matchNamesAcrossClasses) {
+        this(coverageAnalyzer, matchNamesAcrossClasses, new TestCallIndex(), new TestNameIndex());
+    }
+
+    private IncrementalCoverage(CoverageAnalyzer coverageAnalyzer, boolean matchNamesAcrossClasses,
+                                TestCallIndex callIndex, TestNameIndex nameIndex) {
+        this.coverageAnalyzer = coverageAnalyzer;
+        this.matchNamesAcrossClasses = matchNamesAcrossClasses;
+        this.callIndex = callIndex;
+        this.nameIndex = nameIndex;
+    }
+
+    /**
+     * 加入测试类
+     *
+     * @param testClass 测试类
+     * @param index 测试类在分析顺序中的位置
+     */
+    public synchronized void addTestClass(TestClass testClass, int index) {
+        testClasses.put(index, testClass);
+        Set<String> calledClasses = callIndex.add(index, testClass);
+        Set<String> referencedClasses = matchNamesAcrossClasses
+            ? nameIndex.add(index, testClass) : Collections.emptySet();
+
+        for (String name : TestClassIndex.testClassNames(testClass)) {
+            Integer current = testClassIndex.get(name);
+            if (current == null || current > index) {
+                testClassIndex.put(name, index);
+                // 等待该名称的业务类，以及此前匹配到位置更大的同名测试类或优先级更低的测试类的业务类
+                rematchCandidates(name);
+            }
+        }
+
+        rematchAffectedClasses(calledClasses, referencedClasses);
+    }
+
+    /**
+     * 加入业务类
+     *
+     * 符合命名约定的测试类已知或所有测试类都已到达时立即匹配，否则等待这样的测试类。
+     * 之后到达的测试类对应优先级更高的约定时重新匹配。
+     *
+     * @param businessClass 业务类
+     * @param index 业务类在分析顺序中的位置
+     */
+    public synchronized void addBusinessClass(BusinessClass businessClass, int index) {
+        register(businessClass, index);
+
+        TestClass testClass = selectTestClass(businessClass);
+        if (testClass != null || testsComplete) {
+            match(index, testClass);
+        } else {
+            pendingClasses.add(index);
+        }
+    }
+
+    /**
+     * 加入一批位置连续的业务类
+     *
+     * 所有测试类都已到达时，这批业务类在覆盖率分析器的线程池中同时匹配，结果与逐个加入一致；
+     * 否则逐个加入。
+     *
+     * @param newBusinessClasses 业务类
+     * @param firstIndex 第一个业务类在分析顺序中的位置
+     */
+    public synchronized void addBusinessClasses(List<BusinessClass> newBusinessClasses, int firstIndex) {
+        if (!testsComplete) {
+            for (int i = 0; i < newBusinessClasses.size(); i++) {
+                addBusinessClass(newBusinessClasses.get(i), firstIndex + i);
+            }
+            return;
+        }
+        List<TestClass> selectedTests = new ArrayList<>(newBusinessClasses.size());
+        for (int i = 0; i < newBusinessClasses.size(); i++) {
+            BusinessClass businessClass = newBusinessClasses.get(i);
+            register(businessClass, firstIndex + i);
+            selectedTests.add(selectTestClass(businessClass));
+        }
+        PartialReport[] reports = coverageAnalyzer.analyzeClasses(newBusinessClasses, selectedTests, callIndex, nameIndex);
+        for (int i = 0; i < reports.length; i++) {
+            record(firstIndex + i, selectedTests.get(i), reports[i]);
+        }
+    }
+
+    /**
+     * 在已有的类之后追加业务类
+     *
+     * @param businessClass 业务类
+     */
+    public synchronized void appendBusinessClass(BusinessClass businessClass) {
+        addBusinessClass(businessClass, businessClasses.isEmpty() ? 0 : businessClasses.lastKey() + 1);
+    }
+
+    /**
+     * 在已有的类之后追加测试类
+     *
+     * @param testClass 测试类
+     */
+    public synchronized void appendTestClass(TestClass testClass) {
+        addTestClass(testClass, testClasses.isEmpty() ? 0 : testClasses.lastKey() + 1);
+    }
+
+    /**
+     * 删除指定文件中的业务类和测试类
+     *
+     * 匹配到被删除测试类的业务类改为匹配剩余的符合命名约定的测试类，没有时按没有测试类处理。
+     *
+     * @param filePaths 文件路径
+     */
+    public synchronized void removeFiles(Collection<String> filePaths) {
+        Set<String> paths = new HashSet<>();
+        for (String filePath : filePaths) {
+            paths.add(normalize(filePath));
+        }
+
+        Set<String> removedTestNames = new HashSet<>();
+        Set<String> calledClasses = new HashSet<>();
+        Set<String> referencedClasses = new HashSet<>();
+        Iterator<Map.Entry<Integer, TestClass>> tests = testClasses.entrySet().iterator();
+        while (tests.hasNext()) {
+            Map.Entry<Integer, TestClass> entry = tests.next();
+            TestClass testClass = entry.getValue();
+            if (paths.contains(normalize(testClass.getFilePath()))) {
+                removedTestNames.addAll(TestClassIndex.testClassNames(testClass));
+                calledClasses.addAll(callIndex.remove(entry.getKey(), testClass));
+                if (matchNamesAcrossClasses) {
+                    referencedClasses.addAll(nameIndex.remove(entry.getKey(), testClass));
+                }
+                tests.remove();
+            }
+        }
+
+        Iterator<Map.Entry<Integer, BusinessClass>> business = businessClasses.entrySet().iterator();
+        while (business.hasNext()) {
+            Map.Entry<Integer, BusinessClass> entry = business.next();
+            if (!paths.contains(normalize(entry.getValue().getFilePath()))) {
+                continue;
+            }
+            Integer index = entry.getKey();
+            business.remove();
+            removeIndex(businessIndexesByName, entry.getValue().getFullyQualifiedName(), index);
+            removeIndex(businessIndexesBySimpleName, entry.getValue().getClassName(), index);
+            for (String name : testClassNames(entry.getValue())) {
+                removeIndex(candidateClasses, name, index);
+            }
+            pendingClasses.remove(index);
+            unmatch(index);
+        }
+
+        for (String name : removedTestNames) {
+            Integer current = testClassIndex.get(name);
+            if (current == null || testClasses.containsKey(current)) {
+                continue; // 删除的不是选中的测试类
+            }
+            testClassIndex.remove(name);
+            for (Map.Entry<Integer, TestClass> entry : testClasses.entrySet()) {
+                if (TestClassIndex.testClassNames(entry.getValue()).contains(name)) {
+                    testClassIndex.put(name, entry.getKey());
+                    break;
+                }
+            }
+            rematchCandidates(name);
+        }
+
+        rematchAffectedClasses(calledClasses, referencedClasses);
+    }
+
+    /**
+     * 替换指定文件中的类
+     *
+     * 先删除这些文件中原有的类，新的类如果与原有的类来自同一文件且完整限定名相同，
+     * 则放回原来的位置，否则追加在已有的类之后。修改过的文件因此保持原来的分析顺序，
+     * 同名测试类的选择与重新完整分析一致。
+     *
+     * @param filePaths 文件路径
+     * @param newBusinessClasses 这些文件中新解析的业务类
+     * @param newTestClasses 这些文件中新解析的测试类
+     */
+    public synchronized void replaceFiles(Collection<String> filePaths, List<BusinessClass> newBusinessClasses,
+                                          List<TestClass> newTestClasses) {
+        Set<String> paths = new HashSet<>();
+        for (String filePath : filePaths) {
+            paths.add(normalize(filePath));
+        }
+        Map<String, Integer> businessIndexes = new HashMap<>();
+        businessClasses.forEach((index, businessClass) -> {
+            String path = normalize(businessClass.getFilePath());
+            if (paths.contains(path)) {
+                businessIndexes.put(path + '#' + businessClass.getFullyQualifiedName(), index);
+            }
+        });
+        Map<String, Integer> testIndexes = new HashMap<>();
+        testClasses.forEach((index, testClass) -> {
+            String path = normalize(testClass.getFilePath());
+            if (paths.contains(path)) {
+                testIndexes.put(path + '#' + testClass.getFullyQualifiedName(), index);
+            }
+        });
+
+        removeFiles(paths);
+        for (TestClass testClass : newTestClasses) {
+            Integer index = testIndexes.get(normalize(testClass.getFilePath()) + '#' + testClass.getFullyQualifiedName());
+            if (index != null) {
+                addTestClass(testClass, index);
+            } else {
+                appendTestClass(testClass);
+            }
+        }
+        for (BusinessClass businessClass : newBusinessClasses) {
+            Integer index = businessIndexes.get(
+                normalize(businessClass.getFilePath()) + '#' + businessClass.getFullyQualifiedName());
+            if (index != null) {
+                addBusinessClass(businessClass, index);
+            } else {
+                appendBusinessClass(businessClass);
+            }
+        }
+    }
+
+    /**
+     * 复制当前状态
+     *
+     * 副本与原对象共享业务类、测试类和各类的部分报告，之后各自增删互不影响。
+     *
+     * @return 副本
+     */
+    public synchronized IncrementalCoverage copy() {
+        IncrementalCoverage copy = new IncrementalCoverage(
+            coverageAnalyzer, matchNamesAcrossClasses, callIndex.copy(), nameIndex.copy());
+        copy.businessClasses.putAll(businessClasses);
+        copy.testClasses.putAll(testClasses);
+        copy.testClassIndex.putAll(testClassIndex);
+        candidateClasses.forEach((name, indexes) -> copy.candidateClasses.put(name, new ArrayList<>(indexes)));
+        copy.pendingClasses.addAll(pendingClasses);
+        copy.matchedTests.putAll(matchedTests);
+        businessIndexesByName.forEach((name, indexes) -> copy.businessIndexesByName.put(name, new ArrayList<>(indexes)));
+        businessIndexesBySimpleName.forEach(
+            (name, indexes) -> copy.businessIndexesBySimpleName.put(name, new ArrayList<>(indexes)));
+        copy.classReports.putAll(classReports);
+        copy.testsComplete = testsComplete;
+        copy.matchedMethods = matchedMethods;
+        copy.coveredMethods = coveredMethods;
+        return copy;
+    }
+
+    /**
+     * 标记所有测试类都已到达
+     *
+     * 仍在等待的业务类没有对应的测试类，按未覆盖处理。
+     */
+    public synchronized void completeTests() {
+        testsComplete = true;
+        for (Integer businessIndex : new ArrayList<>(pendingClasses)) {
+            match(businessIndex, null);
+        }
+    }
+
+    /**
+     * 生成覆盖率报告
+     *
+     * 调用前所有业务类都应已加入，且已调用completeTests。
+     *
+     * @return 覆盖率报告
+     * @throws IllegalStateException 测试类尚未全部到达时抛出
+     */
+    public synchronized CoverageReport buildReport() {
+        if (!testsComplete) {
+            throw new IllegalStateException("测试类尚未全部到达");
+        }
+        return coverageAnalyzer.buildReport(new ArrayList<>(classReports.values()), getTestClasses());
+    }
+
+    /**
+     * 已到达的业务类，按分析顺序排列
+     */
+    public synchronized List<BusinessClass> getBusinessClasses() {
+        return new ArrayList<>(businessClasses.values());
+    }
+
+    /**
+     * 已到达的测试类，按分析顺序排列
+     */
+    public synchronized List<TestClass> getTestClasses() {
+        return new ArrayList<>(testClasses.values());
+    }
+
+    /**
+     * 已到达的业务类数量
+     */
+    public synchronized int getBusinessClassCount() {
+        return businessClasses.size();
+    }
+
+    /**
+     * 已到达的测试类数量
+     */
+    public synchronized int getTestClassCount() {
+        return testClasses.size();
+    }
+
+    /**
+     * 已完成匹配的业务类数量
+     */
+    public synchronized int getMatchedClassCount() {
+        return classReports.size();
+    }
+
+    /**
+     * 已完成匹配的方法数量
+     */
+    public synchronized int getMatchedMethodCount() {
+        return matchedMethods;
+    }
+
+    /**
+     * 已完成匹配的方法中被覆盖的数量
+     */
+    public synchronized int getCoveredMethodCount() {
+        return coveredMethods;
+    }
+
+    /**
+     * 登记业务类，尚未匹配
+     */
+    private void register(BusinessClass businessClass, int index) {
+        businessClasses.put(index, businessClass);
+        businessIndexesByName.computeIfAbsent(businessClass.getFullyQualifiedName(), name -> new ArrayList<>())
+            .add(index);
+        businessIndexesBySimpleName.computeIfAbsent(businessClass.getClassName(), name -> new ArrayList<>())
+            .add(index);
+        for (String name : testClassNames(businessClass)) {
+            candidateClasses.computeIfAbsent(name, key -> new ArrayList<>()).add(index);
+        }
+    }
+
+    /**
+     * 调用索引或名称索引变化后重新匹配被调用或被引用的已匹配业务类
+     *
+     * @param calledClasses 被调用的业务类的完整限定名
+     * @param referencedClasses 被引用的类型的简单名称
+     */
+    private void rematchAffectedClasses(Set<String> calledClasses, Set<String> referencedClasses) {
+        Set<Integer> affected = new TreeSet<>();
+        for (String className : calledClasses) {
+            affected.addAll(businessIndexesByName.getOrDefault(className, Collections.emptyList()));
+        }
+        for (String className : referencedClasses) {
+            affected.addAll(businessIndexesBySimpleName.getOrDefault(className, Collections.emptyList()));
+        }
+        for (Integer businessIndex : affected) {
+            if (!classReports.containsKey(businessIndex)) {
+                continue; // 仍在等待对应的测试类，匹配时会用到最新的索引
+            }
+            match(businessIndex, matchedTests.get(businessIndex));
+        }
+    }
+
+    /**
+     * 某个名称选中的测试类变化后，重新匹配按命名约定可能对应该名称的业务类
+     *
+     * 选中的测试类没有变化的业务类（如匹配到优先级更高的约定对应的测试类）保持不变。
+     */
+    private void rematchCandidates(String name) {
+        List<Integer> indexes = candidateClasses.get(name);
+        if (indexes == null) {
+            return;
+        }
+        for (Integer businessIndex : new ArrayList<>(indexes)) {
+            TestClass testClass = selectTestClass(businessClasses.get(businessIndex));
+            if (classReports.containsKey(businessIndex) && matchedTests.get(businessIndex) == testClass) {
+                continue;
+            }
+            if (testClass != null || testsComplete) {
+                match(businessIndex, testClass);
+            } else {
+                unmatch(businessIndex);
+                pendingClasses.add(businessIndex);
+            }
+        }
+    }
+
+    /**
+     * 业务类按命名约定可能对应的测试类名，按约定的优先级排列
+     */
+    private List<String> testClassNames(BusinessClass businessClass) {
+        return coverageAnalyzer.getNamingConventions().correspondingTestClasses(businessClass);
+    }
+
+    /**
+     * 当前选中的测试类中，与业务类对应的优先级最高的一个
+     */
+    private TestClass selectTestClass(BusinessClass businessClass) {
+        for (String name : testClassNames(businessClass)) {
+            Integer testIndex = testClassIndex.get(name);
+            if (testIndex != null) {
+                return testClasses.get(testIndex);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 撤销业务类的匹配结果
+     */
+    private void unmatch(int businessIndex) {
+        matchedTests.remove(businessIndex);
+        PartialReport previous = classReports.remove(businessIndex);
+        if (previous != null) {
+            matchedMethods -= previous.getTotalMethods();
+            coveredMethods -= previous.getCoveredMethods();
+        }
+    }
+
+    private static void removeIndex(Map<String, List<Integer>> classes, String name, Integer index) {
+        List<Integer> indexes = classes.get(name);
+        if (indexes != null) {
+            indexes.remove(index);
+            if (indexes.isEmpty()) {
+                classes.remove(name);
+            }
+        }
+    }
+
+    private static String normalize(String filePath) {
+        return Paths.get(filePath).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * 匹配业务类，替换之前的匹配结果
+     */
+    private void match(int businessIndex, TestClass testClass) {
+        BusinessClass businessClass = businessClasses.get(businessIndex);
+        record(businessIndex, testClass, coverageAnalyzer.analyzeClass(businessClass, testClass, callIndex, nameIndex));
+    }
+
+    /**
+     * 保存业务类的匹配结果，替换之前的匹配结果
+     */
+    private void record(int businessIndex, TestClass testClass, PartialReport report) {
+        PartialReport previous = classReports.put(businessIndex, report);
+        if (previous != null) {
+            matchedMethods -= previous.getTotalMethods();
+            coveredMethods -= previous.getCoveredMethods();
+        }
+        matchedMethods += report.getTotalMethods();
+        coveredMethods += report.getCoveredMethods();
+
+        pendingClasses.remove(businessIndex);
+        if (testClass != null) {
+            matchedTests.put(businessIndex, testClass);
+        } else {
+            matchedTests.remove(businessIndex);
+        }
+    }
+}
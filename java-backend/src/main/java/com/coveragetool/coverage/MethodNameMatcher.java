@@ -0,0 +1,250 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.Method;
+import com.coveragetool.model.TestMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 方法名匹配器 - 按方法名判断测试方法对应业务类中的哪些方法
+ *
+ * 为单个业务类的方法名（小写）建立Aho-Corasick自动机，每个测试方法名只转小写一次、扫描一遍，
+ * 即得到其中包含的所有业务方法名，不必对每对业务方法和测试方法分别转小写并调用String.contains。
+ * 匹配规则与逐对比较时完全相同：
+ * 1. 包含：测试方法名（小写）包含业务方法名（小写）
+ * 2. 指定：测试方法的testedBusinessMethod（小写）等于业务方法名（小写）
+ *
+ * 每个测试方法的匹配结果在匹配器中缓存，匹配器只在分析一个业务类期间使用，不是线程安全的。
+ */
+final class MethodNameMatcher {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    /**
+     * 各方法的方法名编号，与业务类的方法列表顺序一致，同名的重载方法编号相同
+     */
+    private final int[] nameIds;
+
+    /**
+     * Key：方法名（小写），Value：方法名编号
+     */
+    private final Map<String, Integer> nameIdsByName = new HashMap<>();
+
+    /**
+     * 自动机各状态的出边字符（有序）及对应的目标状态，状态0为根
+     */
+    private final List<char[]> labels = new ArrayList<>();
+    private final List<int[]> targets = new ArrayList<>();
+
+    /**
+     * 各状态的失败转移
+     */
+    private int[] failure;
+
+    /**
+     * 到达各状态时匹配到的方法名编号，包括经失败转移可达的状态上的方法名
+     */
+    private int[][] outputs;
+
+    /**
+     * 已匹配的测试方法
+     */
+    private final Map<TestMethod, Match> matches = new IdentityHashMap<>();
+
+    /**
+     * @param methods 业务类的方法列表
+     */
+    MethodNameMatcher(List<Method> methods) {
+        nameIds = new int[methods.size()];
+        List<List<Integer>> terminals = new ArrayList<>();
+        addState(terminals);
+        for (int i = 0; i < methods.size(); i++) {
+            String name = methods.get(i).getMethodName().toLowerCase();
+            Integer nameId = nameIdsByName.get(name);
+            if (nameId == null) {
+                nameId = nameIdsByName.size();
+                nameIdsByName.put(name, nameId);
+                insert(name, nameId, terminals);
+            }
+            nameIds[i] = nameId;
+        }
+        link(terminals);
+    }
+
+    /**
+     * 测试方法是否按方法名覆盖业务方法（满足包含或指定规则）
+     *
+     * @param testMethod 测试方法
+     * @param methodIndex 业务方法在方法列表中的位置
+     */
+    boolean covers(TestMethod testMethod, int methodIndex) {
+        Match match = match(testMethod);
+        int nameId = nameIds[methodIndex];
+        return match.containedNames.get(nameId) || match.testedName == nameId;
+    }
+
+    /**
+     * 测试方法名是否包含业务方法名（忽略大小写）
+     *
+     * @param testMethod 测试方法
+     * @param methodIndex 业务方法在方法列表中的位置
+     */
+    boolean containsName(TestMethod testMethod, int methodIndex) {
+        return match(testMethod).containedNames.get(nameIds[methodIndex]);
+    }
+
+    private Match match(TestMethod testMethod) {
+        Match match = matches.get(testMethod);
+        if (match == null) {
+            String testedMethod = testMethod.getTestedBusinessMethod();
+            Integer testedName = testedMethod != null && !testedMethod.isEmpty()
+                ? nameIdsByName.get(testedMethod.toLowerCase()) : null;
+            match = new Match(scan(testMethod.getMethodName().toLowerCase()),
+                              testedName != null ? testedName : -1);
+            matches.put(testMethod, match);
+        }
+        return match;
+    }
+
+    /**
+     * 扫描一遍文本，返回其中出现的所有方法名的编号
+     */
+    private BitSet scan(String text) {
+        BitSet found = new BitSet(nameIdsByName.size());
+        for (int nameId : outputs[0]) {
+            found.set(nameId); // 空方法名
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = transition(state, c);
+            while (next < 0 && state != 0) {
+                state = failure[state];
+                next = transition(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            for (int nameId : outputs[state]) {
+                found.set(nameId);
+            }
+        }
+        return found;
+    }
+
+    private int transition(int state, char c) {
+        int position = Arrays.binarySearch(labels.get(state), c);
+        return position >= 0 ? targets.get(state)[position] : -1;
+    }
+
+    private int addState(List<List<Integer>> terminals) {
+        labels.add(NO_LABELS);
+        targets.add(NO_TARGETS);
+        terminals.add(null);
+        return labels.size() - 1;
+    }
+
+    private void insert(String name, int nameId, List<List<Integer>> terminals) {
+        int state = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char[] stateLabels = labels.get(state);
+            int position = Arrays.binarySearch(stateLabels, c);
+            if (position >= 0) {
+                state = targets.get(state)[position];
+                continue;
+            }
+            // 按字符顺序插入新的出边
+            int insertAt = -position - 1;
+            int next = addState(terminals);
+            int[] stateTargets = targets.get(state);
+            char[] newLabels = new char[stateLabels.length + 1];
+            int[] newTargets = new int[stateTargets.length + 1];
+            System.arraycopy(stateLabels, 0, newLabels, 0, insertAt);
+            System.arraycopy(stateTargets, 0, newTargets, 0, insertAt);
+            newLabels[insertAt] = c;
+            newTargets[insertAt] = next;
+            System.arraycopy(stateLabels, insertAt, newLabels, insertAt + 1, stateLabels.length - insertAt);
+            System.arraycopy(stateTargets, insertAt, newTargets, insertAt + 1, stateTargets.length - insertAt);
+            labels.set(state, newLabels);
+            targets.set(state, newTargets);
+            state = next;
+        }
+        if (terminals.get(state) == null) {
+            terminals.set(state, new ArrayList<>(1));
+        }
+        terminals.get(state).add(nameId);
+    }
+
+    /**
+     * 按广度优先顺序计算失败转移，并把失败转移目标上的方法名并入各状态的输出
+     */
+    private void link(List<List<Integer>> terminals) {
+        int stateCount = labels.size();
+        failure = new int[stateCount];
+        outputs = new int[stateCount][];
+        outputs[0] = toArray(terminals.get(0), null);
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets.get(0)) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = toArray(terminals.get(state), outputs[failure[state]]);
+            char[] stateLabels = labels.get(state);
+            int[] stateTargets = targets.get(state);
+            for (int i = 0; i < stateLabels.length; i++) {
+                int child = stateTargets[i];
+                int fallback = failure[state];
+                int next = transition(fallback, stateLabels[i]);
+                while (next < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                    next = transition(fallback, stateLabels[i]);
+                }
+                failure[child] = next < 0 || next == child ? 0 : next;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        int ownCount = own != null ? own.size() : 0;
+        int inheritedCount = inherited != null ? inherited.length : 0;
+        int[] result = new int[ownCount + inheritedCount];
+        for (int i = 0; i < ownCount; i++) {
+            result[i] = own.get(i);
+        }
+        if (inheritedCount > 0) {
+            System.arraycopy(inherited, 0, result, ownCount, inheritedCount);
+        }
+        return result;
+    }
+
+    /**
+     * 单个测试方法的匹配结果
+     */
+    private static final class Match {
+        /**
+         * 测试方法名中包含的方法名编号
+         */
+        private final BitSet containedNames;
+
+        /**
+         * testedBusinessMethod对应的方法名编号，没有对应的方法名时为-1
+         */
+        private final int testedName;
+
+        private Match(BitSet containedNames, int testedName) {
+            this.containedNames = containedNames;
+            this.testedName = testedName;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.CoverageReport;
+import com.coveragetool.model.FileStatistics;
+import com.coveragetool.model.GranularityLevel;
+import com.coveragetool.model.MethodCoverage;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 部分覆盖率报告 - 一个或一段连续业务类的覆盖情况
+ *
+ * 单个业务类的部分报告由CoverageAnalyzer.analyzeClass生成，之后不再修改。
+ * 合并只追加到新建的累加器上：按业务类顺序把各部分依次加入即得到完整报告的统计，
+ * 合并满足结合律，因此可以在多个线程中分段合并后再按顺序合并各段，结果与顺序合并完全一致。
+ */
+final class PartialReport {
+
+    private int totalBusinessClasses;
+    private int coveredBusinessClasses;
+    private int totalMethods;
+    private int coveredMethods;
+    private long granularityScore;
+    private int evaluatedMethods;
+
+    /**
+     * 粒度分布，只记录被覆盖的方法
+     */
+    private final EnumMap<GranularityLevel, Integer> granularityDistribution = new EnumMap<>(GranularityLevel.class);
+
+    private final List<MethodCoverage> uncoveredMethods;
+    private final List<MethodCoverage> allMethods;
+    private final List<FileStatistics> fileStatistics;
+
+    /**
+     * 创建空的累加器
+     */
+    PartialReport() {
+        this.uncoveredMethods = new ArrayList<>();
+        this.allMethods = new ArrayList<>();
+        this.fileStatistics = new ArrayList<>();
+    }
+
+    /**
+     * 创建单个业务类的部分报告
+     *
+     * @param fileStats 业务类的文件统计，其中的方法列表即该类所有方法的覆盖信息
+     * @param uncoveredMethods 未覆盖方法的覆盖信息
+     * @param granularityCounts 被覆盖方法的粒度分布
+     * @param granularityScore 被覆盖方法的粒度分数之和
+     */
+    PartialReport(FileStatistics fileStats, List<MethodCoverage> uncoveredMethods,
+                  EnumMap<GranularityLevel, Integer> granularityCounts, int granularityScore) {
+        this.uncoveredMethods = uncoveredMethods;
+        this.allMethods = fileStats.getMethods();
+        this.fileStatistics = new ArrayList<>(1);
+        this.fileStatistics.add(fileStats);
+        this.totalBusinessClasses = 1;
+        this.coveredBusinessClasses = fileStats.getCoverageRate() > 0 ? 1 : 0;
+        this.totalMethods = fileStats.getTotalMethods();
+        this.coveredMethods = fileStats.getCoveredMethods();
+        this.granularityDistribution.putAll(granularityCounts);
+        this.granularityScore = granularityScore;
+        this.evaluatedMethods = coveredMethods;
+    }
+
+    /**
+     * 把另一部分追加到本累加器之后
+     *
+     * @param other 位于本部分之后的部分报告，不会被修改
+     * @return 本累加器
+     */
+    PartialReport add(PartialReport other) {
+        totalBusinessClasses += other.totalBusinessClasses;
+        coveredBusinessClasses += other.coveredBusinessClasses;
+        totalMethods += other.totalMethods;
+        coveredMethods += other.coveredMethods;
+        granularityScore += other.granularityScore;
+        evaluatedMethods += other.evaluatedMethods;
+        other.granularityDistribution.forEach((level, count) -> granularityDistribution.merge(level, count, Integer::sum));
+        uncoveredMethods.addAll(other.uncoveredMethods);
+        allMethods.addAll(other.allMethods);
+        fileStatistics.addAll(other.fileStatistics);
+        return this;
+    }
+
+    /**
+     * 把合并后的统计写入覆盖率报告（测试类相关的统计除外）
+     *
+     * @param report 覆盖率报告
+     */
+    void fill(CoverageReport report) {
+        Map<GranularityLevel, Integer> distribution = new EnumMap<>(GranularityLevel.class);
+        for (GranularityLevel level : GranularityLevel.values()) {
+            distribution.put(level, granularityDistribution.getOrDefault(level, 0));
+        }
+
+        report.setOverallCoverage(totalMethods == 0 ? 0 : (double) coveredMethods / totalMethods * 100);
+        report.setTotalBusinessClasses(totalBusinessClasses);
+        report.setCoveredBusinessClasses(coveredBusinessClasses);
+        report.setTotalMethods(totalMethods);
+        report.setCoveredMethods(coveredMethods);
+        report.setUncoveredMethods(totalMethods - coveredMethods);
+        report.setUncoveredMethodList(uncoveredMethods);
+        report.setAllMethodsList(allMethods);
+        report.setFileStatisticsList(fileStatistics);
+        report.setGranularityDistribution(distribution);
+        report.setAverageGranularityScore(evaluatedMethods == 0 ? 0 : (double) granularityScore / evaluatedMethods);
+    }
+
+    int getTotalMethods() {
+        return totalMethods;
+    }
+
+    int getCoveredMethods() {
+        return coveredMethods;
+    }
+}
@@ -0,0 +1,112 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.TestClass;
+import com.coveragetool.model.TestMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 测试调用索引 - 业务方法到实际调用它的测试方法
+ *
+ * 由已解析调用的测试方法（TestMethod.calledBusinessMethods）建立，
+ * 覆盖率分析据此把其他测试类中的测试（如FooServiceTest中对BarRepository的调用）计入业务方法的覆盖。
+ * 同一业务方法的调用者按测试类在分析顺序中的位置排列，与测试类加入的先后无关。
+ */
+final class TestCallIndex {
+
+    /**
+     * Key：业务方法的调用键，Value：测试类位置到其中调用该方法的测试方法
+     */
+    private final Map<String, TreeMap<Integer, List<TestMethod>>> callers = new HashMap<>();
+
+    /**
+     * 加入测试类中各测试方法的调用
+     *
+     * @param index 测试类的位置
+     * @param testClass 测试类
+     * @return 被调用的业务类的完整限定名
+     */
+    Set<String> add(int index, TestClass testClass) {
+        Set<String> calledClasses = new HashSet<>();
+        for (Map.Entry<String, List<TestMethod>> entry : callsOf(testClass).entrySet()) {
+            callers.computeIfAbsent(entry.getKey(), key -> new TreeMap<>()).put(index, entry.getValue());
+            calledClasses.add(className(entry.getKey()));
+        }
+        return calledClasses;
+    }
+
+    /**
+     * 删除测试类中各测试方法的调用
+     *
+     * @param index 测试类的位置
+     * @param testClass 测试类
+     * @return 被调用的业务类的完整限定名
+     */
+    Set<String> remove(int index, TestClass testClass) {
+        Set<String> calledClasses = new HashSet<>();
+        for (String key : callsOf(testClass).keySet()) {
+            TreeMap<Integer, List<TestMethod>> byIndex = callers.get(key);
+            if (byIndex != null) {
+                byIndex.remove(index);
+                if (byIndex.isEmpty()) {
+                    callers.remove(key);
+                }
+            }
+            calledClasses.add(className(key));
+        }
+        return calledClasses;
+    }
+
+    /**
+     * 调用业务方法的测试方法，按测试类的位置排列
+     *
+     * @param key 业务方法的调用键
+     * @return 测试方法列表，没有时为空列表
+     */
+    List<TestMethod> callers(String key) {
+        TreeMap<Integer, List<TestMethod>> byIndex = callers.get(key);
+        List<TestMethod> testMethods = new ArrayList<>();
+        if (byIndex != null) {
+            byIndex.values().forEach(testMethods::addAll);
+        }
+        return testMethods;
+    }
+
+    boolean isEmpty() {
+        return callers.isEmpty();
+    }
+
+    TestCallIndex copy() {
+        TestCallIndex copy = new TestCallIndex();
+        callers.forEach((key, byIndex) -> copy.callers.put(key, new TreeMap<>(byIndex)));
+        return copy;
+    }
+
+    /**
+     * 测试类中各业务方法的调用者，按测试方法的顺序排列
+     */
+    private static Map<String, List<TestMethod>> callsOf(TestClass testClass) {
+        Map<String, List<TestMethod>> calls = new HashMap<>();
+        if (testClass.getTestMethods() == null) {
+            return calls;
+        }
+        for (TestMethod testMethod : testClass.getTestMethods()) {
+            if (testMethod.getCalledBusinessMethods() != null) {
+                for (String key : testMethod.getCalledBusinessMethods()) {
+                    calls.computeIfAbsent(key, k -> new ArrayList<>()).add(testMethod);
+                }
+            }
+        }
+        return calls;
+    }
+
+    private static String className(String key) {
+        return key.substring(0, key.indexOf('#'));
+    }
+}
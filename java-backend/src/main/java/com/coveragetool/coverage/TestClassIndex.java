@@ -0,0 +1,110 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.TestClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试类索引 - 按类名查找业务类的测试类
+ *
+ * 建立时按完整限定名和简单名称各建一个哈希表，之后每次查找只需按命名约定逐条查表，
+ * 与测试类数量无关。同名测试类有多个时取列表中靠前的一个。
+ *
+ * 测试类的名称除了自身的类名，还包括其中@Nested嵌套测试类的类名：
+ * 嵌套类FooTest与所在包组成的名称（如com.example.FooTest）也指向所在的测试类。
+ */
+public final class TestClassIndex {
+
+    private final TestNamingConventions namingConventions;
+
+    /**
+     * Key：测试类的完整限定名，Value：测试类
+     */
+    private final Map<String, TestClass> byName = new HashMap<>();
+
+    /**
+     * Key：测试类的简单名称，Value：测试类
+     */
+    private final Map<String, TestClass> bySimpleName = new HashMap<>();
+
+    /**
+     * @param testClasses 测试类列表
+     * @param namingConventions 测试类命名约定
+     */
+    public TestClassIndex(List<TestClass> testClasses, TestNamingConventions namingConventions) {
+        this.namingConventions = namingConventions;
+        for (TestClass testClass : testClasses) {
+            for (String name : testClassNames(testClass)) {
+                byName.putIfAbsent(name, testClass);
+            }
+            bySimpleName.putIfAbsent(testClass.getClassName(), testClass);
+            if (testClass.getNestedClassNames() != null) {
+                for (String nestedName : testClass.getNestedClassNames()) {
+                    bySimpleName.putIfAbsent(nestedName, testClass);
+                }
+            }
+        }
+    }
+
+    /**
+     * 查找与业务类在同一个包中、符合命名约定的测试类
+     *
+     * @param businessClass 业务类
+     * @return 优先级最高的约定对应的测试类，没有时返回null
+     */
+    public TestClass findCorrespondingTestClass(BusinessClass businessClass) {
+        for (String name : namingConventions.correspondingTestClasses(businessClass)) {
+            TestClass testClass = byName.get(name);
+            if (testClass != null) {
+                return testClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找符合命名约定的测试类，同一个包中没有时再按简单名称在所有包中查找
+     *
+     * @param businessClass 业务类
+     * @return 测试类，没有时返回null
+     */
+    public TestClass findTestClass(BusinessClass businessClass) {
+        TestClass testClass = findCorrespondingTestClass(businessClass);
+        if (testClass != null || businessClass.getClassName() == null) {
+            return testClass;
+        }
+        for (String name : namingConventions.testClassNames(businessClass.getClassName())) {
+            testClass = bySimpleName.get(name);
+            if (testClass != null) {
+                return testClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 测试类可以按完整限定名查找到的名称：自身的完整限定名，以及各个@Nested嵌套类与所在包组成的名称
+     *
+     * @param testClass 测试类
+     * @return 名称列表，第一个是测试类的完整限定名
+     */
+    public static List<String> testClassNames(TestClass testClass) {
+        List<String> names = new ArrayList<>(1);
+        names.add(testClass.getFullyQualifiedName());
+        if (testClass.getNestedClassNames() != null) {
+            String packageName = testClass.getPackageName();
+            for (String nestedName : testClass.getNestedClassNames()) {
+                String name = packageName != null && !packageName.isEmpty()
+                    ? packageName + "." + nestedName : nestedName;
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,253 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.TestClass;
+import com.coveragetool.model.TestMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 测试名称索引 - 按名称把任意测试类中的测试方法对应到业务方法
+ *
+ * 未解析调用的测试方法按以下名称建立倒排索引（统一转小写）：
+ * 1. 测试方法调用的方法名
+ * 2. 测试方法的testedBusinessMethod
+ * 3. 测试方法名按驼峰和下划线拆成单词后，连续若干个单词拼接成的名称（去掉开头的test），
+ *    如testFindByEmailWhenMissing中的find、findby、findbyemail等
+ * 另按测试类引用的类型（简单名称）建立测试类索引。
+ *
+ * 业务方法被某个测试方法覆盖，当且仅当其方法名在该测试方法的名称中，且所在测试类引用了业务类。
+ * 查找时先按方法名取出候选测试方法，再与引用业务类的测试类求交，两者都是哈希查找，
+ * 不随测试类总数线性增长。同一业务方法的测试方法按测试类在分析顺序中的位置排列。
+ *
+ * 已解析调用的测试方法由TestCallIndex按实际调用处理，不在此索引中。
+ */
+final class TestNameIndex {
+
+    /**
+     * 测试方法名中拼接的最多连续单词数
+     */
+    private static final int MAX_WORDS = 4;
+
+    /**
+     * Key：名称（小写），Value：测试类位置到其中带有该名称的测试方法
+     */
+    private final Map<String, TreeMap<Integer, List<TestMethod>>> testsByName = new HashMap<>();
+
+    /**
+     * Key：类型的简单名称，Value：引用该类型且有已索引测试方法的测试类位置
+     */
+    private final Map<String, TreeSet<Integer>> referencingClasses = new HashMap<>();
+
+    /**
+     * 加入测试类中未解析调用的测试方法
+     *
+     * @param index 测试类的位置
+     * @param testClass 测试类
+     * @return 测试类引用的类型的简单名称，没有加入任何测试方法时为空集合
+     */
+    Set<String> add(int index, TestClass testClass) {
+        Map<String, List<TestMethod>> names = namesOf(testClass);
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+        names.forEach((name, testMethods) ->
+            testsByName.computeIfAbsent(name, key -> new TreeMap<>()).put(index, testMethods));
+        Set<String> types = referencedTypes(testClass);
+        for (String type : types) {
+            referencingClasses.computeIfAbsent(type, key -> new TreeSet<>()).add(index);
+        }
+        return types;
+    }
+
+    /**
+     * 删除测试类中未解析调用的测试方法
+     *
+     * @param index 测试类的位置
+     * @param testClass 测试类
+     * @return 测试类引用的类型的简单名称，没有删除任何测试方法时为空集合
+     */
+    Set<String> remove(int index, TestClass testClass) {
+        Map<String, List<TestMethod>> names = namesOf(testClass);
+        if (names.isEmpty()) {
+            return new HashSet<>();
+        }
+        for (String name : names.keySet()) {
+            removeTests(name, index);
+        }
+        Set<String> types = referencedTypes(testClass);
+        for (String type : types) {
+            removeReference(type, index);
+        }
+        return types;
+    }
+
+    /**
+     * 按名称覆盖业务方法的测试方法，按测试类的位置排列
+     *
+     * @param className 业务类的简单名称
+     * @param methodName 业务方法名
+     * @return 测试方法列表，没有时为空列表
+     */
+    List<TestMethod> mentions(String className, String methodName) {
+        List<TestMethod> testMethods = new ArrayList<>();
+        TreeMap<Integer, List<TestMethod>> byIndex = testsByName.get(normalize(methodName));
+        TreeSet<Integer> referencing = referencingClasses.get(className);
+        if (byIndex == null || referencing == null) {
+            return testMethods;
+        }
+        // 遍历较小的一侧，另一侧按位置查找
+        if (referencing.size() < byIndex.size()) {
+            for (Integer index : referencing) {
+                List<TestMethod> named = byIndex.get(index);
+                if (named != null) {
+                    testMethods.addAll(named);
+                }
+            }
+        } else {
+            byIndex.forEach((index, named) -> {
+                if (referencing.contains(index)) {
+                    testMethods.addAll(named);
+                }
+            });
+        }
+        return testMethods;
+    }
+
+    boolean isEmpty() {
+        return testsByName.isEmpty();
+    }
+
+    TestNameIndex copy() {
+        TestNameIndex copy = new TestNameIndex();
+        testsByName.forEach((name, byIndex) -> copy.testsByName.put(name, new TreeMap<>(byIndex)));
+        referencingClasses.forEach((type, indexes) -> copy.referencingClasses.put(type, new TreeSet<>(indexes)));
+        return copy;
+    }
+
+    /**
+     * 测试类中各名称对应的未解析调用的测试方法，按测试方法的顺序排列
+     */
+    private static Map<String, List<TestMethod>> namesOf(TestClass testClass) {
+        Map<String, List<TestMethod>> names = new LinkedHashMap<>();
+        if (testClass.getTestMethods() == null) {
+            return names;
+        }
+        for (TestMethod testMethod : testClass.getTestMethods()) {
+            if (testMethod.getCalledBusinessMethods() != null) {
+                continue;
+            }
+            for (String name : namesOf(testMethod)) {
+                names.computeIfAbsent(name, key -> new ArrayList<>()).add(testMethod);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 单个测试方法的所有名称（小写，不重复）
+     */
+    static Set<String> namesOf(TestMethod testMethod) {
+        Set<String> names = new HashSet<>();
+        if (testMethod.getCalledMethodNames() != null) {
+            for (String calledMethod : testMethod.getCalledMethodNames()) {
+                names.add(normalize(calledMethod));
+            }
+        }
+        String testedMethod = testMethod.getTestedBusinessMethod();
+        if (testedMethod != null && !testedMethod.isEmpty()) {
+            names.add(normalize(testedMethod));
+        }
+
+        List<String> words = words(testMethod.getMethodName());
+        int first = !words.isEmpty() && words.get(0).equals("test") ? 1 : 0;
+        for (int i = first; i < words.size(); i++) {
+            StringBuilder name = new StringBuilder();
+            for (int j = i; j < words.size() && j < i + MAX_WORDS; j++) {
+                name.append(words.get(j));
+                names.add(name.toString());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 把方法名按驼峰、下划线和数字边界拆成小写单词，连续的大写字母视为一个缩写词（如parseXMLFile拆成parse、xml、file）
+     */
+    static List<String> words(String methodName) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                if (start >= 0) {
+                    words.add(normalize(methodName.substring(start, i)));
+                    start = -1;
+                }
+                continue;
+            }
+            if (start >= 0 && isWordStart(methodName, i)) {
+                words.add(normalize(methodName.substring(start, i)));
+                start = i;
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            words.add(normalize(methodName.substring(start)));
+        }
+        return words;
+    }
+
+    private static boolean isWordStart(String methodName, int i) {
+        char previous = methodName.charAt(i - 1);
+        char c = methodName.charAt(i);
+        if (Character.isDigit(c) != Character.isDigit(previous)) {
+            return true;
+        }
+        if (Character.isUpperCase(c)) {
+            // 小写后的大写开始新词；缩写词的最后一个大写字母后跟小写时，它属于下一个词
+            return Character.isLowerCase(previous)
+                || Character.isUpperCase(previous) && i + 1 < methodName.length()
+                    && Character.isLowerCase(methodName.charAt(i + 1));
+        }
+        return false;
+    }
+
+    private static Set<String> referencedTypes(TestClass testClass) {
+        return testClass.getReferencedTypes() != null
+            ? new HashSet<>(testClass.getReferencedTypes()) : new HashSet<>();
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private void removeTests(String name, Integer index) {
+        TreeMap<Integer, List<TestMethod>> byIndex = testsByName.get(name);
+        if (byIndex != null) {
+            byIndex.remove(index);
+            if (byIndex.isEmpty()) {
+                testsByName.remove(name);
+            }
+        }
+    }
+
+    private void removeReference(String type, Integer index) {
+        TreeSet<Integer> indexes = referencingClasses.get(type);
+        if (indexes != null) {
+            indexes.remove(index);
+            if (indexes.isEmpty()) {
+                referencingClasses.remove(type);
+            }
+        }
+    }
+}
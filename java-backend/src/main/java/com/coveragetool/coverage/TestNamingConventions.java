@@ -0,0 +1,111 @@
+package com.coveragetool.coverage;
+
+import com.coveragetool.model.BusinessClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 测试类命名约定 - 由业务类名推出其测试类可能的类名
+ *
+ * 每条约定是含一个占位符{}的类名模板，如{}Test、Test{}，占位符替换为业务类的简单名称。
+ * 约定按配置顺序排列优先级，同一业务类有多个符合约定的测试类时取排在前面的约定。
+ * 模板在创建时解析为前缀和后缀，查找时只做字符串拼接。
+ */
+public final class TestNamingConventions {
+
+    /**
+     * 指定命名约定的系统属性，多条约定以逗号分隔，如-Dcoverage.test.namingConventions={}Test,{}IT
+     */
+    public static final String CONVENTIONS_PROPERTY = "coverage.test.namingConventions";
+
+    /**
+     * 默认命名约定，{}Test排在最前，与只按{}Test匹配时的结果一致
+     */
+    public static final String DEFAULT_CONVENTIONS = "{}Test,{}Tests,{}IT,Test{},{}Spec";
+
+    private static final String PLACEHOLDER = "{}";
+
+    /**
+     * 各条约定中占位符之前的部分
+     */
+    private final String[] prefixes;
+
+    /**
+     * 各条约定中占位符之后的部分
+     */
+    private final String[] suffixes;
+
+    /**
+     * 使用系统属性coverage.test.namingConventions指定的约定，未设置时使用默认约定
+     */
+    public TestNamingConventions() {
+        this(System.getProperty(CONVENTIONS_PROPERTY, DEFAULT_CONVENTIONS));
+    }
+
+    /**
+     * @param conventions 以逗号分隔的命名约定，如"{}Test,{}IT"
+     * @throws IllegalArgumentException 约定为空、不含占位符或只有占位符时抛出
+     */
+    public TestNamingConventions(String conventions) {
+        List<String> prefixList = new ArrayList<>();
+        List<String> suffixList = new ArrayList<>();
+        Set<String> seen = new LinkedHashSet<>();
+        for (String convention : conventions.split(",")) {
+            String template = convention.trim();
+            if (template.isEmpty() || !seen.add(template)) {
+                continue;
+            }
+            int placeholder = template.indexOf(PLACEHOLDER);
+            if (placeholder < 0 || template.indexOf(PLACEHOLDER, placeholder + 1) >= 0
+                    || template.length() == PLACEHOLDER.length()) {
+                throw new IllegalArgumentException("无效的测试类命名约定: " + template);
+            }
+            prefixList.add(template.substring(0, placeholder));
+            suffixList.add(template.substring(placeholder + PLACEHOLDER.length()));
+        }
+        if (prefixList.isEmpty()) {
+            throw new IllegalArgumentException("未指定测试类命名约定");
+        }
+        this.prefixes = prefixList.toArray(new String[0]);
+        this.suffixes = suffixList.toArray(new String[0]);
+    }
+
+    /**
+     * 业务类的测试类可能的简单名称，按约定的优先级排列
+     *
+     * @param className 业务类的简单名称
+     * @return 测试类的简单名称
+     */
+    public List<String> testClassNames(String className) {
+        List<String> names = new ArrayList<>(prefixes.length);
+        for (int i = 0; i < prefixes.length; i++) {
+            names.add(prefixes[i] + className + suffixes[i]);
+        }
+        return names;
+    }
+
+    /**
+     * 与业务类同一个包中的测试类可能的完整限定名，按约定的优先级排列
+     *
+     * @param businessClass 业务类
+     * @return 测试类的完整限定名，业务类没有类名时为空列表
+     */
+    public List<String> correspondingTestClasses(BusinessClass businessClass) {
+        String className = businessClass.getClassName();
+        if (className == null) {
+            return Collections.emptyList();
+        }
+        String packageName = businessClass.getPackageName();
+        List<String> names = testClassNames(className);
+        if (packageName != null && !packageName.isEmpty()) {
+            for (int i = 0; i < names.size(); i++) {
+                names.set(i, packageName + "." + names.get(i));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,246 @@
+package com.coveragetool.git;
+
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphLoader;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 提交计数服务 - 快速统计Git仓库中所有引用可达的提交数量
+ *
+ * 统计结果与git log --all的提交数一致，不设上限。
+ * 统计方式：
+ * 1. 仓库存在commit-graph文件且覆盖所有引用时，直接在commit-graph上按位置遍历父提交，
+ *    不读取任何提交对象
+ * 2. 否则使用不保留提交正文的RevWalk遍历，只解析提交头信息
+ *
+ * 结果按仓库缓存，缓存键为所有引用指向的提交集合；引用未变化时直接返回缓存的数量。
+ */
+public class CommitCountService {
+
+    /**
+     * 最多缓存的仓库数量
+     */
+    private static final int MAX_REPOSITORIES = 16;
+
+    /**
+     * 提交数量缓存
+     * Key：仓库.git目录的绝对路径，Value：最近一次统计的引用快照和提交数量
+     */
+    private final Map<String, CachedCount> cache =
+        new LinkedHashMap<String, CachedCount>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                return size() > MAX_REPOSITORIES;
+            }
+        };
+
+    /**
+     * 统计项目的提交数量
+     *
+     * @param projectRoot 项目根目录
+     * @return 提交数量（如果是Git仓库），-1（如果不是Git仓库），统计失败时返回0
+     */
+    public int countCommits(File projectRoot) {
+        File gitDir = new File(projectRoot, ".git");
+        if (!gitDir.exists() || !gitDir.isDirectory()) {
+            return -1;  // 不是Git仓库
+        }
+
+        try (Repository repository = new FileRepositoryBuilder()
+                .setGitDir(gitDir)
+                .readEnvironment()
+                .findGitDir()
+                .build()) {
+            return countCommits(repository);
+        } catch (Exception e) {
+            // 如果Git操作失败，仍然认为它是Git仓库，但提交数量为0
+            System.err.println("统计Git提交数量失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 统计仓库中所有引用可达的提交数量
+     *
+     * @param repository Git仓库
+     * @return 提交数量
+     * @throws IOException 读取仓库失败时抛出
+     */
+    public int countCommits(Repository repository) throws IOException {
+        String cacheKey = repository.getDirectory().getAbsolutePath();
+
+        try (ObjectReader reader = repository.newObjectReader();
+             RevWalk walk = new RevWalk(reader)) {
+            walk.setRetainBody(false);
+
+            TreeSet<ObjectId> tips = resolveCommitTips(repository, walk);
+            String tipsKey = tipsKey(tips);
+
+            synchronized (cache) {
+                CachedCount cached = cache.get(cacheKey);
+                if (cached != null && cached.tipsKey.equals(tipsKey)) {
+                    return cached.count;
+                }
+            }
+
+            long count = countWithCommitGraph(repository, tips);
+            if (count < 0) {
+                count = countWithRevWalk(walk, tips);
+            }
+
+            int result = (int) Math.min(count, Integer.MAX_VALUE);
+            synchronized (cache) {
+                cache.put(cacheKey, new CachedCount(tipsKey, result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 获取所有引用最终指向的提交
+     *
+     * 附注标签会被剥离到目标对象，不指向提交的引用（如指向树的标签）被忽略。
+     */
+    private TreeSet<ObjectId> resolveCommitTips(Repository repository, RevWalk walk) throws IOException {
+        TreeSet<ObjectId> tips = new TreeSet<>();
+        RefDatabase refDatabase = repository.getRefDatabase();
+
+        for (Ref ref : refDatabase.getRefs()) {
+            if (!ref.isPeeled()) {
+                ref = refDatabase.peel(ref);
+            }
+            ObjectId id = ref.getPeeledObjectId() != null ? ref.getPeeledObjectId() : ref.getObjectId();
+            if (id == null) {
+                continue;
+            }
+            try {
+                tips.add(walk.parseCommit(id).copy());
+            } catch (IncorrectObjectTypeException e) {
+                // 不指向提交的引用，与git log --all的行为一致，直接忽略
+            }
+        }
+        return tips;
+    }
+
+    /**
+     * 基于commit-graph统计提交数量
+     *
+     * 从各引用提交在commit-graph中的位置出发，沿父提交位置遍历，
+     * 用位图记录已访问的位置。commit-graph对父提交是闭合的，
+     * 因此只要所有起点都在图中，整个可达集合都在图中。
+     *
+     * @return 提交数量，没有commit-graph或有引用提交不在图中时返回-1
+     */
+    private long countWithCommitGraph(Repository repository, TreeSet<ObjectId> tips) {
+        CommitGraph graph = loadCommitGraph(repository);
+        if (graph == null) {
+            return -1;
+        }
+
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (ObjectId tip : tips) {
+            int position = graph.findGraphPosition(tip);
+            if (position < 0) {
+                // commit-graph写入之后有新的提交，退回到RevWalk
+                return -1;
+            }
+            pending.push(position);
+        }
+
+        BitSet visited = new BitSet((int) graph.getCommitCnt());
+        while (!pending.isEmpty()) {
+            int position = pending.pop();
+            if (visited.get(position)) {
+                continue;
+            }
+            visited.set(position);
+            for (int parent : graph.getCommitData(position).getParents()) {
+                if (!visited.get(parent)) {
+                    pending.push(parent);
+                }
+            }
+        }
+        return visited.cardinality();
+    }
+
+    /**
+     * 读取仓库的commit-graph文件
+     *
+     * 直接读取objects/info/commit-graph，而不经过ObjectReader.getCommitGraph()：
+     * 后者要求core.commitGraph=true，并且在当前JGit版本中文件在仓库打开前已存在时不会被加载。
+     * 拆分形式的commit-graph链（objects/info/commit-graphs）不支持，此时返回null。
+     *
+     * @return commit-graph，不存在或无法读取时返回null
+     */
+    private CommitGraph loadCommitGraph(Repository repository) {
+        if (!(repository.getObjectDatabase() instanceof ObjectDirectory)) {
+            return null;
+        }
+        File objectsDir = ((ObjectDirectory) repository.getObjectDatabase()).getDirectory();
+        File graphFile = new File(objectsDir, "info/commit-graph");
+        if (!graphFile.isFile()) {
+            return null;
+        }
+        try {
+            return CommitGraphLoader.open(graphFile);
+        } catch (Exception e) {
+            System.err.println("读取commit-graph失败，改用提交遍历: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 基于RevWalk统计提交数量
+     *
+     * RevWalk不保留提交正文，也不排序，每个提交只解析一次头信息。
+     */
+    private long countWithRevWalk(RevWalk walk, TreeSet<ObjectId> tips) throws IOException {
+        for (ObjectId tip : tips) {
+            walk.markStart(walk.parseCommit(tip));
+        }
+        long count = 0;
+        for (RevCommit ignored : walk) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String tipsKey(TreeSet<ObjectId> tips) {
+        StringBuilder key = new StringBuilder(tips.size() * 41);
+        for (ObjectId tip : tips) {
+            key.append(tip.name()).append(',');
+        }
+        return key.toString();
+    }
+
+    /**
+     * 缓存的统计结果
+     */
+    private static class CachedCount {
+        final String tipsKey;
+        final int count;
+
+        CachedCount(String tipsKey, int count) {
+            this.tipsKey = tipsKey;
+            this.count = count;
+        }
+    }
+}
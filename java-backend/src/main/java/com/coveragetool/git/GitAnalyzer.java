@@ -1,6 +1,8 @@
 package com.coveragetool.git;
 
 import com.coveragetool.model.*;
+import com.coveragetool.scanner.FileEntry;
+import com.coveragetool.scanner.ProjectFileIndex;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.lib.ObjectId;
@@ -14,6 +16,15 @@ import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.patch.FileHeader;
 import org.eclipse.jgit.patch.HunkHeader;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 import java.io.ByteArrayOutputStream;
@@ -43,6 +54,23 @@ public class GitAnalyzer {
      */
     private Git git;
     
+    /**
+     * 最多保留blame结果的仓库数量
+     */
+    private static final int MAX_BLAME_SNAPSHOTS = 8;
+    
+    /**
+     * 每个仓库最近一次的blame结果，再次分析时只重新blame有变化的文件
+     * Key：仓库目录，Value：blame时的HEAD及每个文件各作者的行数
+     */
+    private final Map<String, BlameSnapshot> blameSnapshots =
+        new LinkedHashMap<String, BlameSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BlameSnapshot> eldest) {
+                return size() > MAX_BLAME_SNAPSHOTS;
+            }
+        };
+    
     /**
      * 初始化Git仓库
      * 
@@ -81,6 +109,119 @@ public class GitAnalyzer {
         return gitDir.exists() && gitDir.isDirectory();
     }
     
+    /**
+     * 获取当前HEAD指向的提交
+     * 
+     * @param projectPath 项目根路径
+     * @return 提交ID，不是Git仓库或还没有提交时返回null
+     */
+    public String getHeadCommit(String projectPath) {
+        if (!isGitRepository(projectPath)) {
+            return null;
+        }
+        try (Repository repo = openRepository(projectPath)) {
+            ObjectId head = repo.resolve(Constants.HEAD);
+            return head != null ? head.getName() : null;
+        } catch (IOException e) {
+            System.err.println("读取HEAD失败: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 获取指定提交与工作区之间有差异的Java文件
+     * 
+     * 同时遍历提交的目录树、索引和工作区，包括已提交、已暂存、未暂存和未跟踪的修改。
+     * 工作区的文件与索引中记录的大小和修改时间一致时直接取索引中的对象ID，不读取文件内容；
+     * 被.gitignore忽略且未跟踪的文件和目录（如target、node_modules）不进入比较。
+     * 重命名按删除旧路径、新增新路径处理，两个路径都会返回。
+     * 
+     * @param projectPath 项目根路径
+     * @param commitId 提交ID
+     * @return 有差异的Java文件（相对于项目根目录的路径）
+     * @throws IOException 仓库无法访问或提交不存在时抛出
+     */
+    public Set<String> getChangedJavaFiles(String projectPath, String commitId) throws IOException {
+        Set<String> changedFiles = new HashSet<>();
+        try (Repository repo = openRepository(projectPath);
+             RevWalk revWalk = new RevWalk(repo);
+             TreeWalk treeWalk = new TreeWalk(repo)) {
+            RevCommit commit = revWalk.parseCommit(ObjectId.fromString(commitId));
+            
+            int commitTree = treeWalk.addTree(commit.getTree());
+            int indexTree = treeWalk.addTree(new DirCacheIterator(repo.readDirCache()));
+            FileTreeIterator workingTree = new FileTreeIterator(repo);
+            int workingTreeIndex = treeWalk.addTree(workingTree);
+            workingTree.setDirCacheIterator(treeWalk, indexTree);
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathSuffixFilter.create(".java"),
+                new SkipIgnoredUntracked(commitTree, indexTree, workingTreeIndex)));
+            
+            while (treeWalk.next()) {
+                WorkingTreeIterator file = treeWalk.getTree(workingTreeIndex, WorkingTreeIterator.class);
+                boolean inCommit = treeWalk.getRawMode(commitTree) != 0;
+                if (file == null) {
+                    if (inCommit) {
+                        changedFiles.add(treeWalk.getPathString()); // 工作区中已删除
+                    }
+                } else if (!inCommit || !treeWalk.getObjectId(commitTree).equals(file.getEntryObjectId())) {
+                    // 新增，或内容与提交时不同；索引中未修改的文件不重新计算哈希
+                    changedFiles.add(treeWalk.getPathString());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("无效的提交ID: " + commitId, e);
+        }
+        return changedFiles;
+    }
+    
+    /**
+     * 跳过被忽略且未跟踪的条目：提交和索引中都没有、工作区中被.gitignore忽略的文件或目录
+     * 
+     * 已跟踪的文件即使匹配忽略规则也参与比较；被忽略的目录不会进入。
+     */
+    private static final class SkipIgnoredUntracked extends TreeFilter {
+        private final int commitTree;
+        private final int indexTree;
+        private final int workingTree;
+        
+        SkipIgnoredUntracked(int commitTree, int indexTree, int workingTree) {
+            this.commitTree = commitTree;
+            this.indexTree = indexTree;
+            this.workingTree = workingTree;
+        }
+        
+        @Override
+        public boolean include(TreeWalk walker) throws IOException {
+            if (walker.getRawMode(commitTree) != 0 || walker.getRawMode(indexTree) != 0) {
+                return true;
+            }
+            WorkingTreeIterator file = walker.getTree(workingTree, WorkingTreeIterator.class);
+            return file == null || !file.isEntryIgnored();
+        }
+        
+        @Override
+        public boolean shouldBeRecursive() {
+            return false;
+        }
+        
+        @Override
+        public TreeFilter clone() {
+            return this;
+        }
+    }
+    
+    /**
+     * 打开项目的Git仓库，与initialize使用相同的查找方式
+     */
+    private Repository openRepository(String projectPath) throws IOException {
+        return new FileRepositoryBuilder()
+            .setGitDir(new File(projectPath, ".git"))
+            .readEnvironment()
+            .findGitDir()
+            .build();
+    }
+    
     /**
      * 获取提交历史
      * 
@@ -368,6 +509,23 @@ public class GitAnalyzer {
      */
     public void calculateCurrentLinesOwned(String projectPath, List<String> sourceDirectories, 
                                             Map<String, DeveloperStats> statsMap) {
+        calculateCurrentLinesOwned(projectPath, sourceDirectories, null, statsMap);
+    }
+    
+    /**
+     * 统计当前有效代码行数（使用扫描阶段的文件索引）
+     * 
+     * 优先从文件索引获取源码目录下的Java文件，索引无法覆盖的目录才回退到磁盘遍历。
+     * 同一仓库再次统计时，只重新blame上次统计以来有提交修改的文件。
+     * 
+     * @param projectPath 项目路径
+     * @param sourceDirectories 源码目录列表
+     * @param fileIndex 扫描阶段构建的文件索引，可为null
+     * @param statsMap 开发者统计信息映射（会被更新）
+     */
+    public void calculateCurrentLinesOwned(String projectPath, List<String> sourceDirectories,
+                                            ProjectFileIndex fileIndex,
+                                            Map<String, DeveloperStats> statsMap) {
         // 用于存储每个邮箱对应的开发者统计
         Map<String, Integer> linesByAuthor = new HashMap<>();
         int totalLines = 0;
@@ -378,8 +536,24 @@ public class GitAnalyzer {
                 initialize(projectPath);
             }
             
+            // 上次blame之后没有变化的文件直接复用结果
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head == null) {
+                return; // 还没有提交
+            }
+            BlameContext blame = new BlameContext(head, reusableBlames(head), linesByAuthor);
+            
             // 遍历所有源码目录
             for (String sourceDir : sourceDirectories) {
+                // 优先使用文件索引，blame路径为相对于仓库根目录的路径
+                List<FileEntry> indexedFiles = fileIndex != null ? fileIndex.findJavaFiles(sourceDir) : null;
+                if (indexedFiles != null) {
+                    for (FileEntry file : indexedFiles) {
+                        totalLines += blame.file(file.getRelativePath());
+                    }
+                    continue;
+                }
+                
                 File dir = new File(projectPath, sourceDir);
                 if (!dir.exists()) {
                     // 尝试绝对路径
@@ -388,9 +562,13 @@ public class GitAnalyzer {
                 
                 if (dir.exists() && dir.isDirectory()) {
                     // 递归处理所有Java文件
-                    totalLines += processDirectoryForBlame(dir, "", linesByAuthor);
+                    totalLines += processDirectoryForBlame(dir, relativeToProject(projectPath, dir), blame);
                 }
             }
+            synchronized (blameSnapshots) {
+                blameSnapshots.put(repository.getDirectory().getAbsolutePath(),
+                                   new BlameSnapshot(head, blame.linesByFile));
+            }
             
             // 更新开发者统计信息
             for (Map.Entry<String, DeveloperStats> entry : statsMap.entrySet()) {
@@ -450,7 +628,7 @@ public class GitAnalyzer {
     /**
      * 递归处理目录，对每个Java文件执行blame分析
      */
-    private int processDirectoryForBlame(File dir, String relativePath, Map<String, Integer> linesByAuthor) {
+    private int processDirectoryForBlame(File dir, String relativePath, BlameContext blame) {
         int totalLines = 0;
         
         File[] files = dir.listFiles();
@@ -461,29 +639,47 @@ public class GitAnalyzer {
             
             if (file.isDirectory()) {
                 // 递归处理子目录
-                totalLines += processDirectoryForBlame(file, newRelativePath, linesByAuthor);
+                totalLines += processDirectoryForBlame(file, newRelativePath, blame);
             } else if (file.getName().endsWith(".java")) {
                 // 处理Java文件
-                totalLines += blameFile(newRelativePath, linesByAuthor);
+                totalLines += blame.file(newRelativePath);
             }
         }
         
         return totalLines;
     }
     
+    /**
+     * 计算目录相对于项目根目录的路径（使用/分隔）
+     */
+    private String relativeToProject(String projectPath, File dir) {
+        java.nio.file.Path root = new File(projectPath).toPath().toAbsolutePath().normalize();
+        java.nio.file.Path target = dir.toPath().toAbsolutePath().normalize();
+        if (!target.startsWith(root)) {
+            return "";
+        }
+        return root.relativize(target).toString().replace(File.separatorChar, '/');
+    }
+    
     /**
      * 对单个文件执行blame分析
+     * 
+     * 从HEAD开始追溯，统计的是已提交的内容，工作区中未提交的修改不计入。
+     * 
+     * @param head HEAD指向的提交
+     * @param filePath 相对于仓库根目录的路径
+     * @return 各作者的行数，文件不在HEAD中或blame失败时为空
      */
-    private int blameFile(String filePath, Map<String, Integer> linesByAuthor) {
-        try {
-            BlameGenerator blameGenerator = new BlameGenerator(repository, filePath);
+    private Map<String, Integer> blameFile(ObjectId head, String filePath) {
+        Map<String, Integer> linesByAuthor = new HashMap<>();
+        try (BlameGenerator blameGenerator = new BlameGenerator(repository, filePath)) {
+            blameGenerator.push(null, head);
             BlameResult blameResult = blameGenerator.computeBlameResult();
             
             if (blameResult == null) {
-                return 0;
+                return linesByAuthor;
             }
             
-            int lineCount = 0;
             int lastIdx = blameResult.getResultContents() != null ? 
                           blameResult.getResultContents().size() : 0;
             
@@ -493,19 +689,111 @@ public class GitAnalyzer {
                     if (commit != null) {
                         String authorEmail = commit.getAuthorIdent().getEmailAddress();
                         linesByAuthor.merge(authorEmail, 1, Integer::sum);
-                        lineCount++;
                     }
                 } catch (Exception e) {
                     // 忽略单行解析错误
                 }
             }
             
-            blameGenerator.close();
-            return lineCount;
-            
         } catch (Exception e) {
             // 忽略单个文件的blame错误
-            return 0;
+        }
+        return linesByAuthor;
+    }
+    
+    /**
+     * 获取上次blame之后内容没有变化的文件的blame结果
+     * 
+     * 文件在HEAD中的内容不变时blame结果也不变。上次blame的HEAD是当前HEAD的祖先时，
+     * 两次HEAD之间没有修改的文件复用上次的结果；HEAD切换到其他分支时全部重新blame。
+     * 
+     * @param head 当前HEAD
+     * @return 可复用的结果，Key：文件路径，Value：各作者的行数
+     */
+    private Map<String, Map<String, Integer>> reusableBlames(ObjectId head) throws IOException {
+        BlameSnapshot snapshot;
+        synchronized (blameSnapshots) {
+            snapshot = blameSnapshots.get(repository.getDirectory().getAbsolutePath());
+        }
+        if (snapshot == null) {
+            return Collections.emptyMap();
+        }
+        if (snapshot.commit.equals(head)) {
+            return snapshot.linesByFile;
+        }
+        
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            RevCommit previous = revWalk.parseCommit(snapshot.commit);
+            RevCommit current = revWalk.parseCommit(head);
+            if (!revWalk.isMergedInto(previous, current)) {
+                return Collections.emptyMap();
+            }
+            
+            Map<String, Map<String, Integer>> reusable = new HashMap<>(snapshot.linesByFile);
+            treeWalk.addTree(previous.getTree());
+            treeWalk.addTree(current.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(PathSuffixFilter.create(".java"), TreeFilter.ANY_DIFF));
+            while (treeWalk.next()) {
+                reusable.remove(treeWalk.getPathString());
+            }
+            return reusable;
+        } catch (org.eclipse.jgit.errors.MissingObjectException e) {
+            return Collections.emptyMap(); // 上次的提交已被回收
+        }
+    }
+    
+    /**
+     * 一次统计中的blame状态
+     */
+    private final class BlameContext {
+        final ObjectId head;
+        final Map<String, Map<String, Integer>> reusable;
+        final Map<String, Integer> linesByAuthor;
+        
+        /**
+         * 本次统计的每个文件的结果，统计结束后作为新的blame快照
+         */
+        final Map<String, Map<String, Integer>> linesByFile = new HashMap<>();
+        
+        BlameContext(ObjectId head, Map<String, Map<String, Integer>> reusable,
+                     Map<String, Integer> linesByAuthor) {
+            this.head = head;
+            this.reusable = reusable;
+            this.linesByAuthor = linesByAuthor;
+        }
+        
+        /**
+         * 统计单个文件，把各作者的行数累加到总数中
+         * 
+         * @return 文件的行数
+         */
+        int file(String filePath) {
+            Map<String, Integer> lines = reusable.get(filePath);
+            if (lines == null) {
+                lines = blameFile(head, filePath);
+            }
+            linesByFile.put(filePath, lines);
+            int lineCount = 0;
+            for (Map.Entry<String, Integer> entry : lines.entrySet()) {
+                linesByAuthor.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                lineCount += entry.getValue();
+            }
+            return lineCount;
+        }
+    }
+    
+    /**
+     * blame快照 - blame时的HEAD及每个文件的结果，创建后不再修改
+     */
+    private static final class BlameSnapshot {
+        final ObjectId commit;
+        final Map<String, Map<String, Integer>> linesByFile;
+        
+        BlameSnapshot(ObjectId commit, Map<String, Map<String, Integer>> linesByFile) {
+            this.commit = commit;
+            this.linesByFile = linesByFile;
         }
     }
     
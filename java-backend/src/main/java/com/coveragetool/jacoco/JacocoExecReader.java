@@ -0,0 +1,129 @@
+package com.coveragetool.jacoco;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JaCoCo执行数据读取器 - 流式读取jacoco.exec
+ *
+ * 文件由若干数据块组成，每块以一个字节的块类型开头：
+ * 1. 0x01 文件头：魔数0xC0C0和格式版本0x1007，多次转储追加到同一文件时会重复出现
+ * 2. 0x10 会话信息：会话ID、开始时间和转储时间
+ * 3. 0x11 执行数据：类ID（类文件内容的CRC64）、类的内部名称和探针数组
+ * 字符串为Java修改版UTF-8，探针数组先以变长整数记录长度，再按每字节8个探针、低位在前存放。
+ *
+ * 每读完一个块就交给访问者，读取器不保留任何已读取的数据。
+ */
+public final class JacocoExecReader {
+
+    private static final byte BLOCK_HEADER = 0x01;
+    private static final byte BLOCK_SESSIONINFO = 0x10;
+    private static final byte BLOCK_EXECUTIONDATA = 0x11;
+
+    private static final char MAGIC_NUMBER = 0xC0C0;
+    private static final char FORMAT_VERSION = 0x1007;
+
+    /**
+     * 读取执行数据的访问者
+     */
+    public interface Visitor {
+
+        /**
+         * 读完一个会话信息块
+         *
+         * @param sessionId 会话ID
+         * @param start 会话开始时间（毫秒）
+         * @param dump 转储时间（毫秒）
+         */
+        void visitSession(String sessionId, long start, long dump);
+
+        /**
+         * 读完一个类的执行数据
+         *
+         * @param classId 类ID
+         * @param className 类的内部名称，如com/example/Foo$Bar
+         * @param probes 各探针是否执行过，访问结束后读取器不再使用该数组
+         */
+        void visitClass(long classId, String className, boolean[] probes);
+    }
+
+    /**
+     * 读取执行数据
+     *
+     * @param input 执行数据，读取后不关闭
+     * @param visitor 访问者
+     * @throws IOException 文件不是JaCoCo执行数据、格式版本不兼容或内容不完整时抛出
+     */
+    public void read(InputStream input, Visitor visitor) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        boolean first = true;
+        int type;
+        while ((type = data.read()) != -1) {
+            if (first && type != BLOCK_HEADER) {
+                throw new IOException("不是JaCoCo执行数据文件");
+            }
+            first = false;
+            try {
+                switch ((byte) type) {
+                    case BLOCK_HEADER:
+                        readHeader(data);
+                        break;
+                    case BLOCK_SESSIONINFO:
+                        visitor.visitSession(data.readUTF(), data.readLong(), data.readLong());
+                        break;
+                    case BLOCK_EXECUTIONDATA:
+                        visitor.visitClass(data.readLong(), data.readUTF(), readBooleanArray(data));
+                        break;
+                    default:
+                        throw new IOException("未知的JaCoCo执行数据块类型: 0x" + Integer.toHexString(type));
+                }
+            } catch (EOFException e) {
+                throw new IOException("JaCoCo执行数据不完整", e);
+            }
+        }
+    }
+
+    private static void readHeader(DataInputStream data) throws IOException {
+        if (data.readChar() != MAGIC_NUMBER) {
+            throw new IOException("不是JaCoCo执行数据文件");
+        }
+        char version = data.readChar();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的JaCoCo执行数据格式版本: 0x" + Integer.toHexString(version));
+        }
+    }
+
+    /**
+     * 读取变长整数：每字节低7位为数据、低位在前，最高位为1表示后面还有字节
+     */
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("JaCoCo执行数据中的变长整数过长");
+    }
+
+    private static boolean[] readBooleanArray(DataInputStream data) throws IOException {
+        int length = readVarInt(data);
+        if (length < 0) {
+            throw new IOException("JaCoCo执行数据中的探针数组长度无效: " + length);
+        }
+        boolean[] values = new boolean[length];
+        int buffer = 0;
+        for (int i = 0; i < length; i++) {
+            if ((i & 7) == 0) {
+                buffer = data.readUnsignedByte();
+            }
+            values[i] = (buffer & 0x01) != 0;
+            buffer >>>= 1;
+        }
+        return values;
+    }
+}
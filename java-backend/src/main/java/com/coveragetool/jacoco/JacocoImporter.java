@@ -0,0 +1,436 @@
+package com.coveragetool.jacoco;
+
+import com.coveragetool.model.BusinessClass;
+import com.coveragetool.model.CoverageReport;
+import com.coveragetool.model.FileStatistics;
+import com.coveragetool.model.MeasuredCoverage;
+import com.coveragetool.model.Method;
+import com.coveragetool.model.MethodCoverage;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JaCoCo覆盖率导入器 - 把jacoco.xml和jacoco.exec中的实测计数对应到业务类和方法上
+ *
+ * 两种文件都流式读取，每读完一个方法或类就立即并入对应的业务类，读取器不保留已读取的数据；
+ * 导入器只为报告中的业务类保存计数，内存占用与业务类数量有关，与覆盖率文件大小无关。
+ *
+ * XML报告中的类按内部名称对应业务类：com/example/Foo$Bar并入com.example.Foo，
+ * 方法按方法名对应，重载时再按方法第一行所在的行范围和参数个数区分，构造方法和编译器生成的方法不对应。
+ * 同一业务类出现在多个XML报告中时（如各模块报告和汇总报告）只取第一个报告中的计数。
+ *
+ * .exec文件只有各类的探针执行情况，没有类文件无法把探针对应到行和方法，
+ * 因此只记录业务类的探针计数。多次会话中同一个类的探针按位合并，类ID不同（类已重新编译）时以后读到的为准。
+ *
+ * 业务类、方法以及报告中各类的文件统计和方法覆盖信息可能与其他分析（增量分析的基础）共享，
+ * 导入器不修改这些对象：计数先记在导入器中，结束时写入文件统计和方法覆盖信息的副本，并替换报告中的列表。
+ */
+public final class JacocoImporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * .exec文件第一个字节为文件头块类型
+     */
+    private static final int EXEC_HEADER = 0x01;
+
+    private final CoverageReport report;
+
+    /**
+     * Key：业务类的完整限定名，Value：导入目标
+     */
+    private final Map<String, ClassTarget> targets = new HashMap<>();
+
+    private final JacocoXmlReader xmlReader = new JacocoXmlReader();
+    private final JacocoExecReader execReader = new JacocoExecReader();
+
+    /**
+     * 已导入的XML报告数，用于判断业务类的计数是否来自之前的报告
+     */
+    private int xmlReports;
+
+    /**
+     * @param businessClasses 业务类列表
+     * @param report 业务类的覆盖率报告，导入结束时替换其中的文件统计和方法列表
+     */
+    public JacocoImporter(List<BusinessClass> businessClasses, CoverageReport report) {
+        this.report = report;
+        Map<String, FileStatistics> fileStatistics = new HashMap<>();
+        if (report.getFileStatisticsList() != null) {
+            for (FileStatistics fileStats : report.getFileStatisticsList()) {
+                fileStatistics.putIfAbsent(fileStats.getFullyQualifiedName(), fileStats);
+            }
+        }
+        for (BusinessClass businessClass : businessClasses) {
+            String name = businessClass.getFullyQualifiedName();
+            if (name != null && !targets.containsKey(name)) {
+                targets.put(name, new ClassTarget(businessClass, fileStatistics.get(name)));
+            }
+        }
+    }
+
+    /**
+     * 导入一个覆盖率文件，按文件内容区分.exec执行数据和XML报告
+     *
+     * @param path 覆盖率文件路径
+     * @throws IOException 文件无法读取或格式错误时抛出，此前已并入的计数保留
+     */
+    public void importFile(Path path) throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            input.mark(1);
+            int first = input.read();
+            input.reset();
+            if (first == EXEC_HEADER) {
+                importExec(input);
+            } else {
+                importXml(input);
+            }
+        }
+    }
+
+    /**
+     * 导入XML报告
+     *
+     * @param input 报告内容，读取后不关闭
+     * @throws IOException 报告格式错误时抛出
+     */
+    public void importXml(InputStream input) throws IOException {
+        int reportNumber = ++xmlReports;
+        xmlReader.read(input, new JacocoXmlReader.Visitor() {
+            @Override
+            public void visitMethod(String className, String methodName, String descriptor, int line,
+                                    MeasuredCoverage counters) {
+                ClassTarget target = measurableTarget(className, reportNumber);
+                if (target != null) {
+                    target.addMethod(methodName, descriptor, line, counters);
+                }
+            }
+
+            @Override
+            public void visitClass(String className, MeasuredCoverage counters) {
+                ClassTarget target = measurableTarget(className, reportNumber);
+                if (target != null) {
+                    target.counters.add(counters);
+                }
+            }
+        });
+    }
+
+    /**
+     * 导入.exec执行数据
+     *
+     * @param input 执行数据，读取后不关闭
+     * @throws IOException 执行数据格式错误时抛出
+     */
+    public void importExec(InputStream input) throws IOException {
+        execReader.read(input, new JacocoExecReader.Visitor() {
+            @Override
+            public void visitSession(String sessionId, long start, long dump) {
+                // 会话信息只用于区分多次转储，合并探针时不需要
+            }
+
+            @Override
+            public void visitClass(long classId, String className, boolean[] probes) {
+                ClassTarget target = targets.get(topLevelName(className));
+                if (target != null) {
+                    target.addProbes(className, classId, probes);
+                }
+            }
+        });
+    }
+
+    /**
+     * 结束导入，把各业务类的计数写入文件统计和方法覆盖信息的副本并替换报告中的列表，
+     * 所有业务类的计数之和写入覆盖率报告
+     */
+    public void finish() {
+        MeasuredCoverage total = new MeasuredCoverage();
+        Map<Object, Object> copies = new IdentityHashMap<>();
+        for (ClassTarget target : targets.values()) {
+            if (!target.isMeasured()) {
+                continue;
+            }
+            target.countProbes();
+            target.counters.updateRates();
+            if (target.fileStats != null) {
+                target.copyMeasured(copies);
+            }
+            total.add(target.counters);
+        }
+        total.updateRates();
+
+        report.setFileStatisticsList(replace(report.getFileStatisticsList(), copies));
+        report.setAllMethodsList(replace(report.getAllMethodsList(), copies));
+        report.setUncoveredMethodList(replace(report.getUncoveredMethodList(), copies));
+        report.setMeasuredCoverage(total);
+    }
+
+    /**
+     * 把列表中已复制的元素替换为副本，返回新的列表
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> replace(List<T> items, Map<Object, Object> copies) {
+        if (items == null) {
+            return null;
+        }
+        List<T> replaced = new ArrayList<>(items.size());
+        for (T item : items) {
+            Object copy = copies.get(item);
+            replaced.add(copy != null ? (T) copy : item);
+        }
+        return replaced;
+    }
+
+    /**
+     * 查找XML报告中的类对应的导入目标
+     *
+     * @return 导入目标，没有对应的业务类或业务类的计数来自之前的XML报告时返回null
+     */
+    private ClassTarget measurableTarget(String className, int reportNumber) {
+        ClassTarget target = targets.get(topLevelName(className));
+        if (target == null) {
+            return null;
+        }
+        if (target.xmlReport == 0) {
+            target.xmlReport = reportNumber;
+        }
+        return target.xmlReport == reportNumber ? target : null;
+    }
+
+    /**
+     * 类的内部名称对应的顶层类的完整限定名，如com/example/Foo$Bar对应com.example.Foo
+     */
+    static String topLevelName(String className) {
+        if (className == null) {
+            return null;
+        }
+        int nested = className.indexOf('$');
+        String topLevel = nested >= 0 ? className.substring(0, nested) : className;
+        return topLevel.replace('/', '.');
+    }
+
+    /**
+     * 方法描述符中的参数个数，如(Ljava/lang/String;[II)V有3个参数
+     */
+    static int parameterCount(String descriptor) {
+        if (descriptor == null || descriptor.isEmpty() || descriptor.charAt(0) != '(') {
+            return -1;
+        }
+        int count = 0;
+        int i = 1;
+        while (i < descriptor.length() && descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            if (c == '[') {
+                i++;
+                continue;
+            }
+            if (c == 'L') {
+                int end = descriptor.indexOf(';', i);
+                if (end < 0) {
+                    return -1;
+                }
+                i = end;
+            }
+            count++;
+            i++;
+        }
+        return count;
+    }
+
+    /**
+     * 单个业务类的导入目标
+     */
+    private static final class ClassTarget {
+
+        private final BusinessClass businessClass;
+        private final FileStatistics fileStats;
+
+        /**
+         * 业务类（含内部类）的计数
+         */
+        private final MeasuredCoverage counters = new MeasuredCoverage();
+
+        /**
+         * 计数来自第几个XML报告，0表示还没有XML报告中的计数
+         */
+        private int xmlReport;
+
+        /**
+         * 各方法的计数，与业务类的方法列表顺序一致，报告中没有的方法为null，首次对应方法时建立
+         */
+        private MeasuredCoverage[] methodCounters;
+
+        /**
+         * Key：方法名，Value：方法在业务类方法列表中的位置，首次对应方法时建立
+         */
+        private Map<String, List<Integer>> methodsByName;
+
+        /**
+         * Key：类的内部名称，Value：合并后的探针，没有导入.exec时为null
+         */
+        private Map<String, Probes> probes;
+
+        private ClassTarget(BusinessClass businessClass, FileStatistics fileStats) {
+            this.businessClass = businessClass;
+            this.fileStats = fileStats;
+        }
+
+        private boolean isMeasured() {
+            return xmlReport != 0 || probes != null;
+        }
+
+        /**
+         * 把XML报告中的方法计数并入对应的业务方法
+         */
+        private void addMethod(String methodName, String descriptor, int line, MeasuredCoverage counters) {
+            if (methodName == null || methodName.startsWith("<") || methodName.indexOf('$') >= 0) {
+                return; // 构造方法、静态初始化块、lambda和编译器生成的方法
+            }
+            if (methodsByName == null) {
+                methodsByName = new HashMap<>();
+                List<Method> methods = businessClass.getMethods();
+                methodCounters = new MeasuredCoverage[methods.size()];
+                for (int i = 0; i < methods.size(); i++) {
+                    methodsByName.computeIfAbsent(methods.get(i).getMethodName(), name -> new ArrayList<>(1)).add(i);
+                }
+            }
+            List<Integer> candidates = methodsByName.get(methodName);
+            if (candidates == null) {
+                return;
+            }
+            int methodIndex = selectMethod(candidates, descriptor, line);
+            if (methodIndex < 0) {
+                return;
+            }
+
+            if (methodCounters[methodIndex] == null) {
+                methodCounters[methodIndex] = new MeasuredCoverage();
+            }
+            methodCounters[methodIndex].add(counters);
+        }
+
+        /**
+         * 复制文件统计和有计数的方法覆盖信息，在副本上记录计数
+         *
+         * @param copies 原对象到副本的映射，复制的对象加入其中
+         */
+        private void copyMeasured(Map<Object, Object> copies) {
+            FileStatistics measuredStats = fileStats.copy();
+            measuredStats.setMeasuredCoverage(counters);
+            List<MethodCoverage> methods = fileStats.getMethods();
+            if (methods != null && methodCounters != null) {
+                List<MethodCoverage> measuredMethods = new ArrayList<>(methods.size());
+                for (int i = 0; i < methods.size(); i++) {
+                    MethodCoverage methodCoverage = methods.get(i);
+                    if (i < methodCounters.length && methodCounters[i] != null) {
+                        MethodCoverage measured = methodCoverage.copy();
+                        measured.setMeasuredCoverage(methodCounters[i]);
+                        copies.put(methodCoverage, measured);
+                        methodCoverage = measured;
+                    }
+                    measuredMethods.add(methodCoverage);
+                }
+                measuredStats.setMethods(measuredMethods);
+            }
+            copies.put(fileStats, measuredStats);
+        }
+
+        /**
+         * 在同名的业务方法中选择与报告中的方法对应的一个
+         *
+         * 有行号时取行范围包含方法第一行的方法，都不包含时说明是内部类或匿名类中的同名方法，不对应；
+         * 仍有多个时按参数个数区分，还有多个时取第一个。
+         *
+         * @return 方法在业务类方法列表中的位置，没有对应的方法时返回-1
+         */
+        private int selectMethod(List<Integer> candidates, String descriptor, int line) {
+            List<Method> methods = businessClass.getMethods();
+            List<Integer> selected = candidates;
+            if (line > 0 && methods.get(candidates.get(0)).getStartLineNumber() > 0) {
+                selected = new ArrayList<>(1);
+                for (Integer index : candidates) {
+                    Method method = methods.get(index);
+                    if (method.getStartLineNumber() <= line && line <= method.getEndLineNumber()) {
+                        selected.add(index);
+                    }
+                }
+                if (selected.isEmpty()) {
+                    return -1;
+                }
+            }
+            if (selected.size() > 1) {
+                int parameterCount = parameterCount(descriptor);
+                for (Integer index : selected) {
+                    List<String> parameters = methods.get(index).getParameters();
+                    if ((parameters != null ? parameters.size() : 0) == parameterCount) {
+                        return index;
+                    }
+                }
+            }
+            return selected.get(0);
+        }
+
+        /**
+         * 合并.exec中类的探针，类ID与之前不同时替换之前的探针
+         */
+        private void addProbes(String className, long classId, boolean[] classProbes) {
+            if (probes == null) {
+                probes = new HashMap<>();
+            }
+            Probes merged = probes.get(className);
+            if (merged == null || merged.classId != classId) {
+                merged = new Probes(classId, classProbes.length);
+                probes.put(className, merged);
+            }
+            for (int i = 0; i < classProbes.length && i < merged.length; i++) {
+                if (classProbes[i]) {
+                    merged.executed.set(i);
+                }
+            }
+        }
+
+        /**
+         * 把合并后的探针计入业务类的计数
+         */
+        private void countProbes() {
+            if (probes == null) {
+                return;
+            }
+            int covered = 0;
+            int missed = 0;
+            for (Probes classProbes : probes.values()) {
+                int executed = classProbes.executed.cardinality();
+                covered += executed;
+                missed += classProbes.length - executed;
+            }
+            counters.setCoveredProbes(covered);
+            counters.setMissedProbes(missed);
+            probes = null;
+        }
+    }
+
+    /**
+     * 单个类合并后的探针
+     */
+    private static final class Probes {
+        private final long classId;
+        private final int length;
+        private final BitSet executed;
+
+        private Probes(long classId, int length) {
+            this.classId = classId;
+            this.length = length;
+            this.executed = new BitSet(length);
+        }
+    }
+}
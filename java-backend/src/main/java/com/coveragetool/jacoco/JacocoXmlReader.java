@@ -0,0 +1,194 @@
+package com.coveragetool.jacoco;
+
+import com.coveragetool.model.MeasuredCoverage;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JaCoCo XML报告读取器 - 用StAX流式读取jacoco.xml
+ *
+ * 报告结构为report > group* > package > class > method，类和方法下的counter元素记录各类计数。
+ * 读取时逐个元素向前推进，每读完一个方法或类就交给访问者，之后不再保留，
+ * 内存占用只取决于单个元素，与报告大小无关。sourcefile下逐行的line元素直接跳过。
+ *
+ * 报告开头的DOCTYPE引用report.dtd，读取时不加载DTD，也不解析外部实体。
+ */
+public final class JacocoXmlReader {
+
+    /**
+     * 读取报告的访问者
+     */
+    public interface Visitor {
+
+        /**
+         * 读完一个方法
+         *
+         * @param className 所属类的内部名称，如com/example/Foo$Bar
+         * @param methodName 方法名，构造方法为&lt;init&gt;
+         * @param descriptor 方法描述符，如(Ljava/lang/String;I)V
+         * @param line 方法第一行的行号，编译时没有行号信息时为0
+         * @param counters 方法的计数，之后不会再被读取器修改
+         */
+        void visitMethod(String className, String methodName, String descriptor, int line,
+                         MeasuredCoverage counters);
+
+        /**
+         * 读完一个类（其中的方法已先行访问）
+         *
+         * @param className 类的内部名称
+         * @param counters 类的计数，不含内部类，之后不会再被读取器修改
+         */
+        void visitClass(String className, MeasuredCoverage counters);
+    }
+
+    private final XMLInputFactory factory;
+
+    public JacocoXmlReader() {
+        factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    /**
+     * 读取报告
+     *
+     * @param input 报告内容，读取后不关闭
+     * @param visitor 访问者
+     * @throws IOException 报告不是有效的XML时抛出
+     */
+    public void read(InputStream input, Visitor visitor) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(input);
+            read(reader, visitor);
+        } catch (XMLStreamException e) {
+            throw new IOException("JaCoCo XML报告格式错误: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // 读取器关闭失败不影响已读取的结果
+                }
+            }
+        }
+    }
+
+    private void read(XMLStreamReader reader, Visitor visitor) throws XMLStreamException {
+        String className = null;
+        MeasuredCoverage classCounters = null;
+        String methodName = null;
+        String descriptor = null;
+        int line = 0;
+        MeasuredCoverage methodCounters = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "class":
+                        className = reader.getAttributeValue(null, "name");
+                        classCounters = new MeasuredCoverage();
+                        break;
+                    case "method":
+                        if (className != null) {
+                            methodName = reader.getAttributeValue(null, "name");
+                            descriptor = reader.getAttributeValue(null, "desc");
+                            line = parseInt(reader.getAttributeValue(null, "line"));
+                            methodCounters = new MeasuredCoverage();
+                        }
+                        break;
+                    case "counter":
+                        // 包、sourcefile和报告本身的计数是类计数的汇总，不需要
+                        if (methodCounters != null) {
+                            addCounter(reader, methodCounters);
+                        } else if (classCounters != null) {
+                            addCounter(reader, classCounters);
+                        }
+                        break;
+                    case "sourcefile":
+                        skipElement(reader);
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("method") && methodCounters != null) {
+                    methodCounters.updateRates();
+                    visitor.visitMethod(className, methodName, descriptor, line, methodCounters);
+                    methodCounters = null;
+                } else if (name.equals("class") && classCounters != null) {
+                    classCounters.updateRates();
+                    visitor.visitClass(className, classCounters);
+                    className = null;
+                    classCounters = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把counter元素的计数加到计数对象上，未知类型（如COMPLEXITY、CLASS）忽略
+     */
+    private static void addCounter(XMLStreamReader reader, MeasuredCoverage counters) {
+        String type = reader.getAttributeValue(null, "type");
+        int missed = parseInt(reader.getAttributeValue(null, "missed"));
+        int covered = parseInt(reader.getAttributeValue(null, "covered"));
+        if (type == null) {
+            return;
+        }
+        switch (type) {
+            case "INSTRUCTION":
+                counters.setMissedInstructions(counters.getMissedInstructions() + missed);
+                counters.setCoveredInstructions(counters.getCoveredInstructions() + covered);
+                break;
+            case "BRANCH":
+                counters.setMissedBranches(counters.getMissedBranches() + missed);
+                counters.setCoveredBranches(counters.getCoveredBranches() + covered);
+                break;
+            case "LINE":
+                counters.setMissedLines(counters.getMissedLines() + missed);
+                counters.setCoveredLines(counters.getCoveredLines() + covered);
+                break;
+            case "METHOD":
+                counters.setMissedMethods(counters.getMissedMethods() + missed);
+                counters.setCoveredMethods(counters.getCoveredMethods() + covered);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 跳过当前元素及其所有子元素
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -63,6 +63,17 @@ public class AnalysisResult {
      */
     private MultiDimensionalReport multiDimensionalReport;
 
+    /**
+     * 分析时HEAD指向的提交
+     * 以该次分析为基础做增量分析时，只重新分析这个提交之后有变化的文件；不是Git仓库时为空
+     */
+    private String analyzedCommit;
+
+    /**
+     * 本次是否为增量分析
+     */
+    private boolean incremental;
+
     /**
      * 默认构造函数
      * 初始化分析结果对象，通常在开始新的分析任务时调用
@@ -199,4 +210,36 @@ public class AnalysisResult {
     public void setMultiDimensionalReport(MultiDimensionalReport multiDimensionalReport) {
         this.multiDimensionalReport = multiDimensionalReport;
     }
+
+    /**
+     * 获取分析时的提交
+     * @return 提交ID，不是Git仓库时为null
+     */
+    public String getAnalyzedCommit() {
+        return analyzedCommit;
+    }
+
+    /**
+     * 设置分析时的提交
+     * @param analyzedCommit 提交ID
+     */
+    public void setAnalyzedCommit(String analyzedCommit) {
+        this.analyzedCommit = analyzedCommit;
+    }
+
+    /**
+     * 是否为增量分析
+     * @return true表示只重新分析了有变化的文件
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * 设置是否为增量分析
+     * @param incremental 是否为增量分析
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
 }
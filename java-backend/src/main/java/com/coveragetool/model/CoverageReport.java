@@ -84,6 +84,12 @@ public class CoverageReport {
      */
     private double averageGranularityScore;
 
+    /**
+     * 项目的实测覆盖率
+     * 导入JaCoCo覆盖率报告后为所有业务类实测计数之和，未导入时为null
+     */
+    private MeasuredCoverage measuredCoverage;
+
     // Getter和Setter方法
     
     public double getOverallCoverage() {
@@ -198,4 +204,12 @@ public class CoverageReport {
     public void setCommitStatisticsList(List<CommitStatistics> commitStatisticsList) {
         this.commitStatisticsList = commitStatisticsList;
     }
+
+    public MeasuredCoverage getMeasuredCoverage() {
+        return measuredCoverage;
+    }
+
+    public void setMeasuredCoverage(MeasuredCoverage measuredCoverage) {
+        this.measuredCoverage = measuredCoverage;
+    }
 }
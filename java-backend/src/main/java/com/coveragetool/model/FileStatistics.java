@@ -85,6 +85,38 @@ public class FileStatistics {
      */
     private List<MethodCoverage> methods;
 
+    /**
+     * 该类（含内部类和匿名类）的实测覆盖率
+     * 未导入JaCoCo覆盖率报告或报告中没有该类时为null
+     */
+    private MeasuredCoverage measuredCoverage;
+
+    /**
+     * 复制文件统计，方法列表与原对象共享，替换方法时应设置新的列表
+     *
+     * @return 副本
+     */
+    public FileStatistics copy() {
+        FileStatistics copy = new FileStatistics();
+        copy.filePath = filePath;
+        copy.className = className;
+        copy.fullyQualifiedName = fullyQualifiedName;
+        copy.packageName = packageName;
+        copy.classType = classType;
+        copy.totalMethods = totalMethods;
+        copy.coveredMethods = coveredMethods;
+        copy.uncoveredMethods = uncoveredMethods;
+        copy.coverageRate = coverageRate;
+        copy.correspondingTestClass = correspondingTestClass;
+        copy.hasTestClass = hasTestClass;
+        copy.lastModifiedCommit = lastModifiedCommit;
+        copy.lastModifiedBy = lastModifiedBy;
+        copy.linesOfCode = linesOfCode;
+        copy.methods = methods;
+        copy.measuredCoverage = measuredCoverage;
+        return copy;
+    }
+
     // Getter和Setter方法
     
     public String getFilePath() {
@@ -206,4 +238,12 @@ public class FileStatistics {
     public void setMethods(List<MethodCoverage> methods) {
         this.methods = methods;
     }
+    
+    public MeasuredCoverage getMeasuredCoverage() {
+        return measuredCoverage;
+    }
+    
+    public void setMeasuredCoverage(MeasuredCoverage measuredCoverage) {
+        this.measuredCoverage = measuredCoverage;
+    }
 }
@@ -0,0 +1,174 @@
+package com.coveragetool.model;
+
+/**
+ * 实测覆盖率模型 - 记录JaCoCo等工具实际运行测试后测得的覆盖计数
+ *
+ * 与按测试类和方法名推断的覆盖情况不同，这里的计数来自测试运行时的插桩结果。
+ * 同一对象可以表示一个方法、一个业务类或整个项目的计数，汇总时直接相加。
+ * 覆盖率按计数计算，没有对应计数时为0。
+ */
+public class MeasuredCoverage {
+
+    /**
+     * 已执行/未执行的字节码指令数
+     */
+    private int coveredInstructions;
+    private int missedInstructions;
+
+    /**
+     * 已执行/未执行的分支数
+     */
+    private int coveredBranches;
+    private int missedBranches;
+
+    /**
+     * 已执行/未执行的代码行数
+     * 一行中只要有指令执行过即算作已执行
+     */
+    private int coveredLines;
+    private int missedLines;
+
+    /**
+     * 已执行/未执行的方法数
+     */
+    private int coveredMethods;
+    private int missedMethods;
+
+    /**
+     * 已执行/未执行的探针数
+     * 只在导入.exec执行数据时记录，探针无法对应到行和方法，只能反映类中被执行的比例
+     */
+    private int coveredProbes;
+    private int missedProbes;
+
+    /**
+     * 行覆盖率百分比
+     * 计算公式：(已执行行数 / 总行数) * 100
+     */
+    private double lineCoverage;
+
+    /**
+     * 分支覆盖率百分比
+     * 计算公式：(已执行分支数 / 总分支数) * 100
+     */
+    private double branchCoverage;
+
+    /**
+     * 把另一组计数加到本对象上
+     *
+     * @param other 另一组计数，不会被修改
+     */
+    public void add(MeasuredCoverage other) {
+        coveredInstructions += other.coveredInstructions;
+        missedInstructions += other.missedInstructions;
+        coveredBranches += other.coveredBranches;
+        missedBranches += other.missedBranches;
+        coveredLines += other.coveredLines;
+        missedLines += other.missedLines;
+        coveredMethods += other.coveredMethods;
+        missedMethods += other.missedMethods;
+        coveredProbes += other.coveredProbes;
+        missedProbes += other.missedProbes;
+        updateRates();
+    }
+
+    /**
+     * 按当前计数重新计算覆盖率
+     */
+    public void updateRates() {
+        int totalLines = coveredLines + missedLines;
+        lineCoverage = totalLines == 0 ? 0 : (double) coveredLines / totalLines * 100;
+        int totalBranches = coveredBranches + missedBranches;
+        branchCoverage = totalBranches == 0 ? 0 : (double) coveredBranches / totalBranches * 100;
+    }
+
+    // Getter和Setter方法
+
+    public int getCoveredInstructions() {
+        return coveredInstructions;
+    }
+
+    public void setCoveredInstructions(int coveredInstructions) {
+        this.coveredInstructions = coveredInstructions;
+    }
+
+    public int getMissedInstructions() {
+        return missedInstructions;
+    }
+
+    public void setMissedInstructions(int missedInstructions) {
+        this.missedInstructions = missedInstructions;
+    }
+
+    public int getCoveredBranches() {
+        return coveredBranches;
+    }
+
+    public void setCoveredBranches(int coveredBranches) {
+        this.coveredBranches = coveredBranches;
+    }
+
+    public int getMissedBranches() {
+        return missedBranches;
+    }
+
+    public void setMissedBranches(int missedBranches) {
+        this.missedBranches = missedBranches;
+    }
+
+    public int getCoveredLines() {
+        return coveredLines;
+    }
+
+    public void setCoveredLines(int coveredLines) {
+        this.coveredLines = coveredLines;
+    }
+
+    public int getMissedLines() {
+        return missedLines;
+    }
+
+    public void setMissedLines(int missedLines) {
+        this.missedLines = missedLines;
+    }
+
+    public int getCoveredMethods() {
+        return coveredMethods;
+    }
+
+    public void setCoveredMethods(int coveredMethods) {
+        this.coveredMethods = coveredMethods;
+    }
+
+    public int getMissedMethods() {
+        return missedMethods;
+    }
+
+    public void setMissedMethods(int missedMethods) {
+        this.missedMethods = missedMethods;
+    }
+
+    public int getCoveredProbes() {
+        return coveredProbes;
+    }
+
+    public void setCoveredProbes(int coveredProbes) {
+        this.coveredProbes = coveredProbes;
+    }
+
+    public int getMissedProbes() {
+        return missedProbes;
+    }
+
+    public void setMissedProbes(int missedProbes) {
+        this.missedProbes = missedProbes;
+    }
+
+    public double getLineCoverage() {
+        return lineCoverage;
+    }
+
+    public double getBranchCoverage() {
+        return branchCoverage;
+    }
+}
@@ -80,6 +80,36 @@ public class MethodCoverage {
      */
     private String filePath;
 
+    /**
+     * 实测覆盖率，未导入JaCoCo覆盖率报告或报告中没有该方法时为null
+     */
+    private MeasuredCoverage measuredCoverage;
+
+    /**
+     * 复制方法覆盖信息
+     *
+     * @return 副本
+     */
+    public MethodCoverage copy() {
+        MethodCoverage copy = new MethodCoverage();
+        copy.className = className;
+        copy.methodName = methodName;
+        copy.signature = signature;
+        copy.isCovered = isCovered;
+        copy.testMethodCount = testMethodCount;
+        copy.granularityLevel = granularityLevel;
+        copy.lastModifiedCommit = lastModifiedCommit;
+        copy.lastModifiedBy = lastModifiedBy;
+        copy.complexity = complexity;
+        copy.startLineNumber = startLineNumber;
+        copy.endLineNumber = endLineNumber;
+        copy.linesOfCode = linesOfCode;
+        copy.fullSignature = fullSignature;
+        copy.filePath = filePath;
+        copy.measuredCoverage = measuredCoverage;
+        return copy;
+    }
+
     // Getter和Setter方法
     
     public String getClassName() {
@@ -193,4 +223,12 @@ public class MethodCoverage {
     public void setFilePath(String filePath) {
         this.filePath = filePath;
     }
+
+    public MeasuredCoverage getMeasuredCoverage() {
+        return measuredCoverage;
+    }
+
+    public void setMeasuredCoverage(MeasuredCoverage measuredCoverage) {
+        this.measuredCoverage = measuredCoverage;
+    }
 }
@@ -50,6 +50,18 @@ public class TestClass {
      * 如：JUNIT4、JUNIT5、TESTNG
      */
     private TestFramework testFramework;
+    
+    /**
+     * 测试类中@Nested注解的嵌套测试类的简单名称，没有时为null
+     * 嵌套类的测试方法计入所在的测试类；按命名约定查找测试类时，嵌套类名与所在包组成的名称也视为该测试类的名称
+     */
+    private List<String> nestedClassNames;
+    
+    /**
+     * 测试类中引用的类型的简单名称（导入、声明、创建对象和静态调用），用于按名称把其中的测试计入其他业务类的覆盖
+     * 只在分析期间使用，不写入报告
+     */
+    private transient List<String> referencedTypes;
 
     // Getter和Setter方法
     
@@ -108,4 +120,20 @@ public class TestClass {
     public void setTestFramework(TestFramework testFramework) {
         this.testFramework = testFramework;
     }
+
+    public List<String> getNestedClassNames() {
+        return nestedClassNames;
+    }
+
+    public void setNestedClassNames(List<String> nestedClassNames) {
+        this.nestedClassNames = nestedClassNames;
+    }
+
+    public List<String> getReferencedTypes() {
+        return referencedTypes;
+    }
+
+    public void setReferencedTypes(List<String> referencedTypes) {
+        this.referencedTypes = referencedTypes;
+    }
 }
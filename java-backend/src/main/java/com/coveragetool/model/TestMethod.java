@@ -1,6 +1,7 @@
 package com.coveragetool.model;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * 测试方法模型 - 表示单元测试类中的测试方法
@@ -62,6 +63,19 @@ public class TestMethod {
      * 注释有助于理解测试意图
      */
     private List<String> comments;
+    
+    /**
+     * 该测试方法实际调用的业务方法（调用键，见CallGraphResolver.methodKey）
+     * 包括经由测试类内部方法间接调用的业务方法；为null时未解析调用，按方法名匹配。
+     * 只在分析期间使用，不写入报告
+     */
+    private transient Set<String> calledBusinessMethods;
+    
+    /**
+     * 测试方法体中调用的方法名（不区分调用目标），用于按名称把其他测试类中的测试计入覆盖
+     * 只在分析期间使用，不写入报告
+     */
+    private transient List<String> calledMethodNames;
 
     // Getter和Setter方法
     
@@ -136,4 +150,20 @@ public class TestMethod {
     public void setComments(List<String> comments) {
         this.comments = comments;
     }
+
+    public Set<String> getCalledBusinessMethods() {
+        return calledBusinessMethods;
+    }
+
+    public void setCalledBusinessMethods(Set<String> calledBusinessMethods) {
+        this.calledBusinessMethods = calledBusinessMethods;
+    }
+
+    public List<String> getCalledMethodNames() {
+        return calledMethodNames;
+    }
+
+    public void setCalledMethodNames(List<String> calledMethodNames) {
+        this.calledMethodNames = calledMethodNames;
+    }
 }
@@ -63,6 +63,14 @@ public class ReportGenerator {
         html.append("                <p><strong>总体覆盖率：</strong><span class=\"coverage\">")
             .append(String.format("%.2f", result.getCoverageReport().getOverallCoverage()))
             .append("%</span></p>\n");
+        MeasuredCoverage measured = result.getCoverageReport().getMeasuredCoverage();
+        if (measured != null) {
+            html.append("                <p><strong>实测行覆盖率：</strong><span class=\"coverage\">")
+                .append(String.format("%.2f", measured.getLineCoverage()))
+                .append("%</span>　<strong>实测分支覆盖率：</strong><span class=\"coverage\">")
+                .append(String.format("%.2f", measured.getBranchCoverage()))
+                .append("%</span></p>\n");
+        }
         html.append("            </div>\n");
         html.append("        </header>\n");
         
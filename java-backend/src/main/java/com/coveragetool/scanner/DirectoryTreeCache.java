@@ -0,0 +1,180 @@
+package com.coveragetool.scanner;
+
+import com.coveragetool.model.DirectoryNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 目录树缓存 - 在服务端保存完整目录树，按需返回子树
+ *
+ * 扫描结果中的完整目录树可能非常大，一次性序列化给前端代价很高。
+ * 这个类按项目路径缓存完整的目录树，前端展开节点时再按路径、深度和分页
+ * 取回对应的子节点。
+ */
+public class DirectoryTreeCache {
+
+    /**
+     * 最多缓存的项目数量
+     */
+    private static final int MAX_PROJECTS = 8;
+
+    /**
+     * 已缓存的项目目录树
+     * Key：项目路径，Value：目录树及其节点索引
+     * 按访问顺序排列，超过上限时淘汰最久未访问的项目
+     */
+    private final Map<String, CachedTree> trees =
+        new LinkedHashMap<String, CachedTree>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTree> eldest) {
+                return size() > MAX_PROJECTS;
+            }
+        };
+
+    /**
+     * 缓存项目的目录树
+     *
+     * 完整目录树、源码目录树和测试目录树的节点key都是相对项目根目录的路径，
+     * 因此三棵树共用同一个节点索引。
+     *
+     * @param structure 扫描得到的项目结构（包含完整目录树）
+     */
+    public synchronized void put(ProjectStructure structure) {
+        CachedTree cached = new CachedTree();
+        indexNodes(structure.getDirectoryTree(), cached.nodesByKey);
+        indexNodes(structure.getSourceTree(), cached.nodesByKey);
+        indexNodes(structure.getTestTree(), cached.nodesByKey);
+        trees.put(structure.getProjectPath(), cached);
+    }
+
+    /**
+     * 获取指定路径的子树
+     *
+     * @param projectPath 项目路径
+     * @param path 节点路径（相对于项目根目录，空字符串表示根节点）
+     * @param depth 返回的层数，1表示只返回该节点的直接子节点
+     * @param offset 直接子节点的起始位置
+     * @param limit 直接子节点的最大数量，小于等于0表示不限制
+     * @return 子树分页结果，项目未缓存或路径不存在时返回null
+     */
+    public synchronized TreePage getSubtree(String projectPath, String path,
+                                            int depth, int offset, int limit) {
+        CachedTree cached = trees.get(projectPath);
+        if (cached == null) {
+            return null;
+        }
+        DirectoryNode node = cached.nodesByKey.get(path != null ? path : "");
+        if (node == null) {
+            return null;
+        }
+
+        List<DirectoryNode> children = node.getChildren() != null ? node.getChildren() : new ArrayList<>();
+        int total = children.size();
+        int from = Math.min(Math.max(offset, 0), total);
+        int to = limit > 0 ? Math.min(from + limit, total) : total;
+
+        DirectoryNode page = copyNode(node);
+        List<DirectoryNode> pageChildren = new ArrayList<>();
+        for (DirectoryNode child : children.subList(from, to)) {
+            pageChildren.add(truncate(child, depth - 1));
+        }
+        page.setChildren(pageChildren);
+
+        return new TreePage(page, total, from, to - from, to < total);
+    }
+
+    /**
+     * 判断项目目录树是否已缓存
+     */
+    public synchronized boolean contains(String projectPath) {
+        return trees.containsKey(projectPath);
+    }
+
+    /**
+     * 复制目录树的前几层
+     *
+     * 超出深度的目录节点不带子节点，但保留isLeaf=false，前端据此按需加载。
+     *
+     * @param node 原始节点
+     * @param depth 保留的子节点层数，0表示不保留子节点
+     * @return 截断后的节点副本
+     */
+    public static DirectoryNode truncate(DirectoryNode node, int depth) {
+        if (node == null) {
+            return null;
+        }
+        DirectoryNode copy = copyNode(node);
+        List<DirectoryNode> children = new ArrayList<>();
+        if (depth > 0 && node.getChildren() != null) {
+            for (DirectoryNode child : node.getChildren()) {
+                children.add(truncate(child, depth - 1));
+            }
+        }
+        copy.setChildren(children);
+        return copy;
+    }
+
+    /**
+     * 复制目录节点的属性，不含子节点
+     */
+    static DirectoryNode copyNode(DirectoryNode node) {
+        DirectoryNode copy = new DirectoryNode(node.getTitle(), node.getKey(), node.getValue(),
+            Boolean.TRUE.equals(node.getIsLeaf()));
+        copy.setType(node.getType());
+        copy.setSelectable(node.getSelectable());
+        copy.setCheckable(node.getCheckable());
+        return copy;
+    }
+
+    private static void indexNodes(DirectoryNode node, Map<String, DirectoryNode> nodesByKey) {
+        if (node == null) {
+            return;
+        }
+        nodesByKey.putIfAbsent(node.getKey(), node);
+        if (node.getChildren() != null) {
+            for (DirectoryNode child : node.getChildren()) {
+                indexNodes(child, nodesByKey);
+            }
+        }
+    }
+
+    /**
+     * 单个项目的缓存目录树
+     */
+    private static class CachedTree {
+        /**
+         * 节点索引
+         * Key：节点key（相对路径），Value：完整目录树中的节点
+         */
+        final Map<String, DirectoryNode> nodesByKey = new HashMap<>();
+    }
+
+    /**
+     * 子树分页结果
+     */
+    public static class TreePage {
+        private final DirectoryNode node;
+        private final int totalChildren;
+        private final int offset;
+        private final int count;
+        private final boolean hasMore;
+
+        public TreePage(DirectoryNode node, int totalChildren, int offset, int count, boolean hasMore) {
+            this.node = node;
+            this.totalChildren = totalChildren;
+            this.offset = offset;
+            this.count = count;
+            this.hasMore = hasMore;
+        }
+
+        public DirectoryNode getNode() { return node; }
+        public int getTotalChildren() { return totalChildren; }
+        public int getOffset() { return offset; }
+        public int getCount() { return count; }
+        public boolean isHasMore() { return hasMore; }
+    }
+}
@@ -0,0 +1,89 @@
+package com.coveragetool.scanner;
+
+/**
+ * 文件条目 - 目录遍历时记录的单个文件信息
+ *
+ * 文件大小和修改时间直接取自遍历过程提供的文件属性，
+ * 后续使用时无需再次访问文件系统。
+ */
+public class FileEntry {
+
+    /**
+     * 文件名
+     */
+    private final String name;
+
+    /**
+     * 相对于项目根目录的路径（使用/分隔）
+     */
+    private final String relativePath;
+
+    /**
+     * 文件的绝对路径
+     */
+    private final String absolutePath;
+
+    /**
+     * 文件大小（字节）
+     */
+    private final long size;
+
+    /**
+     * 文件的最后修改时间（毫秒）
+     */
+    private final long lastModified;
+
+    /**
+     * 文件在项目中的角色（源码、测试或其他）
+     * 由文件索引根据源码目录和测试目录确定
+     */
+    private FileRole role = FileRole.OTHER;
+
+    public FileEntry(String name, String relativePath, String absolutePath,
+                     long size, long lastModified) {
+        this.name = name;
+        this.relativePath = relativePath;
+        this.absolutePath = absolutePath;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 是否为Java源文件
+     *
+     * @return 文件名以.java结尾时返回true
+     */
+    public boolean isJavaFile() {
+        return name.endsWith(".java");
+    }
+
+    // Getter和Setter方法
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public FileRole getRole() {
+        return role;
+    }
+
+    public void setRole(FileRole role) {
+        this.role = role;
+    }
+}
@@ -0,0 +1,27 @@
+package com.coveragetool.scanner;
+
+/**
+ * 文件枚举方式枚举 - 决定扫描时如何列出项目文件
+ */
+public enum FileEnumeration {
+    /**
+     * 遍历文件系统 - 列出磁盘上的所有目录和文件
+     */
+    FILE_SYSTEM("遍历文件系统"),
+
+    /**
+     * Git索引 - 只列出Git索引中跟踪的文件，不遍历目录
+     * 未跟踪的构建输出、依赖目录等天然被跳过；项目不是Git仓库时退回到遍历文件系统
+     */
+    GIT_INDEX("Git跟踪的文件");
+
+    private final String displayName;
+
+    FileEnumeration(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,22 @@
+package com.coveragetool.scanner;
+
+/**
+ * 文件角色枚举 - 标识文件在项目中的用途
+ */
+public enum FileRole {
+
+    /**
+     * 位于源码目录下的文件
+     */
+    SOURCE,
+
+    /**
+     * 位于测试目录下的文件
+     */
+    TEST,
+
+    /**
+     * 其他文件
+     */
+    OTHER
+}
@@ -0,0 +1,143 @@
+package com.coveragetool.scanner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件树节点 - 一次目录遍历得到的目录快照
+ *
+ * 每个节点对应磁盘上的一个目录，记录目录自身的修改时间、
+ * 直接包含的文件（连同遍历时已取得的文件属性）以及子目录。
+ * 扫描器基于这棵树派生出Java文件列表等视图，避免重复访问磁盘。
+ */
+public class FileTreeNode {
+
+    /**
+     * 目录名称
+     */
+    private final String name;
+
+    /**
+     * 相对于项目根目录的路径（使用/分隔），根目录为空字符串
+     */
+    private final String relativePath;
+
+    /**
+     * 目录的绝对路径
+     */
+    private final String absolutePath;
+
+    /**
+     * 目录的最后修改时间（毫秒）
+     */
+    private long lastModified;
+
+    /**
+     * 是否属于被排除的目录（如隐藏目录、target、build）
+     * 位于源码/测试根目录内的被排除目录仍会被遍历以构建目录树，
+     * 但其中的文件不计入项目Java文件列表
+     */
+    private boolean excluded;
+
+    /**
+     * 是否有直接子目录被剪枝而未进入
+     */
+    private boolean pruned;
+    
+    /**
+     * 子树是否被完整遍历
+     * 若子树中有目录被剪枝而未进入，则为false
+     */
+    private boolean complete = true;
+
+    /**
+     * 目录下的文件列表（按名称排序）
+     */
+    private final List<FileEntry> files = new ArrayList<>();
+
+    /**
+     * 子目录列表（按名称排序）
+     */
+    private final List<FileTreeNode> directories = new ArrayList<>();
+
+    public FileTreeNode(String name, String relativePath, String absolutePath) {
+        this.name = name;
+        this.relativePath = relativePath;
+        this.absolutePath = absolutePath;
+    }
+
+    /**
+     * 按顺序收集树中所有Java文件的绝对路径
+     *
+     * 先收集当前目录的文件，再依次收集各子目录，跳过被排除的子树。
+     *
+     * @param javaFiles 用于收集路径的列表
+     */
+    public void collectJavaFiles(List<String> javaFiles) {
+        if (excluded) {
+            return;
+        }
+        for (FileEntry file : files) {
+            if (file.isJavaFile()) {
+                javaFiles.add(file.getAbsolutePath());
+            }
+        }
+        for (FileTreeNode directory : directories) {
+            directory.collectJavaFiles(javaFiles);
+        }
+    }
+
+    // Getter和Setter方法
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public boolean isExcluded() {
+        return excluded;
+    }
+
+    public void setExcluded(boolean excluded) {
+        this.excluded = excluded;
+    }
+
+    public boolean isPruned() {
+        return pruned;
+    }
+
+    public void setPruned(boolean pruned) {
+        this.pruned = pruned;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<FileEntry> getFiles() {
+        return files;
+    }
+
+    public List<FileTreeNode> getDirectories() {
+        return directories;
+    }
+}
@@ -0,0 +1,218 @@
+package com.coveragetool.scanner;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Git索引文件枚举器 - 从Git索引（.git/index）构建文件树
+ *
+ * 索引中记录了所有被跟踪文件的路径、大小和修改时间，读取索引即可得到项目文件列表，
+ * 不需要逐个列出目录。未跟踪的构建输出、node_modules、IDE文件等不在索引中，天然被跳过。
+ *
+ * 生成的文件树与ProjectFileWalker遵循相同的规则：
+ * 1. 被排除的目录（隐藏目录、target、build）在完整遍历根目录之外被剪枝
+ * 2. 完整遍历根目录内保留所有文件，其他位置只保留.java文件
+ * 3. 同一目录下的条目按名称排序
+ * 4. 被路径过滤器排除的目录和文件被跳过
+ *
+ * 与遍历文件系统的差异：
+ * 1. 未跟踪（尚未git add）的文件不会出现
+ * 2. 文件大小和修改时间取自索引，反映的是最近一次更新索引时的状态
+ * 3. 目录不记录修改时间；每个目录只检查一次是否存在，已从磁盘删除的目录被跳过
+ * 4. 子模块和启用了sparse checkout而未检出的文件被跳过
+ */
+public class GitIndexFileLister {
+
+    /**
+     * 被剪枝或已不存在的目录
+     */
+    private static final DirectoryState SKIPPED = new DirectoryState(null, false, false);
+
+    private final ProjectFileWalker fileWalker;
+
+    /**
+     * @param fileWalker 文件遍历器，沿用其目录排除规则
+     */
+    public GitIndexFileLister(ProjectFileWalker fileWalker) {
+        this.fileWalker = fileWalker;
+    }
+
+    /**
+     * 从Git索引构建项目的文件树
+     *
+     * 项目可以是Git工作区的子目录，此时只列出该目录下的文件。
+     *
+     * @param projectRoot 项目根目录
+     * @param fullRoots 需要完整保留的目录（相对于项目根目录，使用/分隔），如src/main/java
+     * @param filter 路径过滤器
+     * @return 文件树根节点；项目不在Git工作区内或读取索引失败时返回null
+     */
+    public FileTreeNode list(Path projectRoot, Collection<String> fullRoots, PathFilter filter) {
+        Path root = projectRoot.toAbsolutePath();
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(root.toFile());
+        if (builder.getGitDir() == null) {
+            return null;
+        }
+
+        try (Repository repository = builder.setMustExist(true).build()) {
+            if (repository.isBare()) {
+                return null;
+            }
+            String prefix = workTreePrefix(repository.getWorkTree(), root);
+            if (prefix == null) {
+                return null;
+            }
+            DirCache index = repository.readDirCache();
+            return buildTree(root, prefix, index, new HashSet<>(fullRoots), filter);
+        } catch (IOException e) {
+            System.err.println("读取Git索引失败，改用遍历文件系统: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 计算项目根目录相对于Git工作区的路径
+     *
+     * @return 相对路径（使用/分隔），项目就是工作区根目录时为空字符串，不在工作区内时返回null
+     */
+    private String workTreePrefix(File workTree, Path projectRoot) throws IOException {
+        Path workTreePath = workTree.toPath().toRealPath();
+        Path rootPath = projectRoot.toRealPath();
+        if (!rootPath.startsWith(workTreePath)) {
+            return null;
+        }
+        return workTreePath.relativize(rootPath).toString().replace('\\', '/');
+    }
+
+    private FileTreeNode buildTree(Path root, String prefix, DirCache index, Set<String> fullRoots,
+                                   PathFilter filter) {
+        Path fileName = root.getFileName();
+        FileTreeNode rootNode = new FileTreeNode(fileName != null ? fileName.toString() : root.toString(),
+                                                 "", root.toString());
+        Map<String, DirectoryState> directories = new HashMap<>();
+        directories.put("", new DirectoryState(rootNode, fullRoots.contains(""), false));
+
+        // 路径为空时返回全部条目
+        DirCacheEntry[] entries = index.getEntriesWithin(prefix);
+        String lastPath = null;
+        for (DirCacheEntry entry : entries) {
+            String path = entry.getPathString();
+            // 合并冲突时同一路径有多个阶段的条目，只取第一个
+            if (path.equals(lastPath)) {
+                continue;
+            }
+            lastPath = path;
+            if (entry.isSkipWorkTree() || FileMode.GITLINK.equals(entry.getFileMode())) {
+                continue;
+            }
+
+            String relativePath = prefix.isEmpty() ? path : path.substring(prefix.length() + 1);
+            int slash = relativePath.lastIndexOf('/');
+            String name = relativePath.substring(slash + 1);
+            DirectoryState directory = directory(root, slash < 0 ? "" : relativePath.substring(0, slash),
+                                                 directories, fullRoots, filter);
+            if (directory == SKIPPED) {
+                continue;
+            }
+            if ((directory.inside || name.endsWith(".java")) && !filter.excludesFile(relativePath)) {
+                directory.node.getFiles().add(new FileEntry(name, relativePath,
+                    directory.node.getAbsolutePath() + File.separator + name,
+                    entry.getLength(), entry.getLastModifiedInstant().toEpochMilli()));
+            }
+        }
+
+        // 完整遍历根目录即使没有被跟踪的文件也保留，与遍历文件系统的结果一致
+        for (String fullRoot : fullRoots) {
+            if (!fullRoot.isEmpty() && Files.isDirectory(root.resolve(fullRoot))) {
+                directory(root, fullRoot, directories, fullRoots, filter);
+            }
+        }
+
+        finish(rootNode);
+        return rootNode;
+    }
+
+    /**
+     * 获取（必要时创建）目录节点及其所有上级目录
+     *
+     * @return 目录状态，目录被剪枝或已从磁盘删除时返回SKIPPED
+     */
+    private DirectoryState directory(Path root, String relativePath, Map<String, DirectoryState> directories,
+                                     Set<String> fullRoots, PathFilter filter) {
+        DirectoryState state = directories.get(relativePath);
+        if (state != null) {
+            return state;
+        }
+
+        int slash = relativePath.lastIndexOf('/');
+        DirectoryState parent = directory(root, slash < 0 ? "" : relativePath.substring(0, slash),
+                                          directories, fullRoots, filter);
+        String name = relativePath.substring(slash + 1);
+        if (parent == SKIPPED) {
+            state = SKIPPED;
+        } else {
+            boolean inside = parent.inside || fullRoots.contains(relativePath);
+            boolean excluded = parent.excluded || fileWalker.isExcludedDirectory(name);
+            String absolutePath = parent.node.getAbsolutePath() + File.separator + name;
+            if ((excluded && !inside) || filter.excludesDirectory(relativePath)) {
+                // 剪枝：与遍历文件系统时一样标记父目录
+                parent.node.setPruned(true);
+                parent.node.setComplete(false);
+                state = SKIPPED;
+            } else if (!Files.isDirectory(root.resolve(relativePath))) {
+                // 已从磁盘删除但尚未提交删除
+                state = SKIPPED;
+            } else {
+                FileTreeNode node = new FileTreeNode(name, relativePath, absolutePath);
+                node.setExcluded(excluded);
+                parent.node.getDirectories().add(node);
+                state = new DirectoryState(node, inside, excluded);
+            }
+        }
+        directories.put(relativePath, state);
+        return state;
+    }
+
+    /**
+     * 按名称排序所有条目，并向上汇总完整性标记
+     */
+    private void finish(FileTreeNode node) {
+        node.getFiles().sort(Comparator.comparing(FileEntry::getName));
+        node.getDirectories().sort(Comparator.comparing(FileTreeNode::getName));
+        for (FileTreeNode child : node.getDirectories()) {
+            finish(child);
+            if (!child.isComplete()) {
+                node.setComplete(false);
+            }
+        }
+    }
+
+    /**
+     * 构建过程中的目录状态
+     */
+    private static class DirectoryState {
+        final FileTreeNode node;
+        final boolean inside;
+        final boolean excluded;
+
+        DirectoryState(FileTreeNode node, boolean inside, boolean excluded) {
+            this.node = node;
+            this.inside = inside;
+            this.excluded = excluded;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.coveragetool.scanner;
+
+import com.coveragetool.model.ProjectType;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 模块探测器 - 识别多模块Maven/Gradle项目中的子模块
+ *
+ * Maven：读取pom.xml中的modules（包括profiles中声明的modules），并递归读取子模块的pom.xml。
+ * Gradle：读取settings.gradle或settings.gradle.kts中的include声明。
+ *
+ * 返回的模块路径相对于项目根目录、使用/分隔，根目录本身以空字符串表示且总在第一位。
+ * 位于项目根目录之外或不存在的模块会被忽略。
+ */
+public class ModuleDetector {
+
+    /**
+     * Gradle include语句，支持include 'a', ':b:c'和include(":a", ":b")两种写法
+     */
+    private static final Pattern GRADLE_INCLUDE = Pattern.compile(
+        "\\binclude\\s*\\(?\\s*((?:[\"'][^\"'\\n]+[\"']\\s*,?\\s*)+)");
+
+    /**
+     * include语句中的单个项目路径
+     */
+    private static final Pattern QUOTED = Pattern.compile("[\"']([^\"'\\n]+)[\"']");
+
+    /**
+     * Gradle脚本中的注释
+     */
+    private static final Pattern COMMENTS = Pattern.compile("(?s)/\\*.*?\\*/|//[^\\n]*");
+
+    /**
+     * 探测项目的所有模块
+     *
+     * @param projectRoot 项目根目录
+     * @param projectType 项目类型
+     * @return 模块路径列表（相对于项目根目录），第一个元素为根目录（空字符串）
+     */
+    public List<String> detectModules(File projectRoot, ProjectType projectType) {
+        Set<String> modules = new LinkedHashSet<>();
+        modules.add("");
+
+        Path root = projectRoot.toPath().toAbsolutePath().normalize();
+        if (projectType == ProjectType.MAVEN) {
+            collectMavenModules(root, root, modules, new HashSet<>());
+        } else if (projectType == ProjectType.GRADLE) {
+            collectGradleModules(root, modules);
+        }
+
+        return new ArrayList<>(modules);
+    }
+
+    /**
+     * 递归收集Maven模块
+     *
+     * @param root 项目根目录
+     * @param moduleDir 当前模块目录
+     * @param modules 收集结果
+     * @param visited 已读取的模块目录，避免模块互相引用导致死循环
+     */
+    private void collectMavenModules(Path root, Path moduleDir, Set<String> modules, Set<Path> visited) {
+        if (!visited.add(moduleDir)) {
+            return;
+        }
+        File pom = moduleDir.resolve("pom.xml").toFile();
+        if (!pom.isFile()) {
+            return;
+        }
+
+        for (String module : readMavenModules(pom)) {
+            Path childDir = moduleDir.resolve(module).normalize();
+            // module也可以直接指向子模块的pom文件
+            if (childDir.toString().endsWith(".xml")) {
+                childDir = childDir.getParent();
+            }
+            if (childDir == null || !childDir.startsWith(root) || !childDir.toFile().isDirectory()) {
+                continue;
+            }
+            modules.add(relativePath(root, childDir));
+            collectMavenModules(root, childDir, modules, visited);
+        }
+    }
+
+    /**
+     * 读取pom.xml中声明的模块
+     *
+     * @param pom pom.xml文件
+     * @return 模块路径列表（相对于pom所在目录）
+     */
+    private List<String> readMavenModules(File pom) {
+        List<String> modules = new ArrayList<>();
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            // 解析错误由下面统一输出，不使用默认错误处理器重复打印
+            builder.setErrorHandler(new DefaultHandler());
+            Document document = builder.parse(pom);
+
+            NodeList moduleNodes = document.getElementsByTagName("module");
+            for (int i = 0; i < moduleNodes.getLength(); i++) {
+                Node node = moduleNodes.item(i);
+                Node parent = node.getParentNode();
+                if (parent instanceof Element && "modules".equals(((Element) parent).getTagName())) {
+                    String module = node.getTextContent().trim();
+                    if (!module.isEmpty()) {
+                        modules.add(module);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("解析pom.xml失败: " + pom + " - " + e.getMessage());
+        }
+        return modules;
+    }
+
+    /**
+     * 收集Gradle模块
+     *
+     * include声明中的项目路径以:分隔，如:core:api对应目录core/api。
+     *
+     * @param root 项目根目录
+     * @param modules 收集结果
+     */
+    private void collectGradleModules(Path root, Set<String> modules) {
+        File settings = root.resolve("settings.gradle").toFile();
+        if (!settings.isFile()) {
+            settings = root.resolve("settings.gradle.kts").toFile();
+        }
+        if (!settings.isFile()) {
+            return;
+        }
+
+        String content;
+        try {
+            content = new String(Files.readAllBytes(settings.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("读取Gradle设置文件失败: " + settings + " - " + e.getMessage());
+            return;
+        }
+        content = COMMENTS.matcher(content).replaceAll("");
+
+        Matcher include = GRADLE_INCLUDE.matcher(content);
+        while (include.find()) {
+            Matcher quoted = QUOTED.matcher(include.group(1));
+            while (quoted.find()) {
+                String projectPath = quoted.group(1).trim();
+                while (projectPath.startsWith(":")) {
+                    projectPath = projectPath.substring(1);
+                }
+                if (projectPath.isEmpty()) {
+                    continue;
+                }
+                Path moduleDir = root.resolve(projectPath.replace(':', '/')).normalize();
+                if (moduleDir.startsWith(root) && moduleDir.toFile().isDirectory()) {
+                    modules.add(relativePath(root, moduleDir));
+                }
+            }
+        }
+    }
+
+    private static String relativePath(Path root, Path dir) {
+        return root.relativize(dir).toString().replace('\\', '/');
+    }
+}
@@ -0,0 +1,516 @@
+package com.coveragetool.scanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 路径过滤器 - 按包含/排除规则过滤项目中的文件和目录
+ *
+ * 规则在创建过滤器时一次编译，遍历和分析时直接匹配：
+ * 1. 排除规则使用.gitignore语法：不含/的规则匹配任意层级的名称（如generated），
+ *    含/的规则从项目根目录开始匹配（如src/test/resources/fixtures），以/结尾的规则只匹配目录，
+ *    以!开头的规则重新包含之前排除的路径，后面的规则优先；不含通配符的规则按字符串比较
+ * 2. 包含规则使用相同的通配符（*、**、?、[...]）；设置了包含规则时只保留匹配任一规则的文件。
+ *    各包含规则开头不含通配符的目录组成前缀树，不在任何前缀上的目录无需进入
+ * 3. 可选读取.gitignore（项目根目录、各模块目录）和.git/info/exclude中的规则，
+ *    它们排在用户的排除规则之前，因此用户规则优先
+ *
+ * 目录被排除时整个子树都被跳过，与git一样，子树中的文件无法再被重新包含。
+ * 所有路径都相对于项目根目录，使用/分隔。
+ */
+public class PathFilter {
+
+    /**
+     * 不过滤任何路径
+     */
+    public static final PathFilter NONE = new PathFilter(
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), false, null);
+
+    /**
+     * 用户指定的包含规则（原文）
+     */
+    private final List<String> includePatterns;
+
+    /**
+     * 用户指定的排除规则（原文）
+     */
+    private final List<String> excludePatterns;
+
+    /**
+     * 按顺序生效的排除规则（.gitignore规则在前，用户规则在后）
+     */
+    private final List<Rule> excludeRules;
+
+    /**
+     * 包含规则
+     */
+    private final List<Rule> includeRules;
+
+    /**
+     * 是否读取.gitignore
+     */
+    private final boolean respectGitignore;
+
+    /**
+     * 包含规则的目录前缀树，为null时任何目录都可能包含匹配的文件
+     */
+    private final PrefixNode includePrefixes;
+
+    /**
+     * 参与比较的规则全文，规则相同的过滤器结果相同
+     */
+    private final String key;
+
+    private PathFilter(List<String> includePatterns, List<String> excludePatterns,
+                       List<Rule> gitignoreRules, boolean respectGitignore, PrefixNode includePrefixes) {
+        this.includePatterns = includePatterns;
+        this.excludePatterns = excludePatterns;
+        this.respectGitignore = respectGitignore;
+        this.includePrefixes = includePrefixes;
+
+        this.excludeRules = new ArrayList<>(gitignoreRules);
+        for (String pattern : excludePatterns) {
+            Rule rule = Rule.parse(pattern, "");
+            if (rule != null) {
+                excludeRules.add(rule);
+            }
+        }
+        this.includeRules = new ArrayList<>();
+        for (String pattern : includePatterns) {
+            Rule rule = Rule.parse(pattern, "");
+            if (rule != null && !rule.negate) {
+                includeRules.add(rule);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Rule rule : excludeRules) {
+            builder.append(rule.negate ? '!' : '-').append(rule.base).append(':')
+                   .append(rule.source).append('\n');
+        }
+        for (Rule rule : includeRules) {
+            builder.append('+').append(rule.source).append('\n');
+        }
+        this.key = builder.toString();
+    }
+
+    /**
+     * 编译包含/排除规则
+     *
+     * 需要读取.gitignore时，还需调用withGitignore加载项目中的.gitignore文件。
+     *
+     * @param includePatterns 包含规则，可为null
+     * @param excludePatterns 排除规则，可为null
+     * @param respectGitignore 是否同时应用.gitignore中的规则
+     * @return 路径过滤器，没有任何规则时返回NONE
+     */
+    public static PathFilter compile(List<String> includePatterns, List<String> excludePatterns,
+                                     boolean respectGitignore) {
+        List<String> includes = normalize(includePatterns);
+        List<String> excludes = normalize(excludePatterns);
+        if (includes.isEmpty() && excludes.isEmpty() && !respectGitignore) {
+            return NONE;
+        }
+        return new PathFilter(includes, excludes, Collections.emptyList(), respectGitignore,
+                              buildPrefixTree(includes));
+    }
+
+    /**
+     * 加载项目中的.gitignore规则
+     *
+     * 读取.git/info/exclude、项目根目录和各模块目录下的.gitignore。
+     * 模块目录中的规则只作用于该模块内的路径。
+     *
+     * @param projectRoot 项目根目录
+     * @param directories 需要读取.gitignore的目录（相对于项目根目录），如各模块目录
+     * @return 包含.gitignore规则的新过滤器；未开启.gitignore时返回自身
+     */
+    public PathFilter withGitignore(File projectRoot, Collection<String> directories) {
+        if (!respectGitignore) {
+            return this;
+        }
+        List<Rule> rules = new ArrayList<>();
+        readRules(new File(projectRoot, ".git/info/exclude"), "", rules);
+        readRules(new File(projectRoot, ".gitignore"), "", rules);
+        for (String directory : directories) {
+            if (!directory.isEmpty()) {
+                readRules(new File(projectRoot, directory + "/.gitignore"), directory, rules);
+            }
+        }
+        return new PathFilter(includePatterns, excludePatterns, rules, true, includePrefixes);
+    }
+
+    /**
+     * 判断目录是否应整体跳过
+     *
+     * @param relativePath 目录路径（相对于项目根目录）
+     * @return 目录被排除，或其中不可能有匹配包含规则的文件时返回true
+     */
+    public boolean excludesDirectory(String relativePath) {
+        if (this == NONE || relativePath.isEmpty()) {
+            return false;
+        }
+        if (includePrefixes != null && !includePrefixes.mayContain(relativePath)) {
+            return true;
+        }
+        return isExcluded(relativePath, true);
+    }
+
+    /**
+     * 判断文件是否应跳过
+     *
+     * 只检查文件本身，所在目录的排除由遍历时的excludesDirectory负责。
+     *
+     * @param relativePath 文件路径（相对于项目根目录）
+     * @return 文件被排除或不匹配任何包含规则时返回true
+     */
+    public boolean excludesFile(String relativePath) {
+        if (this == NONE) {
+            return false;
+        }
+        if (isExcluded(relativePath, false)) {
+            return true;
+        }
+        if (includeRules.isEmpty()) {
+            return false;
+        }
+        String name = nameOf(relativePath);
+        for (Rule rule : includeRules) {
+            if (rule.matches(relativePath, name, false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断文件及其所有上级目录是否都未被排除
+     *
+     * 用于不经过目录遍历、直接检查单个文件的场景（如使用已有的文件列表时）。
+     *
+     * @param relativePath 文件路径（相对于项目根目录）
+     * @return 文件应保留时返回true
+     */
+    public boolean accepts(String relativePath) {
+        if (this == NONE) {
+            return true;
+        }
+        int slash = relativePath.lastIndexOf('/');
+        return (slash < 0 || acceptsDirectory(relativePath.substring(0, slash)))
+            && !excludesFile(relativePath);
+    }
+
+    /**
+     * 判断目录及其所有上级目录是否都未被排除
+     *
+     * @param relativePath 目录路径（相对于项目根目录）
+     * @return 目录需要进入时返回true
+     */
+    public boolean acceptsDirectory(String relativePath) {
+        if (this == NONE) {
+            return true;
+        }
+        int slash = relativePath.indexOf('/');
+        while (slash >= 0) {
+            if (excludesDirectory(relativePath.substring(0, slash))) {
+                return false;
+            }
+            slash = relativePath.indexOf('/', slash + 1);
+        }
+        return !excludesDirectory(relativePath);
+    }
+
+    /**
+     * 规则全文，用于判断两次扫描使用的规则是否相同
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    public boolean isRespectGitignore() {
+        return respectGitignore;
+    }
+
+    private boolean isExcluded(String relativePath, boolean directory) {
+        if (excludeRules.isEmpty()) {
+            return false;
+        }
+        String name = nameOf(relativePath);
+        boolean excluded = false;
+        for (Rule rule : excludeRules) {
+            // 后面的规则优先，只有可能改变结果的规则才需要匹配
+            if (rule.negate == excluded && rule.matches(relativePath, name, directory)) {
+                excluded = !rule.negate;
+            }
+        }
+        return excluded;
+    }
+
+    private static String nameOf(String relativePath) {
+        return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    }
+
+    private static List<String> normalize(List<String> patterns) {
+        List<String> result = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null && !pattern.trim().isEmpty()) {
+                    result.add(pattern.trim().replace('\\', '/'));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void readRules(File file, String base, List<Rule> rules) {
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                Rule rule = Rule.parse(line, base);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("读取忽略规则失败: " + file + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * 构建包含规则的目录前缀树
+     *
+     * @return 前缀树；没有包含规则，或有规则不能确定前缀（如不含/的规则、以通配符开头的规则）时返回null
+     */
+    private static PrefixNode buildPrefixTree(List<String> includePatterns) {
+        if (includePatterns.isEmpty()) {
+            return null;
+        }
+        PrefixNode root = new PrefixNode();
+        for (String pattern : includePatterns) {
+            String path = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+            if (pattern.startsWith("!") || path.indexOf('/') < 0) {
+                return null;
+            }
+            String[] segments = path.split("/");
+            PrefixNode node = root;
+            // 最后一段是文件名，只有目录段参与前缀
+            for (int i = 0; i < segments.length - 1 && !Rule.hasWildcard(segments[i]); i++) {
+                node = node.children.computeIfAbsent(segments[i], s -> new PrefixNode());
+            }
+            if (node == root) {
+                return null;
+            }
+            node.terminal = true;
+        }
+        return root;
+    }
+
+    /**
+     * 前缀树节点，每个节点对应一级目录
+     */
+    private static class PrefixNode {
+        final Map<String, PrefixNode> children = new HashMap<>();
+        boolean terminal;
+
+        /**
+         * 判断目录中是否可能有匹配的文件：目录位于某个前缀之内，或是某个前缀的上级目录
+         */
+        boolean mayContain(String relativePath) {
+            PrefixNode node = this;
+            int start = 0;
+            while (start <= relativePath.length()) {
+                if (node.terminal) {
+                    return true;
+                }
+                int slash = relativePath.indexOf('/', start);
+                int end = slash < 0 ? relativePath.length() : slash;
+                node = node.children.get(relativePath.substring(start, end));
+                if (node == null) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 单条编译后的规则
+     */
+    private static class Rule {
+
+        /**
+         * 规则原文（去掉前缀!之后）
+         */
+        final String source;
+
+        /**
+         * 规则所在目录（相对于项目根目录），规则只作用于该目录内的路径
+         */
+        final String base;
+
+        final boolean negate;
+        final boolean directoryOnly;
+
+        /**
+         * 是否只匹配名称（规则中不含/）
+         */
+        final boolean matchName;
+
+        /**
+         * 不含通配符的规则按字符串比较，否则使用正则表达式
+         */
+        final String literal;
+        final Pattern pattern;
+
+        /**
+         * 以/**结尾的规则同时匹配目录本身，使整个目录在遍历时被跳过
+         */
+        final Pattern directoryPattern;
+
+        private Rule(String source, String base, boolean negate, boolean directoryOnly, boolean matchName,
+                     String glob) {
+            this.source = source;
+            this.base = base;
+            this.negate = negate;
+            this.directoryOnly = directoryOnly;
+            this.matchName = matchName;
+            if (hasWildcard(glob)) {
+                this.literal = null;
+                this.pattern = Pattern.compile(globToRegex(glob));
+            } else {
+                this.literal = glob;
+                this.pattern = null;
+            }
+            this.directoryPattern = !negate && glob.endsWith("/**") && glob.length() > 3
+                ? Pattern.compile(globToRegex(glob.substring(0, glob.length() - 3)))
+                : null;
+        }
+
+        /**
+         * 解析一行规则
+         *
+         * @return 规则，空行和注释返回null
+         */
+        static Rule parse(String line, String base) {
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("#")) {
+                return null;
+            }
+            boolean negate = text.startsWith("!");
+            if (negate) {
+                text = text.substring(1);
+            }
+            if (text.startsWith("\\")) {
+                // \#、\!转义
+                text = text.substring(1);
+            }
+            String source = text;
+            boolean directoryOnly = text.endsWith("/");
+            while (text.endsWith("/")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            boolean matchName = text.indexOf('/') < 0;
+            if (text.startsWith("/")) {
+                text = text.substring(1);
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            return new Rule(source, base, negate, directoryOnly, matchName, text);
+        }
+
+        boolean matches(String relativePath, String name, boolean directory) {
+            String path = relativePath;
+            if (!base.isEmpty()) {
+                if (!relativePath.startsWith(base + "/")) {
+                    return false;
+                }
+                path = relativePath.substring(base.length() + 1);
+            }
+            if (directory && directoryPattern != null && directoryPattern.matcher(path).matches()) {
+                return true;
+            }
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            String target = matchName ? name : path;
+            return literal != null ? literal.equals(target) : pattern.matcher(target).matches();
+        }
+
+        static boolean hasWildcard(String glob) {
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' || c == '?' || c == '[') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 将通配符转换为正则表达式
+         *
+         * **匹配任意层级（包括零层）目录，*和?不跨越/，[...]为字符集合（[!...]表示取反）。
+         */
+        static String globToRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int length = glob.length();
+            for (int i = 0; i < length; i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < length && glob.charAt(i + 1) == '*') {
+                        boolean segmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                        if (segmentStart && i + 2 < length && glob.charAt(i + 2) == '/') {
+                            regex.append("(?:.*/)?");
+                            i += 2;
+                        } else {
+                            regex.append(".*");
+                            i++;
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    int close = glob.indexOf(']', i + 2);
+                    if (close < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String set = glob.substring(i + 1, close);
+                        if (set.startsWith("!")) {
+                            set = "^" + set.substring(1);
+                        }
+                        regex.append('[').append(set.replace("\\", "\\\\")).append(']');
+                        i = close;
+                    }
+                } else if ("\\.+()^$|{}".indexOf(c) >= 0) {
+                    regex.append('\\').append(c);
+                } else {
+                    regex.append(c);
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.coveragetool.scanner;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 项目文件索引 - 扫描阶段构建、供后续分析复用的文件信息
+ *
+ * 索引基于一次目录遍历得到的文件树构建，记录每个Java文件的路径、大小、
+ * 修改时间以及在项目中的角色（源码/测试）。代码分析和Git blame统计
+ * 通过索引获取文件列表，不必再次遍历磁盘。
+ */
+public class ProjectFileIndex {
+
+    /**
+     * 项目根目录的绝对路径
+     */
+    private final Path projectRoot;
+
+    /**
+     * 文件树根节点
+     */
+    private final FileTreeNode root;
+
+    /**
+     * 目录索引
+     * Key：相对路径，Value：目录节点
+     */
+    private final Map<String, FileTreeNode> directories = new HashMap<>();
+
+    /**
+     * 文件索引
+     * Key：文件绝对路径，Value：文件条目
+     */
+    private final Map<String, FileEntry> filesByPath = new HashMap<>();
+
+    /**
+     * 树中所有Java文件（按遍历顺序）
+     */
+    private final List<FileEntry> javaFiles = new ArrayList<>();
+
+    /**
+     * 构造文件索引
+     *
+     * @param projectRoot 项目根目录
+     * @param root 文件树根节点
+     * @param sourceDirectories 源码目录列表（相对路径）
+     * @param testDirectories 测试目录列表（相对路径）
+     */
+    public ProjectFileIndex(Path projectRoot, FileTreeNode root,
+                            List<String> sourceDirectories, List<String> testDirectories) {
+        this.projectRoot = projectRoot.toAbsolutePath().normalize();
+        this.root = root;
+        indexDirectory(root);
+
+        // 标记文件角色，测试目录优先于源码目录
+        for (String sourceDir : sourceDirectories) {
+            markRole(directories.get(sourceDir), FileRole.SOURCE);
+        }
+        for (String testDir : testDirectories) {
+            markRole(directories.get(testDir), FileRole.TEST);
+        }
+    }
+
+    private void indexDirectory(FileTreeNode node) {
+        directories.put(node.getRelativePath(), node);
+        for (FileEntry file : node.getFiles()) {
+            filesByPath.put(file.getAbsolutePath(), file);
+            if (file.isJavaFile()) {
+                javaFiles.add(file);
+            }
+        }
+        for (FileTreeNode child : node.getDirectories()) {
+            indexDirectory(child);
+        }
+    }
+
+    private void markRole(FileTreeNode node, FileRole role) {
+        if (node == null) {
+            return;
+        }
+        for (FileEntry file : node.getFiles()) {
+            file.setRole(role);
+        }
+        for (FileTreeNode child : node.getDirectories()) {
+            markRole(child, role);
+        }
+    }
+
+    /**
+     * 查找目录下的所有Java文件
+     *
+     * 包含子目录中的文件，顺序与磁盘遍历一致（先文件后子目录，按名称排序）。
+     * 如果该目录不在索引中或其子树未被完整遍历，返回null，调用方应回退到磁盘遍历。
+     *
+     * @param directory 目录路径（相对于项目根目录，或位于项目内的绝对路径）
+     * @return Java文件列表，无法由索引回答时返回null
+     */
+    public List<FileEntry> findJavaFiles(String directory) {
+        FileTreeNode node = getDirectory(directory);
+        if (node == null || !node.isComplete()) {
+            return null;
+        }
+        List<FileEntry> result = new ArrayList<>();
+        collectJavaFiles(node, result);
+        return result;
+    }
+
+    private void collectJavaFiles(FileTreeNode node, List<FileEntry> result) {
+        for (FileEntry file : node.getFiles()) {
+            if (file.isJavaFile()) {
+                result.add(file);
+            }
+        }
+        for (FileTreeNode child : node.getDirectories()) {
+            collectJavaFiles(child, result);
+        }
+    }
+
+    /**
+     * 获取目录节点
+     *
+     * @param directory 目录路径（相对于项目根目录，或位于项目内的绝对路径）
+     * @return 目录节点，不存在时返回null
+     */
+    public FileTreeNode getDirectory(String directory) {
+        String relativePath = toRelativePath(directory);
+        return relativePath != null ? directories.get(relativePath) : null;
+    }
+
+    /**
+     * 按绝对路径获取文件条目
+     *
+     * @param absolutePath 文件绝对路径
+     * @return 文件条目，不存在时返回null
+     */
+    public FileEntry getFile(String absolutePath) {
+        return filesByPath.get(absolutePath);
+    }
+
+    /**
+     * 获取指定角色的所有Java文件
+     *
+     * @param role 文件角色
+     * @return Java文件列表
+     */
+    public List<FileEntry> getJavaFiles(FileRole role) {
+        List<FileEntry> result = new ArrayList<>();
+        for (FileEntry file : javaFiles) {
+            if (file.getRole() == role) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取所有Java文件
+     */
+    public List<FileEntry> getJavaFiles() {
+        return Collections.unmodifiableList(javaFiles);
+    }
+
+    public Path getProjectRoot() {
+        return projectRoot;
+    }
+
+    public FileTreeNode getRoot() {
+        return root;
+    }
+
+    /**
+     * 将目录路径规范化为相对于项目根目录、以/分隔的形式
+     *
+     * @param directory 目录路径
+     * @return 相对路径，位于项目之外时返回null
+     */
+    private String toRelativePath(String directory) {
+        if (directory == null) {
+            return null;
+        }
+        String path = directory.replace('\\', '/');
+        if (Paths.get(directory).isAbsolute()) {
+            Path absolute = Paths.get(directory).normalize();
+            if (!absolute.startsWith(projectRoot)) {
+                return null;
+            }
+            path = projectRoot.relativize(absolute).toString().replace('\\', '/');
+        }
+        while (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,470 @@
+package com.coveragetool.scanner;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 项目文件遍历器 - 基于NIO的并行目录遍历
+ *
+ * 每个目录由一个ForkJoin任务负责：任务用深度为1的Files.walkFileTree列出目录内容，
+ * 直接使用遍历提供的BasicFileAttributes区分文件和目录（不再额外stat），
+ * 然后把各子目录作为子任务并行展开。
+ *
+ * 遍历特性：
+ * 1. 隐藏目录、target和build目录在进入之前即被剪枝；但位于完整遍历根目录
+ *    （如src/main/java）内的被排除目录仍会遍历并标记为excluded，以便构建目录树
+ * 2. 完整遍历根目录内保留所有文件，其他位置只保留.java文件
+ * 3. 跟随符号链接，与Files.walkFileTree一样只与祖先目录的fileKey比较来检测链接成环：
+ *    指回祖先目录的链接不再进入，避免死循环；同一目录经不同路径可达时在每条路径下都会遍历，
+ *    不会因为并行任务的先后只保留其中一处
+ * 4. 同一目录下的条目按名称排序，结果与线程调度无关
+ * 5. 提供上次的扫描快照时，修改时间未变的目录直接复用快照中的目录列表（不重新列出目录），
+ *    只有修改时间变化的目录才重新列出。目录的修改时间只在直接增删或重命名条目时变化，
+ *    因此每个目录仍需读取一次自身属性，但文件数量多的目录不必逐个访问文件。
+ *    复用目录中的文件大小和修改时间取自快照，原地修改文件内容不会反映到文件条目上
+ * 6. 可指定路径过滤器：被排除的目录与构建输出目录一样在进入之前剪枝（完整遍历根目录内也不例外），
+ *    被排除的文件不加入文件树
+ */
+public class ProjectFileWalker {
+
+    /**
+     * 遍历专用的线程池
+     * 目录遍历以I/O为主，使用独立线程池避免占用公共ForkJoin池
+     */
+    private static final ForkJoinPool WALK_POOL =
+        new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    
+    /**
+     * 修改时间与快照时间的最小间隔（毫秒）
+     * 修改时间距快照开始不足该间隔的目录可能在遍历期间又被修改（且修改时间精度有限），不复用
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    /**
+     * 并行遍历指定目录
+     *
+     * @param rootDir 要遍历的根目录
+     * @return 根目录对应的文件树节点
+     */
+    public FileTreeNode walk(Path rootDir) {
+        return walk(rootDir, Collections.emptySet());
+    }
+
+    /**
+     * 并行遍历指定目录，并完整遍历给定的子目录
+     *
+     * @param rootDir 要遍历的根目录
+     * @param fullRoots 需要完整遍历的目录（相对于根目录，使用/分隔），如src/main/java
+     * @return 根目录对应的文件树节点
+     */
+    public FileTreeNode walk(Path rootDir, Collection<String> fullRoots) {
+        return walk(rootDir, fullRoots, null).getRoot();
+    }
+    
+    /**
+     * 基于上次的扫描快照重新遍历
+     *
+     * 快照的项目路径或完整遍历目录与本次不同时忽略快照，完整遍历。
+     *
+     * @param rootDir 要遍历的根目录
+     * @param fullRoots 需要完整遍历的目录（相对于根目录，使用/分隔）
+     * @param previous 上次的扫描快照，可为null
+     * @return 本次遍历的扫描快照
+     */
+    public ScanSnapshot walk(Path rootDir, Collection<String> fullRoots, ScanSnapshot previous) {
+        return walk(rootDir, fullRoots, PathFilter.NONE, previous);
+    }
+    
+    /**
+     * 按路径过滤器遍历，并基于上次的扫描快照重新验证
+     *
+     * 快照的项目路径、完整遍历目录或过滤规则与本次不同时忽略快照，完整遍历。
+     *
+     * @param rootDir 要遍历的根目录
+     * @param fullRoots 需要完整遍历的目录（相对于根目录，使用/分隔）
+     * @param filter 路径过滤器
+     * @param previous 上次的扫描快照，可为null
+     * @return 本次遍历的扫描快照
+     */
+    public ScanSnapshot walk(Path rootDir, Collection<String> fullRoots, PathFilter filter,
+                             ScanSnapshot previous) {
+        Path root = rootDir.toAbsolutePath();
+        long startedAt = System.currentTimeMillis();
+        Set<String> rootSet = new LinkedHashSet<>(fullRoots);
+        
+        if (previous != null && (!previous.getProjectPath().equals(root.toString())
+                || !new HashSet<>(previous.getFullRoots()).equals(rootSet)
+                || !previous.getFilterKey().equals(filter.getKey()))) {
+            previous = null;
+        }
+        
+        WalkContext context = new WalkContext(rootSet, filter,
+            previous != null ? previous.getCreatedAt() - RACY_INTERVAL_MILLIS : Long.MIN_VALUE);
+        Path fileName = root.getFileName();
+        WalkTask task = new WalkTask(root, fileName != null ? fileName.toString() : root.toString(),
+                                     "", context.fullRoots.contains(""), false,
+                                     previous != null ? previous.getRoot() : null, null, context);
+        FileTreeNode tree = WALK_POOL.invoke(task);
+        return new ScanSnapshot(root.toString(), startedAt, rootSet, filter.getKey(), tree,
+                                context.listedDirectories.get());
+    }
+    
+    /**
+     * 重新遍历文件树中的某个目录
+     *
+     * 该目录本身总是重新列出；其子目录按修改时间判断，未变化的复用原有节点的目录列表。
+     * 用于文件变化后局部更新文件树。
+     *
+     * @param directory 原文件树中的目录节点
+     * @param fullRoots 需要完整遍历的目录（相对于项目根目录，使用/分隔）
+     * @param filter 原文件树使用的路径过滤器
+     * @return 新的目录节点，目录已不存在时返回null
+     */
+    public FileTreeNode rewalk(FileTreeNode directory, Collection<String> fullRoots, PathFilter filter) {
+        Path dir = Paths.get(directory.getAbsolutePath());
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        
+        String relativePath = directory.getRelativePath();
+        boolean insideFullRoot = false;
+        for (String fullRoot : fullRoots) {
+            if (fullRoot.isEmpty() || relativePath.equals(fullRoot) || relativePath.startsWith(fullRoot + "/")) {
+                insideFullRoot = true;
+                break;
+            }
+        }
+        
+        WalkContext context = new WalkContext(new HashSet<>(fullRoots), filter,
+            System.currentTimeMillis() - RACY_INTERVAL_MILLIS);
+        WalkTask task = new WalkTask(dir, directory.getName(), relativePath, insideFullRoot,
+                                     directory.isExcluded(), directory, ancestorsOf(dir, relativePath), context);
+        task.forceList = true;
+        return WALK_POOL.invoke(task);
+    }
+
+    /**
+     * 判断目录是否应被剪枝
+     *
+     * 跳过隐藏目录和构建输出目录。
+     *
+     * @param directoryName 目录名称
+     * @return 需要跳过时返回true
+     */
+    protected boolean isExcludedDirectory(String directoryName) {
+        return directoryName.startsWith(".") ||
+               directoryName.equals("target") ||
+               directoryName.equals("build");
+    }
+
+    /**
+     * 获取目录的唯一标识，用于检测符号链接成环
+     *
+     * 优先使用文件系统提供的fileKey（如Unix下的设备号+inode），
+     * 不支持时退化为真实路径。
+     */
+    private static Object directoryKey(Path dir, BasicFileAttributes attrs) {
+        Object key = attrs.fileKey();
+        if (key != null) {
+            return key;
+        }
+        try {
+            return dir.toRealPath();
+        } catch (IOException e) {
+            return dir.toAbsolutePath().normalize();
+        }
+    }
+
+    /**
+     * 获取文件树中某个目录的祖先目录链
+     *
+     * 按相对路径的层数逐级取上级目录读取标识，经由符号链接到达的目录，其上级也按链接所在的路径计算，
+     * 与完整遍历时传给该目录的祖先目录链一致。
+     *
+     * @param dir 目录
+     * @param relativePath 目录相对于项目根目录的路径
+     * @return 祖先目录链，位于项目根目录时为null
+     */
+    private static Ancestor ancestorsOf(Path dir, String relativePath) {
+        if (relativePath.isEmpty()) {
+            return null;
+        }
+        List<Path> parents = new ArrayList<>();
+        Path parent = dir.getParent();
+        for (int depth = relativePath.split("/").length; depth > 0 && parent != null; depth--) {
+            parents.add(parent);
+            parent = parent.getParent();
+        }
+        Ancestor ancestors = null;
+        for (int i = parents.size() - 1; i >= 0; i--) {
+            try {
+                Path path = parents.get(i);
+                ancestors = new Ancestor(directoryKey(path, Files.readAttributes(path, BasicFileAttributes.class)),
+                                         ancestors);
+            } catch (IOException e) {
+                // 无法读取的上级目录不参与成环检测
+            }
+        }
+        return ancestors;
+    }
+
+    /**
+     * 祖先目录链 - 从父目录到根目录的目录标识，不可变，子任务共享父任务的链
+     */
+    private static final class Ancestor {
+        final Object key;
+        final Ancestor parent;
+
+        Ancestor(Object key, Ancestor parent) {
+            this.key = key;
+            this.parent = parent;
+        }
+
+        static boolean contains(Ancestor ancestors, Object key) {
+            for (Ancestor ancestor = ancestors; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.key.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 一次遍历共享的上下文
+     */
+    private static class WalkContext {
+
+        /**
+         * 需要完整遍历的目录
+         */
+        final Set<String> fullRoots;
+
+        /**
+         * 路径过滤器
+         */
+        final PathFilter filter;
+
+        /**
+         * 修改时间早于该时间的目录才允许复用快照中的目录列表
+         */
+        final long reusableBefore;
+
+        /**
+         * 重新列出内容的目录数量
+         */
+        final AtomicInteger listedDirectories = new AtomicInteger();
+
+        WalkContext(Set<String> fullRoots, PathFilter filter, long reusableBefore) {
+            this.fullRoots = fullRoots;
+            this.filter = filter;
+            this.reusableBefore = reusableBefore;
+        }
+    }
+
+    /**
+     * 单个目录的遍历任务
+     */
+    private class WalkTask extends RecursiveTask<FileTreeNode> {
+
+        private final Path dir;
+        private final String name;
+        private final String relativePath;
+        private final boolean insideFullRoot;
+        private final boolean excluded;
+
+        /**
+         * 快照中该目录的节点，没有快照时为null
+         */
+        private final FileTreeNode previous;
+
+        /**
+         * 祖先目录链，根目录为null
+         */
+        private final Ancestor ancestors;
+
+        private final WalkContext context;
+
+        /**
+         * 是否忽略修改时间，强制重新列出该目录
+         */
+        private boolean forceList;
+
+        WalkTask(Path dir, String name, String relativePath, boolean insideFullRoot, boolean excluded,
+                 FileTreeNode previous, Ancestor ancestors, WalkContext context) {
+            this.dir = dir;
+            this.name = name;
+            this.relativePath = relativePath;
+            this.insideFullRoot = insideFullRoot;
+            this.excluded = excluded;
+            this.previous = previous;
+            this.ancestors = ancestors;
+            this.context = context;
+        }
+
+        @Override
+        protected FileTreeNode compute() {
+            FileTreeNode node = new FileTreeNode(name, relativePath, dir.toString());
+            node.setExcluded(excluded);
+            List<WalkTask> subtasks = new ArrayList<>();
+
+            if (previous != null) {
+                BasicFileAttributes attrs = readAttributes();
+                Object key = attrs != null ? directoryKey(dir, attrs) : null;
+                if (key != null && Ancestor.contains(ancestors, key)) {
+                    // 快照之后目录被替换为指回祖先目录的符号链接
+                    return null;
+                }
+                if (attrs == null || forceList || !reuse(node, attrs, key, subtasks)) {
+                    list(node, subtasks);
+                }
+            } else {
+                list(node, subtasks);
+            }
+
+            node.getFiles().sort(Comparator.comparing(FileEntry::getName));
+            subtasks.sort(Comparator.comparing(t -> t.name));
+
+            // 并行展开所有子目录，按名称顺序收集结果
+            invokeAll(subtasks);
+            for (WalkTask subtask : subtasks) {
+                FileTreeNode child = subtask.join();
+                if (child == null) {
+                    continue;
+                }
+                node.getDirectories().add(child);
+                if (!child.isComplete()) {
+                    node.setComplete(false);
+                }
+            }
+
+            return node;
+        }
+
+        private BasicFileAttributes readAttributes() {
+            try {
+                return Files.readAttributes(dir, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 修改时间未变时复用快照中的目录列表
+         *
+         * @return 复用成功返回true；修改时间变化或过于接近快照时间时返回false，需要重新列出
+         */
+        private boolean reuse(FileTreeNode node, BasicFileAttributes attrs, Object key, List<WalkTask> subtasks) {
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (!attrs.isDirectory() || lastModified != previous.getLastModified()
+                    || lastModified >= context.reusableBefore) {
+                return false;
+            }
+
+            node.setLastModified(lastModified);
+            if (previous.isPruned()) {
+                node.setPruned(true);
+                node.setComplete(false);
+            }
+            for (FileEntry file : previous.getFiles()) {
+                // 文件角色由文件索引重新标记，因此复制条目而不是共享
+                node.getFiles().add(new FileEntry(file.getName(), file.getRelativePath(),
+                    file.getAbsolutePath(), file.getSize(), file.getLastModified()));
+            }
+            Ancestor childAncestors = new Ancestor(key, ancestors);
+            for (FileTreeNode child : previous.getDirectories()) {
+                String childName = child.getName();
+                boolean childInside = insideFullRoot || context.fullRoots.contains(child.getRelativePath());
+                boolean childExcluded = excluded || isExcludedDirectory(childName);
+                subtasks.add(new WalkTask(Paths.get(child.getAbsolutePath()), childName, child.getRelativePath(),
+                                          childInside, childExcluded, child, childAncestors, context));
+            }
+            return true;
+        }
+
+        /**
+         * 列出目录内容
+         */
+        private void list(FileTreeNode node, List<WalkTask> subtasks) {
+            Map<String, FileTreeNode> previousChildren = new HashMap<>();
+            if (previous != null) {
+                for (FileTreeNode child : previous.getDirectories()) {
+                    previousChildren.put(child.getName(), child);
+                }
+            }
+            context.listedDirectories.incrementAndGet();
+
+            try {
+                Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1,
+                                   new SimpleFileVisitor<Path>() {
+                    /**
+                     * 子目录的祖先目录链，列出当前目录本身时确定
+                     */
+                    private Ancestor childAncestors;
+
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) {
+                        // 深度0即当前目录本身
+                        node.setLastModified(attrs.lastModifiedTime().toMillis());
+                        childAncestors = new Ancestor(directoryKey(d, attrs), ancestors);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String fileName = file.getFileName().toString();
+                        String childPath = relativePath.isEmpty() ? fileName : relativePath + "/" + fileName;
+
+                        if (attrs.isDirectory()) {
+                            // 深度限制为1时，子目录也通过visitFile回调
+                            boolean childInside = insideFullRoot || context.fullRoots.contains(childPath);
+                            boolean childExcluded = excluded || isExcludedDirectory(fileName);
+                            if ((childExcluded && !childInside) || context.filter.excludesDirectory(childPath)) {
+                                // 剪枝：不进入该目录
+                                node.setPruned(true);
+                                node.setComplete(false);
+                            } else if (!Ancestor.contains(childAncestors, directoryKey(file, attrs))) {
+                                // 指回当前目录或祖先目录的链接不再进入
+                                subtasks.add(new WalkTask(file, fileName, childPath, childInside, childExcluded,
+                                                          previousChildren.get(fileName), childAncestors, context));
+                            }
+                        } else if ((insideFullRoot || fileName.endsWith(".java"))
+                                   && !context.filter.excludesFile(childPath)) {
+                            node.getFiles().add(new FileEntry(fileName, childPath, file.toString(),
+                                attrs.size(), attrs.lastModifiedTime().toMillis()));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        // 忽略无法访问的条目
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println("遍历目录失败: " + dir + " - " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package com.coveragetool.scanner;
 
+import com.coveragetool.git.CommitCountService;
 import com.coveragetool.model.DirectoryNode;
 import com.coveragetool.model.ProjectType;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
-
 /**
  * 项目扫描器 - 扫描Java项目结构并识别目录布局
  * 
@@ -18,6 +16,43 @@ import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
  */
 public class ProjectScanner {
     
+    /**
+     * 并行文件遍历器
+     */
+    private final ProjectFileWalker fileWalker = new ProjectFileWalker();
+    
+    /**
+     * Git索引文件枚举器
+     */
+    private final GitIndexFileLister gitIndexFileLister = new GitIndexFileLister(fileWalker);
+    
+    /**
+     * 提交计数服务
+     */
+    private final CommitCountService commitCountService = new CommitCountService();
+    
+    /**
+     * 模块探测器
+     */
+    private final ModuleDetector moduleDetector = new ModuleDetector();
+    
+    /**
+     * 扫描快照存储
+     * 为null时不保存快照，每次扫描都完整遍历
+     */
+    private volatile ScanSnapshotStore snapshotStore;
+    
+    /**
+     * 设置扫描快照的保存目录
+     * 
+     * 设置后每次扫描都会保存快照，再次扫描同一项目时只重新列出修改时间变化的目录。
+     * 
+     * @param directory 快照目录，为null时关闭快照
+     */
+    public void setSnapshotDirectory(String directory) {
+        this.snapshotStore = directory != null ? new ScanSnapshotStore(Paths.get(directory)) : null;
+    }
+    
     /**
      * 扫描项目并返回项目结构信息
      * 
@@ -28,6 +63,34 @@ public class ProjectScanner {
      * @return ProjectStructure 包含项目结构信息的对象
      */
     public ProjectStructure scan(String projectPath) {
+        return scan(projectPath, FileEnumeration.FILE_SYSTEM);
+    }
+    
+    /**
+     * 按指定的文件枚举方式扫描项目
+     * 
+     * 使用Git索引时只列出被跟踪的文件，项目不是Git仓库（或读取索引失败）时退回到遍历文件系统。
+     * 
+     * @param projectPath 项目的根目录绝对路径
+     * @param fileEnumeration 文件枚举方式，为null时遍历文件系统
+     * @return ProjectStructure 包含项目结构信息的对象
+     */
+    public ProjectStructure scan(String projectPath, FileEnumeration fileEnumeration) {
+        return scan(projectPath, fileEnumeration, PathFilter.NONE);
+    }
+    
+    /**
+     * 按指定的文件枚举方式和路径过滤器扫描项目
+     * 
+     * 被过滤器排除的目录在遍历时直接跳过，被排除的文件不进入文件索引，
+     * 因此后续分析也不会解析它们。
+     * 
+     * @param projectPath 项目的根目录绝对路径
+     * @param fileEnumeration 文件枚举方式，为null时遍历文件系统
+     * @param pathFilter 路径过滤器，为null时不过滤
+     * @return ProjectStructure 包含项目结构信息的对象
+     */
+    public ProjectStructure scan(String projectPath, FileEnumeration fileEnumeration, PathFilter pathFilter) {
         // 创建项目根目录的File对象
         File projectRoot = new File(projectPath);
         
@@ -44,28 +107,53 @@ public class ProjectScanner {
         ProjectType projectType = detectProjectType(projectRoot);
         structure.setProjectType(projectType);
         
-        // 根据项目类型检测源码目录
-        List<String> sourceDirectories = detectSourceDirectories(projectRoot, projectType);
+        // 识别多模块项目的子模块
+        List<String> modules = moduleDetector.detectModules(projectRoot, projectType);
+        structure.setModules(modules);
+        
+        // 检测各模块的源码目录
+        List<String> sourceDirectories = detectSourceDirectories(projectRoot, modules);
         structure.setSourceDirectories(sourceDirectories);
         
-        // 根据项目类型检测测试目录
-        List<String> testDirectories = detectTestDirectories(projectRoot, projectType);
+        // 检测各模块的测试目录
+        List<String> testDirectories = detectTestDirectories(projectRoot, modules);
         structure.setTestDirectories(testDirectories);
         
-        // 扫描所有Java文件
-        List<String> allJavaFiles = scanJavaFiles(projectRoot);
+        // 过滤规则需要读取项目和各模块中的.gitignore
+        PathFilter filter = pathFilter != null ? pathFilter.withGitignore(projectRoot, modules) : PathFilter.NONE;
+        structure.setPathFilter(filter);
+        
+        // 一次遍历项目目录，同时得到Java文件、目录树和文件索引所需的全部信息
+        // 遍历按目录并行展开，各模块互不等待；使用Git索引时直接从索引构建
+        Set<String> treeRoots = treeRoots(modules, sourceDirectories, testDirectories);
+        FileTreeNode fileTree = null;
+        if (fileEnumeration == FileEnumeration.GIT_INDEX) {
+            fileTree = gitIndexFileLister.list(projectRoot.toPath(), treeRoots, filter);
+        }
+        if (fileTree != null) {
+            structure.setFileEnumeration(FileEnumeration.GIT_INDEX);
+        } else {
+            fileTree = walkProject(projectRoot, treeRoots, filter);
+        }
+        ProjectFileIndex fileIndex = new ProjectFileIndex(
+            projectRoot.toPath(), fileTree, sourceDirectories, testDirectories);
+        structure.setFileIndex(fileIndex);
+        
+        // 收集所有Java文件
+        List<String> allJavaFiles = new ArrayList<>();
+        fileTree.collectJavaFiles(allJavaFiles);
         structure.setAllJavaFiles(allJavaFiles);
         
         // 构建完整目录树
-        DirectoryNode directoryTree = buildDirectoryTree(projectRoot, sourceDirectories, testDirectories);
+        DirectoryNode directoryTree = buildDirectoryTree(projectRoot, fileIndex, treeRoots);
         structure.setDirectoryTree(directoryTree);
         
-        // 构建源码目录树（仅src/main/java下的内容）
-        DirectoryNode sourceTree = buildSourceTree(projectRoot, sourceDirectories);
+        // 构建源码目录树（仅各模块src/main/java下的内容）
+        DirectoryNode sourceTree = buildSourceTree(fileIndex, sourceDirectories);
         structure.setSourceTree(sourceTree);
         
-        // 构建测试目录树（仅src/test/java下的内容）
-        DirectoryNode testTree = buildTestTree(projectRoot, testDirectories);
+        // 构建测试目录树（仅各模块src/test/java下的内容）
+        DirectoryNode testTree = buildTestTree(fileIndex, testDirectories);
         structure.setTestTree(testTree);
         
         // 检查是否为Git仓库并统计提交数量
@@ -77,54 +165,293 @@ public class ProjectScanner {
     }
     
     /**
-     * 检查项目是否为Git仓库并统计提交数量
+     * 开启监听模式
      * 
-     * 使用JGit库检查项目是否为Git仓库，并统计提交数量。
+     * 监听项目的源码和测试目录，文件变化时就地更新项目结构（文件树、文件索引和目录树），
+     * 不需要重新扫描整个项目。
      * 
-     * @param projectRoot 项目根目录
-     * @return 提交数量（如果是Git仓库），-1（如果不是Git仓库）
+     * @param structure 扫描得到的项目结构
+     * @param listener 每批变化应用后的回调，可为null
+     * @return 已启动的监听器，不再需要时调用close()停止
+     * @throws IOException 无法创建文件监听服务时抛出
      */
-    private int checkGitRepositoryAndGetCommitCount(File projectRoot) {
-        // 首先检查.git目录是否存在
-        File gitDir = new File(projectRoot, ".git");
-        if (!gitDir.exists() || !gitDir.isDirectory()) {
-            return -1;  // 不是Git仓库
+    public ProjectWatcher watch(ProjectStructure structure,
+                                java.util.function.Consumer<ProjectStructure> listener) throws IOException {
+        ProjectWatcher watcher = new ProjectWatcher(this, structure, listener);
+        watcher.start();
+        return watcher;
+    }
+    
+    /**
+     * 应用目录变化
+     * 
+     * 重新列出发生变化的目录（其子目录按修改时间判断是否复用），替换文件树中的对应节点，
+     * 并同步更新目录树中对应节点的子节点。文件索引和Java文件列表在内存中由新的文件树重建。
+     * 
+     * 文件树和目录树都按路径复制更新：从根节点到变化目录路径上的节点都换成副本，其余节点共享，
+     * 已有的节点不会被修改。正在使用旧文件索引的分析、目录树缓存中尚未替换的旧目录树
+     * 因此都不会看到更新到一半的树。
+     * 
+     * 使用Git索引枚举文件的项目不重新遍历目录（否则会列出未跟踪的文件），而是重新读取Git索引
+     * 并重建文件树和目录树。监听器不监听Git索引本身，git add之后要等监听目录中的下一次变化才会更新。
+     * 
+     * 调用方需持有structure的锁。
+     * 
+     * @param structure 项目结构
+     * @param changedDirectories 发生变化的目录（相对于项目根目录）
+     * @return 被重新遍历的目录节点（已删除的目录不包含在内）
+     */
+    List<FileTreeNode> applyChanges(ProjectStructure structure, Collection<String> changedDirectories) {
+        ProjectFileIndex fileIndex = structure.getFileIndex();
+        FileTreeNode root = fileIndex.getRoot();
+        Set<String> treeRoots = treeRoots(structure.getModules(), structure.getSourceDirectories(),
+                                          structure.getTestDirectories());
+        
+        if (structure.getFileEnumeration() == FileEnumeration.GIT_INDEX) {
+            FileTreeNode listed = gitIndexFileLister.list(
+                fileIndex.getProjectRoot(), treeRoots, structure.getPathFilter());
+            if (listed != null) {
+                return relist(structure, listed, treeRoots, changedDirectories);
+            }
         }
         
-        // 使用JGit统计提交数量
-        try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            Repository repository = builder
-                .setGitDir(gitDir)
-                .readEnvironment()
-                .findGitDir()
-                .build();
-            
-            Git git = new Git(repository);
+        // 先处理较深的目录，父目录随后重新列出时可以复用已更新的子目录
+        List<String> directories = new ArrayList<>(new LinkedHashSet<>(changedDirectories));
+        directories.sort(Comparator.comparingInt(String::length).reversed());
+        
+        List<FileTreeNode> rewalked = new ArrayList<>();
+        for (String directory : directories) {
+            List<FileTreeNode> path = findPath(root, directory);
+            if (path == null) {
+                // 新建的目录，由父目录的变化负责
+                continue;
+            }
+            FileTreeNode current = path.get(path.size() - 1);
+            FileTreeNode fresh = fileWalker.rewalk(current, treeRoots, structure.getPathFilter());
             
-            // 获取所有提交
-            Iterable<RevCommit> commits = git.log().all().call();
+            if (path.size() == 1) {
+                if (fresh != null) {
+                    root = fresh;
+                }
+            } else {
+                // 复制根节点到父目录路径上的节点
+                List<FileTreeNode> copies = new ArrayList<>();
+                for (int i = 0; i < path.size() - 1; i++) {
+                    FileTreeNode copy = copyNode(path.get(i));
+                    if (i > 0) {
+                        List<FileTreeNode> siblings = copies.get(i - 1).getDirectories();
+                        siblings.set(siblings.indexOf(path.get(i)), copy);
+                    }
+                    copies.add(copy);
+                }
+                
+                List<FileTreeNode> siblings = copies.get(copies.size() - 1).getDirectories();
+                int index = siblings.indexOf(current);
+                if (fresh != null) {
+                    siblings.set(index, fresh);
+                } else {
+                    siblings.remove(index);
+                }
+                // 更新祖先目录的完整性标记
+                for (int i = copies.size() - 1; i >= 0; i--) {
+                    updateComplete(copies.get(i));
+                }
+                root = copies.get(0);
+            }
             
-            int count = 0;
-            for (RevCommit commit : commits) {
-                count++;
-                // 限制最大统计数量，避免大型仓库耗时过长
-                if (count >= 10000) {
+            if (fresh != null) {
+                rewalked.add(fresh);
+            }
+            replaceTreeChildren(structure, directory, fresh, treeRoots.contains(directory));
+        }
+        
+        // 由更新后的文件树重建文件索引和Java文件列表（只在内存中进行）
+        ProjectFileIndex newIndex = new ProjectFileIndex(fileIndex.getProjectRoot(), root,
+            structure.getSourceDirectories(), structure.getTestDirectories());
+        List<String> allJavaFiles = new ArrayList<>();
+        root.collectJavaFiles(allJavaFiles);
+        structure.setFileIndex(newIndex);
+        structure.setAllJavaFiles(allJavaFiles);
+        
+        return rewalked;
+    }
+    
+    /**
+     * 用重新读取Git索引得到的文件树替换项目结构中的文件树和目录树
+     * 
+     * @return 变化目录在新文件树中的节点（已删除的目录不包含在内）
+     */
+    private List<FileTreeNode> relist(ProjectStructure structure, FileTreeNode root, Set<String> treeRoots,
+                                      Collection<String> changedDirectories) {
+        ProjectFileIndex fileIndex = new ProjectFileIndex(structure.getFileIndex().getProjectRoot(), root,
+            structure.getSourceDirectories(), structure.getTestDirectories());
+        List<String> allJavaFiles = new ArrayList<>();
+        root.collectJavaFiles(allJavaFiles);
+        structure.setFileIndex(fileIndex);
+        structure.setAllJavaFiles(allJavaFiles);
+        structure.setDirectoryTree(buildDirectoryTree(
+            fileIndex.getProjectRoot().toFile(), fileIndex, treeRoots));
+        structure.setSourceTree(buildSourceTree(fileIndex, structure.getSourceDirectories()));
+        structure.setTestTree(buildTestTree(fileIndex, structure.getTestDirectories()));
+        
+        List<FileTreeNode> relisted = new ArrayList<>();
+        for (String directory : new LinkedHashSet<>(changedDirectories)) {
+            List<FileTreeNode> path = findPath(root, directory);
+            if (path != null) {
+                relisted.add(path.get(path.size() - 1));
+            }
+        }
+        return relisted;
+    }
+    
+    /**
+     * 查找从根节点到指定目录的节点路径
+     * 
+     * @return 节点路径（第一个为根节点），目录不在文件树中时返回null
+     */
+    private List<FileTreeNode> findPath(FileTreeNode root, String directory) {
+        List<FileTreeNode> path = new ArrayList<>();
+        path.add(root);
+        if (directory.isEmpty()) {
+            return path;
+        }
+        FileTreeNode current = root;
+        for (String segment : directory.split("/")) {
+            FileTreeNode next = null;
+            for (FileTreeNode child : current.getDirectories()) {
+                if (child.getName().equals(segment)) {
+                    next = child;
                     break;
                 }
             }
-            
-            // 关闭资源
-            git.close();
-            repository.close();
-            
-            return count;
-            
-        } catch (Exception e) {
-            // 如果Git操作失败，仍然认为它是Git仓库，但提交数量为0
-            System.err.println("统计Git提交数量失败: " + e.getMessage());
-            return 0;
+            if (next == null) {
+                return null;
+            }
+            path.add(next);
+            current = next;
         }
+        return path;
+    }
+    
+    /**
+     * 复制目录节点（文件和子目录列表为新列表，元素共享）
+     */
+    private FileTreeNode copyNode(FileTreeNode node) {
+        FileTreeNode copy = new FileTreeNode(node.getName(), node.getRelativePath(), node.getAbsolutePath());
+        copy.setLastModified(node.getLastModified());
+        copy.setExcluded(node.isExcluded());
+        copy.setPruned(node.isPruned());
+        copy.setComplete(node.isComplete());
+        copy.getFiles().addAll(node.getFiles());
+        copy.getDirectories().addAll(node.getDirectories());
+        return copy;
+    }
+    
+    private void updateComplete(FileTreeNode node) {
+        boolean complete = !node.isPruned();
+        for (FileTreeNode child : node.getDirectories()) {
+            complete &= child.isComplete();
+        }
+        node.setComplete(complete);
+    }
+    
+    /**
+     * 替换目录树中与指定目录对应节点的子节点
+     * 
+     * 完整目录树、源码目录树和测试目录树都会更新；目录已删除时从父节点中移除。
+     * 源码/测试根目录节点与扫描时一样始终保留，只清空其子节点。
+     * 从根节点到该目录路径上的节点换成副本，新的根节点写回项目结构，原有节点不做修改。
+     */
+    private void replaceTreeChildren(ProjectStructure structure, String directory,
+                                     FileTreeNode fresh, boolean treeRoot) {
+        structure.setDirectoryTree(replaceTreeChildren(structure.getDirectoryTree(), directory, fresh, treeRoot));
+        structure.setSourceTree(replaceTreeChildren(structure.getSourceTree(), directory, fresh, treeRoot));
+        structure.setTestTree(replaceTreeChildren(structure.getTestTree(), directory, fresh, treeRoot));
+    }
+    
+    /**
+     * @return 替换后的节点，子树中不包含该目录时返回原节点
+     */
+    private DirectoryNode replaceTreeChildren(DirectoryNode node, String directory,
+                                              FileTreeNode fresh, boolean treeRoot) {
+        if (node == null) {
+            return null;
+        }
+        String key = node.getKey();
+        if (key.equals(directory) && "directory".equals(node.getType())) {
+            if (treeRoot) {
+                DirectoryNode copy = DirectoryTreeCache.copyNode(node);
+                copy.setChildren(fresh != null ? buildPackageStructure(fresh) : new ArrayList<>());
+                return copy;
+            } else if (fresh != null) {
+                DirectoryNode copy = DirectoryTreeCache.copyNode(node);
+                copy.setChildren(buildPackageStructure(fresh));
+                copy.setIsLeaf(copy.getChildren().isEmpty());
+                return copy;
+            }
+            // 已删除的目录由父节点移除
+            return node;
+        }
+        // 只进入可能包含该目录的子树
+        if (node.getChildren() == null || (!key.isEmpty() && !directory.startsWith(key + "/"))) {
+            return node;
+        }
+        List<DirectoryNode> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            DirectoryNode child = children.get(i);
+            boolean removed = fresh == null && !treeRoot
+                && child.getKey().equals(directory) && "directory".equals(child.getType());
+            DirectoryNode replaced = removed ? null : replaceTreeChildren(child, directory, fresh, treeRoot);
+            if (replaced != child) {
+                List<DirectoryNode> siblings = new ArrayList<>(children);
+                if (removed) {
+                    siblings.remove(i);
+                } else {
+                    siblings.set(i, replaced);
+                }
+                DirectoryNode copy = DirectoryTreeCache.copyNode(node);
+                copy.setChildren(siblings);
+                return copy;
+            }
+        }
+        return node;
+    }
+    
+    /**
+     * 遍历项目目录
+     * 
+     * 存在上次的扫描快照时基于快照重新验证，只重新列出修改时间变化的目录；
+     * 目录有变化（或没有可用快照）时保存新的快照。
+     * 
+     * @param projectRoot 项目根目录
+     * @param treeRoots 需要完整遍历的目录
+     * @param filter 路径过滤器，快照按过滤规则分别保存
+     * @return 文件树根节点
+     */
+    private FileTreeNode walkProject(File projectRoot, Set<String> treeRoots, PathFilter filter) {
+        ScanSnapshotStore store = snapshotStore;
+        if (store == null) {
+            return fileWalker.walk(projectRoot.toPath(), treeRoots, filter, null).getRoot();
+        }
+        
+        ScanSnapshot previous = store.load(projectRoot.toPath(), filter.getKey());
+        ScanSnapshot snapshot = fileWalker.walk(projectRoot.toPath(), treeRoots, filter, previous);
+        if (previous == null || snapshot.getListedDirectories() > 0) {
+            store.save(snapshot);
+        }
+        return snapshot.getRoot();
+    }
+    
+    /**
+     * 检查项目是否为Git仓库并统计提交数量
+     * 
+     * 由提交计数服务统计所有引用可达的提交数量，引用未变化时复用上次的结果。
+     * 
+     * @param projectRoot 项目根目录
+     * @return 提交数量（如果是Git仓库），-1（如果不是Git仓库）
+     */
+    private int checkGitRepositoryAndGetCommitCount(File projectRoot) {
+        return commitCountService.countCommits(projectRoot);
     }
     
     /**
@@ -164,218 +491,161 @@ public class ProjectScanner {
     /**
      * 检测源码目录
      * 
-     * 根据项目类型检测标准的源码目录。
+     * 检测每个模块下的标准源码目录。
      * Maven/Gradle标准结构：src/main/java
      * 
      * @param projectRoot 项目根目录
-     * @param projectType 项目类型
+     * @param modules 模块路径列表
      * @return 检测到的源码目录列表（相对路径）
      */
-    private List<String> detectSourceDirectories(File projectRoot, ProjectType projectType) {
-        List<String> sourceDirs = new ArrayList<>();
-        
-        // Maven/Gradle标准源码目录
-        File standardSourceDir = new File(projectRoot, "src/main/java");
-        if (standardSourceDir.exists() && standardSourceDir.isDirectory()) {
-            sourceDirs.add("src/main/java");
-        }
-        
-        return sourceDirs;
+    private List<String> detectSourceDirectories(File projectRoot, List<String> modules) {
+        return detectModuleDirectories(projectRoot, modules, "src/main/java");
     }
     
     /**
      * 检测测试目录
      * 
-     * 根据项目类型检测标准的测试目录。
+     * 检测每个模块下的标准测试目录。
      * Maven/Gradle标准结构：src/test/java
      * 
      * @param projectRoot 项目根目录
-     * @param projectType 项目类型
+     * @param modules 模块路径列表
      * @return 检测到的测试目录列表（相对路径）
      */
-    private List<String> detectTestDirectories(File projectRoot, ProjectType projectType) {
-        List<String> testDirs = new ArrayList<>();
-        
-        // Maven/Gradle标准测试目录
-        File standardTestDir = new File(projectRoot, "src/test/java");
-        if (standardTestDir.exists() && standardTestDir.isDirectory()) {
-            testDirs.add("src/test/java");
-        }
-        
-        return testDirs;
+    private List<String> detectTestDirectories(File projectRoot, List<String> modules) {
+        return detectModuleDirectories(projectRoot, modules, "src/test/java");
     }
     
     /**
-     * 扫描所有Java文件
-     * 
-     * 递归扫描项目中的所有.java文件。
+     * 检测各模块下存在的指定目录
      * 
      * @param projectRoot 项目根目录
-     * @return Java文件的绝对路径列表
+     * @param modules 模块路径列表
+     * @param standardDir 模块内的标准目录，如src/main/java
+     * @return 存在的目录列表（相对于项目根目录），顺序与模块顺序一致
      */
-    private List<String> scanJavaFiles(File projectRoot) {
-        List<String> javaFiles = new ArrayList<>();
-        scanJavaFilesRecursive(projectRoot, projectRoot, javaFiles);
-        return javaFiles;
+    private List<String> detectModuleDirectories(File projectRoot, List<String> modules, String standardDir) {
+        List<String> dirs = new ArrayList<>();
+        
+        for (String module : modules) {
+            String path = module.isEmpty() ? standardDir : module + "/" + standardDir;
+            File dir = new File(projectRoot, path);
+            if (dir.exists() && dir.isDirectory()) {
+                dirs.add(path);
+            }
+        }
+        
+        return dirs;
     }
     
     /**
-     * 递归扫描Java文件的辅助方法
+     * 确定需要完整遍历的目录
      * 
-     * @param currentDir 当前扫描的目录
-     * @param projectRoot 项目根目录
-     * @param javaFiles 存储Java文件路径的列表
+     * 目录树展示这些目录下的所有文件和子目录，因此遍历时不对其剪枝。
+     * 单模块项目始终包含根目录下的src/main/java和src/test/java。
+     * 
+     * @param modules 模块路径列表
+     * @param sourceDirectories 源码目录列表
+     * @param testDirectories 测试目录列表
+     * @return 需要完整遍历的目录集合
      */
-    private void scanJavaFilesRecursive(File currentDir, File projectRoot, List<String> javaFiles) {
-        if (!currentDir.exists() || !currentDir.isDirectory()) {
-            return;
-        }
-        
-        File[] files = currentDir.listFiles();
-        if (files == null) {
-            return;
-        }
-        
-        for (File file : files) {
-            if (file.isDirectory()) {
-                // 跳过隐藏目录和build目录
-                if (!file.getName().startsWith(".") && 
-                    !file.getName().equals("target") && 
-                    !file.getName().equals("build")) {
-                    scanJavaFilesRecursive(file, projectRoot, javaFiles);
-                }
-            } else if (file.getName().endsWith(".java")) {
-                // 添加Java文件的绝对路径
-                javaFiles.add(file.getAbsolutePath());
-            }
+    private Set<String> treeRoots(List<String> modules, List<String> sourceDirectories,
+                                  List<String> testDirectories) {
+        Set<String> roots = new LinkedHashSet<>();
+        if (modules.size() <= 1) {
+            roots.add("src/main/java");
+            roots.add("src/test/java");
         }
+        roots.addAll(sourceDirectories);
+        roots.addAll(testDirectories);
+        return roots;
     }
     
     /**
      * 构建完整目录树
      * 
+     * 从项目根目录出发，为每个完整遍历的目录（如src/main/java、module-a/src/test/java）
+     * 补齐中间路径上的目录节点，并在其下展开包结构。
+     * 
      * @param projectRoot 项目根目录
-     * @param sourceDirectories 源码目录列表
-     * @param testDirectories 测试目录列表
+     * @param fileIndex 文件索引
+     * @param treeRoots 需要展开的目录
      * @return 目录树的根节点
      */
-    private DirectoryNode buildDirectoryTree(File projectRoot, 
-                                              List<String> sourceDirectories, 
-                                              List<String> testDirectories) {
+    private DirectoryNode buildDirectoryTree(File projectRoot, ProjectFileIndex fileIndex,
+                                             Set<String> treeRoots) {
         // 创建根节点
-        DirectoryNode root = new DirectoryNode();
-        root.setTitle(projectRoot.getName());
-        root.setKey("");
-        root.setValue("");
-        root.setType("directory");
-        
-        // 添加src目录
-        DirectoryNode srcNode = new DirectoryNode();
-        srcNode.setTitle("src");
-        srcNode.setKey("src");
-        srcNode.setValue("src");
-        srcNode.setType("directory");
-        
-        // 添加main目录
-        DirectoryNode mainNode = new DirectoryNode();
-        mainNode.setTitle("main");
-        mainNode.setKey("src/main");
-        mainNode.setValue("src/main");
-        mainNode.setType("directory");
-        
-        // 添加java目录
-        DirectoryNode javaNode = new DirectoryNode();
-        javaNode.setTitle("java");
-        javaNode.setKey("src/main/java");
-        javaNode.setValue("src/main/java");
-        javaNode.setType("directory");
-        
-        // 构建java目录的子节点
-        List<DirectoryNode> javaChildren = buildPackageStructure(
-            new File(projectRoot, "src/main/java"), "src/main/java");
-        javaNode.setChildren(javaChildren);
-        
-        List<DirectoryNode> mainChildren = new ArrayList<>();
-        mainChildren.add(javaNode);
-        mainNode.setChildren(mainChildren);
-        
-        List<DirectoryNode> srcChildren = new ArrayList<>();
-        srcChildren.add(mainNode);
-        
-        // 添加test目录
-        DirectoryNode testNode = new DirectoryNode();
-        testNode.setTitle("test");
-        testNode.setKey("src/test");
-        testNode.setValue("src/test");
-        testNode.setType("directory");
-        
-        DirectoryNode testJavaNode = new DirectoryNode();
-        testJavaNode.setTitle("java");
-        testJavaNode.setKey("src/test/java");
-        testJavaNode.setValue("src/test/java");
-        testJavaNode.setType("directory");
-        
-        List<DirectoryNode> testJavaChildren = buildPackageStructure(
-            new File(projectRoot, "src/test/java"), "src/test/java");
-        testJavaNode.setChildren(testJavaChildren);
-        
-        List<DirectoryNode> testChildren = new ArrayList<>();
-        testChildren.add(testJavaNode);
-        testNode.setChildren(testChildren);
-        
-        srcChildren.add(testNode);
-        srcNode.setChildren(srcChildren);
-        
-        List<DirectoryNode> rootChildren = new ArrayList<>();
-        rootChildren.add(srcNode);
-        root.setChildren(rootChildren);
+        DirectoryNode root = createDirectoryNode(projectRoot.getName(), "");
+        
+        Map<String, DirectoryNode> nodesByPath = new HashMap<>();
+        nodesByPath.put("", root);
+        
+        for (String treeRoot : treeRoots) {
+            // 逐级补齐中间目录
+            DirectoryNode parent = root;
+            String path = "";
+            for (String segment : treeRoot.split("/")) {
+                path = path.isEmpty() ? segment : path + "/" + segment;
+                DirectoryNode node = nodesByPath.get(path);
+                if (node == null) {
+                    node = createDirectoryNode(segment, path);
+                    nodesByPath.put(path, node);
+                    parent.getChildren().add(node);
+                }
+                parent = node;
+            }
+            
+            // 构建目录下的包结构
+            parent.setChildren(buildPackageStructure(fileIndex.getDirectory(treeRoot)));
+        }
         
         return root;
     }
     
+    private DirectoryNode createDirectoryNode(String title, String path) {
+        DirectoryNode node = new DirectoryNode();
+        node.setTitle(title);
+        node.setKey(path);
+        node.setValue(path);
+        node.setType("directory");
+        return node;
+    }
+    
     /**
      * 构建包结构
      * 
-     * @param directory 目录
-     * @param basePath 基础路径
+     * 根据遍历得到的文件树节点生成目录树节点，目录在前、文件在后，各自按名称排序。
+     * 文件和空目录标记为叶子节点，前端据此判断节点是否需要按需加载子节点。
+     * 
+     * @param directory 文件树中的目录节点，为null表示目录不存在
      * @return 目录节点列表
      */
-    private List<DirectoryNode> buildPackageStructure(File directory, String basePath) {
+    private List<DirectoryNode> buildPackageStructure(FileTreeNode directory) {
         List<DirectoryNode> nodes = new ArrayList<>();
         
-        if (!directory.exists() || !directory.isDirectory()) {
+        if (directory == null) {
             return nodes;
         }
         
-        File[] files = directory.listFiles();
-        if (files == null) {
-            return nodes;
+        for (FileTreeNode child : directory.getDirectories()) {
+            DirectoryNode node = new DirectoryNode();
+            node.setTitle(child.getName());
+            node.setKey(child.getRelativePath());
+            node.setValue(child.getRelativePath());
+            node.setType("directory");
+            node.setChildren(buildPackageStructure(child));
+            node.setIsLeaf(node.getChildren().isEmpty());
+            nodes.add(node);
         }
         
-        // 排序：目录在前，文件在后
-        Arrays.sort(files, (a, b) -> {
-            boolean aIsDir = a.isDirectory();
-            boolean bIsDir = b.isDirectory();
-            if (aIsDir && !bIsDir) return -1;
-            if (!aIsDir && bIsDir) return 1;
-            return a.getName().compareTo(b.getName());
-        });
-        
-        for (File file : files) {
+        for (FileEntry file : directory.getFiles()) {
             DirectoryNode node = new DirectoryNode();
-            String nodePath = basePath + "/" + file.getName();
             node.setTitle(file.getName());
-            node.setKey(nodePath);
-            node.setValue(nodePath);
-            
-            if (file.isDirectory()) {
-                node.setType("directory");
-                node.setChildren(buildPackageStructure(file, nodePath));
-            } else {
-                node.setType("file");
-                node.setChildren(new ArrayList<>());
-            }
-            
+            node.setKey(file.getRelativePath());
+            node.setValue(file.getRelativePath());
+            node.setType("file");
+            node.setIsLeaf(true);
+            node.setChildren(new ArrayList<>());
             nodes.add(node);
         }
         
@@ -385,62 +655,61 @@ public class ProjectScanner {
     /**
      * 构建源码目录树
      * 
-     * @param projectRoot 项目根目录
+     * @param fileIndex 文件索引
      * @param sourceDirectories 源码目录列表
      * @return 源码目录树
      */
-    private DirectoryNode buildSourceTree(File projectRoot, List<String> sourceDirectories) {
-        if (sourceDirectories.isEmpty()) {
-            DirectoryNode empty = new DirectoryNode();
-            empty.setTitle("src/main/java");
-            empty.setKey("src/main/java");
-            empty.setValue("src/main/java");
-            empty.setType("directory");
-            empty.setChildren(new ArrayList<>());
-            return empty;
-        }
-        
-        String sourcePath = sourceDirectories.get(0);
-        File sourceDir = new File(projectRoot, sourcePath);
-        
-        DirectoryNode root = new DirectoryNode();
-        root.setTitle("src/main/java");
-        root.setKey(sourcePath);
-        root.setValue(sourcePath);
-        root.setType("directory");
-        root.setChildren(buildPackageStructure(sourceDir, sourcePath));
-        
-        return root;
+    private DirectoryNode buildSourceTree(ProjectFileIndex fileIndex, List<String> sourceDirectories) {
+        return buildRootTree(fileIndex, sourceDirectories, "src/main/java", "源码目录");
     }
     
     /**
      * 构建测试目录树
      * 
-     * @param projectRoot 项目根目录
+     * @param fileIndex 文件索引
      * @param testDirectories 测试目录列表
      * @return 测试目录树
      */
-    private DirectoryNode buildTestTree(File projectRoot, List<String> testDirectories) {
-        if (testDirectories.isEmpty()) {
-            DirectoryNode empty = new DirectoryNode();
-            empty.setTitle("src/test/java");
-            empty.setKey("src/test/java");
-            empty.setValue("src/test/java");
-            empty.setType("directory");
+    private DirectoryNode buildTestTree(ProjectFileIndex fileIndex, List<String> testDirectories) {
+        return buildRootTree(fileIndex, testDirectories, "src/test/java", "测试目录");
+    }
+    
+    /**
+     * 构建源码或测试目录树
+     * 
+     * 只有一个目录时，树根就是该目录；多模块项目有多个目录时，
+     * 树根是一个不可勾选的汇总节点，每个模块的目录作为它的子节点。
+     * 
+     * @param fileIndex 文件索引
+     * @param directories 目录列表
+     * @param standardDir 标准目录名，如src/main/java
+     * @param groupTitle 多个目录时汇总节点的标题
+     * @return 目录树
+     */
+    private DirectoryNode buildRootTree(ProjectFileIndex fileIndex, List<String> directories,
+                                        String standardDir, String groupTitle) {
+        if (directories.isEmpty()) {
+            DirectoryNode empty = createDirectoryNode(standardDir, standardDir);
             empty.setChildren(new ArrayList<>());
             return empty;
         }
         
-        String testPath = testDirectories.get(0);
-        File testDir = new File(projectRoot, testPath);
-        
-        DirectoryNode root = new DirectoryNode();
-        root.setTitle("src/test/java");
-        root.setKey(testPath);
-        root.setValue(testPath);
-        root.setType("directory");
-        root.setChildren(buildPackageStructure(testDir, testPath));
+        if (directories.size() == 1) {
+            String path = directories.get(0);
+            DirectoryNode root = createDirectoryNode(standardDir, path);
+            root.setChildren(buildPackageStructure(fileIndex.getDirectory(path)));
+            return root;
+        }
         
-        return root;
+        // 多个模块：汇总节点本身不对应真实目录，不允许勾选
+        DirectoryNode group = createDirectoryNode(groupTitle, "");
+        group.setCheckable(false);
+        group.setSelectable(false);
+        for (String path : directories) {
+            DirectoryNode moduleRoot = createDirectoryNode(path, path);
+            moduleRoot.setChildren(buildPackageStructure(fileIndex.getDirectory(path)));
+            group.getChildren().add(moduleRoot);
+        }
+        return group;
     }
 }
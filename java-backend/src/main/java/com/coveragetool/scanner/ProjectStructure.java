@@ -24,6 +24,13 @@ public class ProjectStructure {
      */
     private ProjectType projectType;
     
+    /**
+     * 模块路径列表
+     * 相对于项目根目录的路径，根目录为空字符串且总在第一位；
+     * 多模块Maven/Gradle项目还包含各子模块，如：core、service/api
+     */
+    private List<String> modules;
+    
     /**
      * 源码目录列表
      * 相对于项目根目录的路径，如：src/main/java
@@ -89,6 +96,24 @@ public class ProjectStructure {
      * 如果是Git仓库，记录提交数量
      */
     private int commitCount;
+    
+    /**
+     * 实际使用的文件枚举方式
+     * 请求使用Git索引但项目不是Git仓库时为FILE_SYSTEM
+     */
+    private FileEnumeration fileEnumeration = FileEnumeration.FILE_SYSTEM;
+    
+    /**
+     * 项目文件索引
+     * 扫描时一次遍历构建，供代码分析和Git分析复用；不参与JSON序列化
+     */
+    private transient ProjectFileIndex fileIndex;
+    
+    /**
+     * 扫描时使用的路径过滤器
+     * 监听模式局部更新时沿用；不参与JSON序列化
+     */
+    private transient PathFilter pathFilter = PathFilter.NONE;
 
     // Getter和Setter方法
     
@@ -115,6 +140,14 @@ public class ProjectStructure {
         this.projectType = projectType;
     }
 
+    public List<String> getModules() {
+        return modules;
+    }
+    
+    public void setModules(List<String> modules) {
+        this.modules = modules;
+    }
+    
     public List<String> getSourceDirectories() {
         return sourceDirectories;
     }
@@ -202,4 +235,28 @@ public class ProjectStructure {
     public void setCommitCount(int commitCount) {
         this.commitCount = commitCount;
     }
+    
+    public FileEnumeration getFileEnumeration() {
+        return fileEnumeration;
+    }
+    
+    public void setFileEnumeration(FileEnumeration fileEnumeration) {
+        this.fileEnumeration = fileEnumeration;
+    }
+    
+    public ProjectFileIndex getFileIndex() {
+        return fileIndex;
+    }
+    
+    public void setFileIndex(ProjectFileIndex fileIndex) {
+        this.fileIndex = fileIndex;
+    }
+    
+    public PathFilter getPathFilter() {
+        return pathFilter;
+    }
+    
+    public void setPathFilter(PathFilter pathFilter) {
+        this.pathFilter = pathFilter;
+    }
 }
@@ -0,0 +1,224 @@
+package com.coveragetool.scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 项目监听器 - 监听源码和测试目录的文件变化并就地更新项目结构
+ *
+ * WatchService只监听单个目录，因此源码/测试根目录下的每个子目录都单独注册，
+ * 新建的子目录在应用变化后补充注册。
+ *
+ * 事件不会逐个处理：收到第一个事件后继续收集，直到连续一段时间（防抖窗口）没有新事件，
+ * 再把这一批事件涉及的目录合并后一次性交给ProjectScanner更新。
+ * 事件溢出（OVERFLOW）时重新遍历所有监听的根目录。
+ */
+public class ProjectWatcher implements Closeable {
+
+    /**
+     * 默认防抖窗口（毫秒）
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    /**
+     * 一批事件最长的收集时间（毫秒），避免持续写入时迟迟不更新
+     */
+    private static final long MAX_BATCH_MILLIS = 5000;
+
+    private final ProjectScanner scanner;
+    private final ProjectStructure structure;
+    private final Consumer<ProjectStructure> listener;
+    private final long debounceMillis;
+
+    /**
+     * 已注册的目录
+     * Key：监听键，Value：目录相对于项目根目录的路径
+     */
+    private final Map<WatchKey, String> watchedDirectories = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public ProjectWatcher(ProjectScanner scanner, ProjectStructure structure,
+                          Consumer<ProjectStructure> listener) {
+        this(scanner, structure, listener, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public ProjectWatcher(ProjectScanner scanner, ProjectStructure structure,
+                          Consumer<ProjectStructure> listener, long debounceMillis) {
+        this.scanner = scanner;
+        this.structure = structure;
+        this.listener = listener;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * 注册所有源码/测试目录并启动监听线程
+     *
+     * @throws IOException 无法创建文件监听服务时抛出
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        synchronized (structure) {
+            for (String root : watchedRoots()) {
+                FileTreeNode node = structure.getFileIndex().getDirectory(root);
+                if (node != null) {
+                    register(node);
+                }
+            }
+        }
+
+        running = true;
+        thread = new Thread(this::run, "project-watcher-" + structure.getProjectName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止监听
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("关闭文件监听失败: " + e.getMessage());
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public ProjectStructure getStructure() {
+        return structure;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                // 等待一批事件的第一个事件
+                WatchKey key = watchService.take();
+                Set<String> changed = new LinkedHashSet<>();
+                boolean overflow = collect(key, changed);
+
+                // 防抖：直到连续debounceMillis没有新事件
+                long deadline = System.currentTimeMillis() + MAX_BATCH_MILLIS;
+                while (System.currentTimeMillis() < deadline) {
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (key == null) {
+                        break;
+                    }
+                    overflow |= collect(key, changed);
+                }
+
+                if (overflow) {
+                    changed.addAll(watchedRoots());
+                }
+                apply(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 监听已停止
+        } catch (RuntimeException e) {
+            System.err.println("文件监听异常终止: " + e.getMessage());
+            running = false;
+        }
+    }
+
+    /**
+     * 收集一个监听键上的事件
+     *
+     * @return 是否发生事件溢出
+     */
+    private boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        String directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (directory != null) {
+                // 文件增删改都只影响所在目录的列表
+                changed.add(directory);
+            }
+        }
+        if (!key.reset()) {
+            // 目录已删除或不可访问，父目录的事件会处理删除
+            watchedDirectories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void apply(Set<String> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        synchronized (structure) {
+            List<FileTreeNode> rewalked = scanner.applyChanges(structure, changed);
+            for (FileTreeNode node : rewalked) {
+                register(node);
+            }
+        }
+        if (listener != null) {
+            listener.accept(structure);
+        }
+    }
+
+    /**
+     * 注册目录及其所有子目录
+     *
+     * 同一目录重复注册时WatchService返回原有的监听键，因此无需判断是否已注册。
+     */
+    private void register(FileTreeNode node) {
+        try {
+            WatchKey key = Paths.get(node.getAbsolutePath()).register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, node.getRelativePath());
+        } catch (IOException e) {
+            System.err.println("注册文件监听失败: " + node.getAbsolutePath() + " - " + e.getMessage());
+        }
+        for (FileTreeNode child : node.getDirectories()) {
+            register(child);
+        }
+    }
+
+    /**
+     * 需要监听的根目录：所有源码目录和测试目录
+     */
+    private List<String> watchedRoots() {
+        List<String> roots = new ArrayList<>();
+        if (structure.getSourceDirectories() != null) {
+            roots.addAll(structure.getSourceDirectories());
+        }
+        if (structure.getTestDirectories() != null) {
+            roots.addAll(structure.getTestDirectories());
+        }
+        return roots;
+    }
+}
@@ -0,0 +1,82 @@
+package com.coveragetool.scanner;
+
+import java.util.Set;
+
+/**
+ * 扫描快照 - 一次目录遍历的结果及其遍历条件
+ *
+ * 再次扫描同一项目时，遍历器对比快照中记录的目录修改时间：
+ * 修改时间未变的目录直接复用快照中的目录列表，不再重新列出目录内容。
+ */
+public class ScanSnapshot {
+
+    /**
+     * 项目根目录的绝对路径
+     */
+    private final String projectPath;
+
+    /**
+     * 开始遍历的时间（毫秒）
+     * 修改时间接近该时间的目录在遍历期间可能仍在变化，下次扫描时不复用
+     */
+    private final long createdAt;
+
+    /**
+     * 遍历时完整展开的目录
+     * 只有遍历条件相同的快照才能复用
+     */
+    private final Set<String> fullRoots;
+
+    /**
+     * 遍历时使用的路径过滤规则（PathFilter.getKey()）
+     * 只有过滤规则相同的快照才能复用
+     */
+    private final String filterKey;
+
+    /**
+     * 文件树根节点
+     */
+    private final FileTreeNode root;
+
+    /**
+     * 生成快照时重新列出内容的目录数量
+     * 为0表示所有目录都复用了上次的快照，快照内容没有变化
+     */
+    private final int listedDirectories;
+
+    public ScanSnapshot(String projectPath, long createdAt, Set<String> fullRoots, String filterKey,
+                        FileTreeNode root, int listedDirectories) {
+        this.projectPath = projectPath;
+        this.createdAt = createdAt;
+        this.fullRoots = fullRoots;
+        this.filterKey = filterKey;
+        this.root = root;
+        this.listedDirectories = listedDirectories;
+    }
+
+    // Getter方法
+
+    public String getProjectPath() {
+        return projectPath;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Set<String> getFullRoots() {
+        return fullRoots;
+    }
+
+    public String getFilterKey() {
+        return filterKey;
+    }
+
+    public FileTreeNode getRoot() {
+        return root;
+    }
+
+    public int getListedDirectories() {
+        return listedDirectories;
+    }
+}
@@ -0,0 +1,236 @@
+package com.coveragetool.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 扫描快照存储 - 将扫描快照以二进制格式保存在本地目录
+ *
+ * 每个项目、每组过滤规则一个快照文件，文件名为项目路径和过滤规则的SHA-1。
+ * 文件格式（DataOutputStream）：
+ * 魔数、格式版本、项目路径、遍历时间、完整展开目录列表、过滤规则，
+ * 然后按先序依次写出每个目录：名称、修改时间、excluded、pruned、
+ * 文件列表（名称、大小、修改时间）、子目录数量及各子目录。
+ *
+ * 最近使用的快照同时保留在内存中，同一进程内重复扫描无需再读取快照文件。
+ */
+public class ScanSnapshotStore {
+
+    /**
+     * 快照文件魔数
+     */
+    private static final int MAGIC = 0x4A435353;
+
+    /**
+     * 快照格式版本，格式或遍历规则变化时递增，旧快照随之失效
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * 内存中保留的快照数量
+     */
+    private static final int MAX_CACHED_SNAPSHOTS = 4;
+
+    /**
+     * 快照文件所在目录
+     */
+    private final Path directory;
+
+    /**
+     * 最近使用的快照
+     * Key：项目根目录的绝对路径和过滤规则，Value：扫描快照
+     */
+    private final Map<String, ScanSnapshot> recentSnapshots =
+        new LinkedHashMap<String, ScanSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScanSnapshot> eldest) {
+                return size() > MAX_CACHED_SNAPSHOTS;
+            }
+        };
+
+    public ScanSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 读取项目的扫描快照
+     *
+     * @param projectRoot 项目根目录
+     * @param filterKey 路径过滤规则（PathFilter.getKey()）
+     * @return 扫描快照，不存在、版本不符或读取失败时返回null
+     */
+    public ScanSnapshot load(Path projectRoot, String filterKey) {
+        Path root = projectRoot.toAbsolutePath();
+        String cacheKey = cacheKey(root.toString(), filterKey);
+        synchronized (recentSnapshots) {
+            ScanSnapshot recent = recentSnapshots.get(cacheKey);
+            if (recent != null) {
+                return recent;
+            }
+        }
+
+        Path file = snapshotFile(cacheKey);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            String projectPath = in.readUTF();
+            if (!projectPath.equals(root.toString())) {
+                return null;
+            }
+            long createdAt = in.readLong();
+            int rootCount = in.readInt();
+            Set<String> fullRoots = new LinkedHashSet<>();
+            for (int i = 0; i < rootCount; i++) {
+                fullRoots.add(in.readUTF());
+            }
+            if (!in.readUTF().equals(filterKey)) {
+                return null;
+            }
+            FileTreeNode tree = readNode(in, in.readUTF(), "", root.toString());
+            ScanSnapshot snapshot = new ScanSnapshot(projectPath, createdAt, fullRoots, filterKey, tree, 0);
+            synchronized (recentSnapshots) {
+                recentSnapshots.put(cacheKey, snapshot);
+            }
+            return snapshot;
+        } catch (IOException e) {
+            System.err.println("读取扫描快照失败: " + file + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 保存项目的扫描快照
+     *
+     * 先写入临时文件再替换，读取方不会读到写了一半的快照。
+     *
+     * @param snapshot 扫描快照
+     */
+    public void save(ScanSnapshot snapshot) {
+        String cacheKey = cacheKey(snapshot.getProjectPath(), snapshot.getFilterKey());
+        synchronized (recentSnapshots) {
+            recentSnapshots.put(cacheKey, snapshot);
+        }
+
+        Path file = snapshotFile(cacheKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "scan-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(snapshot.getProjectPath());
+                out.writeLong(snapshot.getCreatedAt());
+                out.writeInt(snapshot.getFullRoots().size());
+                for (String fullRoot : snapshot.getFullRoots()) {
+                    out.writeUTF(fullRoot);
+                }
+                out.writeUTF(snapshot.getFilterKey());
+                writeNode(out, snapshot.getRoot());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("保存扫描快照失败: " + file + " - " + e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件删除失败不影响扫描结果
+                }
+            }
+        }
+    }
+
+    private void writeNode(DataOutputStream out, FileTreeNode node) throws IOException {
+        out.writeUTF(node.getName());
+        out.writeLong(node.getLastModified());
+        out.writeBoolean(node.isExcluded());
+        out.writeBoolean(node.isPruned());
+        out.writeInt(node.getFiles().size());
+        for (FileEntry file : node.getFiles()) {
+            out.writeUTF(file.getName());
+            out.writeLong(file.getSize());
+            out.writeLong(file.getLastModified());
+        }
+        out.writeInt(node.getDirectories().size());
+        for (FileTreeNode child : node.getDirectories()) {
+            writeNode(out, child);
+        }
+    }
+
+    private FileTreeNode readNode(DataInputStream in, String name, String relativePath,
+                                  String absolutePath) throws IOException {
+        FileTreeNode node = new FileTreeNode(name, relativePath, absolutePath);
+        node.setLastModified(in.readLong());
+        node.setExcluded(in.readBoolean());
+        node.setPruned(in.readBoolean());
+        node.setComplete(!node.isPruned());
+
+        int fileCount = in.readInt();
+        for (int i = 0; i < fileCount; i++) {
+            String fileName = in.readUTF();
+            node.getFiles().add(new FileEntry(fileName, childPath(relativePath, fileName),
+                childAbsolutePath(absolutePath, fileName), in.readLong(), in.readLong()));
+        }
+
+        int directoryCount = in.readInt();
+        for (int i = 0; i < directoryCount; i++) {
+            String childName = in.readUTF();
+            FileTreeNode child = readNode(in, childName, childPath(relativePath, childName),
+                                          childAbsolutePath(absolutePath, childName));
+            node.getDirectories().add(child);
+            if (!child.isComplete()) {
+                node.setComplete(false);
+            }
+        }
+        return node;
+    }
+
+    private static String childPath(String relativePath, String name) {
+        return relativePath.isEmpty() ? name : relativePath + "/" + name;
+    }
+
+    private static String childAbsolutePath(String absolutePath, String name) {
+        return absolutePath.endsWith(File.separator) ? absolutePath + name
+                                                     : absolutePath + File.separator + name;
+    }
+
+    private static String cacheKey(String projectPath, String filterKey) {
+        return filterKey.isEmpty() ? projectPath : projectPath + "\n" + filterKey;
+    }
+
+    private Path snapshotFile(String cacheKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(cacheKey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return directory.resolve(name + ".snapshot");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1不可用", e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ function AnalysisPage() {
   const [stage, setStage] = useState("");
   const [message1, setMessage] = useState("初始化中...");
   const [status, setStatus] = useState("running");
+  const [partial, setPartial] = useState(null);
 
   useEffect(() => {
     if (!analysisId) {
@@ -40,6 +41,9 @@ function AnalysisPage() {
         setProgress(progressData.progress);
         setStage(progressData.stage);
         setMessage(progressData.message);
+        if (progressData.matchedMethods > 0) {
+          setPartial(progressData);
+        }
         setStatus(
           progressData.stage === "COMPLETED"
             ? "completed"
@@ -82,8 +86,12 @@ function AnalysisPage() {
       SCANNING: "扫描项目",
       ANALYZING_BUSINESS: "分析业务类",
       ANALYZING_TESTS: "分析测试类",
+      RESOLVING_CALLS: "解析方法调用",
+      ANALYZING_STREAMING: "分析业务类和测试类",
+      ANALYZING_CHANGES: "分析变更的文件",
       ANALYZING_GIT: "分析Git历史",
       ANALYZING_COVERAGE: "分析覆盖率",
+      IMPORTING_COVERAGE: "导入JaCoCo覆盖率",
       GENERATING_REPORT: "生成报告",
       COMPLETED: "完成",
       ERROR: "错误",
@@ -122,6 +130,16 @@ function AnalysisPage() {
               <strong>详细信息：</strong>
               {message1}
             </p>
+            {partial && status === "running" && (
+              <p>
+                <strong>当前覆盖率：</strong>
+                {(
+                  (partial.coveredMethods / partial.matchedMethods) *
+                  100
+                ).toFixed(1)}
+                %（{partial.coveredMethods}/{partial.matchedMethods}）
+              </p>
+            )}
           </div>
 
           {status === "completed" && (
@@ -26,6 +26,8 @@ import {
   Space,
   Radio,
   Select,
+  Switch,
+  Checkbox,
 } from "antd";
 import {
   FolderOpenOutlined,
@@ -60,6 +62,17 @@ function HomePage() {
   const [testTreeData, setTestTreeData] = useState([]);
   const [sourceCheckedKeys, setSourceCheckedKeys] = useState([]);
   const [testCheckedKeys, setTestCheckedKeys] = useState([]);
+  const [watching, setWatching] = useState(false);
+  const [fileEnumeration, setFileEnumeration] = useState("FILE_SYSTEM");
+  const [includePatterns, setIncludePatterns] = useState([]);
+  const [excludePatterns, setExcludePatterns] = useState([]);
+  const [respectGitignore, setRespectGitignore] = useState(true);
+  const [analysisMode, setAnalysisMode] = useState("FULL");
+  const [streaming, setStreaming] = useState(false);
+  const [incremental, setIncremental] = useState(false);
+  const [callGraphMode, setCallGraphMode] = useState("NAME");
+  const [matchNamesAcrossClasses, setMatchNamesAcrossClasses] = useState(false);
+  const [coverageFiles, setCoverageFiles] = useState([]);
 
   // 提交扫描配置
   const [commitScanType, setCommitScanType] = useState("count"); // 'count' 或 'time'
@@ -165,6 +178,10 @@ function HomePage() {
     try {
       const selectedPath = await window.electronAPI.selectDirectory();
       if (selectedPath) {
+        if (watching && projectPath) {
+          await window.electronAPI.watchProject(projectPath, false);
+          setWatching(false);
+        }
         setProjectPath(selectedPath);
         message.success(`已选择项目：${selectedPath}`);
         setCurrentStep(1);
@@ -179,7 +196,10 @@ function HomePage() {
   const scanProject = async (path) => {
     setLoading(true);
     try {
-      const structure = await window.electronAPI.scanProject(path);
+      const structure = await window.electronAPI.scanProject(
+        path,
+        fileEnumeration
+      );
       setProjectStructure(structure);
 
       if (structure.sourceTree) {
@@ -230,6 +250,68 @@ function HomePage() {
     setSelectedTestDirs(dirs);
   };
 
+  // 将按需加载的子节点合并到目录树中
+  const updateTreeChildren = (nodes, key, children) =>
+    nodes.map((node) => {
+      if (node.key === key) {
+        return { ...node, children };
+      }
+      if (node.children) {
+        return {
+          ...node,
+          children: updateTreeChildren(node.children, key, children),
+        };
+      }
+      return node;
+    });
+
+  // 展开节点时按需加载子节点（扫描结果只包含目录树的前几层）
+  const loadTreeChildren = async (treeNode, setTreeData) => {
+    const { key, children } = treeNode;
+    if (children && children.length > 0) {
+      return;
+    }
+    try {
+      let loaded = [];
+      let offset = 0;
+      let hasMore = true;
+      while (hasMore) {
+        const page = await window.electronAPI.getProjectTree(
+          projectPath,
+          key,
+          1,
+          offset
+        );
+        loaded = loaded.concat(page.node.children || []);
+        offset += page.count;
+        hasMore = page.hasMore;
+      }
+      setTreeData((origin) => updateTreeChildren(origin, key, loaded));
+    } catch (error) {
+      message.error("加载目录失败：" + error.message);
+    }
+  };
+
+  // 开启或关闭项目监听模式
+  const handleWatchChange = async (enabled) => {
+    try {
+      const result = await window.electronAPI.watchProject(
+        projectPath,
+        enabled,
+        {
+          fileEnumeration: fileEnumeration,
+          includePatterns: includePatterns,
+          excludePatterns: excludePatterns,
+          respectGitignore: respectGitignore,
+        }
+      );
+      setWatching(result.watching);
+      message.success(result.watching ? "已开启实时监听" : "已关闭实时监听");
+    } catch (error) {
+      message.error("设置实时监听失败：" + error.message);
+    }
+  };
+
   // 根据key查找节点
   const findNodeByKey = (nodes, key) => {
     for (const node of nodes) {
@@ -259,6 +341,19 @@ function HomePage() {
         projectPath: projectPath,
         sourceDirectories: selectedSourceDirs,
         testDirectories: selectedTestDirs,
+        fileEnumeration: fileEnumeration,
+        includePatterns: includePatterns,
+        excludePatterns: excludePatterns,
+        respectGitignore: respectGitignore,
+        analysisMode: analysisMode,
+        streaming: streaming,
+        callGraphMode: callGraphMode,
+        matchNamesAcrossClasses: matchNamesAcrossClasses,
+        coverageFiles: coverageFiles,
+        // 增量分析以该项目上一次的分析为基础，基础不可用时后端自动完整分析
+        baseAnalysisId: incremental
+          ? localStorage.getItem(`lastAnalysis:${projectPath}`)
+          : null,
         gitOptions: {
           includeMergeCommits: false,
           commitScanType: commitScanType,
@@ -268,6 +363,7 @@ function HomePage() {
       };
 
       const response = await window.electronAPI.startAnalysis(analysisRequest);
+      localStorage.setItem(`lastAnalysis:${projectPath}`, response.analysisId);
       message.success("分析已启动");
       navigate(`/analysis?id=${response.analysisId}`);
     } catch (error) {
@@ -392,6 +488,20 @@ function HomePage() {
                 >
                   选择项目目录
                 </Button>
+                <div style={{ marginTop: 12 }}>
+                  <Tooltip title="直接读取Git索引，跳过未跟踪的构建输出和依赖目录；非Git项目仍遍历全部文件">
+                    <Checkbox
+                      checked={fileEnumeration === "GIT_INDEX"}
+                      onChange={(e) =>
+                        setFileEnumeration(
+                          e.target.checked ? "GIT_INDEX" : "FILE_SYSTEM"
+                        )
+                      }
+                    >
+                      仅扫描Git跟踪的文件
+                    </Checkbox>
+                  </Tooltip>
+                </div>
               </div>
             </Card>
 
@@ -516,6 +626,16 @@ function HomePage() {
                   showIcon
                 />
               )}
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="监听源码和测试目录的文件变化，再次扫描和分析时无需重新遍历项目">
+                  <Switch
+                    checked={watching}
+                    onChange={handleWatchChange}
+                    size="small"
+                  />
+                  <span style={{ marginLeft: 8 }}>实时监听文件变化</span>
+                </Tooltip>
+              </div>
             </Card>
 
             <Row gutter={16} className="directory-row">
@@ -535,6 +655,9 @@ function HomePage() {
                       checkedKeys={sourceCheckedKeys}
                       onCheck={handleSourceCheck}
                       treeData={sourceTreeData}
+                      loadData={(node) =>
+                        loadTreeChildren(node, setSourceTreeData)
+                      }
                       selectable={false}
                       style={{
                         minHeight: 300,
@@ -564,6 +687,9 @@ function HomePage() {
                       checkedKeys={testCheckedKeys}
                       onCheck={handleTestCheck}
                       treeData={testTreeData}
+                      loadData={(node) =>
+                        loadTreeChildren(node, setTestTreeData)
+                      }
                       selectable={false}
                       style={{
                         minHeight: 300,
@@ -641,6 +767,113 @@ function HomePage() {
               </Card>
             )}
 
+            <Card
+              title="分析范围"
+              className="info-card"
+              style={{ marginTop: 16 }}
+            >
+              <Row gutter={16}>
+                <Col span={12}>
+                  <div style={{ marginBottom: 8 }}>
+                    <strong>包含路径：</strong>
+                  </div>
+                  <Select
+                    mode="tags"
+                    value={includePatterns}
+                    onChange={setIncludePatterns}
+                    placeholder="如 src/main/java/com/acme/**，为空时包含全部"
+                    style={{ width: "100%" }}
+                  />
+                </Col>
+                <Col span={12}>
+                  <div style={{ marginBottom: 8 }}>
+                    <strong>排除路径：</strong>
+                  </div>
+                  <Select
+                    mode="tags"
+                    value={excludePatterns}
+                    onChange={setExcludePatterns}
+                    placeholder="如 generated-sources、src/test/resources/fixtures/"
+                    style={{ width: "100%" }}
+                  />
+                </Col>
+              </Row>
+              <Checkbox
+                checked={respectGitignore}
+                onChange={(e) => setRespectGitignore(e.target.checked)}
+                style={{ marginTop: 12 }}
+              >
+                同时排除.gitignore中忽略的路径
+              </Checkbox>
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="业务类不构建语法树，直接识别方法，结果与完整解析一致；无法识别的写法自动改用完整解析">
+                  <Checkbox
+                    checked={analysisMode === "FAST"}
+                    onChange={(e) =>
+                      setAnalysisMode(e.target.checked ? "FAST" : "FULL")
+                    }
+                  >
+                    快速分析业务类
+                  </Checkbox>
+                </Tooltip>
+              </div>
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="业务类和测试类同时解析，解析出的类立即参与覆盖率匹配，分析过程中即可看到部分结果">
+                  <Checkbox
+                    checked={streaming}
+                    onChange={(e) => setStreaming(e.target.checked)}
+                  >
+                    流式分析
+                  </Checkbox>
+                </Tooltip>
+              </div>
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="只重新解析上一次分析之后Git中有变化的文件，其余结果沿用上一次分析；分析配置不同或不是Git仓库时自动完整分析">
+                  <Checkbox
+                    checked={incremental}
+                    onChange={(e) => setIncremental(e.target.checked)}
+                  >
+                    增量分析
+                  </Checkbox>
+                </Tooltip>
+              </div>
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="近似解析和精确解析按测试方法实际调用的业务方法判断覆盖，其他测试类中的调用同样计入；近似解析速度接近普通解析，精确解析使用符号解析，较慢；解析调用时不再流式分析">
+                  <span style={{ marginRight: 8 }}>覆盖匹配：</span>
+                  <Radio.Group
+                    value={callGraphMode}
+                    onChange={(e) => setCallGraphMode(e.target.value)}
+                  >
+                    <Radio.Button value="NAME">方法名匹配</Radio.Button>
+                    <Radio.Button value="APPROXIMATE">近似解析</Radio.Button>
+                    <Radio.Button value="PRECISE">精确解析</Radio.Button>
+                  </Radio.Group>
+                </Tooltip>
+              </div>
+              <div style={{ marginTop: 8 }}>
+                <Tooltip title="其他测试类引用了业务类、且测试方法调用或名称提及业务方法时也视为覆盖；只作用于未解析调用的测试方法，覆盖率可能比只按对应测试类匹配时高">
+                  <Checkbox
+                    checked={matchNamesAcrossClasses}
+                    onChange={(e) => setMatchNamesAcrossClasses(e.target.checked)}
+                  >
+                    按名称跨测试类匹配
+                  </Checkbox>
+                </Tooltip>
+              </div>
+              <div style={{ marginTop: 12 }}>
+                <div style={{ marginBottom: 8 }}>
+                  <strong>JaCoCo覆盖率文件：</strong>
+                </div>
+                <Select
+                  mode="tags"
+                  value={coverageFiles}
+                  onChange={setCoverageFiles}
+                  placeholder="如 target/site/jacoco/jacoco.xml、target/jacoco.exec，为空时只按测试代码推断覆盖"
+                  style={{ width: "100%" }}
+                />
+              </div>
+            </Card>
+
             <div className="action-buttons">
               <Button size="large" onClick={() => setCurrentStep(0)}>
                 重新选择项目
@@ -365,6 +365,49 @@ function ReportPage() {
           />
         </Col>
       </Row>
+      {coverageReport.measuredCoverage && (
+        <Row gutter={16} style={{ marginTop: 16 }}>
+          <Col span={6}>
+            <Statistic
+              title="实测行覆盖率"
+              value={coverageReport.measuredCoverage.lineCoverage.toFixed(2)}
+              suffix="%"
+              valueStyle={{ color: "#3f8600" }}
+            />
+            <Progress
+              percent={coverageReport.measuredCoverage.lineCoverage}
+              showInfo={false}
+            />
+          </Col>
+          <Col span={6}>
+            <Statistic
+              title="实测分支覆盖率"
+              value={coverageReport.measuredCoverage.branchCoverage.toFixed(2)}
+              suffix="%"
+            />
+          </Col>
+          <Col span={6}>
+            <Statistic
+              title="已执行行数"
+              value={coverageReport.measuredCoverage.coveredLines}
+              suffix={`/ ${
+                coverageReport.measuredCoverage.coveredLines +
+                coverageReport.measuredCoverage.missedLines
+              }`}
+            />
+          </Col>
+          <Col span={6}>
+            <Statistic
+              title="已执行方法"
+              value={coverageReport.measuredCoverage.coveredMethods}
+              suffix={`/ ${
+                coverageReport.measuredCoverage.coveredMethods +
+                coverageReport.measuredCoverage.missedMethods
+              }`}
+            />
+          </Col>
+        </Row>
+      )}
     </Card>
   );
 